@@ -0,0 +1,125 @@
+package benchmark;
+
+import ast.Names;
+import ast.Program;
+import interpreter.Interpreter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import optimizer.ConstantFolder;
+import optimizer.DeadCodeEliminator;
+import optimizer.DeadStoreEliminator;
+import optimizer.Inliner;
+import optimizer.LoopInvariantHoister;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import semantic.Resolver;
+import semantic.SemanticAnalyzer;
+import semantic.SymbolTable;
+
+// Aufrufkosten im Tree-Walker: ein Durchlauf von main pro Operation. Mit -prof gc (Standard im
+// Task jmh) zeigt gc.alloc.rate.norm die Bytes pro Durchlauf; geteilt durch die Zahl der Aufrufe
+// ergibt das die Allokation pro Aufruf.
+// fib: 21891 rekursive Aufrufe, unverändert; Ergebnisse über 127 liegen nicht im Cache von
+// Integer.valueOf, ihr Boxing gehört zu den gemessenen Kosten. methods: je 10000 Methodenaufrufe
+// mit zwei Argumenten und Aufrufe mit zwei Referenz-Parametern, dazu ein Konstruktor und zwei
+// Getter; seine int-Werte bleiben zwischen -128 und 127. loop ist die Referenz dafür: die
+// Schleifen von methods ohne Aufrufe.
+// optimize: die Optimierungen wie in Main ohne --no-opt (Standard); ohne sie bleiben die kleinen
+// Methoden Aufrufe, die der Inliner sonst einsetzt.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallBenchmark {
+  private static final String LOOP =
+      "int j = 0; while (j < 100) { int i = 0; while (i < 100) { %s i = i + 1; } j = j + 1; }";
+
+  private static final Map<String, String> PROGRAMS =
+      Map.of(
+          "fib",
+          "int fib(int n) { if (n < 2) { return n; } return fib(n - 1) + fib(n - 2); }\n"
+              + "int main() { return fib(20); }",
+          "methods",
+          "class Point { public: int x; int y; Point(int px, int py) { x = px; y = py; }"
+              + " int getX() { return x; } int getY() { return y; }"
+              + " void move(int dx, int dy) { x = x + dx; y = y - dy; } };\n"
+              + "void swap(int& a, int& b) { int t = a; a = b; b = t; }\n"
+              + "int main() { Point p = Point(0, 100); int a = 1; int b = 2; "
+              + LOOP.formatted("p.move(1, 1); p.move(-1, -1); swap(a, b);")
+              + " return p.getX() + p.getY() + a; }",
+          "loop",
+          "int main() { int a = 1; int b = 2; "
+              + LOOP.formatted("int t = a; a = b; b = t;")
+              + " return a; }");
+
+  @Param({"fib", "methods", "loop"})
+  public String workload;
+
+  @Param({"true", "false"})
+  public boolean optimize;
+
+  private Program program;
+  private Interpreter interpreter;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    SymbolTable symbolTable = new SymbolTable();
+    program = parse(PROGRAMS.get(workload), symbolTable.getNames());
+    new SemanticAnalyzer(symbolTable).analyze(program);
+    if (optimize) {
+      new ConstantFolder().fold(program);
+      new DeadCodeEliminator(symbolTable).eliminate(program);
+    }
+    new Resolver(symbolTable).resolve(program);
+    if (optimize) {
+      new Inliner().inline(program);
+      new ConstantFolder().fold(program);
+      new LoopInvariantHoister().hoist(program);
+      new DeadStoreEliminator().eliminate(program);
+    }
+    interpreter = new Interpreter(symbolTable);
+  }
+
+  @Benchmark
+  public Object run() {
+    return interpreter.execute(program);
+  }
+
+  // Lexer, Parser und ASTBuilder liegen im Default-Paket; JMH verlangt für Benchmarks ein Paket,
+  // von dort sind sie nur über Reflection erreichbar
+  private static Program parse(String code, Names names) throws ReflectiveOperationException {
+    Lexer lexer =
+        (Lexer)
+            Class.forName("MiniCppLexer")
+                .getConstructor(org.antlr.v4.runtime.CharStream.class)
+                .newInstance(CharStreams.fromString(code));
+    Parser parser =
+        (Parser)
+            Class.forName("MiniCppParser")
+                .getConstructor(TokenStream.class)
+                .newInstance(new CommonTokenStream(lexer));
+    ParseTree tree = (ParseTree) parser.getClass().getMethod("program").invoke(parser);
+    ParseTreeVisitor<?> builder =
+        (ParseTreeVisitor<?>)
+            Class.forName("ASTBuilder").getConstructor(Names.class).newInstance(names);
+    return (Program) builder.visit(tree);
+  }
+}
@@ -96,6 +96,8 @@ statement
     | 'if' '(' expression ')' statement ('else' statement)?     # ifStmt         // Bedingung
     | 'while' '(' expression ')' statement                      # whileStmt      // Schleife
     | 'return' expression? ';'                                  # returnStmt     // Rückgabe
+    | 'break' ';'                                               # breakStmt      // Schleife verlassen
+    | 'continue' ';'                                            # continueStmt   // nächster Durchlauf
     | expression ';'                                            # exprStmt       // Ausdruck als Statement
     | ';'                                                       # emptyStmt      // leeres Statement
     ;
@@ -6,6 +6,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
+  // Namenstabelle der Sitzung, vergibt die Nummern aller Bezeichner im AST
+  private final Names names;
+
+  public ASTBuilder(Names names) {
+    this.names = names;
+  }
 
   // ========================================================================
   // Program
@@ -24,7 +30,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
       functions.add((FunctionDecl) visit(funcCtx));
     }
 
-    return new Program(classes, functions);
+    return new Program(classes, functions, names);
   }
 
   // ========================================================================
@@ -55,14 +61,14 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
       }
     }
 
-    return new ClassDecl(name, baseClass, fields, methods, constructors);
+    return new ClassDecl(name, names.id(name), baseClass, fields, methods, constructors);
   }
 
   @Override
   public ASTNode visitFieldDecl(MiniCppParser.FieldDeclContext ctx) {
     Type type = buildType(ctx.type(), false);
     String name = ctx.IDENTIFIER().getText();
-    return new FieldDecl(type, name);
+    return new FieldDecl(type, name, names.id(name));
   }
 
   @Override
@@ -73,7 +79,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
     List<Parameter> params = buildParameters(ctx.paramList());
     BlockStmt body = (BlockStmt) visit(ctx.block());
 
-    return new MethodDecl(name, returnType, params, body, isVirtual);
+    return new MethodDecl(name, names.id(name), returnType, params, body, isVirtual);
   }
 
   @Override
@@ -96,7 +102,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
     List<Parameter> params = buildParameters(ctx.paramList());
     BlockStmt body = (BlockStmt) visit(ctx.block());
 
-    return new FunctionDecl(name, returnType, params, body);
+    return new FunctionDecl(name, names.id(name), returnType, params, body);
   }
 
   // ========================================================================
@@ -136,7 +142,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
       init = (Expression) visit(ctx.expression());
     }
 
-    return new VarDeclStmt(type, name, init);
+    return new VarDeclStmt(type, name, names.id(name), init);
   }
 
   @Override
@@ -168,6 +174,16 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
     return new ReturnStmt(value);
   }
 
+  @Override
+  public ASTNode visitBreakStmt(MiniCppParser.BreakStmtContext ctx) {
+    return new BreakStmt();
+  }
+
+  @Override
+  public ASTNode visitContinueStmt(MiniCppParser.ContinueStmtContext ctx) {
+    return new ContinueStmt();
+  }
+
   @Override
   public ASTNode visitExprStmt(MiniCppParser.ExprStmtContext ctx) {
     Expression expr = (Expression) visit(ctx.expression());
@@ -362,10 +378,10 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
           args.add((Expression) visit(argCtx));
         }
       }
-      return new MethodCallExpr(expr, memberName, args);
+      return new MethodCallExpr(expr, memberName, names.id(memberName), args);
     } else {
       // Feldzugriff: obj.field
-      return new MemberAccessExpr(expr, memberName);
+      return new MemberAccessExpr(expr, memberName, names.id(memberName));
     }
   }
 
@@ -389,12 +405,13 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
       }
     }
 
-    return new FunctionCallExpr(funcName, args);
+    return new FunctionCallExpr(funcName, names.id(funcName), args);
   }
 
   @Override
   public ASTNode visitIdentifierExpr(MiniCppParser.IdentifierExprContext ctx) {
-    return new IdentifierExpr(ctx.IDENTIFIER().getText());
+    String name = ctx.IDENTIFIER().getText();
+    return new IdentifierExpr(name, names.id(name));
   }
 
   @Override
@@ -438,7 +455,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
         boolean isRef = paramCtx.getChildCount() > 2;
         Type type = buildType(paramCtx.type(), isRef);
         String name = paramCtx.IDENTIFIER().getText();
-        params.add(new Parameter(type, name));
+        params.add(new Parameter(type, name, names.id(name)));
       }
     }
     return params;
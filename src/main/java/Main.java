@@ -2,25 +2,107 @@ import ast.*;
 import ast.decl.*;
 import ast.stmt.*;
 import interpreter.*;
+import ir.IrInterpreter;
 import java.io.*;
 import java.nio.file.*;
 import java.util.Scanner;
+import jit.JitInterpreter;
+import optimizer.ConstantFolder;
+import optimizer.DeadCodeEliminator;
+import optimizer.DeadStoreEliminator;
+import optimizer.Inliner;
+import optimizer.LoopInvariantHoister;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.*;
 import semantic.*;
+import vm.VM;
 
 public class Main {
   // Persistente SymbolTable für Sitzungs-Scope
   private static SymbolTable symbolTable = new SymbolTable();
 
+  // Ausführungsart: "tree" (Referenz-Interpreter), "closure", "vm", "jit", "tiered" oder "ir"
+  private static String engine = "tree";
+
+  // Bytecode vor der Ausführung ausgeben (nur "vm")
+  private static boolean disassemble = false;
+
+  // SSA-Form vor der Ausführung ausgeben (nur "ir")
+  private static boolean printIr = false;
+
+  // Übersetzte und abgelehnte Funktionen melden (nur "jit")
+  private static boolean jitLog = false;
+
+  // Aufrufe, ab denen eine Funktion übersetzt wird (nur "jit"), null = Standardwert
+  private static Integer jitThreshold = null;
+
+  // Spezialisierte und deoptimierte Knoten melden (nur "closure")
+  private static boolean nodeStats = false;
+
+  // Bindung und Aufrufzahl der Methodenaufrufe nach der Ausführung melden (alle Ausführungsarten)
+  private static boolean callStats = false;
+
+  // Schwellen und Protokoll der gestuften Ausführung (nur "tiered"), null = Standardwert
+  private static Integer tierCallThreshold = null;
+  private static Integer tierLoopThreshold = null;
+  private static boolean tierLog = false;
+
+  // AST zwischen Analyse und Ausführung optimieren (Konstantenfaltung, toter Code, Einsetzen,
+  // Schleifen)
+  private static boolean optimize = true;
+
+  // Größte Rumpfgröße in AST-Knoten, die an Aufrufstellen eingesetzt wird (0 = nie), und
+  // Protokoll der eingesetzten und abgelehnten Aufrufstellen
+  private static int inlineThreshold = Inliner.DEFAULT_THRESHOLD;
+  private static boolean inlineLog = false;
+
+  // Speicher für Aufrufstacks in MB (Tree-Walker, "jit", "tiered"), null = Standardwert
+  private static Long stackBudget = null;
+
   public static void main(String[] args) {
     Scanner scanner = new Scanner(System.in);
 
+    // Optionen auswerten, z.B. --engine=closure
+    String file = null;
+    for (String arg : args) {
+      if (arg.startsWith("--engine=")) {
+        engine = arg.substring("--engine=".length());
+      } else if (arg.equals("--disassemble")) {
+        disassemble = true;
+      } else if (arg.equals("--ir")) {
+        printIr = true;
+      } else if (arg.equals("--jit-log")) {
+        jitLog = true;
+      } else if (arg.startsWith("--jit-threshold=")) {
+        jitThreshold = Integer.parseInt(arg.substring("--jit-threshold=".length()));
+      } else if (arg.equals("--node-stats")) {
+        nodeStats = true;
+      } else if (arg.equals("--call-stats")) {
+        callStats = true;
+      } else if (arg.startsWith("--tier-call-threshold=")) {
+        tierCallThreshold = Integer.parseInt(arg.substring("--tier-call-threshold=".length()));
+      } else if (arg.startsWith("--tier-loop-threshold=")) {
+        tierLoopThreshold = Integer.parseInt(arg.substring("--tier-loop-threshold=".length()));
+      } else if (arg.equals("--tier-log")) {
+        tierLog = true;
+      } else if (arg.startsWith("--inline-threshold=")) {
+        inlineThreshold = Integer.parseInt(arg.substring("--inline-threshold=".length()));
+      } else if (arg.equals("--inline-log")) {
+        inlineLog = true;
+      } else if (arg.equals("--no-opt")) {
+        optimize = false;
+      } else if (arg.startsWith("--stack-budget=")) {
+        stackBudget = Long.parseLong(arg.substring("--stack-budget=".length()));
+      } else {
+        file = arg;
+      }
+    }
+
     // Optional: Datei beim Start laden
-    if (args.length > 0) {
+    if (file != null) {
       try {
-        String code = Files.readString(Path.of(args[0]));
-        System.out.println("Lade Datei: " + args[0]);
+        String code = Files.readString(Path.of(file));
+        System.out.println("Lade Datei: " + file);
         parseAndRun(code, false);
       } catch (IOException e) {
         System.err.println("Fehler beim Laden: " + e.getMessage());
@@ -121,7 +203,8 @@ public class Main {
         return;
       }
 
-      ASTBuilder builder = new ASTBuilder();
+      // Namensnummern aus der Tabelle der Sitzung, damit sie zu früheren Eingaben passen
+      ASTBuilder builder = new ASTBuilder(symbolTable.getNames());
       Program program = (Program) builder.visit(tree);
 
       printAST(program);
@@ -130,9 +213,42 @@ public class Main {
       SemanticAnalyzer analyzer = new SemanticAnalyzer(symbolTable);
       analyzer.analyze(program);
 
+      // Konstanten falten, dann unerreichbaren Code und Deklarationen entfernen
+      if (optimize) {
+        new ConstantFolder().fold(program);
+        new DeadCodeEliminator(symbolTable).eliminate(program);
+      }
+
+      // Variablen auf feste Frame-Slots abbilden
+      new Resolver(symbolTable).resolve(program);
+
+      // Kleine Funktionen einsetzen, invariante Ausdrücke vor Schleifen ziehen, tote Zuweisungen
+      // entfernen (brauchen die Slots)
+      if (optimize) {
+        Inliner inliner = new Inliner(inlineThreshold);
+        inliner.inline(program);
+        if (inlineLog) {
+          System.err.print(inliner.getReport());
+        }
+        new ConstantFolder().fold(program);
+        new LoopInvariantHoister().hoist(program);
+        new DeadStoreEliminator().eliminate(program);
+      }
+
       // Interpreter mit gleicher SymbolTable
-      Interpreter interpreter = new Interpreter(symbolTable);
-      interpreter.execute(program);
+      Engine interpreter = createEngine();
+      if (stackBudget != null && interpreter instanceof Interpreter) {
+        ((Interpreter) interpreter).setStackBudget(stackBudget * 1024 * 1024);
+      } else if (stackBudget != null && interpreter instanceof ClosureCompiler) {
+        ((ClosureCompiler) interpreter).setStackBudget(stackBudget * 1024 * 1024);
+      }
+      try {
+        interpreter.execute(program);
+      } finally {
+        if (callStats) {
+          System.err.print(CallSiteStats.report(program));
+        }
+      }
 
     } catch (Exception e) {
       System.err.println("Fehler: " + e.getMessage());
@@ -140,6 +256,45 @@ public class Main {
     }
   }
 
+  private static Engine createEngine() {
+    switch (engine) {
+      case "tree":
+        return new Interpreter(symbolTable);
+      case "closure":
+        ClosureCompiler closure = new ClosureCompiler(symbolTable);
+        closure.setNodeStats(nodeStats);
+        return closure;
+      case "vm":
+        VM vm = new VM(symbolTable);
+        vm.setDisassemble(disassemble);
+        return vm;
+      case "tiered":
+        TieredInterpreter tiered = new TieredInterpreter(symbolTable);
+        if (tierCallThreshold != null) {
+          tiered.setCallThreshold(tierCallThreshold);
+        }
+        if (tierLoopThreshold != null) {
+          tiered.setLoopThreshold(tierLoopThreshold);
+        }
+        tiered.setLog(tierLog);
+        return tiered;
+      case "jit":
+        JitInterpreter jit = new JitInterpreter(symbolTable);
+        if (jitThreshold != null) {
+          jit.setCallThreshold(jitThreshold);
+        }
+        jit.setLog(jitLog);
+        return jit;
+      case "ir":
+        IrInterpreter ir = new IrInterpreter(symbolTable);
+        ir.setOptimize(optimize);
+        ir.setPrint(printIr);
+        return ir;
+      default:
+        throw new IllegalArgumentException("Unbekannte Ausführungsart: " + engine);
+    }
+  }
+
   private static void printAST(Program program) {
     System.out.println("\n=== AST ===");
     for (ClassDecl cls : program.getClasses()) {
@@ -198,6 +353,10 @@ public class Main {
                 + (v.hasInitializer() ? " = ..." : ""));
       } else if (stmt instanceof ReturnStmt) {
         System.out.println(indent + "Return" + (((ReturnStmt) stmt).hasValue() ? " ..." : ""));
+      } else if (stmt instanceof BreakStmt) {
+        System.out.println(indent + "Break");
+      } else if (stmt instanceof ContinueStmt) {
+        System.out.println(indent + "Continue");
       } else if (stmt instanceof IfStmt) {
         IfStmt i = (IfStmt) stmt;
         System.out.println(indent + "If (...)");
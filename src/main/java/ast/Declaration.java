@@ -2,12 +2,19 @@ package ast;
 
 public abstract class Declaration extends ASTNode {
   protected String name;
+  protected final int nameId;
 
-  public Declaration(String name) {
+  public Declaration(String name, int nameId) {
     this.name = name;
+    this.nameId = nameId;
   }
 
   public String getName() {
     return name;
   }
+
+  // Nummer des Namens in Names
+  public int getNameId() {
+    return nameId;
+  }
 }
@@ -2,4 +2,14 @@ package ast;
 
 public abstract class Expression extends ASTNode {
   // Basisklasse für alle Ausdrücke
+
+  private Type staticType; // von der semantischen Analyse gesetzt, null vorher
+
+  public Type getStaticType() {
+    return staticType;
+  }
+
+  public void setStaticType(Type staticType) {
+    this.staticType = staticType;
+  }
 }
@@ -0,0 +1,62 @@
+package ast;
+
+import ast.decl.FieldDecl;
+import java.util.ArrayList;
+import java.util.List;
+
+// Feste Anordnung der Felder einer Klasse: geerbte Felder zuerst, danach die eigenen. Jeder Name
+// hat genau einen Slot, ein gleichnamiges Feld der abgeleiteten Klasse übernimmt den Slot aus der
+// Basisklasse. Ein Feld liegt damit in allen abgeleiteten Klassen im selben Slot.
+// Wird vom Resolver einmal pro Klasse berechnet, Objekte speichern ihre Felder als Array.
+public class FieldLayout {
+  private final List<String> names = new ArrayList<>();
+  private final List<Type> types = new ArrayList<>();
+  private final IntMap<Integer> slots; // Namensnummer -> Slot
+  private Object[] defaultValues; // Startbelegung, beim ersten Objekt der Klasse berechnet
+
+  public FieldLayout(FieldLayout base, List<FieldDecl> fields) {
+    if (base != null) {
+      names.addAll(base.names);
+      types.addAll(base.types);
+      slots = new IntMap<>(base.slots);
+    } else {
+      slots = new IntMap<>();
+    }
+    for (FieldDecl field : fields) {
+      Integer slot = slots.get(field.getNameId());
+      if (slot != null) {
+        types.set(slot, field.getType());
+      } else {
+        slots.put(field.getNameId(), names.size());
+        names.add(field.getName());
+        types.add(field.getType());
+      }
+    }
+  }
+
+  public int size() {
+    return names.size();
+  }
+
+  public String getName(int slot) {
+    return names.get(slot);
+  }
+
+  public Type getType(int slot) {
+    return types.get(slot);
+  }
+
+  // Slot des Felds mit der Namensnummer (Names), -1 wenn die Klasse es nicht hat
+  public int slotOf(int nameId) {
+    Integer slot = slots.get(nameId);
+    return slot != null ? slot : -1;
+  }
+
+  public Object[] getDefaultValues() {
+    return defaultValues;
+  }
+
+  public void setDefaultValues(Object[] defaultValues) {
+    this.defaultValues = defaultValues;
+  }
+}
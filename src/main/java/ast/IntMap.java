@@ -0,0 +1,126 @@
+package ast;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Map von nicht negativen int-Schlüsseln (Namensnummern aus Names) auf Werte, offene Adressierung
+// mit linearer Sondierung. Schlüssel und Werte liegen in zwei Arrays, ohne Boxing und ohne
+// Eintragsobjekte; die Tabelle ist höchstens halb voll. Entfernen gibt es nicht.
+public final class IntMap<V> {
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  public IntMap() {
+    this(8);
+  }
+
+  private IntMap(int capacity) {
+    keys = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    values = new Object[capacity];
+  }
+
+  // Kopie, z.B. um die Tabelle einer Basisklasse zu erweitern
+  public IntMap(IntMap<V> other) {
+    keys = other.keys.clone();
+    values = other.values.clone();
+    size = other.size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int mask = keys.length - 1;
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      int k = keys[i];
+      if (k == key) {
+        return (V) values[i];
+      }
+      if (k == EMPTY) {
+        return null;
+      }
+    }
+  }
+
+  public boolean containsKey(int key) {
+    int mask = keys.length - 1;
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      int k = keys[i];
+      if (k == key) {
+        return true;
+      }
+      if (k == EMPTY) {
+        return false;
+      }
+    }
+  }
+
+  public void put(int key, V value) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Negativer Schlüssel: " + key);
+    }
+    int mask = keys.length - 1;
+    int i = hash(key) & mask;
+    while (keys[i] != EMPTY && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    if (keys[i] == EMPTY) {
+      if (2 * (size + 1) > keys.length) {
+        grow();
+        put(key, value);
+        return;
+      }
+      keys[i] = key;
+      size++;
+    }
+    values[i] = value;
+  }
+
+  // Alle Werte, in keiner bestimmten Reihenfolge
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<V> action) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        action.accept((V) values[i]);
+      }
+    }
+  }
+
+  // Alle Schlüssel, in keiner bestimmten Reihenfolge
+  public int[] keys() {
+    int[] result = new int[size];
+    int n = 0;
+    for (int key : keys) {
+      if (key != EMPTY) {
+        result[n++] = key;
+      }
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void grow() {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    Arrays.fill(keys, EMPTY);
+    values = new Object[keys.length];
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], (V) oldValues[i]);
+      }
+    }
+  }
+
+  // Namensnummern sind dicht; die Streuung verteilt aufeinander folgende Nummern trotzdem
+  private static int hash(int key) {
+    return key * 0x9E3779B9 >>> 16 ^ key;
+  }
+}
@@ -0,0 +1,47 @@
+package ast;
+
+// Lokale Variable (Parameter oder Deklaration) mit festem Slot im Frame ihrer Funktion.
+// Wird vom Resolver vergeben, alle Engines legen ihre Frames nach diesen Slots an.
+public class LocalVariable {
+  private final String name;
+  private final Type type;
+  private final int slot;
+  private final boolean reference; // Slot enthält das Symbol des Originals
+  private boolean addressTaken; // eine Referenz zeigt hierher -> Slot enthält ein eigenes Symbol
+
+  public LocalVariable(String name, Type type, int slot, boolean reference) {
+    this.name = name;
+    this.type = type;
+    this.slot = slot;
+    this.reference = reference;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public boolean isReference() {
+    return reference;
+  }
+
+  public boolean isAddressTaken() {
+    return addressTaken;
+  }
+
+  public void setAddressTaken(boolean addressTaken) {
+    this.addressTaken = addressTaken;
+  }
+
+  // Slot enthält ein Symbol statt des Werts
+  public boolean isCell() {
+    return reference || addressTaken;
+  }
+}
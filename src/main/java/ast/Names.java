@@ -0,0 +1,38 @@
+package ast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Namenstabelle: jeder Bezeichner bekommt beim ersten Auftreten eine fortlaufende Nummer, die
+// Knoten des AST tragen sie neben dem Namen. Symboltabellen, Feldanordnungen und vtables suchen
+// danach über IntMaps, ein String wird nur hier einmal gehasht.
+// Eine Tabelle gehört zur Sitzung einer SymbolTable: der ASTBuilder vergibt die Nummern, Analyse
+// und Optimierer legen neue Knoten über dieselbe Tabelle an. So bekommen auch spätere Eingaben der
+// REPL für denselben Namen dieselbe Nummer; ein Zurücksetzen der REPL beginnt eine neue Tabelle.
+public final class Names {
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  // Nummer des Namens, neu vergeben beim ersten Mal
+  public int id(String name) {
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+    }
+    return id;
+  }
+
+  // Nummer des Namens, -1 wenn er noch nie vorkam
+  public int find(String name) {
+    Integer id = ids.get(name);
+    return id != null ? id : -1;
+  }
+
+  public String name(int id) {
+    return names.get(id);
+  }
+}
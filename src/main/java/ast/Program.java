@@ -7,10 +7,12 @@ import java.util.List;
 public class Program extends ASTNode {
   private List<ClassDecl> classes;
   private List<FunctionDecl> functions;
+  private final Names names; // Tabelle, aus der die Namensnummern der Knoten stammen
 
-  public Program(List<ClassDecl> classes, List<FunctionDecl> functions) {
+  public Program(List<ClassDecl> classes, List<FunctionDecl> functions, Names names) {
     this.classes = classes;
     this.functions = functions;
+    this.names = names;
   }
 
   public List<ClassDecl> getClasses() {
@@ -21,6 +23,10 @@ public class Program extends ASTNode {
     return functions;
   }
 
+  public Names getNames() {
+    return names;
+  }
+
   public FunctionDecl getMainFunction() {
     for (FunctionDecl func : functions) {
       if (func.getName().equals("main")) {
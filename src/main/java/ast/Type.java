@@ -29,6 +29,11 @@ public class Type extends ASTNode {
         || typeName.equals("void");
   }
 
+  // int, bool und char: zur Laufzeit ineinander konvertierbar, ohne Boxing darstellbar
+  public boolean isScalar() {
+    return typeName.equals("int") || typeName.equals("bool") || typeName.equals("char");
+  }
+
   @Override
   public String toString() {
     return typeName + (isReference ? "&" : "");
@@ -0,0 +1,97 @@
+package ast;
+
+import ast.decl.MethodDecl;
+import ast.decl.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Methodentabelle einer Klasse: ein Slot pro Name und Parametertypen, geerbte Methoden zuerst.
+// Eine Methode der abgeleiteten Klasse mit gleichem Namen und gleichen Parametertypen übernimmt
+// den Slot der Basisklasse, Überladungen mit anderen Typen bekommen eigene Slots. Virtuell ist ein
+// Slot, wenn die Methode selbst oder eine überschriebene Methode einer Basisklasse virtual ist
+// (wie in C++).
+// Wird vom Resolver einmal pro Klasse berechnet. Ein virtueller Aufruf ist damit ein Zugriff auf
+// den Slot in der Tabelle der Laufzeitklasse.
+public class VTable {
+  private final List<MethodDecl> methods = new ArrayList<>();
+  private final List<Boolean> virtual = new ArrayList<>();
+  // Namensnummer -> Slots der Methoden mit diesem Namen
+  private final IntMap<int[]> slots = new IntMap<>();
+
+  public VTable(VTable base, List<MethodDecl> declared) {
+    if (base != null) {
+      methods.addAll(base.methods);
+      virtual.addAll(base.virtual);
+      for (int nameId : base.slots.keys()) {
+        slots.put(nameId, base.slots.get(nameId));
+      }
+    }
+    for (MethodDecl method : declared) {
+      int slot = slotOf(method);
+      if (slot >= 0) {
+        methods.set(slot, method);
+        virtual.set(slot, virtual.get(slot) || method.isVirtual());
+      } else {
+        addSlot(method.getNameId(), methods.size());
+        methods.add(method);
+        virtual.add(method.isVirtual());
+      }
+    }
+  }
+
+  private void addSlot(int nameId, int slot) {
+    int[] sameName = slots.get(nameId);
+    int[] grown = sameName == null ? new int[1] : Arrays.copyOf(sameName, sameName.length + 1);
+    grown[grown.length - 1] = slot;
+    slots.put(nameId, grown);
+  }
+
+  public int size() {
+    return methods.size();
+  }
+
+  public MethodDecl get(int slot) {
+    return methods.get(slot);
+  }
+
+  public boolean isVirtual(int slot) {
+    return virtual.get(slot);
+  }
+
+  // Slot der Methode mit Name und Parametertypen von method, -1 wenn die Klasse sie nicht hat
+  public int slotOf(MethodDecl method) {
+    int[] sameName = slots.get(method.getNameId());
+    if (sameName != null) {
+      for (int slot : sameName) {
+        if (sameParameters(methods.get(slot), method)) {
+          return slot;
+        }
+      }
+    }
+    return -1;
+  }
+
+  // Methode mit Name und Parametertypen von method, null wenn die Klasse sie nicht hat
+  public MethodDecl lookup(MethodDecl method) {
+    int slot = slotOf(method);
+    return slot >= 0 ? methods.get(slot) : null;
+  }
+
+  // Gleiche Parametertypen, Referenzen eingeschlossen
+  public static boolean sameParameters(MethodDecl a, MethodDecl b) {
+    List<Parameter> left = a.getParameters();
+    List<Parameter> right = b.getParameters();
+    if (left.size() != right.size()) {
+      return false;
+    }
+    for (int i = 0; i < left.size(); i++) {
+      Type l = left.get(i).getType();
+      Type r = right.get(i).getType();
+      if (!l.getTypeName().equals(r.getTypeName()) || l.isReference() != r.isReference()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
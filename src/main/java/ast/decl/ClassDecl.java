@@ -1,6 +1,8 @@
 package ast.decl;
 
 import ast.Declaration;
+import ast.FieldLayout;
+import ast.VTable;
 import java.util.List;
 
 public class ClassDecl extends Declaration {
@@ -8,14 +10,17 @@ public class ClassDecl extends Declaration {
   private List<FieldDecl> fields;
   private List<MethodDecl> methods;
   private List<ConstructorDecl> constructors;
+  private FieldLayout layout; // vom Resolver gesetzt
+  private VTable vtable; // vom Resolver gesetzt
 
   public ClassDecl(
       String name,
+      int nameId,
       String baseClass,
       List<FieldDecl> fields,
       List<MethodDecl> methods,
       List<ConstructorDecl> constructors) {
-    super(name);
+    super(name, nameId);
     this.baseClass = baseClass;
     this.fields = fields;
     this.methods = methods;
@@ -41,4 +46,20 @@ public class ClassDecl extends Declaration {
   public List<ConstructorDecl> getConstructors() {
     return constructors;
   }
+
+  public FieldLayout getLayout() {
+    return layout;
+  }
+
+  public void setLayout(FieldLayout layout) {
+    this.layout = layout;
+  }
+
+  public VTable getVTable() {
+    return vtable;
+  }
+
+  public void setVTable(VTable vtable) {
+    this.vtable = vtable;
+  }
 }
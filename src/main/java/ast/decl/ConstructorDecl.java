@@ -8,6 +8,9 @@ public class ConstructorDecl extends ASTNode {
   private String className;
   private List<Parameter> parameters;
   private BlockStmt body;
+  private int frameSize = -1; // Slots pro Aufruf, vom Resolver gesetzt
+  // Standardkonstruktor der Basisklasse, läuft vor dem Rumpf; von der Analyse gesetzt
+  private ConstructorDecl baseConstructor;
 
   public ConstructorDecl(String className, List<Parameter> parameters, BlockStmt body) {
     this.className = className;
@@ -26,4 +29,20 @@ public class ConstructorDecl extends ASTNode {
   public BlockStmt getBody() {
     return body;
   }
+
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  public void setFrameSize(int frameSize) {
+    this.frameSize = frameSize;
+  }
+
+  public ConstructorDecl getBaseConstructor() {
+    return baseConstructor;
+  }
+
+  public void setBaseConstructor(ConstructorDecl baseConstructor) {
+    this.baseConstructor = baseConstructor;
+  }
 }
@@ -6,10 +6,12 @@ import ast.Type;
 public class FieldDecl extends ASTNode {
   private Type type;
   private String name;
+  private final int nameId; // Nummer in Names
 
-  public FieldDecl(Type type, String name) {
+  public FieldDecl(Type type, String name, int nameId) {
     this.type = type;
     this.name = name;
+    this.nameId = nameId;
   }
 
   public Type getType() {
@@ -19,4 +21,8 @@ public class FieldDecl extends ASTNode {
   public String getName() {
     return name;
   }
+
+  public int getNameId() {
+    return nameId;
+  }
 }
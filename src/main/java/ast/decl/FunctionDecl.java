@@ -9,9 +9,11 @@ public class FunctionDecl extends Declaration {
   private Type returnType;
   private List<Parameter> parameters;
   private BlockStmt body;
+  private int frameSize = -1; // Slots pro Aufruf, vom Resolver gesetzt
 
-  public FunctionDecl(String name, Type returnType, List<Parameter> parameters, BlockStmt body) {
-    super(name);
+  public FunctionDecl(
+      String name, int nameId, Type returnType, List<Parameter> parameters, BlockStmt body) {
+    super(name, nameId);
     this.returnType = returnType;
     this.parameters = parameters;
     this.body = body;
@@ -28,4 +30,12 @@ public class FunctionDecl extends Declaration {
   public BlockStmt getBody() {
     return body;
   }
+
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  public void setFrameSize(int frameSize) {
+    this.frameSize = frameSize;
+  }
 }
@@ -7,14 +7,22 @@ import java.util.List;
 
 public class MethodDecl extends ASTNode {
   private String name;
+  private final int nameId; // Nummer in Names
   private Type returnType;
   private List<Parameter> parameters;
   private BlockStmt body;
   private boolean isVirtual;
+  private int frameSize = -1; // Slots pro Aufruf, vom Resolver gesetzt
 
   public MethodDecl(
-      String name, Type returnType, List<Parameter> parameters, BlockStmt body, boolean isVirtual) {
+      String name,
+      int nameId,
+      Type returnType,
+      List<Parameter> parameters,
+      BlockStmt body,
+      boolean isVirtual) {
     this.name = name;
+    this.nameId = nameId;
     this.returnType = returnType;
     this.parameters = parameters;
     this.body = body;
@@ -25,6 +33,10 @@ public class MethodDecl extends ASTNode {
     return name;
   }
 
+  public int getNameId() {
+    return nameId;
+  }
+
   public Type getReturnType() {
     return returnType;
   }
@@ -40,4 +52,12 @@ public class MethodDecl extends ASTNode {
   public boolean isVirtual() {
     return isVirtual;
   }
+
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  public void setFrameSize(int frameSize) {
+    this.frameSize = frameSize;
+  }
 }
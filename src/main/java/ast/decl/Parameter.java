@@ -1,15 +1,19 @@
 package ast.decl;
 
 import ast.ASTNode;
+import ast.LocalVariable;
 import ast.Type;
 
 public class Parameter extends ASTNode {
   private Type type;
   private String name;
+  private final int nameId; // Nummer in Names
+  private LocalVariable variable; // vom Resolver gesetzt
 
-  public Parameter(Type type, String name) {
+  public Parameter(Type type, String name, int nameId) {
     this.type = type;
     this.name = name;
+    this.nameId = nameId;
   }
 
   public Type getType() {
@@ -19,4 +23,16 @@ public class Parameter extends ASTNode {
   public String getName() {
     return name;
   }
+
+  public int getNameId() {
+    return nameId;
+  }
+
+  public LocalVariable getVariable() {
+    return variable;
+  }
+
+  public void setVariable(LocalVariable variable) {
+    this.variable = variable;
+  }
 }
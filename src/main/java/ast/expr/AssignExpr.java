@@ -18,4 +18,8 @@ public class AssignExpr extends Expression {
   public Expression getValue() {
     return value;
   }
+
+  public void setValue(Expression value) {
+    this.value = value;
+  }
 }
@@ -36,6 +36,10 @@ public class BinaryExpr extends Expression {
     return left;
   }
 
+  public void setLeft(Expression left) {
+    this.left = left;
+  }
+
   public Operator getOperator() {
     return operator;
   }
@@ -43,4 +47,8 @@ public class BinaryExpr extends Expression {
   public Expression getRight() {
     return right;
   }
+
+  public void setRight(Expression right) {
+    this.right = right;
+  }
 }
@@ -0,0 +1,29 @@
+package ast.expr;
+
+import ast.Expression;
+import ast.decl.ClassDecl;
+
+// Objekt als Wert: wo ein Objekt in eine Variable, einen Parameter oder ein Feld gespeichert oder
+// per Wert zurückgegeben wird, setzt die semantische Analyse eine Kopie in der Klasse des Ziels
+// ein. Ist die Klasse des Werts abgeleitet, wird dabei beschnitten (Slicing).
+public class CopyExpr extends Expression {
+  private Expression operand;
+  private final ClassDecl targetClass;
+
+  public CopyExpr(Expression operand, ClassDecl targetClass) {
+    this.operand = operand;
+    this.targetClass = targetClass;
+  }
+
+  public Expression getOperand() {
+    return operand;
+  }
+
+  public void setOperand(Expression operand) {
+    this.operand = operand;
+  }
+
+  public ClassDecl getTargetClass() {
+    return targetClass;
+  }
+}
@@ -1,14 +1,34 @@
 package ast.expr;
 
 import ast.Expression;
+import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
+import ast.decl.FunctionDecl;
+import builtin.Builtin;
 import java.util.List;
 
 public class FunctionCallExpr extends Expression {
   private String functionName;
+  private final int functionId; // Nummer in Names
   private List<Expression> arguments;
 
-  public FunctionCallExpr(String functionName, List<Expression> arguments) {
+  // Ziel des Aufrufs, von der semantischen Analyse gebunden (SymbolTable.link)
+  public enum Kind {
+    BUILTIN,
+    CONSTRUCTOR,
+    FUNCTION
+  }
+
+  private Kind kind;
+  private Builtin builtin; // bei BUILTIN
+  private ClassDecl constructedClass; // bei CONSTRUCTOR
+  private ConstructorDecl constructor; // bei CONSTRUCTOR, null: Felder behalten Standardwerte
+  private FunctionDecl function; // bei FUNCTION
+  private int linkVersion = -1; // Stand der SymbolTable beim Binden
+
+  public FunctionCallExpr(String functionName, int functionId, List<Expression> arguments) {
     this.functionName = functionName;
+    this.functionId = functionId;
     this.arguments = arguments;
   }
 
@@ -16,7 +36,54 @@ public class FunctionCallExpr extends Expression {
     return functionName;
   }
 
+  public int getFunctionId() {
+    return functionId;
+  }
+
   public List<Expression> getArguments() {
     return arguments;
   }
+
+  public boolean isBuiltin() {
+    return kind == Kind.BUILTIN;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public Builtin getBuiltin() {
+    return builtin;
+  }
+
+  public ClassDecl getConstructedClass() {
+    return constructedClass;
+  }
+
+  public ConstructorDecl getConstructor() {
+    return constructor;
+  }
+
+  public FunctionDecl getFunction() {
+    return function;
+  }
+
+  public int getLinkVersion() {
+    return linkVersion;
+  }
+
+  public void link(
+      Kind kind,
+      Builtin builtin,
+      ClassDecl constructedClass,
+      ConstructorDecl constructor,
+      FunctionDecl function,
+      int version) {
+    this.kind = kind;
+    this.builtin = builtin;
+    this.constructedClass = constructedClass;
+    this.constructor = constructor;
+    this.function = function;
+    this.linkVersion = version;
+  }
 }
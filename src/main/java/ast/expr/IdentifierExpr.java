@@ -1,15 +1,40 @@
 package ast.expr;
 
 import ast.Expression;
+import ast.LocalVariable;
 
 public class IdentifierExpr extends Expression {
   private String name;
+  private final int nameId; // Nummer in Names
+  private LocalVariable variable; // vom Resolver gesetzt, null wenn keine lokale Variable
+  private int fieldSlot = -1; // in Methoden: Slot des gleichnamigen Felds im Objekt, sonst -1
 
-  public IdentifierExpr(String name) {
+  public IdentifierExpr(String name, int nameId) {
     this.name = name;
+    this.nameId = nameId;
   }
 
   public String getName() {
     return name;
   }
+
+  public int getNameId() {
+    return nameId;
+  }
+
+  public LocalVariable getVariable() {
+    return variable;
+  }
+
+  public void setVariable(LocalVariable variable) {
+    this.variable = variable;
+  }
+
+  public int getFieldSlot() {
+    return fieldSlot;
+  }
+
+  public void setFieldSlot(int fieldSlot) {
+    this.fieldSlot = fieldSlot;
+  }
 }
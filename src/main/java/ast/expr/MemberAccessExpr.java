@@ -1,21 +1,57 @@
 package ast.expr;
 
 import ast.Expression;
+import ast.FieldLayout;
 
 public class MemberAccessExpr extends Expression {
   private Expression object;
   private String memberName;
+  private final int memberId; // Nummer in Names
 
-  public MemberAccessExpr(Expression object, String memberName) {
+  // Inline-Cache: Slot des Felds in den zuletzt gesehenen Layouts
+  private static final int CACHE_SIZE = 4;
+  private FieldLayout[] cachedLayouts;
+  private int[] cachedSlots;
+
+  public MemberAccessExpr(Expression object, String memberName, int memberId) {
     this.object = object;
     this.memberName = memberName;
+    this.memberId = memberId;
   }
 
   public Expression getObject() {
     return object;
   }
 
+  public void setObject(Expression object) {
+    this.object = object;
+  }
+
   public String getMemberName() {
     return memberName;
   }
+
+  public int getMemberId() {
+    return memberId;
+  }
+
+  // Slot des Felds in Objekten mit diesem Layout, -1 wenn es dort fehlt. Sind schon CACHE_SIZE
+  // Layouts gesehen, wird jedes weitere über die Namenstabelle gesucht.
+  public int slotIn(FieldLayout layout) {
+    if (cachedLayouts == null) {
+      cachedLayouts = new FieldLayout[CACHE_SIZE];
+      cachedSlots = new int[CACHE_SIZE];
+    }
+    for (int i = 0; i < CACHE_SIZE; i++) {
+      if (cachedLayouts[i] == layout) {
+        return cachedSlots[i];
+      }
+      if (cachedLayouts[i] == null) {
+        cachedLayouts[i] = layout;
+        cachedSlots[i] = layout.slotOf(memberId);
+        return cachedSlots[i];
+      }
+    }
+    return layout.slotOf(memberId);
+  }
 }
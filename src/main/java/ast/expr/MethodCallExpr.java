@@ -1,16 +1,42 @@
 package ast.expr;
 
 import ast.Expression;
+import ast.decl.ClassDecl;
+import ast.decl.MethodDecl;
 import java.util.List;
 
 public class MethodCallExpr extends Expression {
   private Expression object;
   private String methodName;
+  private final int methodId; // Nummer in Names
   private List<Expression> arguments;
 
-  public MethodCallExpr(Expression object, String methodName, List<Expression> arguments) {
+  private MethodDecl method; // von der Analyse gewählte Überladung im statischen Typ
+
+  // Vom Resolver gebunden: nicht virtuelle Aufrufe und Aufrufe direkt auf Objekten an die Methode
+  // des statischen Typs, virtuelle Aufrufe über Referenzen an einen Slot der vtable
+  private MethodDecl target;
+  private int vtableSlot = -1;
+  private long calls;
+
+  // Inline-Cache für virtuelle Aufrufe: aufgerufene Methode je Klasse des Empfängers. Zuerst
+  // monomorph (eine Klasse, ein Vergleich), dann polymorph bis CACHE_SIZE Klassen. Danach ist die
+  // Stelle megamorph, neue Klassen werden nicht mehr aufgenommen, sondern in der vtable gesucht.
+  private static final int CACHE_SIZE = 4;
+  private ClassDecl monoClass;
+  private MethodDecl monoMethod;
+  private ClassDecl[] polyClasses;
+  private MethodDecl[] polyMethods;
+  private int polyCount;
+  private boolean megamorphic;
+  private long hits;
+  private long misses;
+
+  public MethodCallExpr(
+      Expression object, String methodName, int methodId, List<Expression> arguments) {
     this.object = object;
     this.methodName = methodName;
+    this.methodId = methodId;
     this.arguments = arguments;
   }
 
@@ -18,11 +44,121 @@ public class MethodCallExpr extends Expression {
     return object;
   }
 
+  public void setObject(Expression object) {
+    this.object = object;
+  }
+
   public String getMethodName() {
     return methodName;
   }
 
+  public int getMethodId() {
+    return methodId;
+  }
+
   public List<Expression> getArguments() {
     return arguments;
   }
+
+  public MethodDecl getMethod() {
+    return method;
+  }
+
+  public void setMethod(MethodDecl method) {
+    this.method = method;
+  }
+
+  public MethodDecl getTarget() {
+    return target;
+  }
+
+  public void setTarget(MethodDecl target) {
+    this.target = target;
+  }
+
+  public int getVTableSlot() {
+    return vtableSlot;
+  }
+
+  public void setVTableSlot(int vtableSlot) {
+    this.vtableSlot = vtableSlot;
+  }
+
+  // Aufzurufende Methode für ein Objekt der Klasse cls, null wenn die Klasse sie nicht hat
+  public MethodDecl dispatch(ClassDecl cls) {
+    calls++;
+    if (target != null) {
+      return target;
+    }
+    MethodDecl cached = cachedMethod(cls);
+    if (cached != null) {
+      return cached;
+    }
+    MethodDecl found;
+    if (vtableSlot >= 0) {
+      found = cls.getVTable().get(vtableSlot);
+    } else {
+      // Nicht gebunden: Suche in der Tabelle der Laufzeitklasse
+      found = method != null ? cls.getVTable().lookup(method) : null;
+    }
+    if (found != null) {
+      cacheMethod(cls, found);
+    }
+    return found;
+  }
+
+  private MethodDecl cachedMethod(ClassDecl cls) {
+    if (monoClass == cls) {
+      hits++;
+      return monoMethod;
+    }
+    for (int i = 0; i < polyCount; i++) {
+      if (polyClasses[i] == cls) {
+        hits++;
+        return polyMethods[i];
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  private void cacheMethod(ClassDecl cls, MethodDecl method) {
+    if (monoClass == null) {
+      monoClass = cls;
+      monoMethod = method;
+    } else if (polyCount < CACHE_SIZE - 1) {
+      if (polyClasses == null) {
+        polyClasses = new ClassDecl[CACHE_SIZE - 1];
+        polyMethods = new MethodDecl[CACHE_SIZE - 1];
+      }
+      polyClasses[polyCount] = cls;
+      polyMethods[polyCount] = method;
+      polyCount++;
+    } else {
+      megamorphic = true;
+    }
+  }
+
+  public long getCalls() {
+    return calls;
+  }
+
+  public long getCacheHits() {
+    return hits;
+  }
+
+  public long getCacheMisses() {
+    return misses;
+  }
+
+  // "uninitialisiert", "monomorph", "polymorph" oder "megamorph"
+  public String getCacheState() {
+    if (megamorphic) {
+      return "megamorph";
+    }
+    if (polyCount > 0) {
+      return "polymorph";
+    }
+    return monoClass != null ? "monomorph" : "uninitialisiert";
+  }
 }
@@ -24,4 +24,8 @@ public class UnaryExpr extends Expression {
   public Expression getOperand() {
     return operand;
   }
+
+  public void setOperand(Expression operand) {
+    this.operand = operand;
+  }
 }
@@ -0,0 +1,6 @@
+package ast.stmt;
+
+import ast.Statement;
+
+// Verlässt die innerste while-Schleife
+public class BreakStmt extends Statement {}
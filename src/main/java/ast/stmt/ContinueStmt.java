@@ -0,0 +1,6 @@
+package ast.stmt;
+
+import ast.Statement;
+
+// Springt zur nächsten Prüfung der Bedingung der innersten while-Schleife
+public class ContinueStmt extends Statement {}
@@ -13,4 +13,8 @@ public class ExprStmt extends Statement {
   public Expression getExpression() {
     return expression;
   }
+
+  public void setExpression(Expression expression) {
+    this.expression = expression;
+  }
 }
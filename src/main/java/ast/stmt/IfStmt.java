@@ -18,14 +18,26 @@ public class IfStmt extends Statement {
     return condition;
   }
 
+  public void setCondition(Expression condition) {
+    this.condition = condition;
+  }
+
   public Statement getThenBranch() {
     return thenBranch;
   }
 
+  public void setThenBranch(Statement thenBranch) {
+    this.thenBranch = thenBranch;
+  }
+
   public Statement getElseBranch() {
     return elseBranch;
   }
 
+  public void setElseBranch(Statement elseBranch) {
+    this.elseBranch = elseBranch;
+  }
+
   public boolean hasElseBranch() {
     return elseBranch != null;
   }
@@ -14,6 +14,10 @@ public class ReturnStmt extends Statement {
     return value;
   }
 
+  public void setValue(Expression value) {
+    this.value = value;
+  }
+
   public boolean hasValue() {
     return value != null;
   }
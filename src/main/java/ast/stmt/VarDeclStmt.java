@@ -1,17 +1,21 @@
 package ast.stmt;
 
 import ast.Expression;
+import ast.LocalVariable;
 import ast.Statement;
 import ast.Type;
 
 public class VarDeclStmt extends Statement {
   private Type type;
   private String name;
+  private final int nameId; // Nummer in Names
   private Expression initializer; // kann null sein
+  private LocalVariable variable; // vom Resolver gesetzt
 
-  public VarDeclStmt(Type type, String name, Expression initializer) {
+  public VarDeclStmt(Type type, String name, int nameId, Expression initializer) {
     this.type = type;
     this.name = name;
+    this.nameId = nameId;
     this.initializer = initializer;
   }
 
@@ -23,11 +27,27 @@ public class VarDeclStmt extends Statement {
     return name;
   }
 
+  public int getNameId() {
+    return nameId;
+  }
+
   public Expression getInitializer() {
     return initializer;
   }
 
+  public void setInitializer(Expression initializer) {
+    this.initializer = initializer;
+  }
+
   public boolean hasInitializer() {
     return initializer != null;
   }
+
+  public LocalVariable getVariable() {
+    return variable;
+  }
+
+  public void setVariable(LocalVariable variable) {
+    this.variable = variable;
+  }
 }
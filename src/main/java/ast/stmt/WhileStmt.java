@@ -16,7 +16,15 @@ public class WhileStmt extends Statement {
     return condition;
   }
 
+  public void setCondition(Expression condition) {
+    this.condition = condition;
+  }
+
   public Statement getBody() {
     return body;
   }
+
+  public void setBody(Statement body) {
+    this.body = body;
+  }
 }
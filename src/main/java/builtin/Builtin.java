@@ -0,0 +1,135 @@
+package builtin;
+
+import ast.Type;
+import interpreter.Values;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Eingebaute Funktion: Name, MiniCpp-Signatur und die Java-Methode, die sie implementiert.
+// Die Signatur ergibt sich aus der Java-Methode (int, boolean, char, String, void).
+public final class Builtin {
+  private static final MethodHandle TO_INT;
+  private static final MethodHandle TO_BOOLEAN;
+  private static final MethodHandle TO_STRING;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      TO_INT =
+          lookup.findStatic(Values.class, "toInt", MethodType.methodType(int.class, Object.class));
+      TO_BOOLEAN =
+          lookup.findStatic(
+              Values.class, "toBoolean", MethodType.methodType(boolean.class, Object.class));
+      TO_STRING =
+          lookup.findStatic(
+              Values.class, "toJavaString", MethodType.methodType(String.class, Object.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final String name;
+  private final Method method;
+  private final boolean pure; // Ergebnis hängt nur von den Argumenten ab, keine Seiteneffekte
+  private final Type returnType;
+  private final List<Type> parameterTypes;
+  private final MethodHandle invoker; // (Object[])Object, wandelt Argumente wie der Tree-Walker
+
+  Builtin(String name, Method method, boolean pure) {
+    if (!Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+      throw new IllegalArgumentException(
+          "Built-in '" + name + "' braucht eine public static Methode");
+    }
+    this.name = name;
+    this.method = method;
+    this.pure = pure;
+    this.returnType = typeOf(method.getReturnType());
+    List<Type> params = new ArrayList<>();
+    for (Class<?> param : method.getParameterTypes()) {
+      params.add(typeOf(param));
+    }
+    this.parameterTypes = Collections.unmodifiableList(params);
+
+    try {
+      MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+      // int und bool nehmen jeden skalaren Wert (wie Values.toInt/toBoolean), char nur Zeichen;
+      // Strings aus Verkettungen werden hier erst zu Java-Strings
+      Class<?>[] types = method.getParameterTypes();
+      for (int i = 0; i < types.length; i++) {
+        if (types[i] == int.class) {
+          handle = MethodHandles.filterArguments(handle, i, TO_INT);
+        } else if (types[i] == boolean.class) {
+          handle = MethodHandles.filterArguments(handle, i, TO_BOOLEAN);
+        } else if (types[i] == String.class) {
+          handle = MethodHandles.filterArguments(handle, i, TO_STRING);
+        }
+      }
+      this.invoker =
+          handle
+              .asType(MethodType.genericMethodType(types.length))
+              .asSpreader(Object[].class, types.length);
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("Built-in '" + name + "' nicht zugreifbar", e);
+    }
+  }
+
+  private Type typeOf(Class<?> type) {
+    if (type == int.class) {
+      return new Type("int");
+    } else if (type == boolean.class) {
+      return new Type("bool");
+    } else if (type == char.class) {
+      return new Type("char");
+    } else if (type == String.class) {
+      return new Type("string");
+    } else if (type == void.class) {
+      return new Type("void");
+    }
+    throw new IllegalArgumentException(
+        "Built-in '" + name + "': Typ " + type.getName() + " wird nicht unterstützt");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Type getReturnType() {
+    return returnType;
+  }
+
+  public List<Type> getParameterTypes() {
+    return parameterTypes;
+  }
+
+  // Implementierende Methode, z.B. für direkte Aufrufe aus JIT-Code
+  public Method getMethod() {
+    return method;
+  }
+
+  // Darf wie ein Operator behandelt werden, z.B. aus Schleifen gezogen
+  public boolean isPure() {
+    return pure;
+  }
+
+  // Aufruf mit ausgewerteten Argumenten; void liefert null
+  public Object invoke(Object[] args) {
+    try {
+      return (Object) invoker.invokeExact(args);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "builtin " + name + "/" + parameterTypes.size();
+  }
+}
@@ -0,0 +1,7 @@
+package builtin;
+
+// Erweiterungspunkt für weitere Built-ins. Implementierungen werden per ServiceLoader gefunden,
+// wenn sie in META-INF/services/builtin.BuiltinProvider eingetragen sind.
+public interface BuiltinProvider {
+  void register(BuiltinRegistry registry);
+}
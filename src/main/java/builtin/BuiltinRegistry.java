@@ -0,0 +1,73 @@
+package builtin;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+// Alle eingebauten Funktionen nach Name und Parameterzahl. Die Analyse bindet Aufrufe an einen
+// Eintrag, die Ausführung ruft ihn ohne Namensvergleich auf.
+public final class BuiltinRegistry {
+  private static BuiltinRegistry defaultRegistry;
+
+  private final Map<String, Builtin> builtins = new HashMap<>();
+
+  // Standard-Built-ins und alle per ServiceLoader gefundenen Erweiterungen
+  public static synchronized BuiltinRegistry getDefault() {
+    if (defaultRegistry == null) {
+      BuiltinRegistry registry = new BuiltinRegistry();
+      new StandardBuiltins().register(registry);
+      for (BuiltinProvider provider : ServiceLoader.load(BuiltinProvider.class)) {
+        provider.register(registry);
+      }
+      defaultRegistry = registry;
+    }
+    return defaultRegistry;
+  }
+
+  // Registriert die public static Methode methodName von owner unter name
+  public void register(String name, Class<?> owner, String methodName) {
+    register(name, owner, methodName, false);
+  }
+
+  // Wie register, für Methoden ohne Seiteneffekte, deren Ergebnis nur von den Argumenten abhängt
+  public void registerPure(String name, Class<?> owner, String methodName) {
+    register(name, owner, methodName, true);
+  }
+
+  private void register(String name, Class<?> owner, String methodName, boolean pure) {
+    Method found = null;
+    for (Method method : owner.getMethods()) {
+      if (method.getName().equals(methodName) && Modifier.isStatic(method.getModifiers())) {
+        if (found != null) {
+          throw new IllegalArgumentException(
+              "Built-in '" + name + "': " + methodName + " ist überladen");
+        }
+        found = method;
+      }
+    }
+    if (found == null) {
+      throw new IllegalArgumentException(
+          "Built-in '" + name + "': " + owner.getName() + "." + methodName + " nicht gefunden");
+    }
+    register(new Builtin(name, found, pure));
+  }
+
+  private void register(Builtin builtin) {
+    String key = key(builtin.getName(), builtin.getParameterTypes().size());
+    if (builtins.containsKey(key)) {
+      throw new IllegalArgumentException("Built-in '" + builtin.getName() + "' bereits definiert");
+    }
+    builtins.put(key, builtin);
+  }
+
+  // Built-in mit diesem Namen und dieser Parameterzahl, null wenn es keins gibt
+  public Builtin lookup(String name, int argCount) {
+    return builtins.get(key(name, argCount));
+  }
+
+  private static String key(String name, int argCount) {
+    return name + "/" + argCount;
+  }
+}
@@ -0,0 +1,80 @@
+package builtin;
+
+// Die eingebauten Funktionen von MiniCpp: Ausgabe, Ganzzahl-Hilfen, Strings und Zeitmessung
+public final class StandardBuiltins implements BuiltinProvider {
+  private static final long START = System.nanoTime();
+
+  @Override
+  public void register(BuiltinRegistry registry) {
+    registry.register("print_int", StandardBuiltins.class, "printInt");
+    registry.register("print_bool", StandardBuiltins.class, "printBool");
+    registry.register("print_char", StandardBuiltins.class, "printChar");
+    registry.register("print_string", StandardBuiltins.class, "printString");
+    registry.registerPure("abs", StandardBuiltins.class, "abs");
+    registry.registerPure("min", StandardBuiltins.class, "min");
+    registry.registerPure("max", StandardBuiltins.class, "max");
+    registry.registerPure("str_length", StandardBuiltins.class, "strLength");
+    registry.registerPure("str_at", StandardBuiltins.class, "strAt");
+    registry.register("time_ms", StandardBuiltins.class, "timeMs");
+    // Umwandlungen zwischen den skalaren Typen, von der Analyse eingesetzt (nicht aufrufbar)
+    registry.registerPure("int", StandardBuiltins.class, "toInt");
+    registry.registerPure("bool", StandardBuiltins.class, "toBool");
+    registry.registerPure("char", StandardBuiltins.class, "toChar");
+  }
+
+  public static void printInt(int value) {
+    System.out.print(value);
+  }
+
+  // Wie print_bool in hsbi_runtime.h (cout << (v ? 1 : 0))
+  public static void printBool(boolean value) {
+    System.out.print(value ? 1 : 0);
+  }
+
+  public static void printChar(char value) {
+    System.out.print(value);
+  }
+
+  public static void printString(String value) {
+    System.out.print(value);
+  }
+
+  public static int abs(int value) {
+    return Math.abs(value);
+  }
+
+  public static int min(int a, int b) {
+    return Math.min(a, b);
+  }
+
+  public static int max(int a, int b) {
+    return Math.max(a, b);
+  }
+
+  public static int strLength(String s) {
+    return s.length();
+  }
+
+  // Zeichen an Position index, Fehler außerhalb des Strings
+  public static char strAt(String s, int index) {
+    return s.charAt(index);
+  }
+
+  // int und bool nehmen jeden skalaren Wert, die Umwandlung übernimmt Builtin
+  public static int toInt(int value) {
+    return value;
+  }
+
+  public static boolean toBool(boolean value) {
+    return value;
+  }
+
+  public static char toChar(int value) {
+    return (char) value;
+  }
+
+  // Millisekunden seit dem Start des Interpreters
+  public static int timeMs() {
+    return (int) ((System.nanoTime() - START) / 1_000_000);
+  }
+}
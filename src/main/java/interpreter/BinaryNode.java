@@ -0,0 +1,366 @@
+package interpreter;
+
+import ast.expr.BinaryExpr;
+
+// Selbst-spezialisierende Knoten für binäre Operatoren (außer && und ||).
+// Beim ersten Auswerten legt sich ein Knoten anhand der Operandentypen auf eine Spezialisierung
+// fest (z.B. int + int, char < char, String-Verkettung). Schlägt die Typprüfung später fehl,
+// fällt er dauerhaft auf die generische Version zurück (Deoptimierung).
+// Jeder Operator hat eine eigene Knotenklasse, damit die JVM die schnellen Pfade getrennt
+// profiliert. Alle Spezialisierungen liefern exakt dasselbe Ergebnis wie die generische Version.
+abstract class BinaryNode implements ClosureCompiler.Code {
+  // Zustände
+  static final int UNINITIALIZED = 0;
+  static final int INT = 1; // beide Integer
+  static final int CHAR = 2; // beide Character (nur Vergleiche)
+  static final int BOOL = 3; // beide Boolean (nur == und !=)
+  static final int STRING = 4; // mindestens ein String (nur +)
+  static final int GENERIC = 5;
+
+  final BinaryExpr.Operator op;
+  final ClosureCompiler.Code left;
+  final ClosureCompiler.Code right;
+  private final NodeStats stats;
+  int state = UNINITIALIZED;
+
+  BinaryNode(
+      BinaryExpr.Operator op,
+      ClosureCompiler.Code left,
+      ClosureCompiler.Code right,
+      NodeStats stats) {
+    this.op = op;
+    this.left = left;
+    this.right = right;
+    this.stats = stats;
+  }
+
+  static BinaryNode create(
+      BinaryExpr.Operator op,
+      ClosureCompiler.Code left,
+      ClosureCompiler.Code right,
+      NodeStats stats) {
+    switch (op) {
+      case ADD:
+        return new Add(op, left, right, stats);
+      case SUB:
+        return new Sub(op, left, right, stats);
+      case MUL:
+        return new Mul(op, left, right, stats);
+      case DIV:
+        return new Div(op, left, right, stats);
+      case MOD:
+        return new Mod(op, left, right, stats);
+      case EQ:
+        return new Eq(op, left, right, stats);
+      case NEQ:
+        return new Neq(op, left, right, stats);
+      case LT:
+        return new Lt(op, left, right, stats);
+      case LE:
+        return new Le(op, left, right, stats);
+      case GT:
+        return new Gt(op, left, right, stats);
+      case GE:
+        return new Ge(op, left, right, stats);
+      default:
+        throw new RuntimeException("Unbekannter Operator: " + op);
+    }
+  }
+
+  // Kein schneller Pfad hat gepasst: spezialisieren, deoptimieren oder generisch bleiben
+  final Object slowPath(Object l, Object r) {
+    if (state == UNINITIALIZED) {
+      state = select(l, r);
+      if (state == GENERIC) {
+        stats.generic++;
+      } else {
+        stats.specialized++;
+      }
+    } else if (state != GENERIC) {
+      state = GENERIC;
+      stats.deoptimized++;
+    }
+    return evalGeneric(l, r);
+  }
+
+  private int select(Object l, Object r) {
+    if (op == BinaryExpr.Operator.ADD && (Values.isString(l) || Values.isString(r))) {
+      return STRING;
+    }
+    if (l instanceof Integer && r instanceof Integer) {
+      return INT;
+    }
+    switch (op) {
+      case EQ:
+      case NEQ:
+        if (l instanceof Boolean && r instanceof Boolean) {
+          return BOOL;
+        }
+      // fall through
+      case LT:
+      case LE:
+      case GT:
+      case GE:
+        if (l instanceof Character && r instanceof Character) {
+          return CHAR;
+        }
+        return GENERIC;
+      default:
+        return GENERIC;
+    }
+  }
+
+  // Entspricht Interpreter.evaluateBinary
+  private Object evalGeneric(Object l, Object r) {
+    switch (op) {
+      case ADD:
+        if (Values.isString(l) || Values.isString(r)) {
+          return Values.concat(l, r);
+        }
+        return Values.toInt(l) + Values.toInt(r);
+      case SUB:
+        return Values.toInt(l) - Values.toInt(r);
+      case MUL:
+        return Values.toInt(l) * Values.toInt(r);
+      case DIV:
+        int divisor = Values.toInt(r);
+        if (divisor == 0) {
+          throw new RuntimeException("Division durch 0");
+        }
+        return Values.toInt(l) / divisor;
+      case MOD:
+        int mod = Values.toInt(r);
+        if (mod == 0) {
+          throw new RuntimeException("Modulo durch 0");
+        }
+        return Values.toInt(l) % mod;
+      case EQ:
+        return Values.equals(l, r);
+      case NEQ:
+        return !Values.equals(l, r);
+      case LT:
+        return Values.compare(l, r) < 0;
+      case LE:
+        return Values.compare(l, r) <= 0;
+      case GT:
+        return Values.compare(l, r) > 0;
+      case GE:
+        return Values.compare(l, r) >= 0;
+      default:
+        throw new RuntimeException("Unbekannter Operator: " + op);
+    }
+  }
+
+  // === Knoten pro Operator ===
+
+  static final class Add extends BinaryNode {
+    Add(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l + (Integer) r;
+      }
+      if (state == STRING && (Values.isString(l) || Values.isString(r))) {
+        return Values.concat(l, r);
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Sub extends BinaryNode {
+    Sub(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l - (Integer) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Mul extends BinaryNode {
+    Mul(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l * (Integer) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Div extends BinaryNode {
+    Div(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        int divisor = (Integer) r;
+        if (divisor == 0) {
+          throw new RuntimeException("Division durch 0");
+        }
+        return (Integer) l / divisor;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Mod extends BinaryNode {
+    Mod(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        int mod = (Integer) r;
+        if (mod == 0) {
+          throw new RuntimeException("Modulo durch 0");
+        }
+        return (Integer) l % mod;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Eq extends BinaryNode {
+    Eq(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return ((Integer) l).intValue() == (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return ((Character) l).charValue() == (Character) r;
+      }
+      if (state == BOOL && l instanceof Boolean && r instanceof Boolean) {
+        return ((Boolean) l).booleanValue() == (Boolean) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Neq extends BinaryNode {
+    Neq(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return ((Integer) l).intValue() != (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return ((Character) l).charValue() != (Character) r;
+      }
+      if (state == BOOL && l instanceof Boolean && r instanceof Boolean) {
+        return ((Boolean) l).booleanValue() != (Boolean) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Lt extends BinaryNode {
+    Lt(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l < (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return (Character) l < (Character) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Le extends BinaryNode {
+    Le(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l <= (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return (Character) l <= (Character) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Gt extends BinaryNode {
+    Gt(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l > (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return (Character) l > (Character) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+
+  static final class Ge extends BinaryNode {
+    Ge(BinaryExpr.Operator op, ClosureCompiler.Code l, ClosureCompiler.Code r, NodeStats s) {
+      super(op, l, r, s);
+    }
+
+    @Override
+    public Object eval(Object[] frame) {
+      Object l = left.eval(frame);
+      Object r = right.eval(frame);
+      if (state == INT && l instanceof Integer && r instanceof Integer) {
+        return (Integer) l >= (Integer) r;
+      }
+      if (state == CHAR && l instanceof Character && r instanceof Character) {
+        return (Character) l >= (Character) r;
+      }
+      return slowPath(l, r);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package interpreter;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.List;
+
+// Bericht über die Methodenaufrufe eines Programms: Bindung (statisch oder über die vtable), Zahl
+// der Aufrufe und bei virtuellen Aufrufen Zustand, Treffer und Fehlschläge des Inline-Caches je
+// Aufrufstelle. Alles liegt im AST, daher gilt der Bericht für jede Ausführungsart.
+public final class CallSiteStats {
+  private final StringBuilder sb = new StringBuilder();
+  private String current;
+
+  private CallSiteStats() {}
+
+  // Eine Zeile pro ausgeführter Aufrufstelle, z.B.
+  // "main: s.area/0 virtuell (Slot 0), 1000 Aufrufe, polymorph (998 Treffer, 2 Fehlschläge)"
+  public static String report(Program program) {
+    CallSiteStats stats = new CallSiteStats();
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        stats.visitBody(cls.getName() + "::" + cls.getName(), ctor.getBody());
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        stats.visitBody(cls.getName() + "::" + method.getName(), method.getBody());
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      stats.visitBody(func.getName(), func.getBody());
+    }
+    return stats.sb.toString();
+  }
+
+  private void visitBody(String name, BlockStmt body) {
+    current = name;
+    visitStatement(body);
+  }
+
+  private void visitStatement(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        visitStatement(inner);
+      }
+    } else if (stmt instanceof VarDeclStmt) {
+      if (((VarDeclStmt) stmt).hasInitializer()) {
+        visitExpression(((VarDeclStmt) stmt).getInitializer());
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      visitExpression(ifStmt.getCondition());
+      visitStatement(ifStmt.getThenBranch());
+      if (ifStmt.hasElseBranch()) {
+        visitStatement(ifStmt.getElseBranch());
+      }
+    } else if (stmt instanceof WhileStmt) {
+      visitExpression(((WhileStmt) stmt).getCondition());
+      visitStatement(((WhileStmt) stmt).getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      if (((ReturnStmt) stmt).hasValue()) {
+        visitExpression(((ReturnStmt) stmt).getValue());
+      }
+    } else if (stmt instanceof ExprStmt) {
+      visitExpression(((ExprStmt) stmt).getExpression());
+    }
+  }
+
+  private void visitExpression(Expression expr) {
+    if (expr instanceof BinaryExpr) {
+      visitExpression(((BinaryExpr) expr).getLeft());
+      visitExpression(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      visitExpression(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof AssignExpr) {
+      visitExpression(((AssignExpr) expr).getTarget());
+      visitExpression(((AssignExpr) expr).getValue());
+    } else if (expr instanceof FunctionCallExpr) {
+      visitExpressions(((FunctionCallExpr) expr).getArguments());
+    } else if (expr instanceof MemberAccessExpr) {
+      visitExpression(((MemberAccessExpr) expr).getObject());
+    } else if (expr instanceof CopyExpr) {
+      visitExpression(((CopyExpr) expr).getOperand());
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      visitExpression(call.getObject());
+      visitExpressions(call.getArguments());
+      if (call.getCalls() > 0) {
+        sb.append(current)
+            .append(": ")
+            .append(describe(call.getObject()))
+            .append('.')
+            .append(call.getMethodName())
+            .append('/')
+            .append(call.getArguments().size())
+            .append(' ')
+            .append(binding(call))
+            .append(", ")
+            .append(call.getCalls())
+            .append(" Aufrufe");
+        if (call.getTarget() == null) {
+          sb.append(", ")
+              .append(call.getCacheState())
+              .append(" (")
+              .append(call.getCacheHits())
+              .append(" Treffer, ")
+              .append(call.getCacheMisses())
+              .append(" Fehlschläge)");
+        }
+        sb.append('\n');
+      }
+    }
+  }
+
+  private void visitExpressions(List<Expression> exprs) {
+    for (Expression expr : exprs) {
+      visitExpression(expr);
+    }
+  }
+
+  private static String binding(MethodCallExpr call) {
+    if (call.getTarget() != null) {
+      return "statisch";
+    }
+    if (call.getVTableSlot() >= 0) {
+      return "virtuell (Slot " + call.getVTableSlot() + ")";
+    }
+    return "ungebunden";
+  }
+
+  private static String describe(Expression object) {
+    if (object instanceof IdentifierExpr) {
+      return ((IdentifierExpr) object).getName();
+    }
+    if (object instanceof MemberAccessExpr) {
+      return describe(((MemberAccessExpr) object).getObject())
+          + "."
+          + ((MemberAccessExpr) object).getMemberName();
+    }
+    return "(...)";
+  }
+}
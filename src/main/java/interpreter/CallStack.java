@@ -0,0 +1,96 @@
+package interpreter;
+
+import java.util.function.Supplier;
+
+// Aufruftiefe einer Ausführung und die Stack-Segmente, auf denen sie läuft. Jeder Aufruf kostet
+// im Tree-Walker wie im ClosureCompiler einige JVM-Frames. Damit tiefe Rekursion nicht am Stack
+// des Threads scheitert, läuft jeder Abschnitt von SEGMENT_CALLS verschachtelten Aufrufen auf einem
+// eigenen Segment (Thread mit SEGMENT_SIZE Stack). Der aufrufende Thread wartet, es läuft also
+// immer genau ein Segment. Die Tiefe begrenzt nur das Budget: Speicher für die Stacks aller
+// Segmente zusammen, der nicht aus dem Java-Heap kommt, sondern vom Betriebssystem für die Threads.
+// Der TieredInterpreter teilt sich eine Instanz mit seinem ClosureCompiler.
+class CallStack {
+  private static final int SEGMENT_CALLS = 8192;
+  private static final long SEGMENT_SIZE = 32L * 1024 * 1024;
+
+  private long budget = 2048L * 1024 * 1024;
+  private int depth; // laufende Aktivierungen
+  private int segments;
+
+  void setBudget(long budget) {
+    this.budget = budget;
+  }
+
+  int depth() {
+    return depth;
+  }
+
+  void enter() {
+    depth++;
+  }
+
+  void exit() {
+    depth--;
+  }
+
+  // Ist das laufende Segment voll, kommt der nächste Aufruf auf ein neues. Vor dem ersten Aufruf
+  // gibt es noch keins, der Einstieg läuft also immer schon auf einem Segment.
+  boolean full() {
+    return depth >= segments * SEGMENT_CALLS;
+  }
+
+  // Führt einen Aufruf auf einem neuen Segment aus und wartet auf das Ergebnis
+  Object inNewSegment(Supplier<Object> call) {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new RuntimeException("Ausführung unterbrochen");
+    }
+    if ((segments + 1) * SEGMENT_SIZE > budget) {
+      throw new RuntimeException(
+          "Speicherbudget für Aufrufe überschritten (Rekursionstiefe " + depth + ")");
+    }
+    Object[] result = new Object[1];
+    Throwable[] failure = new Throwable[1];
+    Thread segment =
+        new Thread(
+            null,
+            () -> {
+              try {
+                result[0] = call.get();
+              } catch (Throwable t) {
+                failure[0] = t;
+              }
+            },
+            "MiniCpp-Stack-" + segments,
+            SEGMENT_SIZE);
+    segments++;
+    boolean interrupted = false;
+    try {
+      segment.start();
+      // Das Segment arbeitet auf dem Zustand der Engine; solange es läuft, darf der Aufrufer
+      // nicht weitermachen. Eine Unterbrechung wird weitergereicht: das Segment bricht ab, sobald
+      // es selbst ein neues Segment bräuchte, spätestens mit dem Ende seines Aufrufs.
+      while (true) {
+        try {
+          segment.join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+          segment.interrupt();
+        }
+      }
+    } finally {
+      segments--;
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Ausführung unterbrochen");
+    }
+    if (failure[0] instanceof RuntimeException) {
+      throw (RuntimeException) failure[0];
+    }
+    if (failure[0] instanceof Error) {
+      throw (Error) failure[0];
+    }
+    return result[0];
+  }
+}
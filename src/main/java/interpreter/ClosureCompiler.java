@@ -0,0 +1,653 @@
+package interpreter;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import builtin.Builtin;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import semantic.SemanticException;
+import semantic.Symbol;
+import semantic.SymbolTable;
+
+// Alternative Ausführung: der analysierte AST wird einmalig in einen Baum aus Closures übersetzt.
+// Jeder Knoten wird zu einem kleinen Lambda, das seine Kinder bereits kennt. Variablen liegen in
+// festen Slots eines Frames (Object[]), Funktionen und Konstruktoren sind direkt verknüpft.
+// Zur Laufzeit gibt es keine instanceof-Ketten und keine Scope-Suche mehr.
+// Die Semantik entspricht dem Tree-Walker in Interpreter (Referenzmodus).
+public class ClosureCompiler implements Engine {
+
+  // Übersetzter Ausdruck
+  @FunctionalInterface
+  interface Code {
+    Object eval(Object[] frame);
+  }
+
+  // Übersetztes Statement; liefert, wie es endet
+  @FunctionalInterface
+  interface Action {
+    Completion exec(Object[] frame);
+  }
+
+  private SymbolTable symbolTable;
+  private Map<ASTNode, CompiledFunction> compiled = new IdentityHashMap<>();
+  private NodeStats stats = new NodeStats();
+  private boolean printNodeStats = false;
+  private Object returnValue; // Wert der letzten Completion.RETURN, bis der Aufruf ihn abholt
+  private final CallStack stack; // wie im Tree-Walker, jeder Aufruf zählt
+
+  public ClosureCompiler(SymbolTable symbolTable) {
+    this(symbolTable, new CallStack());
+  }
+
+  // Stufe 1 des TieredInterpreter: Aufrufe laufen auf dessen Segmenten weiter
+  ClosureCompiler(SymbolTable symbolTable, CallStack stack) {
+    this.symbolTable = symbolTable;
+    this.stack = stack;
+  }
+
+  // Speicher für die Stacks der Segmente in Bytes, begrenzt die Rekursionstiefe
+  public void setStackBudget(long stackBudget) {
+    stack.setBudget(stackBudget);
+  }
+
+  // Nach der Ausführung Spezialisierungen und Deoptimierungen auf System.err ausgeben
+  public void setNodeStats(boolean printNodeStats) {
+    this.printNodeStats = printNodeStats;
+  }
+
+  @Override
+  public Object execute(Program program) {
+    FunctionDecl mainFunc = program.getMainFunction();
+    if (mainFunc != null) {
+      CompiledFunction main = compileFunction(mainFunc);
+      try {
+        return main.invoke(new Object[main.frameSize]);
+      } finally {
+        if (printNodeStats) {
+          System.err.println(stats.report());
+        }
+      }
+    }
+    return null;
+  }
+
+  // === Einstieg aus dem Tree-Walker (TieredInterpreter) ===
+
+  // Funktion mit bereits ausgewerteten Argumenten (args ab base) aufrufen; Referenz-Parameter
+  // bekommen das Symbol
+  Object callFunction(FunctionDecl func, Object[] args, int base) {
+    CompiledFunction target = compileFunction(func);
+    return target.invoke(frameWith(target, args, base));
+  }
+
+  Object callMethod(RuntimeValue object, MethodDecl method, Object[] args, int base) {
+    CompiledFunction target = compileMethod(method);
+    return target.invokeMethod(object, frameWith(target, args, base), false);
+  }
+
+  private Object[] frameWith(CompiledFunction target, Object[] args, int base) {
+    Object[] frame = new Object[target.frameSize];
+    for (int i = 0; i < target.params.length; i++) {
+      Object arg = args[base + i];
+      LocalVariable param = target.params[i];
+      if (param.isReference() && !(arg instanceof Symbol)) {
+        // Wie Interpreter.executeFunction: ohne Symbol wird der Wert kopiert
+        arg = newCell(param, arg);
+      }
+      frame[target.firstParam + i] = arg;
+    }
+    return frame;
+  }
+
+  // On-Stack-Replacement: eine laufende while-Schleife des Tree-Walkers wird in übersetztem Code
+  // fortgesetzt. Beide legen ihre Frames nach den Slots des Resolvers an, die Schleife arbeitet
+  // deshalb direkt auf dem Frame des Interpreters.
+  static class CompiledLoop {
+    private final Action loop;
+
+    CompiledLoop(Action loop) {
+      this.loop = loop;
+    }
+
+    // Setzt die Schleife mit der nächsten Prüfung der Bedingung fort; bei RETURN liegt der Wert
+    // in takeReturnValue()
+    Completion resume(Object[] frame) {
+      return loop.exec(frame);
+    }
+  }
+
+  Object takeReturnValue() {
+    Object value = returnValue;
+    returnValue = null;
+    return value;
+  }
+
+  CompiledLoop compileLoop(WhileStmt stmt) {
+    return new CompiledLoop(compileStatement(stmt));
+  }
+
+  // === Funktionen, Methoden, Konstruktoren ===
+
+  // Übersetzte Funktion: Parameter liegen in den ersten Slots (bei Methoden nach dem Objekt)
+  private class CompiledFunction {
+    private String name;
+    private int frameSize;
+    private int firstParam;
+    private LocalVariable[] params;
+    private Action body;
+    private CompiledFunction baseConstructor; // nur bei Konstruktoren, läuft vor dem Rumpf
+
+    CompiledFunction(String name) {
+      this.name = name;
+    }
+
+    // Der erste Aufruf und jeder SEGMENT_CALLS-te verschachtelte läuft auf einem neuen Segment
+    Object invoke(Object[] frame) {
+      if (stack.full()) {
+        return stack.inNewSegment(() -> invoke(frame));
+      }
+      stack.enter();
+      try {
+        bindParameters(frame);
+        return body.exec(frame) == Completion.RETURN ? takeReturnValue() : null;
+      } finally {
+        stack.exit();
+      }
+    }
+
+    // Wie Interpreter.executeMethod: Slot 0 hält das Objekt, Feldnamen greifen direkt darauf zu
+    Object invokeMethod(RuntimeValue object, Object[] frame, boolean isConstructor) {
+      if (stack.full()) {
+        return stack.inNewSegment(() -> invokeMethod(object, frame, isConstructor));
+      }
+      stack.enter();
+      try {
+        if (baseConstructor != null) {
+          baseConstructor.invokeMethod(object, new Object[baseConstructor.frameSize], true);
+        }
+        frame[0] = object;
+        bindParameters(frame);
+        if (body.exec(frame) == Completion.RETURN) {
+          Object value = takeReturnValue();
+          return isConstructor ? null : value;
+        }
+        return null;
+      } finally {
+        stack.exit();
+      }
+    }
+
+    private void bindParameters(Object[] frame) {
+      for (LocalVariable param : params) {
+        if (param.isAddressTaken()) {
+          frame[param.getSlot()] = newCell(param, frame[param.getSlot()]);
+        }
+      }
+    }
+  }
+
+  private CompiledFunction compileFunction(FunctionDecl func) {
+    CompiledFunction fn = compiled.get(func);
+    if (fn == null) {
+      fn = new CompiledFunction(func.getName());
+      compiled.put(func, fn);
+      compileBody(fn, func.getParameters(), func.getBody(), func.getFrameSize(), false);
+    }
+    return fn;
+  }
+
+  private CompiledFunction compileMethod(MethodDecl method) {
+    CompiledFunction fn = compiled.get(method);
+    if (fn == null) {
+      fn = new CompiledFunction(method.getName());
+      compiled.put(method, fn);
+      compileBody(fn, method.getParameters(), method.getBody(), method.getFrameSize(), true);
+    }
+    return fn;
+  }
+
+  private CompiledFunction compileConstructor(ConstructorDecl ctor) {
+    CompiledFunction fn = compiled.get(ctor);
+    if (fn == null) {
+      fn = new CompiledFunction(ctor.getClassName());
+      compiled.put(ctor, fn);
+      compileBody(fn, ctor.getParameters(), ctor.getBody(), ctor.getFrameSize(), true);
+      if (ctor.getBaseConstructor() != null) {
+        fn.baseConstructor = compileConstructor(ctor.getBaseConstructor());
+      }
+    }
+    return fn;
+  }
+
+  private void compileBody(
+      CompiledFunction fn,
+      List<Parameter> parameters,
+      BlockStmt body,
+      int frameSize,
+      boolean isMethod) {
+    // Slots kommen vom Resolver; Slot 0 hält bei Methoden und Konstruktoren das Objekt
+    fn.frameSize = frameSize;
+    fn.firstParam = isMethod ? 1 : 0;
+    fn.params = new LocalVariable[parameters.size()];
+    for (int i = 0; i < parameters.size(); i++) {
+      fn.params[i] = parameters.get(i).getVariable();
+    }
+
+    // Funktionskörper teilt sich den Scope mit den Parametern
+    fn.body = compileStatements(body.getStatements());
+  }
+
+  private static Symbol newCell(LocalVariable local, Object value) {
+    Symbol symbol = new Symbol(local.getName(), local.getType());
+    symbol.setValue(value);
+    return symbol;
+  }
+
+  // === Statements ===
+
+  private Action compileStatements(List<Statement> statements) {
+    Action[] actions = new Action[statements.size()];
+    for (int i = 0; i < actions.length; i++) {
+      actions[i] = compileStatement(statements.get(i));
+    }
+    switch (actions.length) {
+      case 0:
+        return f -> Completion.NORMAL;
+      case 1:
+        return actions[0];
+      case 2:
+        Action first = actions[0];
+        Action second = actions[1];
+        return f -> {
+          Completion completion = first.exec(f);
+          return completion != Completion.NORMAL ? completion : second.exec(f);
+        };
+      default:
+        return f -> {
+          for (Action action : actions) {
+            Completion completion = action.exec(f);
+            if (completion != Completion.NORMAL) {
+              return completion;
+            }
+          }
+          return Completion.NORMAL;
+        };
+    }
+  }
+
+  private Action compileStatement(Statement stmt) {
+    if (stmt instanceof VarDeclStmt) {
+      return compileVarDecl((VarDeclStmt) stmt);
+    } else if (stmt instanceof IfStmt) {
+      return compileIf((IfStmt) stmt);
+    } else if (stmt instanceof WhileStmt) {
+      return compileWhile((WhileStmt) stmt);
+    } else if (stmt instanceof ReturnStmt) {
+      return compileReturn((ReturnStmt) stmt);
+    } else if (stmt instanceof BreakStmt) {
+      return f -> Completion.BREAK;
+    } else if (stmt instanceof ContinueStmt) {
+      return f -> Completion.CONTINUE;
+    } else if (stmt instanceof ExprStmt) {
+      Code expr = compileExpression(((ExprStmt) stmt).getExpression());
+      return f -> {
+        expr.eval(f);
+        return Completion.NORMAL;
+      };
+    } else if (stmt instanceof BlockStmt) {
+      return compileStatements(((BlockStmt) stmt).getStatements());
+    }
+    return f -> Completion.NORMAL;
+  }
+
+  private Action compileVarDecl(VarDeclStmt stmt) {
+    LocalVariable local = stmt.getVariable();
+    int slot = local.getSlot();
+    Code init;
+    if (stmt.hasInitializer()) {
+      init = compileExpression(stmt.getInitializer());
+    } else {
+      Object defaultValue = Values.getDefaultValue(stmt.getType().getTypeName());
+      init = f -> defaultValue;
+    }
+
+    // Referenz: Slot übernimmt das Symbol des Ziels
+    if (local.isReference()) {
+      LocalVariable target = null;
+      if (stmt.getInitializer() instanceof IdentifierExpr) {
+        target = ((IdentifierExpr) stmt.getInitializer()).getVariable();
+      }
+      if (target != null) {
+        int targetSlot = target.getSlot();
+        return f -> {
+          init.eval(f);
+          f[slot] = f[targetSlot];
+          return Completion.NORMAL;
+        };
+      }
+      return f -> {
+        init.eval(f);
+        f[slot] = new Symbol(local.getName(), local.getType());
+        return Completion.NORMAL;
+      };
+    }
+
+    if (local.isAddressTaken()) {
+      return f -> {
+        f[slot] = newCell(local, init.eval(f));
+        return Completion.NORMAL;
+      };
+    }
+    return f -> {
+      f[slot] = init.eval(f);
+      return Completion.NORMAL;
+    };
+  }
+
+  private Action compileIf(IfStmt stmt) {
+    Code condition = compileExpression(stmt.getCondition());
+    Action thenBranch = compileStatement(stmt.getThenBranch());
+    if (!stmt.hasElseBranch()) {
+      return f -> Values.toBoolean(condition.eval(f)) ? thenBranch.exec(f) : Completion.NORMAL;
+    }
+    Action elseBranch = compileStatement(stmt.getElseBranch());
+    return f -> Values.toBoolean(condition.eval(f)) ? thenBranch.exec(f) : elseBranch.exec(f);
+  }
+
+  private Action compileWhile(WhileStmt stmt) {
+    Code condition = compileExpression(stmt.getCondition());
+    Action body = compileStatement(stmt.getBody());
+    return f -> {
+      while (Values.toBoolean(condition.eval(f))) {
+        Completion completion = body.exec(f);
+        if (completion == Completion.BREAK) {
+          break;
+        }
+        if (completion == Completion.RETURN) {
+          return completion;
+        }
+      }
+      return Completion.NORMAL;
+    };
+  }
+
+  private Action compileReturn(ReturnStmt stmt) {
+    if (!stmt.hasValue()) {
+      return f -> {
+        returnValue = null;
+        return Completion.RETURN;
+      };
+    }
+    Code value = compileExpression(stmt.getValue());
+    return f -> {
+      returnValue = value.eval(f);
+      return Completion.RETURN;
+    };
+  }
+
+  // === Expressions ===
+
+  private Code compileExpression(Expression expr) {
+    if (expr instanceof IntLiteral) {
+      Object value = ((IntLiteral) expr).getValue();
+      return f -> value;
+    } else if (expr instanceof BoolLiteral) {
+      Object value = ((BoolLiteral) expr).getValue();
+      return f -> value;
+    } else if (expr instanceof CharLiteral) {
+      Object value = ((CharLiteral) expr).getValue();
+      return f -> value;
+    } else if (expr instanceof StringLiteral) {
+      Object value = ((StringLiteral) expr).getValue();
+      return f -> value;
+    } else if (expr instanceof IdentifierExpr) {
+      return compileIdentifier((IdentifierExpr) expr);
+    } else if (expr instanceof BinaryExpr) {
+      return compileBinary((BinaryExpr) expr);
+    } else if (expr instanceof UnaryExpr) {
+      return compileUnary((UnaryExpr) expr);
+    } else if (expr instanceof AssignExpr) {
+      return compileAssign((AssignExpr) expr);
+    } else if (expr instanceof FunctionCallExpr) {
+      return compileFunctionCall((FunctionCallExpr) expr);
+    } else if (expr instanceof MethodCallExpr) {
+      return compileMethodCall((MethodCallExpr) expr);
+    } else if (expr instanceof MemberAccessExpr) {
+      return compileMemberAccess((MemberAccessExpr) expr);
+    } else if (expr instanceof CopyExpr) {
+      Code operand = compileExpression(((CopyExpr) expr).getOperand());
+      ClassDecl cls = ((CopyExpr) expr).getTargetClass();
+      return f -> Values.copyObject(operand.eval(f), cls);
+    }
+    return f -> null;
+  }
+
+  private Code compileIdentifier(IdentifierExpr expr) {
+    LocalVariable local = expr.getVariable();
+    if (local == null && expr.getFieldSlot() >= 0) {
+      int field = expr.getFieldSlot();
+      return f -> ((RuntimeValue) f[0]).getSlot(field);
+    }
+    if (local == null) {
+      String name = expr.getName();
+      return f -> {
+        throw new RuntimeException("Variable '" + name + "' nicht definiert");
+      };
+    }
+    int slot = local.getSlot();
+    if (local.isCell()) {
+      return f -> ((Symbol) f[slot]).getValue();
+    }
+    return f -> f[slot];
+  }
+
+  private Code compileBinary(BinaryExpr expr) {
+    Code left = compileExpression(expr.getLeft());
+    Code right = compileExpression(expr.getRight());
+
+    switch (expr.getOperator()) {
+      case AND:
+        return f -> Values.toBoolean(left.eval(f)) && Values.toBoolean(right.eval(f));
+      case OR:
+        return f -> Values.toBoolean(left.eval(f)) || Values.toBoolean(right.eval(f));
+      default:
+        // Arithmetik und Vergleiche spezialisieren sich zur Laufzeit selbst
+        return BinaryNode.create(expr.getOperator(), left, right, stats);
+    }
+  }
+
+  private Code compileUnary(UnaryExpr expr) {
+    Code operand = compileExpression(expr.getOperand());
+
+    switch (expr.getOperator()) {
+      case NEG:
+        return f -> -Values.toInt(operand.eval(f));
+      case POS:
+        return f -> Values.toInt(operand.eval(f));
+      case NOT:
+        return f -> !Values.toBoolean(operand.eval(f));
+      default:
+        throw new RuntimeException("Unbekannter Operator: " + expr.getOperator());
+    }
+  }
+
+  private Code compileAssign(AssignExpr expr) {
+    Code value = compileExpression(expr.getValue());
+
+    if (expr.getTarget() instanceof IdentifierExpr) {
+      LocalVariable local = ((IdentifierExpr) expr.getTarget()).getVariable();
+      int field = ((IdentifierExpr) expr.getTarget()).getFieldSlot();
+      if (local == null && field >= 0) {
+        return f -> {
+          Object v = value.eval(f);
+          ((RuntimeValue) f[0]).setSlot(field, v);
+          return v;
+        };
+      }
+      if (local == null) {
+        String name = ((IdentifierExpr) expr.getTarget()).getName();
+        return f -> {
+          value.eval(f);
+          throw new RuntimeException("Variable '" + name + "' nicht definiert");
+        };
+      }
+      int slot = local.getSlot();
+      if (local.isCell()) {
+        return f -> {
+          Object v = value.eval(f);
+          ((Symbol) f[slot]).setValue(v);
+          return v;
+        };
+      }
+      return f -> f[slot] = value.eval(f);
+    } else if (expr.getTarget() instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr.getTarget();
+      Code object = compileExpression(access.getObject());
+      return f -> {
+        Object v = value.eval(f);
+        Object obj = object.eval(f);
+        if (obj instanceof RuntimeValue) {
+          ((RuntimeValue) obj).setField(access, v);
+        }
+        return v;
+      };
+    }
+    return value;
+  }
+
+  private Code compileFunctionCall(FunctionCallExpr expr) {
+    List<Expression> arguments = expr.getArguments();
+
+    // Ziel steht seit der Analyse fest; in der REPL evtl. neu binden
+    try {
+      symbolTable.link(expr);
+    } catch (SemanticException e) {
+      return f -> {
+        throw e;
+      };
+    }
+
+    // Built-in Funktionen: Argumente auswerten und die gebundene Methode aufrufen
+    if (expr.isBuiltin()) {
+      Builtin builtin = expr.getBuiltin();
+      Code[] args = new Code[arguments.size()];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = compileExpression(arguments.get(i));
+      }
+      return f -> {
+        Object[] values = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+          values[i] = args[i].eval(f);
+        }
+        return builtin.invoke(values);
+      };
+    }
+
+    // Konstruktor-Aufruf
+    if (expr.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR) {
+      return compileCreateObject(expr);
+    }
+
+    // Normale Funktion
+    FunctionDecl func = expr.getFunction();
+    CompiledFunction target = compileFunction(func);
+    Code[] args = compileArguments(func.getParameters(), arguments);
+
+    return f -> {
+      Object[] frame = new Object[target.frameSize];
+      for (int i = 0; i < args.length; i++) {
+        frame[target.firstParam + i] = args[i].eval(f);
+      }
+      return target.invoke(frame);
+    };
+  }
+
+  private Code compileMethodCall(MethodCallExpr expr) {
+    Code object = compileExpression(expr.getObject());
+    String methodName = expr.getMethodName();
+    // Überschreibende Methoden haben dieselben Parametertypen wie die gewählte Überladung
+    Code[] args = compileArguments(expr.getMethod().getParameters(), expr.getArguments());
+    // Statisch gebundene Aufrufe kennen ihr Ziel schon jetzt
+    MethodDecl bound = expr.getTarget();
+    CompiledFunction boundTarget = bound != null ? compileMethod(bound) : null;
+
+    return f -> {
+      Object obj = object.eval(f);
+      if (!(obj instanceof RuntimeValue)) {
+        throw new RuntimeException("Methodenaufruf auf Nicht-Objekt");
+      }
+      RuntimeValue runtimeObj = (RuntimeValue) obj;
+      ClassDecl cls = runtimeObj.getClassDecl();
+      MethodDecl method = expr.dispatch(cls);
+      if (method == null) {
+        throw new RuntimeException(
+            "Methode '" + methodName + "' nicht gefunden in Klasse '" + cls.getName() + "'");
+      }
+      CompiledFunction target = method == bound ? boundTarget : compileMethod(method);
+      Object[] frame = new Object[target.frameSize];
+      for (int i = 0; i < args.length; i++) {
+        frame[target.firstParam + i] = args[i].eval(f);
+      }
+      return target.invokeMethod(runtimeObj, frame, false);
+    };
+  }
+
+  // Referenz-Parameter bekommen das Symbol der Variablen, alle anderen den Wert
+  private Code[] compileArguments(List<Parameter> parameters, List<Expression> arguments) {
+    Code[] args = new Code[arguments.size()];
+    for (int i = 0; i < args.length; i++) {
+      Expression argExpr = arguments.get(i);
+      if (parameters.get(i).getType().isReference()) {
+        LocalVariable local =
+            argExpr instanceof IdentifierExpr ? ((IdentifierExpr) argExpr).getVariable() : null;
+        if (local != null) {
+          int slot = local.getSlot();
+          args[i] = f -> f[slot];
+        } else {
+          args[i] =
+              f -> {
+                throw new RuntimeException("Referenz-Parameter braucht LValue");
+              };
+        }
+      } else {
+        args[i] = compileExpression(argExpr);
+      }
+    }
+    return args;
+  }
+
+  private Code compileMemberAccess(MemberAccessExpr expr) {
+    Code object = compileExpression(expr.getObject());
+    return f -> {
+      Object obj = object.eval(f);
+      if (obj instanceof RuntimeValue) {
+        return ((RuntimeValue) obj).getField(expr);
+      }
+      throw new RuntimeException("Feldzugriff auf Nicht-Objekt");
+    };
+  }
+
+  private Code compileCreateObject(FunctionCallExpr expr) {
+    ClassDecl cls = expr.getConstructedClass();
+    List<Expression> arguments = expr.getArguments();
+    ConstructorDecl ctor = expr.getConstructor();
+    if (ctor == null) {
+      return f -> new RuntimeValue(cls);
+    }
+
+    CompiledFunction target = compileConstructor(ctor);
+    Code[] args = compileArguments(ctor.getParameters(), arguments);
+    return f -> {
+      RuntimeValue obj = new RuntimeValue(cls);
+      Object[] frame = new Object[target.frameSize];
+      for (int i = 0; i < args.length; i++) {
+        frame[target.firstParam + i] = args[i].eval(f);
+      }
+      target.invokeMethod(obj, frame, true);
+      return obj;
+    };
+  }
+}
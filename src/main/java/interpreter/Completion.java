@@ -0,0 +1,13 @@
+package interpreter;
+
+// Wie ein Statement endet. Statements geben das als Wert zurück, statt return, break und continue
+// als Ausnahmen durch die Aufrufkette zu werfen; Blöcke brechen bei allem außer NORMAL ab, die
+// Schleife fängt BREAK und CONTINUE, der Aufruf RETURN und TAIL_CALL. Den Rückgabewert bzw. den
+// Zielaufruf hält die ausführende Engine, bis der Aufruf ihn abholt.
+public enum Completion {
+  NORMAL,
+  RETURN,
+  BREAK,
+  CONTINUE,
+  TAIL_CALL // return f(...) in einer Funktion, nur im Tree-Walker
+}
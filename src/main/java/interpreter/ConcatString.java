@@ -0,0 +1,68 @@
+package interpreter;
+
+// Ergebnis einer String-Verkettung. Statt bei jedem "s = s + x" den ganzen String zu kopieren,
+// teilen sich aufeinander folgende Verkettungen einen Puffer: jeder Wert sieht dessen erste
+// length Zeichen, und wer das Ende des Puffers sieht, hängt direkt an; der alte Wert sieht
+// weiter nur seinen Anfang. Wurde hinter einem Wert schon anderes angehängt, wird kopiert.
+// Wiederholtes Anhängen kostet so amortisiert O(1). Ein String entsteht erst bei Ausgabe,
+// Vergleich oder Übergabe an ein Built-in, und für jeden Wert nur einmal.
+public final class ConcatString implements CharSequence {
+  private final StringBuilder buffer;
+  private final int length;
+  private String flat;
+
+  private ConcatString(StringBuilder buffer, int length) {
+    this.buffer = buffer;
+    this.length = length;
+  }
+
+  // left + right, mindestens eine Seite ist ein String oder ConcatString
+  static ConcatString concat(Object left, Object right) {
+    StringBuilder buffer;
+    if (left instanceof ConcatString && ((ConcatString) left).isTip()) {
+      buffer = ((ConcatString) left).buffer;
+    } else {
+      String prefix = String.valueOf(left);
+      buffer = new StringBuilder(Math.max(16, 2 * prefix.length()));
+      buffer.append(prefix);
+    }
+    if (right instanceof ConcatString && ((ConcatString) right).buffer != buffer) {
+      ConcatString tail = (ConcatString) right;
+      buffer.append(tail.buffer, 0, tail.length);
+    } else {
+      buffer.append(String.valueOf(right));
+    }
+    return new ConcatString(buffer, buffer.length());
+  }
+
+  // Hinter diesem Wert wurde noch nichts angehängt
+  private boolean isTip() {
+    return buffer.length() == length;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return buffer.charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().subSequence(start, end);
+  }
+
+  @Override
+  public String toString() {
+    if (flat == null) {
+      flat = buffer.substring(0, length);
+    }
+    return flat;
+  }
+}
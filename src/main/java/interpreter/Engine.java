@@ -0,0 +1,8 @@
+package interpreter;
+
+import ast.Program;
+
+// Gemeinsame Schnittstelle aller Ausführungsarten (Tree-Walker, Closures, ...)
+public interface Engine {
+  Object execute(Program program);
+}
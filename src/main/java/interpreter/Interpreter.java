@@ -3,186 +3,322 @@ package interpreter;
 import ast.*;
 import ast.decl.*;
 import ast.expr.*;
+import ast.expr.IdentifierExpr;
 import ast.stmt.*;
+import java.util.Arrays;
 import java.util.List;
 import semantic.Symbol;
 import semantic.SymbolTable;
-import ast.expr.IdentifierExpr;
 
-public class Interpreter {
+public class Interpreter implements Engine {
   private SymbolTable symbolTable;
   private Program program;
 
+  // Lokale Variablen der laufenden Funktion in den Slots des Resolvers. Variablen, auf die eine
+  // Referenz zeigt, liegen in einem Symbol. Bei Methoden hält Slot 0 das Objekt, Feldnamen im
+  // Rumpf greifen direkt auf dessen Slots zu.
+  private Object[] frame;
+  private boolean inMethod; // läuft eine Methode oder ein Konstruktor
+
+  // Aufrufe allokieren nichts: der Aufrufer legt die Argumente oben auf den Argumentstapel und
+  // gibt sie nach dem Aufruf wieder frei, der Aufgerufene bindet sie beim Eintritt in seinen Frame.
+  // Referenz-Parameter bekommen dabei das Symbol der Variable des Aufrufers. Frames gehören zur
+  // Aufruftiefe und werden von jedem Aufruf in dieser Tiefe wiederverwendet.
+  private Object[] arguments = new Object[64];
+  private int argumentTop;
+  private Object[][] frames = new Object[64][];
+
+  // Ergebnis der letzten Completion.RETURN bzw. Ziel der letzten Completion.TAIL_CALL, gelesen vom
+  // Aufruf, sobald der Rumpf damit endet. Die Argumente des Endaufrufs liegen ab tailBase.
+  private Object returnValue;
+  private FunctionDecl tailFunction;
+  private int tailBase;
+
+  // Aufruftiefe und Stack-Segmente; die Tiefe ist zugleich der Index des Frames im Pool
+  private final CallStack stack = new CallStack();
+
   public Interpreter(SymbolTable symbolTable) {
     this.symbolTable = symbolTable;
   }
 
+  @Override
   public Object execute(Program program) {
     this.program = program;
 
     // Suche und führe main() aus
     FunctionDecl mainFunc = program.getMainFunction();
     if (mainFunc != null) {
-      return executeFunction(mainFunc, List.of());
+      // Nach einem Fehler in einer früheren Eingabe der REPL können noch Argumente liegen
+      argumentTop = 0;
+      return stack.inNewSegment(() -> executeFunction(mainFunc, arguments, 0));
     }
 
     return null;
   }
 
-    private Object executeFunction(FunctionDecl func, List<Object> args) {
-        symbolTable.enterScope();
+  // Speicher für die Stacks der Segmente in Bytes, begrenzt die Rekursionstiefe
+  public void setStackBudget(long stackBudget) {
+    stack.setBudget(stackBudget);
+  }
+
+  // Aufruftiefe und Segmente, die der TieredInterpreter mit Stufe 1 teilt
+  CallStack callStack() {
+    return stack;
+  }
+
+  // Frame der laufenden Funktion; der TieredInterpreter setzt darin Schleifen fort
+  protected Object[] currentFrame() {
+    return frame;
+  }
+
+  // Einstiegspunkt für jeden Funktionsaufruf; der JIT leitet hier auf übersetzten Code um.
+  // Die Argumente stehen in args ab base, gültig bis zum ersten geschachtelten Aufruf.
+  protected Object executeFunction(FunctionDecl func, Object[] args, int base) {
+    Object[] callerFrame = frame;
+    boolean callerInMethod = inMethod;
+    stack.enter();
+    inMethod = false;
+
+    try {
+      // Endaufrufe ersetzen die Aktivierung, statt den Stack wachsen zu lassen (Trampolin)
+      while (true) {
+        frame = enterFrame(func.getFrameSize());
 
         // Parameter binden
-        for (int i = 0; i < func.getParameters().size(); i++) {
-            Parameter param = func.getParameters().get(i);
-            Symbol symbol = new Symbol(param.getName(), param.getType());
-
-            if (param.getType().isReference() && args.get(i) instanceof Symbol) {
-                // Referenz-Parameter: verknüpfe mit Original-Symbol
-                symbol.setReferenceTo((Symbol) args.get(i));
-            } else {
-                // Normaler Parameter: kopiere Wert
-                symbol.setValue(args.get(i));
-            }
-
-            symbolTable.declareVariable(symbol);
+        List<Parameter> parameters = func.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+          LocalVariable param = parameters.get(i).getVariable();
+          Object arg = args[base + i];
+
+          if (param.isReference() && arg instanceof Symbol) {
+            // Referenz-Parameter: verknüpfe mit Original-Symbol
+            frame[param.getSlot()] = arg;
+          } else {
+            // Normaler Parameter: kopiere Wert
+            bind(param, arg);
+          }
         }
 
         // Body ausführen
-        try {
-            executeBlock(func.getBody());
-        } catch (ReturnException e) {
-            symbolTable.exitScope();
-            return e.getValue();
+        Completion completion = executeBlock(func.getBody());
+        if (completion != Completion.TAIL_CALL) {
+          return takeReturnValue(completion);
         }
-
-        symbolTable.exitScope();
-        return null;
+        // Die Argumente des Endaufrufs treten an die Stelle der eigenen
+        func = tailFunction;
+        tailFunction = null;
+        int count = argumentTop - tailBase;
+        System.arraycopy(arguments, tailBase, arguments, base, count);
+        argumentTop = base + count;
+        args = arguments;
+        Arrays.fill(frame, null);
+      }
+    } finally {
+      Arrays.fill(frame, null);
+      stack.exit();
+      frame = callerFrame;
+      inMethod = callerInMethod;
     }
+  }
 
-  private Object executeMethod(RuntimeValue object, MethodDecl method, List<Object> args) {
-    symbolTable.enterScope();
-
-    // Felder als Variablen verfügbar machen
-    for (String fieldName : object.getFields().keySet()) {
-      Symbol symbol = new Symbol(fieldName, new Type("int")); // Vereinfacht
-      symbol.setValue(object.getField(fieldName));
-      symbolTable.declareVariable(symbol);
+  // Frame der aktuellen Aufruftiefe mit mindestens size Slots, leer
+  private Object[] enterFrame(int size) {
+    int depth = stack.depth();
+    if (depth >= frames.length) {
+      frames = Arrays.copyOf(frames, 2 * depth);
+    }
+    Object[] reused = frames[depth];
+    if (reused == null || reused.length < size) {
+      reused = new Object[Math.max(size, 8)];
+      frames[depth] = reused;
     }
+    return reused;
+  }
 
-    // Parameter binden
-    for (int i = 0; i < method.getParameters().size(); i++) {
-      Parameter param = method.getParameters().get(i);
-      Symbol symbol = new Symbol(param.getName(), param.getType());
-      symbol.setValue(args.get(i));
-      symbolTable.declareVariable(symbol);
+  // Legt ein Argument oben auf den Argumentstapel
+  private void pushArgument(Object value) {
+    if (argumentTop == arguments.length) {
+      arguments = Arrays.copyOf(arguments, 2 * arguments.length);
     }
+    arguments[argumentTop++] = value;
+  }
+
+  // Argumente wie bei executeFunction
+  protected Object executeMethod(RuntimeValue object, MethodDecl method, Object[] args, int base) {
+    return executeInObject(
+        object, method.getParameters(), method.getBody(), method.getFrameSize(), args, base);
+  }
+
+  // Methoden und Konstruktoren: Slot 0 hält das Objekt, Feldzugriffe wirken sofort darauf
+  private Object executeInObject(
+      RuntimeValue object,
+      List<Parameter> parameters,
+      BlockStmt body,
+      int frameSize,
+      Object[] args,
+      int base) {
+    Object[] callerFrame = frame;
+    boolean callerInMethod = inMethod;
+    stack.enter();
+    frame = enterFrame(frameSize);
+    frame[0] = object;
+    inMethod = true;
 
-    // Body ausführen
     try {
-      executeBlock(method.getBody());
-    } catch (ReturnException e) {
-      // Felder zurückschreiben
-      for (String fieldName : object.getFields().keySet()) {
-        Symbol symbol = symbolTable.lookupVariable(fieldName);
-        if (symbol != null) {
-          object.setField(fieldName, symbol.getValue());
+      // Parameter binden, Referenzen wie bei executeFunction
+      for (int i = 0; i < parameters.size(); i++) {
+        LocalVariable param = parameters.get(i).getVariable();
+        Object arg = args[base + i];
+        if (param.isReference() && arg instanceof Symbol) {
+          frame[param.getSlot()] = arg;
+        } else {
+          bind(param, arg);
         }
       }
-      symbolTable.exitScope();
-      return e.getValue();
+
+      // Body ausführen
+      return takeReturnValue(executeBlock(body));
+    } finally {
+      Arrays.fill(frame, null);
+      stack.exit();
+      frame = callerFrame;
+      inMethod = callerInMethod;
     }
+  }
 
-    // Felder zurückschreiben
-    for (String fieldName : object.getFields().keySet()) {
-      Symbol symbol = symbolTable.lookupVariable(fieldName);
-      if (symbol != null) {
-        object.setField(fieldName, symbol.getValue());
-      }
+  private void bind(LocalVariable variable, Object value) {
+    if (variable.isCell()) {
+      Symbol symbol = new Symbol(variable.getName(), variable.getType());
+      symbol.setValue(value);
+      frame[variable.getSlot()] = symbol;
+    } else {
+      frame[variable.getSlot()] = value;
     }
+  }
 
-    symbolTable.exitScope();
-    return null;
+  // Rückgabewert eines Rumpfs, der mit completion endete; ohne return ist er null
+  private Object takeReturnValue(Completion completion) {
+    if (completion != Completion.RETURN) {
+      return null;
+    }
+    Object value = returnValue;
+    returnValue = null;
+    return value;
   }
 
-  private void executeBlock(BlockStmt block) {
+  // Beendet den Rumpf mit dem Rückgabewert value
+  protected Completion returnWith(Object value) {
+    returnValue = value;
+    return Completion.RETURN;
+  }
+
+  private Completion executeBlock(BlockStmt block) {
     for (Statement stmt : block.getStatements()) {
-      executeStatement(stmt);
+      Completion completion = executeStatement(stmt);
+      if (completion != Completion.NORMAL) {
+        return completion;
+      }
     }
+    return Completion.NORMAL;
   }
 
-  private void executeStatement(Statement stmt) {
+  private Completion executeStatement(Statement stmt) {
     if (stmt instanceof VarDeclStmt) {
       executeVarDecl((VarDeclStmt) stmt);
     } else if (stmt instanceof IfStmt) {
-      executeIf((IfStmt) stmt);
+      return executeIf((IfStmt) stmt);
     } else if (stmt instanceof WhileStmt) {
-      executeWhile((WhileStmt) stmt);
+      return executeWhile((WhileStmt) stmt);
     } else if (stmt instanceof ReturnStmt) {
-      executeReturn((ReturnStmt) stmt);
+      return executeReturn((ReturnStmt) stmt);
+    } else if (stmt instanceof BreakStmt) {
+      return Completion.BREAK;
+    } else if (stmt instanceof ContinueStmt) {
+      return Completion.CONTINUE;
     } else if (stmt instanceof ExprStmt) {
       executeExprStmt((ExprStmt) stmt);
     } else if (stmt instanceof BlockStmt) {
-      symbolTable.enterScope();
-      executeBlock((BlockStmt) stmt);
-      symbolTable.exitScope();
+      // Scopes sind vom Resolver aufgelöst, ein Block kostet zur Laufzeit nichts
+      return executeBlock((BlockStmt) stmt);
     }
+    return Completion.NORMAL;
   }
 
   private void executeVarDecl(VarDeclStmt stmt) {
-    Object value = getDefaultValue(stmt.getType().getTypeName());
+    Object value = Values.getDefaultValue(stmt.getType().getTypeName());
 
     if (stmt.hasInitializer()) {
       value = evaluate(stmt.getInitializer());
     }
 
-    Symbol symbol = new Symbol(stmt.getName(), stmt.getType());
+    LocalVariable variable = stmt.getVariable();
 
-    // Referenz-Handling
-    if (stmt.getType().isReference() && stmt.hasInitializer()) {
+    // Referenz-Handling: Slot übernimmt das Symbol des Ziels
+    if (variable.isReference()) {
+      Symbol target = null;
       if (stmt.getInitializer() instanceof IdentifierExpr) {
-        String targetName = ((IdentifierExpr) stmt.getInitializer()).getName();
-        Symbol target = symbolTable.lookupVariable(targetName);
-        if (target != null) {
-          symbol.setReferenceTo(target);
+        LocalVariable targetVariable = ((IdentifierExpr) stmt.getInitializer()).getVariable();
+        if (targetVariable != null) {
+          target = (Symbol) frame[targetVariable.getSlot()];
         }
       }
+      frame[variable.getSlot()] =
+          target != null ? target : new Symbol(variable.getName(), variable.getType());
     } else {
-      symbol.setValue(value);
+      bind(variable, value);
     }
-
-    symbolTable.declareVariable(symbol);
   }
 
-  private void executeIf(IfStmt stmt) {
-    Object condition = evaluate(stmt.getCondition());
-    boolean result = toBoolean(condition);
-
-    if (result) {
-      symbolTable.enterScope();
-      executeStatement(stmt.getThenBranch());
-      symbolTable.exitScope();
+  private Completion executeIf(IfStmt stmt) {
+    if (evalBool(stmt.getCondition())) {
+      return executeStatement(stmt.getThenBranch());
     } else if (stmt.hasElseBranch()) {
-      symbolTable.enterScope();
-      executeStatement(stmt.getElseBranch());
-      symbolTable.exitScope();
+      return executeStatement(stmt.getElseBranch());
     }
+    return Completion.NORMAL;
   }
 
-  private void executeWhile(WhileStmt stmt) {
-    while (toBoolean(evaluate(stmt.getCondition()))) {
-      symbolTable.enterScope();
-      executeStatement(stmt.getBody());
-      symbolTable.exitScope();
+  private Completion executeWhile(WhileStmt stmt) {
+    while (evalBool(stmt.getCondition())) {
+      Completion completion = executeStatement(stmt.getBody());
+      if (completion == Completion.BREAK) {
+        break;
+      }
+      if (completion != Completion.NORMAL && completion != Completion.CONTINUE) {
+        return completion;
+      }
+      Completion resumed = onBackEdge(stmt);
+      if (resumed != null) {
+        return resumed;
+      }
     }
+    return Completion.NORMAL;
+  }
+
+  // Nach jedem Schleifendurchlauf; null, um im Tree-Walker weiterzumachen, sonst wie die Schleife
+  // in einer schnelleren Stufe zu Ende gelaufen ist
+  protected Completion onBackEdge(WhileStmt stmt) {
+    return null;
   }
 
-  private void executeReturn(ReturnStmt stmt) {
+  private Completion executeReturn(ReturnStmt stmt) {
+    // Endaufruf einer Funktion: Argumente auswerten, den Aufruf übernimmt executeFunction.
+    // Nur in Funktionen, Methoden haben kein Trampolin.
+    if (!inMethod && stmt.getValue() instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) stmt.getValue();
+      FunctionDecl func = lookupUserFunction(call);
+      if (func != null) {
+        tailBase = pushArguments(func.getParameters(), call.getArguments());
+        tailFunction = func;
+        return Completion.TAIL_CALL;
+      }
+    }
+
     Object value = null;
     if (stmt.hasValue()) {
       value = evaluate(stmt.getValue());
     }
-    throw new ReturnException(value);
+    return returnWith(value);
   }
 
   private void executeExprStmt(ExprStmt stmt) {
@@ -214,29 +350,44 @@ public class Interpreter {
       return evaluateMethodCall((MethodCallExpr) expr);
     } else if (expr instanceof MemberAccessExpr) {
       return evaluateMemberAccess((MemberAccessExpr) expr);
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      return Values.copyObject(evaluate(copy.getOperand()), copy.getTargetClass());
     }
     return null;
   }
 
   private Object evaluateIdentifier(IdentifierExpr expr) {
-    Symbol symbol = symbolTable.lookupVariable(expr.getName());
-    if (symbol == null) {
-      throw new RuntimeException("Variable '" + expr.getName() + "' nicht definiert");
+    LocalVariable variable = expr.getVariable();
+    if (variable != null) {
+      Object value = frame[variable.getSlot()];
+      return variable.isCell() ? ((Symbol) value).getValue() : value;
+    }
+    if (expr.getFieldSlot() >= 0) {
+      return ((RuntimeValue) frame[0]).getSlot(expr.getFieldSlot());
     }
-    return symbol.getValue();
+    throw new RuntimeException("Variable '" + expr.getName() + "' nicht definiert");
   }
 
   private Object evaluateBinary(BinaryExpr expr) {
+    // Mit statischem Typ werden nur das Ergebnis bzw. gar nichts geboxt
+    if (isArithmetic(expr)) {
+      return evalArithmetic(expr);
+    }
+    if (expr.getStaticType() != null && expr.getStaticType().getTypeName().equals("bool")) {
+      return evalBool(expr);
+    }
+
     // Short-circuit für && und ||
     if (expr.getOperator() == BinaryExpr.Operator.AND) {
       Object left = evaluate(expr.getLeft());
-      if (!toBoolean(left)) return false;
-      return toBoolean(evaluate(expr.getRight()));
+      if (!Values.toBoolean(left)) return false;
+      return Values.toBoolean(evaluate(expr.getRight()));
     }
     if (expr.getOperator() == BinaryExpr.Operator.OR) {
       Object left = evaluate(expr.getLeft());
-      if (toBoolean(left)) return true;
-      return toBoolean(evaluate(expr.getRight()));
+      if (Values.toBoolean(left)) return true;
+      return Values.toBoolean(evaluate(expr.getRight()));
     }
 
     Object left = evaluate(expr.getLeft());
@@ -244,139 +395,347 @@ public class Interpreter {
 
     switch (expr.getOperator()) {
       case ADD:
-        if (left instanceof String || right instanceof String) {
-          return String.valueOf(left) + String.valueOf(right);
+        if (Values.isString(left) || Values.isString(right)) {
+          return Values.concat(left, right);
         }
-        return toInt(left) + toInt(right);
+        return Values.toInt(left) + Values.toInt(right);
       case SUB:
-        return toInt(left) - toInt(right);
+        return Values.toInt(left) - Values.toInt(right);
       case MUL:
-        return toInt(left) * toInt(right);
+        return Values.toInt(left) * Values.toInt(right);
       case DIV:
-        int divisor = toInt(right);
+        int divisor = Values.toInt(right);
         if (divisor == 0) {
           throw new RuntimeException("Division durch 0");
         }
-        return toInt(left) / divisor;
+        return Values.toInt(left) / divisor;
       case MOD:
-        int mod = toInt(right);
+        int mod = Values.toInt(right);
         if (mod == 0) {
           throw new RuntimeException("Modulo durch 0");
         }
-        return toInt(left) % mod;
+        return Values.toInt(left) % mod;
       case EQ:
-        return equals(left, right);
       case NEQ:
-        return !equals(left, right);
       case LT:
-        return compare(left, right) < 0;
       case LE:
-        return compare(left, right) <= 0;
       case GT:
-        return compare(left, right) > 0;
       case GE:
-        return compare(left, right) >= 0;
+        return compareValues(expr.getOperator(), left, right);
       default:
         throw new RuntimeException("Unbekannter Operator: " + expr.getOperator());
     }
   }
 
   private Object evaluateUnary(UnaryExpr expr) {
-    Object operand = evaluate(expr.getOperand());
-
     switch (expr.getOperator()) {
       case NEG:
-        return -toInt(operand);
+        return -evalInt(expr.getOperand());
       case POS:
-        return toInt(operand);
+        return evalInt(expr.getOperand());
       case NOT:
-        return !toBoolean(operand);
+        return !evalBool(expr.getOperand());
       default:
         throw new RuntimeException("Unbekannter Operator: " + expr.getOperator());
     }
   }
 
+  // === Ungeboxte Auswertung ===
+  // evalInt(e) liefert dasselbe wie Values.toInt(evaluate(e)) und evalBool(e) dasselbe wie
+  // Values.toBoolean(evaluate(e)), samt Fehlern und Reihenfolge der Seiteneffekte.
+  // Zwischenergebnisse von Operatoren werden dabei nicht geboxt.
+
+  private int evalInt(Expression expr) {
+    if (expr instanceof IntLiteral) {
+      return ((IntLiteral) expr).getValue();
+    } else if (expr instanceof CharLiteral) {
+      return ((CharLiteral) expr).getValue();
+    } else if (expr instanceof BinaryExpr && isArithmetic((BinaryExpr) expr)) {
+      return evalArithmetic((BinaryExpr) expr);
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      switch (unary.getOperator()) {
+        case NEG:
+          return -evalInt(unary.getOperand());
+        case POS:
+          return evalInt(unary.getOperand());
+        default:
+          return evalBool(unary.getOperand()) ? 0 : 1;
+      }
+    }
+    return Values.toInt(evaluate(expr));
+  }
+
+  private boolean evalBool(Expression expr) {
+    if (expr instanceof BoolLiteral) {
+      return ((BoolLiteral) expr).getValue();
+    } else if (expr instanceof UnaryExpr
+        && ((UnaryExpr) expr).getOperator() == UnaryExpr.Operator.NOT) {
+      return !evalBool(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      switch (binary.getOperator()) {
+        case AND:
+          return evalBool(binary.getLeft()) && evalBool(binary.getRight());
+        case OR:
+          return evalBool(binary.getLeft()) || evalBool(binary.getRight());
+        case EQ:
+        case NEQ:
+        case LT:
+        case LE:
+        case GT:
+        case GE:
+          return evalComparison(binary);
+        default:
+          // Arithmetik: 0 ist false
+          if (isArithmetic(binary)) {
+            return evalArithmetic(binary) != 0;
+          }
+      }
+    }
+    return Values.toBoolean(evaluate(expr));
+  }
+
+  // Operator mit int-Ergebnis; + nur, wenn statisch kein String beteiligt ist
+  private static boolean isArithmetic(BinaryExpr expr) {
+    switch (expr.getOperator()) {
+      case SUB:
+      case MUL:
+      case DIV:
+      case MOD:
+        return true;
+      case ADD:
+        return expr.getStaticType() != null && expr.getStaticType().getTypeName().equals("int");
+      default:
+        return false;
+    }
+  }
+
+  // Literale und Operatoren liefern immer int, bool oder char: ihr Wert lässt sich ohne Fehler
+  // konvertieren und braucht kein Objekt. Variablen, Felder und Aufrufe liegen ohnehin geboxt vor.
+  private static boolean isUnboxed(Expression expr) {
+    if (expr.getStaticType() == null || !expr.getStaticType().isScalar()) {
+      return false;
+    }
+    return expr instanceof IntLiteral
+        || expr instanceof CharLiteral
+        || expr instanceof BoolLiteral
+        || expr instanceof UnaryExpr
+        || expr instanceof BinaryExpr;
+  }
+
+  private int evalArithmetic(BinaryExpr expr) {
+    // Beide Seiten auswerten, erst danach konvertieren wie in evaluateBinary; ungeboxte Operanden
+    // können beim Konvertieren nicht scheitern und werden direkt als int berechnet
+    boolean leftUnboxed = isUnboxed(expr.getLeft());
+    int left = leftUnboxed ? evalInt(expr.getLeft()) : 0;
+    Object leftValue = leftUnboxed ? null : evaluate(expr.getLeft());
+    boolean rightUnboxed = isUnboxed(expr.getRight());
+    int right = rightUnboxed ? evalInt(expr.getRight()) : 0;
+    Object rightValue = rightUnboxed ? null : evaluate(expr.getRight());
+
+    switch (expr.getOperator()) {
+      case ADD:
+        return (leftUnboxed ? left : Values.toInt(leftValue))
+            + (rightUnboxed ? right : Values.toInt(rightValue));
+      case SUB:
+        return (leftUnboxed ? left : Values.toInt(leftValue))
+            - (rightUnboxed ? right : Values.toInt(rightValue));
+      case MUL:
+        return (leftUnboxed ? left : Values.toInt(leftValue))
+            * (rightUnboxed ? right : Values.toInt(rightValue));
+      case DIV:
+        int divisor = rightUnboxed ? right : Values.toInt(rightValue);
+        if (divisor == 0) {
+          throw new RuntimeException("Division durch 0");
+        }
+        return (leftUnboxed ? left : Values.toInt(leftValue)) / divisor;
+      case MOD:
+        int mod = rightUnboxed ? right : Values.toInt(rightValue);
+        if (mod == 0) {
+          throw new RuntimeException("Modulo durch 0");
+        }
+        return (leftUnboxed ? left : Values.toInt(leftValue)) % mod;
+      default:
+        throw new RuntimeException("Unbekannter Operator: " + expr.getOperator());
+    }
+  }
+
+  // Vergleich; ein ungeboxter Operand wird gegen den Wert der anderen Seite geprüft, ohne ihn zu
+  // boxen. Values.equals und Values.compare verlangen dieselbe Wrapper-Klasse auf beiden Seiten.
+  private boolean evalComparison(BinaryExpr expr) {
+    Expression leftExpr = expr.getLeft();
+    Expression rightExpr = expr.getRight();
+    BinaryExpr.Operator op = expr.getOperator();
+    boolean leftUnboxed = isUnboxed(leftExpr);
+    boolean rightUnboxed = isUnboxed(rightExpr);
+    String leftType = leftUnboxed ? leftExpr.getStaticType().getTypeName() : null;
+    String rightType = rightUnboxed ? rightExpr.getStaticType().getTypeName() : null;
+
+    if (leftUnboxed && rightUnboxed && leftType.equals(rightType)) {
+      int left = evalInt(leftExpr);
+      int right = evalInt(rightExpr);
+      if (leftType.equals("bool")
+          && op != BinaryExpr.Operator.EQ
+          && op != BinaryExpr.Operator.NEQ) {
+        throw new RuntimeException(
+            "Kann Werte nicht vergleichen: " + (left != 0) + ", " + (right != 0));
+      }
+      return compareInts(op, left, right);
+    }
+    if (leftUnboxed && !rightUnboxed && !leftType.equals("bool")) {
+      int left = evalInt(leftExpr);
+      Object right = evaluate(rightExpr);
+      if (isWrapperOf(right, leftType)) {
+        return compareInts(op, left, Values.toInt(right));
+      }
+      return compareValues(op, box(left, leftType), right);
+    }
+    if (rightUnboxed && !leftUnboxed && !rightType.equals("bool")) {
+      Object left = evaluate(leftExpr);
+      int right = evalInt(rightExpr);
+      if (isWrapperOf(left, rightType)) {
+        return compareInts(op, Values.toInt(left), right);
+      }
+      return compareValues(op, left, box(right, rightType));
+    }
+    Object left = evaluate(leftExpr);
+    return compareValues(op, left, evaluate(rightExpr));
+  }
+
+  private static boolean compareInts(BinaryExpr.Operator op, int left, int right) {
+    switch (op) {
+      case EQ:
+        return left == right;
+      case NEQ:
+        return left != right;
+      case LT:
+        return left < right;
+      case LE:
+        return left <= right;
+      case GT:
+        return left > right;
+      default:
+        return left >= right;
+    }
+  }
+
+  private static boolean compareValues(BinaryExpr.Operator op, Object left, Object right) {
+    switch (op) {
+      case EQ:
+        return Values.equals(left, right);
+      case NEQ:
+        return !Values.equals(left, right);
+      case LT:
+        return Values.compare(left, right) < 0;
+      case LE:
+        return Values.compare(left, right) <= 0;
+      case GT:
+        return Values.compare(left, right) > 0;
+      default:
+        return Values.compare(left, right) >= 0;
+    }
+  }
+
+  private static boolean isWrapperOf(Object value, String typeName) {
+    return typeName.equals("int") ? value instanceof Integer : value instanceof Character;
+  }
+
+  private static Object box(int value, String typeName) {
+    return typeName.equals("int") ? (Object) value : (Object) (char) value;
+  }
+
   private Object evaluateAssign(AssignExpr expr) {
     Object value = evaluate(expr.getValue());
 
     if (expr.getTarget() instanceof IdentifierExpr) {
-      String name = ((IdentifierExpr) expr.getTarget()).getName();
-      Symbol symbol = symbolTable.lookupVariable(name);
-      if (symbol == null) {
-        throw new RuntimeException("Variable '" + name + "' nicht definiert");
+      IdentifierExpr target = (IdentifierExpr) expr.getTarget();
+      LocalVariable variable = target.getVariable();
+      if (variable != null) {
+        if (variable.isCell()) {
+          ((Symbol) frame[variable.getSlot()]).setValue(value);
+        } else {
+          frame[variable.getSlot()] = value;
+        }
+      } else if (target.getFieldSlot() >= 0) {
+        ((RuntimeValue) frame[0]).setSlot(target.getFieldSlot(), value);
+      } else {
+        throw new RuntimeException("Variable '" + target.getName() + "' nicht definiert");
       }
-      symbol.setValue(value);
     } else if (expr.getTarget() instanceof MemberAccessExpr) {
       MemberAccessExpr access = (MemberAccessExpr) expr.getTarget();
       Object obj = evaluate(access.getObject());
       if (obj instanceof RuntimeValue) {
-        ((RuntimeValue) obj).setField(access.getMemberName(), value);
+        ((RuntimeValue) obj).setField(access, value);
       }
     }
 
     return value;
   }
 
-    private Object evaluateFunctionCall(FunctionCallExpr expr) {
-        String funcName = expr.getFunctionName();
+  private Object evaluateFunctionCall(FunctionCallExpr expr) {
+    // Von der Analyse gebunden; in der REPL evtl. neu binden, wenn Funktionen hinzukamen
+    symbolTable.link(expr);
 
-        // Built-in Funktionen
-        if (funcName.equals("print_int")) {
-            Object arg = evaluate(expr.getArguments().get(0));
-            System.out.print(toInt(arg));
-            return null;
-        }
-        if (funcName.equals("print_bool")) {
-            Object arg = evaluate(expr.getArguments().get(0));
-            System.out.print(toBoolean(arg) ? "true" : "false");
-            return null;
-        }
-        if (funcName.equals("print_char")) {
-            Object arg = evaluate(expr.getArguments().get(0));
-            System.out.print((char) arg);
-            return null;
-        }
-        if (funcName.equals("print_string")) {
-            Object arg = evaluate(expr.getArguments().get(0));
-            System.out.print(String.valueOf(arg));
-            return null;
-        }
-
-        // Konstruktor-Aufruf prüfen
-        ClassDecl cls = symbolTable.lookupClass(funcName);
-        if (cls != null) {
-            return createObject(cls, expr.getArguments());
-        }
+    switch (expr.getKind()) {
+      case BUILTIN:
+        return callBuiltin(expr);
+      case CONSTRUCTOR:
+        return createObject(expr);
+      default:
+        break;
+    }
+
+    // Normale Funktion
+    FunctionDecl func = expr.getFunction();
+    int base = pushArguments(func.getParameters(), expr.getArguments());
+    Object result =
+        stack.full()
+            ? stack.inNewSegment(() -> executeFunction(func, arguments, base))
+            : executeFunction(func, arguments, base);
+    argumentTop = base;
+    return result;
+  }
 
-        // Normale Funktion
-        FunctionDecl func = symbolTable.lookupFunction(funcName, expr.getArguments().size());
-        if (func == null) {
-            throw new RuntimeException("Funktion '" + funcName + "' nicht gefunden");
-        }
+  private Object callBuiltin(FunctionCallExpr expr) {
+    List<Expression> arguments = expr.getArguments();
+    Object[] args = new Object[arguments.size()];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = evaluate(arguments.get(i));
+    }
+    return expr.getBuiltin().invoke(args);
+  }
 
-        // Argumente auswerten - Referenzen bekommen das Symbol
-        List<Object> args = new java.util.ArrayList<>();
-        for (int i = 0; i < expr.getArguments().size(); i++) {
-            Expression argExpr = expr.getArguments().get(i);
-            Parameter param = func.getParameters().get(i);
-
-            if (param.getType().isReference()) {
-                // Referenz-Parameter: Symbol übergeben
-                if (argExpr instanceof IdentifierExpr) {
-                    String varName = ((IdentifierExpr) argExpr).getName();
-                    Symbol symbol = symbolTable.lookupVariable(varName);
-                    args.add(symbol);
-                } else {
-                    throw new RuntimeException("Referenz-Parameter braucht LValue");
-                }
-            } else {
-                // Normaler Parameter: Wert übergeben
-                args.add(evaluate(argExpr));
-            }
+  // Argumente auswerten und auf den Argumentstapel legen - Referenzen bekommen das Symbol.
+  // Liefert die Stelle des ersten Arguments.
+  private int pushArguments(List<Parameter> parameters, List<Expression> argumentExprs) {
+    int base = argumentTop;
+    for (int i = 0; i < argumentExprs.size(); i++) {
+      Expression argExpr = argumentExprs.get(i);
+      Parameter param = parameters.get(i);
+
+      if (param.getType().isReference()) {
+        // Referenz-Parameter: Symbol übergeben
+        LocalVariable variable =
+            argExpr instanceof IdentifierExpr ? ((IdentifierExpr) argExpr).getVariable() : null;
+        if (variable != null) {
+          pushArgument(frame[variable.getSlot()]);
+        } else {
+          throw new RuntimeException("Referenz-Parameter braucht LValue");
         }
-
-        return executeFunction(func, args);
+      } else {
+        // Normaler Parameter: Wert übergeben
+        pushArgument(evaluate(argExpr));
+      }
     }
+    return base;
+  }
+
+  // Aufruf einer benutzerdefinierten Funktion, null bei Built-ins und Konstruktoren
+  private FunctionDecl lookupUserFunction(FunctionCallExpr call) {
+    symbolTable.link(call);
+    return call.getKind() == FunctionCallExpr.Kind.FUNCTION ? call.getFunction() : null;
+  }
 
   private Object evaluateMethodCall(MethodCallExpr expr) {
     Object obj = evaluate(expr.getObject());
@@ -388,8 +747,8 @@ public class Interpreter {
     RuntimeValue runtimeObj = (RuntimeValue) obj;
     ClassDecl cls = runtimeObj.getClassDecl();
 
-    // Methode suchen (inkl. Vererbung)
-    MethodDecl method = findMethod(cls, expr.getMethodName(), expr.getArguments().size());
+    // Statisch gebunden oder über die vtable der Laufzeitklasse
+    MethodDecl method = expr.dispatch(cls);
     if (method == null) {
       throw new RuntimeException(
           "Methode '"
@@ -399,173 +758,55 @@ public class Interpreter {
               + "'");
     }
 
-    // Argumente auswerten
-    List<Object> args = new java.util.ArrayList<>();
-    for (Expression arg : expr.getArguments()) {
-      args.add(evaluate(arg));
-    }
-
-    return executeMethod(runtimeObj, method, args);
-  }
-
-  private MethodDecl findMethod(ClassDecl cls, String name, int argCount) {
-    // In aktueller Klasse suchen
-    for (MethodDecl method : cls.getMethods()) {
-      if (method.getName().equals(name) && method.getParameters().size() == argCount) {
-        return method;
-      }
-    }
-
-    // In Basisklasse suchen
-    if (cls.hasBaseClass()) {
-      ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
-      if (baseClass != null) {
-        return findMethod(baseClass, name, argCount);
-      }
-    }
-
-    return null;
+    int base = pushArguments(method.getParameters(), expr.getArguments());
+    Object result =
+        stack.full()
+            ? stack.inNewSegment(() -> executeMethod(runtimeObj, method, arguments, base))
+            : executeMethod(runtimeObj, method, arguments, base);
+    argumentTop = base;
+    return result;
   }
 
   private Object evaluateMemberAccess(MemberAccessExpr expr) {
     Object obj = evaluate(expr.getObject());
 
     if (obj instanceof RuntimeValue) {
-      return ((RuntimeValue) obj).getField(expr.getMemberName());
+      return ((RuntimeValue) obj).getField(expr);
     }
 
     throw new RuntimeException("Feldzugriff auf Nicht-Objekt");
   }
 
-  private RuntimeValue createObject(ClassDecl cls, List<Expression> args) {
-    RuntimeValue obj = new RuntimeValue(cls);
-
-    // Felder mit Standardwerten initialisieren
-    initializeFields(obj, cls);
+  private RuntimeValue createObject(FunctionCallExpr expr) {
+    // Felder haben ihre Standardwerte aus dem Layout der Klasse
+    RuntimeValue obj = new RuntimeValue(expr.getConstructedClass());
 
-    // Konstruktor suchen und ausführen
-    ConstructorDecl ctor = findConstructor(cls, args.size());
+    // Von der Analyse gewählter Konstruktor
+    ConstructorDecl ctor = expr.getConstructor();
     if (ctor != null) {
-      List<Object> evalArgs = new java.util.ArrayList<>();
-      for (Expression arg : args) {
-        evalArgs.add(evaluate(arg));
+      int base = pushArguments(ctor.getParameters(), expr.getArguments());
+      if (stack.full()) {
+        stack.inNewSegment(
+            () -> {
+              executeConstructor(obj, ctor, base);
+              return null;
+            });
+      } else {
+        executeConstructor(obj, ctor, base);
       }
-      executeConstructor(obj, ctor, evalArgs);
+      argumentTop = base;
     }
 
     return obj;
   }
 
-  private void initializeFields(RuntimeValue obj, ClassDecl cls) {
-    // Basisklassen-Felder zuerst
-    if (cls.hasBaseClass()) {
-      ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
-      if (baseClass != null) {
-        initializeFields(obj, baseClass);
-      }
-    }
-
-    // Eigene Felder
-    for (FieldDecl field : cls.getFields()) {
-      Object defaultValue = getDefaultValue(field.getType().getTypeName());
-      obj.setField(field.getName(), defaultValue);
-    }
-  }
-
-  private ConstructorDecl findConstructor(ClassDecl cls, int argCount) {
-    for (ConstructorDecl ctor : cls.getConstructors()) {
-      if (ctor.getParameters().size() == argCount) {
-        return ctor;
-      }
-    }
-    // Default-Konstruktor (kein expliziter Konstruktor)
-    if (argCount == 0) {
-      return null;
-    }
-    return null;
-  }
-
-  private void executeConstructor(RuntimeValue obj, ConstructorDecl ctor, List<Object> args) {
-    symbolTable.enterScope();
-
-    // Felder verfügbar machen
-    for (String fieldName : obj.getFields().keySet()) {
-      Symbol symbol = new Symbol(fieldName, new Type("int")); // Vereinfacht
-      symbol.setValue(obj.getField(fieldName));
-      symbolTable.declareVariable(symbol);
-    }
-
-    // Parameter binden
-    for (int i = 0; i < ctor.getParameters().size(); i++) {
-      Parameter param = ctor.getParameters().get(i);
-      Symbol symbol = new Symbol(param.getName(), param.getType());
-      symbol.setValue(args.get(i));
-      symbolTable.declareVariable(symbol);
-    }
-
-    // Body ausführen
-    try {
-      executeBlock(ctor.getBody());
-    } catch (ReturnException e) {
-      // Konstruktor ignoriert return-Wert
-    }
-
-    // Felder zurückschreiben
-    for (String fieldName : obj.getFields().keySet()) {
-      Symbol symbol = symbolTable.lookupVariable(fieldName);
-      if (symbol != null) {
-        obj.setField(fieldName, symbol.getValue());
-      }
-    }
-
-    symbolTable.exitScope();
-  }
-
-  // === Hilfsmethoden ===
-
-  private Object getDefaultValue(String typeName) {
-    switch (typeName) {
-      case "int":
-        return 0;
-      case "bool":
-        return false;
-      case "char":
-        return '\0';
-      case "string":
-        return "";
-      default:
-        return null;
-    }
-  }
-
-  private int toInt(Object value) {
-    if (value instanceof Integer) return (Integer) value;
-    if (value instanceof Character) return (int) (Character) value;
-    if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
-    throw new RuntimeException("Kann nicht zu int konvertieren: " + value);
-  }
-
-  private boolean toBoolean(Object value) {
-    if (value instanceof Boolean) return (Boolean) value;
-    if (value instanceof Integer) return (Integer) value != 0;
-    if (value instanceof Character) return (Character) value != '\0';
-    if (value instanceof String) return !((String) value).isEmpty();
-    return value != null;
-  }
-
-  private boolean equals(Object a, Object b) {
-    if (a == null && b == null) return true;
-    if (a == null || b == null) return false;
-    return a.equals(b);
-  }
-
-  private int compare(Object a, Object b) {
-    if (a instanceof Integer && b instanceof Integer) {
-      return Integer.compare((Integer) a, (Integer) b);
-    }
-    if (a instanceof Character && b instanceof Character) {
-      return Character.compare((Character) a, (Character) b);
+  private void executeConstructor(RuntimeValue obj, ConstructorDecl ctor, int base) {
+    // Erst der Standardkonstruktor der Basisklasse, er hat keine Argumente
+    if (ctor.getBaseConstructor() != null) {
+      executeConstructor(obj, ctor.getBaseConstructor(), base);
     }
-    throw new RuntimeException("Kann Werte nicht vergleichen: " + a + ", " + b);
+    // Konstruktor ignoriert return-Wert
+    executeInObject(
+        obj, ctor.getParameters(), ctor.getBody(), ctor.getFrameSize(), arguments, base);
   }
 }
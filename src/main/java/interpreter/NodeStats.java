@@ -0,0 +1,18 @@
+package interpreter;
+
+// Zähler für selbst-spezialisierende Knoten einer Ausführung
+final class NodeStats {
+  int specialized; // Knoten, die sich auf Operandentypen festgelegt haben
+  int generic; // Knoten, die von Anfang an generisch bleiben
+  int deoptimized; // Spezialisierungen, deren Typprüfung später fehlschlug
+
+  String report() {
+    return "Knoten: "
+        + specialized
+        + " spezialisiert, "
+        + generic
+        + " generisch, "
+        + deoptimized
+        + " deoptimiert";
+  }
+}
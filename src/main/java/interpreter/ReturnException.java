@@ -1,13 +0,0 @@
-package interpreter;
-
-public class ReturnException extends RuntimeException {
-  private Object value;
-
-  public ReturnException(Object value) {
-    this.value = value;
-  }
-
-  public Object getValue() {
-    return value;
-  }
-}
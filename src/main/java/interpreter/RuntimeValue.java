@@ -1,42 +1,154 @@
 package interpreter;
 
+import ast.FieldLayout;
+import ast.IntMap;
 import ast.decl.ClassDecl;
+import ast.expr.MemberAccessExpr;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+// Objekt: Felder als Array in der Anordnung des FieldLayouts seiner Klasse.
+// Objekte sind Werte, Kopien teilen sich aber das Array (copy-on-write): beide Seiten sind als
+// geteilt markiert und legen erst beim ersten Schreiben ein eigenes an. Wer ein Objekt aus einem
+// Feld liest, kann es danach verändern; bei geteilten Feldern gilt deshalb auch das als Schreiben.
 public class RuntimeValue {
   private ClassDecl classDecl;
-  private Map<String, Object> fields;
+  private FieldLayout layout;
+  private Object[] slots; // bei einer Sicht auf eine abgeleitete Klasse länger als das Layout
+  private boolean shared;
+  // Felder, die das Layout nicht kennt. Entstehen nur, wenn ein Objekt über eine Variable einer
+  // fremden Klasse beschrieben wird; meist null. Schlüssel ist die Nummer des Feldnamens.
+  private IntMap<Object> extraFields;
 
+  // Neues Objekt, alle Felder haben ihren Standardwert
   public RuntimeValue(ClassDecl classDecl) {
     this.classDecl = classDecl;
-    this.fields = new HashMap<>();
+    this.layout = classDecl.getLayout();
+    Object[] defaults = layout.getDefaultValues();
+    if (defaults == null) {
+      defaults = new Object[layout.size()];
+      for (int i = 0; i < defaults.length; i++) {
+        defaults[i] = Values.getDefaultValue(layout.getType(i).getTypeName());
+      }
+      layout.setDefaultValues(defaults);
+    }
+    this.slots = defaults.clone();
+  }
+
+  private RuntimeValue(ClassDecl classDecl, Object[] slots, IntMap<Object> extraFields) {
+    this.classDecl = classDecl;
+    this.layout = classDecl.getLayout();
+    this.slots = slots;
+    this.extraFields = extraFields;
+    this.shared = true;
   }
 
   public ClassDecl getClassDecl() {
     return classDecl;
   }
 
-  public Object getField(String name) {
-    return fields.get(name);
+  public FieldLayout getLayout() {
+    return layout;
+  }
+
+  // Feldzugriff über einen Slot aus dem Layout der Klasse oder einer Basisklasse
+  public Object getSlot(int slot) {
+    Object value = slots[slot];
+    if (shared && value instanceof RuntimeValue) {
+      unshare();
+      return slots[slot];
+    }
+    return value;
+  }
+
+  public void setSlot(int slot, Object value) {
+    if (shared) {
+      unshare();
+    }
+    slots[slot] = value;
   }
 
-  public void setField(String name, Object value) {
-    fields.put(name, value);
+  // Feldzugriff über den Inline-Cache der Zugriffsstelle
+  public Object getField(MemberAccessExpr access) {
+    int slot = access.slotIn(layout);
+    if (slot >= 0) {
+      return getSlot(slot);
+    }
+    return getExtraField(access.getMemberId());
   }
 
-  public Map<String, Object> getFields() {
-    return fields;
+  public void setField(MemberAccessExpr access, Object value) {
+    int slot = access.slotIn(layout);
+    if (slot >= 0) {
+      setSlot(slot, value);
+    } else {
+      setExtraField(access.getMemberId(), value);
+    }
+  }
+
+  private Object getExtraField(int nameId) {
+    if (extraFields == null) {
+      return null;
+    }
+    if (shared && extraFields.get(nameId) instanceof RuntimeValue) {
+      unshare();
+    }
+    return extraFields.get(nameId);
+  }
+
+  private void setExtraField(int nameId, Object value) {
+    if (shared) {
+      unshare();
+    }
+    if (extraFields == null) {
+      extraFields = new IntMap<>();
+    }
+    extraFields.put(nameId, value);
+  }
+
+  // Eigene Felder statt der geteilten; enthaltene Objekte werden ihrerseits zu Kopien
+  private void unshare() {
+    slots = Arrays.copyOf(slots, layout.size());
+    for (int i = 0; i < slots.length; i++) {
+      if (slots[i] instanceof RuntimeValue) {
+        slots[i] = ((RuntimeValue) slots[i]).copy();
+      }
+    }
+    if (extraFields != null) {
+      extraFields = new IntMap<>(extraFields);
+      for (int nameId : extraFields.keys()) {
+        if (extraFields.get(nameId) instanceof RuntimeValue) {
+          extraFields.put(nameId, ((RuntimeValue) extraFields.get(nameId)).copy());
+        }
+      }
+    }
+    shared = false;
   }
 
   public RuntimeValue copy() {
-    RuntimeValue copy = new RuntimeValue(classDecl);
-    copy.fields.putAll(this.fields);
-    return copy;
+    return copyAs(classDecl);
+  }
+
+  // Kopie als Wert der Klasse cls, derselben oder einer Basisklasse. Für eine Basisklasse ist
+  // sie eine Sicht (Slicing): Klasse, Layout und vtable der Basis über denselben Feldern, deren
+  // Slots vorne liegen; Felder der abgeleiteten Klasse fallen beim ersten Schreiben weg.
+  public RuntimeValue copyAs(ClassDecl cls) {
+    shared = true;
+    return new RuntimeValue(cls, slots, extraFields);
   }
 
   @Override
   public String toString() {
+    Map<String, Object> fields = new HashMap<>();
+    for (int i = 0; i < layout.size(); i++) {
+      fields.put(layout.getName(i), slots[i]);
+    }
+    if (extraFields != null) {
+      for (int nameId : extraFields.keys()) {
+        fields.put("#" + nameId, extraFields.get(nameId)); // Nummer des Feldnamens
+      }
+    }
     return classDecl.getName() + fields.toString();
   }
 }
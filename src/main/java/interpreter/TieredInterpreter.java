@@ -0,0 +1,124 @@
+package interpreter;
+
+import ast.ASTNode;
+import ast.decl.FunctionDecl;
+import ast.decl.MethodDecl;
+import ast.stmt.WhileStmt;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import semantic.SymbolTable;
+
+// Gestufte Ausführung: alles startet im Tree-Walker (Stufe 0). Der zählt Aufrufe pro Funktion und
+// Methode sowie Schleifendurchläufe pro while-Schleife. Wird eine Schwelle erreicht, läuft der Code
+// ab dann als vorab aufgelöste Closures (Stufe 1, ClosureCompiler).
+// Eine heiße Schleife wechselt mitten in der Ausführung die Stufe (On-Stack-Replacement), damit
+// auch eine lange Schleife in main, die nur einmal aufgerufen wird, profitiert.
+public class TieredInterpreter extends Interpreter {
+  private final ClosureCompiler compiler;
+
+  private int callThreshold = 100;
+  private int loopThreshold = 1000;
+  private boolean log = false;
+
+  private final Map<ASTNode, Integer> invocations = new HashMap<>();
+  private final Set<ASTNode> promoted = new HashSet<>();
+  private final Map<WhileStmt, Integer> backEdges = new HashMap<>();
+  private final Map<WhileStmt, ClosureCompiler.CompiledLoop> compiledLoops = new HashMap<>();
+  private final Map<WhileStmt, String> loopNames = new HashMap<>();
+  private String currentFunction = "?";
+
+  public TieredInterpreter(SymbolTable symbolTable) {
+    super(symbolTable);
+    this.compiler = new ClosureCompiler(symbolTable, callStack());
+  }
+
+  // Aufrufe, ab denen eine Funktion oder Methode in Stufe 1 läuft
+  public void setCallThreshold(int callThreshold) {
+    this.callThreshold = callThreshold;
+  }
+
+  // Durchläufe, nach denen eine while-Schleife per OSR in Stufe 1 wechselt
+  public void setLoopThreshold(int loopThreshold) {
+    this.loopThreshold = loopThreshold;
+  }
+
+  // Stufenwechsel auf System.err ausgeben
+  public void setLog(boolean log) {
+    this.log = log;
+  }
+
+  @Override
+  protected Object executeFunction(FunctionDecl func, Object[] args, int base) {
+    if (isHot(func, "Funktion " + func.getName())) {
+      return compiler.callFunction(func, args, base);
+    }
+    String caller = currentFunction;
+    currentFunction = func.getName();
+    try {
+      return super.executeFunction(func, args, base);
+    } finally {
+      currentFunction = caller;
+    }
+  }
+
+  @Override
+  protected Object executeMethod(RuntimeValue object, MethodDecl method, Object[] args, int base) {
+    if (isHot(method, "Methode " + method.getName())) {
+      return compiler.callMethod(object, method, args, base);
+    }
+    String caller = currentFunction;
+    currentFunction = method.getName();
+    try {
+      return super.executeMethod(object, method, args, base);
+    } finally {
+      currentFunction = caller;
+    }
+  }
+
+  // Zählt den Aufruf; true, wenn der Code (ab jetzt) in Stufe 1 läuft
+  private boolean isHot(ASTNode decl, String name) {
+    if (promoted.contains(decl)) {
+      return true;
+    }
+    int count = invocations.merge(decl, 1, Integer::sum);
+    if (count < callThreshold) {
+      return false;
+    }
+    promoted.add(decl);
+    log(name + ": " + count + " Aufrufe -> Stufe 1");
+    return true;
+  }
+
+  @Override
+  protected Completion onBackEdge(WhileStmt stmt) {
+    ClosureCompiler.CompiledLoop loop = compiledLoops.get(stmt);
+    if (loop == null) {
+      int count = backEdges.merge(stmt, 1, Integer::sum);
+      if (count < loopThreshold) {
+        return null;
+      }
+      loop = compiler.compileLoop(stmt);
+      compiledLoops.put(stmt, loop);
+      log(loopName(stmt) + ": " + count + " Durchläufe -> OSR in Stufe 1");
+    }
+
+    // Interpreter und Stufe 1 nutzen dieselben Slots, die Schleife läuft auf dem aktuellen Frame
+    if (loop.resume(currentFrame()) == Completion.RETURN) {
+      return returnWith(compiler.takeReturnValue());
+    }
+    return Completion.NORMAL;
+  }
+
+  private String loopName(WhileStmt stmt) {
+    return loopNames.computeIfAbsent(
+        stmt, s -> "Schleife " + (loopNames.size() + 1) + " in " + currentFunction);
+  }
+
+  private void log(String message) {
+    if (log) {
+      System.err.println("Tier: " + message);
+    }
+  }
+}
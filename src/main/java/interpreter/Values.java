@@ -0,0 +1,77 @@
+package interpreter;
+
+import ast.decl.ClassDecl;
+
+// Laufzeit-Hilfsmethoden, die von allen Ausführungsarten geteilt werden
+public final class Values {
+  private Values() {}
+
+  public static Object getDefaultValue(String typeName) {
+    switch (typeName) {
+      case "int":
+        return 0;
+      case "bool":
+        return false;
+      case "char":
+        return '\0';
+      case "string":
+        return "";
+      default:
+        return null;
+    }
+  }
+
+  public static int toInt(Object value) {
+    if (value instanceof Integer) return (Integer) value;
+    if (value instanceof Character) return (int) (Character) value;
+    if (value instanceof Boolean) return (Boolean) value ? 1 : 0;
+    throw new RuntimeException("Kann nicht zu int konvertieren: " + value);
+  }
+
+  // Kopie eines Objekts als Wert der Klasse cls (CopyExpr); nicht initialisierte Objekte bleiben
+  // null
+  public static Object copyObject(Object value, ClassDecl cls) {
+    return value instanceof RuntimeValue ? ((RuntimeValue) value).copyAs(cls) : value;
+  }
+
+  public static boolean toBoolean(Object value) {
+    if (value instanceof Boolean) return (Boolean) value;
+    if (value instanceof Integer) return (Integer) value != 0;
+    if (value instanceof Character) return (Character) value != '\0';
+    if (isString(value)) return ((CharSequence) value).length() > 0;
+    return value != null;
+  }
+
+  // String-Werte sind String oder, als Ergebnis einer Verkettung, ConcatString
+  public static boolean isString(Object value) {
+    return value instanceof String || value instanceof ConcatString;
+  }
+
+  // + mit mindestens einem String
+  public static Object concat(Object left, Object right) {
+    return ConcatString.concat(left, right);
+  }
+
+  // Java-String zu einem String-Wert, z.B. für Built-ins
+  public static String toJavaString(Object value) {
+    return value instanceof ConcatString ? value.toString() : (String) value;
+  }
+
+  public static boolean equals(Object a, Object b) {
+    if (a instanceof ConcatString) a = a.toString();
+    if (b instanceof ConcatString) b = b.toString();
+    if (a == null && b == null) return true;
+    if (a == null || b == null) return false;
+    return a.equals(b);
+  }
+
+  public static int compare(Object a, Object b) {
+    if (a instanceof Integer && b instanceof Integer) {
+      return Integer.compare((Integer) a, (Integer) b);
+    }
+    if (a instanceof Character && b instanceof Character) {
+      return Character.compare((Character) a, (Character) b);
+    }
+    throw new RuntimeException("Kann Werte nicht vergleichen: " + a + ", " + b);
+  }
+}
@@ -0,0 +1,89 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Basisblock: zuerst die Phis, dann die übrigen Anweisungen, zuletzt genau ein Blockende
+// (JUMP, BRANCH oder RETURN). Die Reihenfolge der Vorgänger bestimmt die der Phi-Operanden.
+public class Block {
+  private int id;
+  private final List<Instruction> instructions = new ArrayList<>();
+  final List<Block> predecessors = new ArrayList<>();
+  final List<Block> successors = new ArrayList<>();
+
+  Block(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  void setId(int id) {
+    this.id = id;
+  }
+
+  public List<Instruction> getInstructions() {
+    return Collections.unmodifiableList(instructions);
+  }
+
+  public List<Block> getPredecessors() {
+    return Collections.unmodifiableList(predecessors);
+  }
+
+  public List<Block> getSuccessors() {
+    return Collections.unmodifiableList(successors);
+  }
+
+  // Letzte Anweisung, wenn sie den Block beendet, sonst null
+  public Instruction getTerminator() {
+    if (instructions.isEmpty()) {
+      return null;
+    }
+    Instruction last = instructions.get(instructions.size() - 1);
+    return last.isTerminator() ? last : null;
+  }
+
+  public List<Instruction> getPhis() {
+    int count = 0;
+    while (count < instructions.size() && instructions.get(count).getOp() == Op.PHI) {
+      count++;
+    }
+    return Collections.unmodifiableList(instructions.subList(0, count));
+  }
+
+  void append(Instruction instruction) {
+    instruction.setBlock(this);
+    instructions.add(instruction);
+  }
+
+  void insertPhi(Instruction phi) {
+    phi.setBlock(this);
+    instructions.add(getPhis().size(), phi);
+  }
+
+  // Entfernt die Anweisung; sie darf keine Verwender mehr haben
+  public void remove(Instruction instruction) {
+    instruction.dropOperands();
+    instructions.remove(instruction);
+    instruction.setBlock(null);
+  }
+
+  // Nimmt die Anweisung heraus, ohne ihre Operanden abzumelden, z.B. zum Verschieben
+  void detach(Instruction instruction) {
+    instructions.remove(instruction);
+    instruction.setBlock(null);
+  }
+
+  // Ersetzt das Blockende, z.B. einen BRANCH mit konstanter Bedingung durch einen JUMP
+  void replaceTerminator(Instruction terminator) {
+    remove(getTerminator());
+    append(terminator);
+  }
+
+  @Override
+  public String toString() {
+    return "b" + id;
+  }
+}
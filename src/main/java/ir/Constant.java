@@ -0,0 +1,28 @@
+package ir;
+
+// Konstanter Wert: Integer, Boolean, Character, String oder null. Konstanten gehören zu keinem
+// Block und sind überall verfügbar. Gefaltete Verkettungen (ConcatString) werden zum String.
+public final class Constant extends Value {
+  private final Object value;
+
+  public Constant(Object value) {
+    this.value = value instanceof CharSequence ? value.toString() : value;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    if (value instanceof String) {
+      return "\""
+          + ((String) value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+          + "\"";
+    }
+    if (value instanceof Character) {
+      return "'" + value + "'";
+    }
+    return String.valueOf(value);
+  }
+}
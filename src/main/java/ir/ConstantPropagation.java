@@ -0,0 +1,207 @@
+package ir;
+
+import builtin.Builtin;
+import interpreter.Values;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Sparse Conditional Constant Propagation (Wegman und Zadeck): jeder Wert ist unbekannt (noch
+// nicht gesehen), konstant oder variabel, jede Kante ausführbar oder nicht. Nur über ausführbare
+// Kanten fließen Werte in Phis, und ein BRANCH mit konstanter Bedingung macht nur eine seiner
+// Kanten ausführbar. So werden auch Werte konstant, die erst über einen nie genommenen Zweig
+// variabel aussähen, z.B. x nach "x = 1; if (x != 1) { x = 2; }".
+// Gefaltet wird mit Operations, also mit der Semantik der Ausführung; was dabei scheitert
+// (Division durch 0, Vergleich von bool mit <), bleibt variabel und meldet den Fehler zur
+// Laufzeit. Danach ersetzt der Schritt konstante Werte durch Konstanten, BRANCHs mit konstanter
+// Bedingung durch JUMPs und entfernt Blöcke, die nie ausgeführt werden.
+public class ConstantPropagation {
+  private static final Object VARIABLE = new Object();
+
+  // Kein Eintrag: unbekannt; sonst eine Constant oder VARIABLE
+  private final Map<Instruction, Object> state = new HashMap<>();
+  private final Set<Block> executable = new HashSet<>();
+  private final Map<Block, Set<Block>> executableEdges = new HashMap<>(); // Ziel -> Quellen
+  private final Deque<Block[]> flowWork = new ArrayDeque<>();
+  private final Deque<Instruction> ssaWork = new ArrayDeque<>();
+
+  // Liefert die Zahl der ersetzten Werte und vereinfachten Verzweigungen
+  public int propagate(IrFunction function) {
+    state.clear();
+    executable.clear();
+    executableEdges.clear();
+    flowWork.add(new Block[] {null, function.getEntry()});
+    while (!flowWork.isEmpty() || !ssaWork.isEmpty()) {
+      while (!flowWork.isEmpty()) {
+        Block[] edge = flowWork.poll();
+        visitEdge(edge[0], edge[1]);
+      }
+      while (!ssaWork.isEmpty()) {
+        Instruction instruction = ssaWork.poll();
+        if (instruction.getBlock() != null && executable.contains(instruction.getBlock())) {
+          visit(instruction);
+        }
+      }
+    }
+    return rewrite(function);
+  }
+
+  private void visitEdge(Block from, Block to) {
+    if (from != null && !executableEdges.computeIfAbsent(to, b -> new HashSet<>()).add(from)) {
+      return;
+    }
+    if (executable.add(to)) {
+      for (Instruction instruction : to.getInstructions()) {
+        visit(instruction);
+      }
+    } else {
+      // Neue Kante in einen schon ausgeführten Block: nur die Phis sehen einen neuen Operanden
+      for (Instruction phi : to.getPhis()) {
+        visit(phi);
+      }
+    }
+  }
+
+  private void visit(Instruction instruction) {
+    Block block = instruction.getBlock();
+    switch (instruction.getOp()) {
+      case JUMP:
+        flowWork.add(new Block[] {block, block.getSuccessors().get(0)});
+        return;
+      case BRANCH:
+        Object condition = stateOf(instruction.getOperand(0));
+        if (condition instanceof Constant) {
+          boolean taken = Values.toBoolean(((Constant) condition).getValue());
+          flowWork.add(new Block[] {block, block.getSuccessors().get(taken ? 0 : 1)});
+        } else if (condition == VARIABLE) {
+          flowWork.add(new Block[] {block, block.getSuccessors().get(0)});
+          flowWork.add(new Block[] {block, block.getSuccessors().get(1)});
+        }
+        return;
+      case RETURN:
+        return;
+      default:
+        break;
+    }
+    Object value = evaluate(instruction);
+    Object old = state.get(instruction);
+    if (value != null && !sameState(old, value)) {
+      state.put(instruction, value);
+      ssaWork.addAll(instruction.getUsers());
+    }
+  }
+
+  private Object evaluate(Instruction instruction) {
+    Op op = instruction.getOp();
+    if (op == Op.PHI) {
+      Object result = null;
+      List<Block> preds = instruction.getBlock().getPredecessors();
+      Set<Block> live = executableEdges.getOrDefault(instruction.getBlock(), Set.of());
+      for (int i = 0; i < preds.size(); i++) {
+        if (live.contains(preds.get(i))) {
+          result = meet(result, stateOf(instruction.getOperand(i)));
+        }
+      }
+      return result;
+    }
+    if (op == Op.COPY) {
+      return stateOf(instruction.getOperand(0));
+    }
+    boolean pureBuiltin = op == Op.CALL_BUILTIN && ((Builtin) instruction.getPayload()).isPure();
+    if (!op.isPure() && !pureBuiltin) {
+      return VARIABLE;
+    }
+
+    Object[] args = new Object[instruction.getOperands().size()];
+    boolean unknown = false;
+    for (int i = 0; i < args.length; i++) {
+      Object operand = stateOf(instruction.getOperand(i));
+      if (operand == VARIABLE) {
+        return VARIABLE;
+      }
+      if (operand == null) {
+        unknown = true;
+      } else {
+        args[i] = ((Constant) operand).getValue();
+      }
+    }
+    if (unknown) {
+      return null;
+    }
+    try {
+      if (pureBuiltin) {
+        return new Constant(((Builtin) instruction.getPayload()).invoke(args));
+      }
+      if (Operations.isBinary(op)) {
+        return new Constant(Operations.binary(op, args[0], args[1]));
+      }
+      return new Constant(Operations.unary(op, args[0]));
+    } catch (RuntimeException e) {
+      // Scheitert zur Laufzeit; der Fehler bleibt dort
+      return VARIABLE;
+    }
+  }
+
+  private Object stateOf(Value value) {
+    if (value instanceof Constant) {
+      return value;
+    }
+    return state.get(value);
+  }
+
+  private static Object meet(Object a, Object b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a == VARIABLE || b == VARIABLE) {
+      return VARIABLE;
+    }
+    return sameState(a, b) ? a : VARIABLE;
+  }
+
+  private static boolean sameState(Object a, Object b) {
+    if (a instanceof Constant && b instanceof Constant) {
+      return Objects.equals(((Constant) a).getValue(), ((Constant) b).getValue());
+    }
+    return a == b;
+  }
+
+  private int rewrite(IrFunction function) {
+    int changes = 0;
+    for (Block block : new ArrayList<>(function.getBlocks())) {
+      if (!executable.contains(block)) {
+        continue;
+      }
+      for (Instruction instruction : new ArrayList<>(block.getInstructions())) {
+        Object value = state.get(instruction);
+        if (value instanceof Constant) {
+          instruction.replaceAllUsesWith(new Constant(((Constant) value).getValue()));
+          block.remove(instruction);
+          changes++;
+        }
+      }
+      Instruction terminator = block.getTerminator();
+      if (terminator.getOp() == Op.BRANCH
+          && stateOf(terminator.getOperand(0)) instanceof Constant) {
+        Constant condition = (Constant) stateOf(terminator.getOperand(0));
+        int taken = Values.toBoolean(condition.getValue()) ? 0 : 1;
+        Block other = block.getSuccessors().get(1 - taken);
+        block.replaceTerminator(function.newInstruction(Op.JUMP, null));
+        IrFunction.removeEdge(block, other);
+        changes++;
+      }
+    }
+    int before = function.getBlocks().size();
+    function.sortBlocks();
+    return changes + before - function.getBlocks().size();
+  }
+}
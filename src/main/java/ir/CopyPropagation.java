@@ -0,0 +1,112 @@
+package ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+// Ersetzt jede Kopie durch ihren Operanden und jedes Phi, dessen Operanden außer ihm selbst alle
+// gleich sind, durch diesen Wert. Solche Phis entstehen, wenn ConstantPropagation Kanten entfernt
+// oder ValueNumbering Operanden zusammenlegt. Phis, die nur noch von toten Phis verwendet werden,
+// fallen danach weg.
+public class CopyPropagation {
+
+  // Liefert die Zahl der entfernten Kopien und Phis
+  public int propagate(IrFunction function) {
+    int changes = 0;
+    Deque<Instruction> phis = new ArrayDeque<>();
+    for (Block block : function.getBlocks()) {
+      for (Instruction instruction : new ArrayList<>(block.getInstructions())) {
+        if (instruction.getOp() == Op.COPY) {
+          instruction.replaceAllUsesWith(instruction.getOperand(0));
+          block.remove(instruction);
+          changes++;
+        } else if (instruction.getOp() == Op.PHI) {
+          phis.add(instruction);
+        }
+      }
+    }
+
+    while (!phis.isEmpty()) {
+      Instruction phi = phis.poll();
+      if (phi.getBlock() == null) {
+        continue;
+      }
+      Value same = uniqueOperand(phi);
+      if (same == null) {
+        continue;
+      }
+      for (Instruction user : phi.getUsers()) {
+        if (user.getOp() == Op.PHI && user != phi) {
+          phis.add(user);
+        }
+      }
+      phi.replaceAllUsesWith(same);
+      phi.getBlock().remove(phi);
+      changes++;
+    }
+    return changes + removeDeadPhis(function);
+  }
+
+  // Einziger Operand außer dem Phi selbst, null wenn es mehrere gibt
+  private static Value uniqueOperand(Instruction phi) {
+    Value same = null;
+    for (Value operand : phi.getOperands()) {
+      if (operand == phi || operand == same || sameConstant(operand, same)) {
+        continue;
+      }
+      if (same != null) {
+        return null;
+      }
+      same = operand;
+    }
+    return same;
+  }
+
+  private static boolean sameConstant(Value a, Value b) {
+    return a instanceof Constant
+        && b instanceof Constant
+        && java.util.Objects.equals(((Constant) a).getValue(), ((Constant) b).getValue());
+  }
+
+  // Ein Phi lebt, wenn eine andere Anweisung es verwendet oder ein lebendes Phi
+  private static int removeDeadPhis(IrFunction function) {
+    Set<Instruction> live = new HashSet<>();
+    Deque<Instruction> work = new ArrayDeque<>();
+    for (Block block : function.getBlocks()) {
+      for (Instruction instruction : block.getInstructions()) {
+        if (instruction.getOp() == Op.PHI) {
+          continue;
+        }
+        for (Value operand : instruction.getOperands()) {
+          if (operand instanceof Instruction && ((Instruction) operand).getOp() == Op.PHI) {
+            work.add((Instruction) operand);
+          }
+        }
+      }
+    }
+    while (!work.isEmpty()) {
+      Instruction phi = work.poll();
+      if (!live.add(phi)) {
+        continue;
+      }
+      for (Value operand : phi.getOperands()) {
+        if (operand instanceof Instruction && ((Instruction) operand).getOp() == Op.PHI) {
+          work.add((Instruction) operand);
+        }
+      }
+    }
+
+    int removed = 0;
+    for (Block block : function.getBlocks()) {
+      for (Instruction phi : new ArrayList<>(block.getPhis())) {
+        if (!live.contains(phi)) {
+          block.remove(phi);
+          removed++;
+        }
+      }
+    }
+    return removed;
+  }
+}
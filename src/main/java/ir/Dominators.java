@@ -0,0 +1,129 @@
+package ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Dominatorbaum einer Funktion nach Cooper, Harvey und Kennedy ("A Simple, Fast Dominance
+// Algorithm"): unmittelbare Dominatoren iterativ in umgekehrter Postordnung, bis sich nichts
+// mehr ändert. Blöcke, die vom Einstieg aus nicht erreichbar sind, kommen nicht vor.
+public class Dominators {
+  private final List<Block> order;
+  private final Map<Block, Integer> index = new HashMap<>();
+  private final Map<Block, Block> idom = new HashMap<>();
+  private final Map<Block, List<Block>> children = new HashMap<>();
+
+  public Dominators(IrFunction function) {
+    order = reversePostorder(function);
+    for (int i = 0; i < order.size(); i++) {
+      index.put(order.get(i), i);
+      children.put(order.get(i), new ArrayList<>());
+    }
+    Block entry = function.getEntry();
+    idom.put(entry, entry);
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (Block block : order) {
+        if (block == entry) {
+          continue;
+        }
+        Block newIdom = null;
+        for (Block pred : block.getPredecessors()) {
+          if (idom.containsKey(pred)) {
+            newIdom = newIdom == null ? pred : intersect(pred, newIdom);
+          }
+        }
+        if (newIdom != idom.get(block)) {
+          idom.put(block, newIdom);
+          changed = true;
+        }
+      }
+    }
+    for (Block block : order) {
+      if (block != entry) {
+        children.get(idom.get(block)).add(block);
+      }
+    }
+  }
+
+  private Block intersect(Block a, Block b) {
+    while (a != b) {
+      while (index.get(a) > index.get(b)) {
+        a = idom.get(a);
+      }
+      while (index.get(b) > index.get(a)) {
+        b = idom.get(b);
+      }
+    }
+    return a;
+  }
+
+  // Erreichbare Blöcke in umgekehrter Postordnung, der Einstieg zuerst
+  public List<Block> getOrder() {
+    return Collections.unmodifiableList(order);
+  }
+
+  public boolean isReachable(Block block) {
+    return index.containsKey(block);
+  }
+
+  // Unmittelbarer Dominator, beim Einstieg der Einstieg selbst
+  public Block getImmediateDominator(Block block) {
+    return idom.get(block);
+  }
+
+  // Kinder im Dominatorbaum
+  public List<Block> getChildren(Block block) {
+    return Collections.unmodifiableList(children.get(block));
+  }
+
+  // a dominiert b: jeder Weg vom Einstieg nach b führt über a (auch a == b)
+  public boolean dominates(Block a, Block b) {
+    while (true) {
+      if (a == b) {
+        return true;
+      }
+      Block up = idom.get(b);
+      if (up == null || up == b) {
+        return false;
+      }
+      b = up;
+    }
+  }
+
+  static List<Block> reversePostorder(IrFunction function) {
+    List<Block> postorder = new ArrayList<>();
+    Set<Block> visited = new HashSet<>();
+    // Iterativ, damit lange Ketten von Blöcken nicht am JVM-Stack scheitern
+    Deque<Block> stack = new ArrayDeque<>();
+    Deque<Integer> next = new ArrayDeque<>();
+    Block entry = function.getEntry();
+    visited.add(entry);
+    stack.push(entry);
+    next.push(0);
+    while (!stack.isEmpty()) {
+      Block block = stack.peek();
+      int i = next.pop();
+      if (i < block.getSuccessors().size()) {
+        next.push(i + 1);
+        Block successor = block.getSuccessors().get(i);
+        if (visited.add(successor)) {
+          stack.push(successor);
+          next.push(0);
+        }
+      } else {
+        stack.pop();
+        postorder.add(block);
+      }
+    }
+    Collections.reverse(postorder);
+    return postorder;
+  }
+}
@@ -0,0 +1,89 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Anweisung in einem Block, zugleich der SSA-Wert ihres Ergebnisses
+public class Instruction extends Value {
+  private final Op op;
+  private final Object payload;
+  private final List<Value> operands = new ArrayList<>();
+  private final int id; // fortlaufend in der Funktion, Register im IrInterpreter
+  private Block block;
+  private String name; // Variable, deren Wert die Anweisung hält (nur für die Ausgabe)
+
+  Instruction(Op op, Object payload, int id) {
+    this.op = op;
+    this.payload = payload;
+    this.id = id;
+  }
+
+  public Op getOp() {
+    return op;
+  }
+
+  public Object getPayload() {
+    return payload;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public Block getBlock() {
+    return block;
+  }
+
+  void setBlock(Block block) {
+    this.block = block;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public List<Value> getOperands() {
+    return Collections.unmodifiableList(operands);
+  }
+
+  public Value getOperand(int index) {
+    return operands.get(index);
+  }
+
+  public void addOperand(Value value) {
+    operands.add(value);
+    value.addUser(this);
+  }
+
+  public void setOperand(int index, Value value) {
+    operands.get(index).removeUser(this);
+    operands.set(index, value);
+    value.addUser(this);
+  }
+
+  public void removeOperand(int index) {
+    operands.remove(index).removeUser(this);
+  }
+
+  // Meldet die Anweisung bei ihren Operanden ab, vor dem Entfernen aus dem Block
+  void dropOperands() {
+    for (Value operand : operands) {
+      operand.removeUser(this);
+    }
+    operands.clear();
+  }
+
+  public boolean isTerminator() {
+    return op.isTerminator();
+  }
+
+  @Override
+  public String toString() {
+    return "%" + id;
+  }
+}
@@ -0,0 +1,535 @@
+package ir;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import interpreter.Values;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import semantic.SemanticException;
+import semantic.SymbolTable;
+
+// Übersetzt Funktionen, Methoden und Konstruktoren nach Analyse und Resolver in SSA-Form.
+// Lokale Variablen werden zu SSA-Werten, die Phis entstehen direkt beim Übersetzen (Braun et al.,
+// "Simple and Efficient Construction of Static Single Assignment Form", 2013): ein Block ist
+// versiegelt, sobald alle Vorgänger feststehen; liest man vorher eine Variable, bekommt er ein
+// unvollständiges Phi, das beim Versiegeln seine Operanden erhält. Phis, deren Operanden alle
+// gleich sind, fallen sofort wieder weg.
+// Variablen, auf die eine Referenz zeigt, und Referenzen selbst liegen wie in den Engines in
+// einem Symbol (NEW_CELL, LOAD, STORE); ihr SSA-Wert ist das Symbol. Felder, Objekte und Aufrufe
+// bleiben Anweisungen mit Seiteneffekten, Reihenfolge und Fehler entsprechen dem Tree-Walker.
+public class IrBuilder {
+  private final SymbolTable symbolTable;
+  private IrFunction function;
+  private Block current; // null nach return: der Rest des Blocks wird nie erreicht
+  private Value self; // das Objekt in Methoden und Konstruktoren
+  private Block loopHeader; // Ziel von continue in der innersten Schleife
+  private Block loopExit; // Ziel von break
+
+  // Aktueller Wert jeder Variable am Ende eines Blocks, Phis in noch offenen Blöcken
+  private final Map<Block, Map<LocalVariable, Value>> definitions = new HashMap<>();
+  private final Map<Block, Map<LocalVariable, Instruction>> incompletePhis = new HashMap<>();
+  private final Set<Block> sealed = new HashSet<>();
+  private final Map<Instruction, Value> replaced = new HashMap<>(); // entfernte triviale Phis
+
+  public IrBuilder(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  public IrFunction build(FunctionDecl func) {
+    return build(func.getName(), func, func.getParameters(), func.getBody(), false);
+  }
+
+  public IrFunction build(ClassDecl cls, MethodDecl method) {
+    String name = cls.getName() + "::" + method.getName();
+    return build(name, method, method.getParameters(), method.getBody(), true);
+  }
+
+  public IrFunction build(ClassDecl cls, ConstructorDecl ctor) {
+    String name = cls.getName() + "::" + cls.getName();
+    return build(name, ctor, ctor.getParameters(), ctor.getBody(), true);
+  }
+
+  private IrFunction build(
+      String name,
+      Object declaration,
+      List<Parameter> parameters,
+      BlockStmt body,
+      boolean inObject) {
+    List<String> names = new ArrayList<>();
+    if (inObject) {
+      names.add("this");
+    }
+    for (Parameter param : parameters) {
+      names.add(param.getName());
+    }
+    function = new IrFunction(name, declaration, names);
+    definitions.clear();
+    incompletePhis.clear();
+    sealed.clear();
+    replaced.clear();
+
+    current = function.newBlock();
+    seal(current);
+    self = inObject ? parameter(0, "this") : null;
+    int index = inObject ? 1 : 0;
+    for (Parameter param : parameters) {
+      LocalVariable variable = param.getVariable();
+      Value value = parameter(index++, param.getName());
+      // Referenz-Parameter bekommen das Symbol des Arguments, andere Variablen mit einer
+      // Referenz darauf ein eigenes
+      if (variable.isCell() && !variable.isReference()) {
+        value = emit(Op.NEW_CELL, variable, value);
+      }
+      write(variable, current, value);
+    }
+    // Konstruktoren rufen vor dem Rumpf den Standardkonstruktor der Basisklasse
+    if (declaration instanceof ConstructorDecl
+        && ((ConstructorDecl) declaration).getBaseConstructor() != null) {
+      emit(Op.CALL, ((ConstructorDecl) declaration).getBaseConstructor(), self);
+    }
+
+    lowerStatement(body);
+    if (current != null) {
+      emit(Op.RETURN, null);
+    }
+    function.sortBlocks();
+    return function;
+  }
+
+  private Instruction parameter(int index, String name) {
+    Instruction param = emit(Op.PARAM, index);
+    param.setName(name);
+    return param;
+  }
+
+  // === Anweisungen ===
+
+  private void lowerStatement(Statement stmt) {
+    if (current == null) {
+      return;
+    }
+    if (stmt instanceof VarDeclStmt) {
+      lowerVarDecl((VarDeclStmt) stmt);
+    } else if (stmt instanceof IfStmt) {
+      lowerIf((IfStmt) stmt);
+    } else if (stmt instanceof WhileStmt) {
+      lowerWhile((WhileStmt) stmt);
+    } else if (stmt instanceof ReturnStmt) {
+      ReturnStmt ret = (ReturnStmt) stmt;
+      if (ret.hasValue()) {
+        emit(Op.RETURN, null, lowerExpression(ret.getValue()));
+      } else {
+        emit(Op.RETURN, null);
+      }
+      current = null;
+    } else if (stmt instanceof BreakStmt) {
+      jumpTo(loopExit);
+    } else if (stmt instanceof ContinueStmt) {
+      jumpTo(loopHeader);
+    } else if (stmt instanceof ExprStmt) {
+      lowerExpression(((ExprStmt) stmt).getExpression());
+    } else if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        lowerStatement(inner);
+      }
+    }
+  }
+
+  private void lowerVarDecl(VarDeclStmt decl) {
+    LocalVariable variable = decl.getVariable();
+    Expression init = decl.getInitializer();
+
+    // Referenz: übernimmt das Symbol der Zielvariable, sonst ein neues, leeres
+    if (variable.isReference()) {
+      LocalVariable target =
+          init instanceof IdentifierExpr ? ((IdentifierExpr) init).getVariable() : null;
+      if (target != null) {
+        write(variable, current, read(target, current));
+        return;
+      }
+      if (init != null) {
+        lowerExpression(init);
+      }
+      write(variable, current, emit(Op.NEW_CELL, variable));
+      return;
+    }
+
+    Value value =
+        init != null
+            ? lowerExpression(init)
+            : new Constant(Values.getDefaultValue(decl.getType().getTypeName()));
+    if (variable.isCell()) {
+      write(variable, current, emit(Op.NEW_CELL, variable, value));
+    } else {
+      write(variable, current, copy(variable, value));
+    }
+  }
+
+  private void lowerIf(IfStmt stmt) {
+    Value condition = lowerExpression(stmt.getCondition());
+    Block thenBlock = function.newBlock();
+    Block elseBlock = stmt.hasElseBranch() ? function.newBlock() : null;
+    Block join = function.newBlock();
+    branch(condition, thenBlock, elseBlock != null ? elseBlock : join);
+
+    seal(thenBlock);
+    current = thenBlock;
+    lowerStatement(stmt.getThenBranch());
+    jumpTo(join);
+
+    if (elseBlock != null) {
+      seal(elseBlock);
+      current = elseBlock;
+      lowerStatement(stmt.getElseBranch());
+      jumpTo(join);
+    }
+
+    seal(join);
+    if (join.getPredecessors().isEmpty()) {
+      // Beide Zweige enden mit return
+      function.removeBlock(join);
+      current = null;
+    } else {
+      current = join;
+    }
+  }
+
+  private void lowerWhile(WhileStmt stmt) {
+    // Der Kopf bleibt offen, bis die Rückwärtskanten aus dem Rumpf feststehen, der Ausgang bis
+    // alle break-Kanten feststehen
+    Block header = function.newBlock();
+    jumpTo(header);
+    current = header;
+    Value condition = lowerExpression(stmt.getCondition());
+    Block body = function.newBlock();
+    Block exit = function.newBlock();
+    branch(condition, body, exit);
+    seal(body);
+
+    Block outerHeader = loopHeader;
+    Block outerExit = loopExit;
+    loopHeader = header;
+    loopExit = exit;
+    current = body;
+    lowerStatement(stmt.getBody());
+    jumpTo(header);
+    loopHeader = outerHeader;
+    loopExit = outerExit;
+    seal(header);
+    seal(exit);
+    current = exit;
+  }
+
+  // === Ausdrücke ===
+
+  private Value lowerExpression(Expression expr) {
+    if (expr instanceof IntLiteral) {
+      return new Constant(((IntLiteral) expr).getValue());
+    } else if (expr instanceof BoolLiteral) {
+      return new Constant(((BoolLiteral) expr).getValue());
+    } else if (expr instanceof CharLiteral) {
+      return new Constant(((CharLiteral) expr).getValue());
+    } else if (expr instanceof StringLiteral) {
+      return new Constant(((StringLiteral) expr).getValue());
+    } else if (expr instanceof IdentifierExpr) {
+      return lowerIdentifier((IdentifierExpr) expr);
+    } else if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      if (binary.getOperator() == BinaryExpr.Operator.AND
+          || binary.getOperator() == BinaryExpr.Operator.OR) {
+        return lowerShortCircuit(binary);
+      }
+      Value left = lowerExpression(binary.getLeft());
+      Value right = lowerExpression(binary.getRight());
+      return emit(Op.valueOf(binary.getOperator().name()), null, left, right);
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      return emit(
+          Op.valueOf(unary.getOperator().name()), null, lowerExpression(unary.getOperand()));
+    } else if (expr instanceof AssignExpr) {
+      return lowerAssign((AssignExpr) expr);
+    } else if (expr instanceof FunctionCallExpr) {
+      return lowerFunctionCall((FunctionCallExpr) expr);
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      Value object = lowerExpression(call.getObject());
+      // Die Methode wird vor den Argumenten bestimmt, wie im Tree-Walker
+      List<Value> operands = new ArrayList<>();
+      operands.add(emit(Op.RESOLVE, call, object));
+      operands.add(object);
+      // Überschreibende Methoden haben dieselben Parametertypen wie die gewählte Überladung
+      List<Value> args = lowerArguments(call.getMethod().getParameters(), call.getArguments());
+      if (args == null) {
+        return fail(new RuntimeException("Referenz-Parameter braucht LValue"));
+      }
+      operands.addAll(args);
+      return emit(Op.CALL_METHOD, call, operands.toArray(new Value[0]));
+    } else if (expr instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr;
+      return emit(Op.GET_FIELD, access, lowerExpression(access.getObject()));
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      return emit(Op.COPY_OBJECT, copy.getTargetClass(), lowerExpression(copy.getOperand()));
+    }
+    return new Constant(null);
+  }
+
+  private List<Value> lowerExpressions(List<Expression> expressions) {
+    List<Value> values = new ArrayList<>();
+    for (Expression expr : expressions) {
+      values.add(lowerExpression(expr));
+    }
+    return values;
+  }
+
+  private Value lowerIdentifier(IdentifierExpr expr) {
+    LocalVariable variable = expr.getVariable();
+    if (variable != null) {
+      Value value = read(variable, current);
+      return variable.isCell() ? emit(Op.LOAD, null, value) : value;
+    }
+    if (expr.getFieldSlot() >= 0) {
+      return emit(Op.LOAD_SLOT, expr.getFieldSlot(), self);
+    }
+    return fail(new RuntimeException("Variable '" + expr.getName() + "' nicht definiert"));
+  }
+
+  // a && b und a || b: b nur im zweiten Block, das Ergebnis als Phi im gemeinsamen Nachfolger
+  private Value lowerShortCircuit(BinaryExpr expr) {
+    boolean and = expr.getOperator() == BinaryExpr.Operator.AND;
+    Value left = lowerExpression(expr.getLeft());
+    Block right = function.newBlock();
+    Block join = function.newBlock();
+    branch(left, and ? right : join, and ? join : right);
+    seal(right);
+
+    current = right;
+    Value rightValue = emit(Op.TO_BOOL, null, lowerExpression(expr.getRight()));
+    jumpTo(join);
+    seal(join);
+
+    // Vorgänger von join: erst der Block mit der linken Seite, dann der mit der rechten
+    current = join;
+    Instruction phi = newPhi(join);
+    phi.addOperand(new Constant(!and));
+    phi.addOperand(rightValue);
+    return phi;
+  }
+
+  private Value lowerAssign(AssignExpr expr) {
+    Value value = lowerExpression(expr.getValue());
+    if (expr.getTarget() instanceof IdentifierExpr) {
+      IdentifierExpr target = (IdentifierExpr) expr.getTarget();
+      LocalVariable variable = target.getVariable();
+      if (variable != null) {
+        if (variable.isCell()) {
+          emit(Op.STORE, null, read(variable, current), value);
+        } else {
+          write(variable, current, copy(variable, value));
+        }
+      } else if (target.getFieldSlot() >= 0) {
+        emit(Op.STORE_SLOT, target.getFieldSlot(), self, value);
+      } else {
+        fail(new RuntimeException("Variable '" + target.getName() + "' nicht definiert"));
+      }
+    } else if (expr.getTarget() instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr.getTarget();
+      emit(Op.SET_FIELD, access, lowerExpression(access.getObject()), value);
+    }
+    return value;
+  }
+
+  private Value lowerFunctionCall(FunctionCallExpr expr) {
+    // Ziel steht seit der Analyse fest; in der REPL evtl. neu binden
+    try {
+      symbolTable.link(expr);
+    } catch (SemanticException e) {
+      return fail(new SemanticException(e.getMessage()));
+    }
+    List<Expression> arguments = expr.getArguments();
+    switch (expr.getKind()) {
+      case BUILTIN:
+        return emit(
+            Op.CALL_BUILTIN, expr.getBuiltin(), lowerExpressions(arguments).toArray(new Value[0]));
+      case CONSTRUCTOR:
+        // Ohne Konstruktor (und damit ohne Argumente) nur die Standardwerte
+        if (expr.getConstructor() == null) {
+          return emit(Op.NEW_OBJECT, expr);
+        }
+        List<Value> ctorArgs = lowerArguments(expr.getConstructor().getParameters(), arguments);
+        if (ctorArgs == null) {
+          return fail(new RuntimeException("Referenz-Parameter braucht LValue"));
+        }
+        return emit(Op.NEW_OBJECT, expr, ctorArgs.toArray(new Value[0]));
+      default:
+        break;
+    }
+
+    FunctionDecl func = expr.getFunction();
+    List<Value> values = lowerArguments(func.getParameters(), arguments);
+    if (values == null) {
+      return fail(new RuntimeException("Referenz-Parameter braucht LValue"));
+    }
+    return emit(Op.CALL, func, values.toArray(new Value[0]));
+  }
+
+  // Argumente eines Aufrufs. Referenz-Parameter bekommen das Symbol der Variable, ausgewertet wird
+  // dafür nichts; null, wenn ein solches Argument keine lokale Variable ist.
+  private List<Value> lowerArguments(List<Parameter> parameters, List<Expression> arguments) {
+    List<Value> values = new ArrayList<>();
+    for (int i = 0; i < arguments.size(); i++) {
+      Expression arg = arguments.get(i);
+      if (parameters.get(i).getType().isReference()) {
+        LocalVariable local =
+            arg instanceof IdentifierExpr ? ((IdentifierExpr) arg).getVariable() : null;
+        if (local == null) {
+          return null;
+        }
+        Value value = read(local, current);
+        values.add(local.isCell() ? value : emit(Op.NEW_CELL, local, value));
+      } else {
+        values.add(lowerExpression(arg));
+      }
+    }
+    return values;
+  }
+
+  // Fehler zur Laufzeit; der Wert danach wird nie gebraucht
+  private Value fail(RuntimeException error) {
+    emit(Op.FAIL, error);
+    return new Constant(null);
+  }
+
+  // === Blöcke und Anweisungen ===
+
+  private Instruction emit(Op op, Object payload, Value... operands) {
+    Instruction instruction = function.newInstruction(op, payload, operands);
+    current.append(instruction);
+    return instruction;
+  }
+
+  private Instruction copy(LocalVariable variable, Value value) {
+    Instruction copy = emit(Op.COPY, variable, value);
+    copy.setName(variable.getName());
+    return copy;
+  }
+
+  private void branch(Value condition, Block ifTrue, Block ifFalse) {
+    emit(Op.BRANCH, null, condition);
+    IrFunction.addEdge(current, ifTrue);
+    IrFunction.addEdge(current, ifFalse);
+    current = null;
+  }
+
+  // Springt ans Ziel, wenn der laufende Block erreichbar ist
+  private void jumpTo(Block target) {
+    if (current != null) {
+      emit(Op.JUMP, null);
+      IrFunction.addEdge(current, target);
+      current = null;
+    }
+  }
+
+  private Instruction newPhi(Block block) {
+    Instruction phi = function.newInstruction(Op.PHI, null);
+    block.insertPhi(phi);
+    return phi;
+  }
+
+  // === SSA-Aufbau ===
+
+  private void write(LocalVariable variable, Block block, Value value) {
+    definitions.computeIfAbsent(block, b -> new HashMap<>()).put(variable, value);
+  }
+
+  private Value read(LocalVariable variable, Block block) {
+    Map<LocalVariable, Value> values = definitions.get(block);
+    if (values != null && values.containsKey(variable)) {
+      return values.get(variable);
+    }
+    return readRecursive(variable, block);
+  }
+
+  private Value readRecursive(LocalVariable variable, Block block) {
+    Value value;
+    if (!sealed.contains(block)) {
+      Instruction phi = newPhi(block);
+      phi.setName(variable.getName());
+      incompletePhis.computeIfAbsent(block, b -> new HashMap<>()).put(variable, phi);
+      value = phi;
+    } else if (block.getPredecessors().size() == 1) {
+      value = read(variable, block.getPredecessors().get(0));
+    } else if (block.getPredecessors().isEmpty()) {
+      // Nicht deklariert; kommt nach der Analyse nicht vor
+      value = new Constant(null);
+    } else {
+      Instruction phi = newPhi(block);
+      phi.setName(variable.getName());
+      write(variable, block, phi);
+      value = addPhiOperands(variable, phi);
+    }
+    write(variable, block, value);
+    return value;
+  }
+
+  private Value addPhiOperands(LocalVariable variable, Instruction phi) {
+    for (Block pred : phi.getBlock().getPredecessors()) {
+      phi.addOperand(read(variable, pred));
+    }
+    return tryRemoveTrivialPhi(phi);
+  }
+
+  // Ein Phi, dessen Operanden außer ihm selbst alle gleich sind, wird durch diesen Wert ersetzt.
+  // Danach können Phis, die es verwendet haben, ebenso trivial geworden sein.
+  private Value tryRemoveTrivialPhi(Instruction phi) {
+    Value same = null;
+    for (Value operand : phi.getOperands()) {
+      if (operand == same || operand == phi) {
+        continue;
+      }
+      if (same != null) {
+        return phi;
+      }
+      same = operand;
+    }
+    Value replacement = same != null ? same : new Constant(null);
+    List<Instruction> users = new ArrayList<>(phi.getUsers());
+    users.removeIf(user -> user == phi);
+    phi.replaceAllUsesWith(replacement);
+    for (Map<LocalVariable, Value> values : definitions.values()) {
+      values.replaceAll((variable, value) -> value == phi ? replacement : value);
+    }
+    phi.getBlock().remove(phi);
+    replaced.put(phi, replacement);
+    for (Instruction user : users) {
+      if (user.getOp() == Op.PHI && user.getBlock() != null) {
+        tryRemoveTrivialPhi(user);
+      }
+    }
+    return resolve(replacement);
+  }
+
+  // Wert, der an die Stelle eines inzwischen entfernten Phis getreten ist
+  private Value resolve(Value value) {
+    while (value instanceof Instruction && replaced.containsKey(value)) {
+      value = replaced.get(value);
+    }
+    return value;
+  }
+
+  private void seal(Block block) {
+    sealed.add(block);
+    Map<LocalVariable, Instruction> phis = incompletePhis.remove(block);
+    if (phis != null) {
+      for (Map.Entry<LocalVariable, Instruction> entry : phis.entrySet()) {
+        addPhiOperands(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
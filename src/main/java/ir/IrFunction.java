@@ -0,0 +1,165 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Funktion, Methode oder Konstruktor in SSA-Form. Der erste Block ist der Einstieg.
+public class IrFunction {
+  private final String name;
+  private final Object declaration; // FunctionDecl, MethodDecl oder ConstructorDecl
+  private final List<String> parameterNames;
+  private final List<Block> blocks = new ArrayList<>();
+  private int nextValueId;
+  private int nextBlockId;
+
+  IrFunction(String name, Object declaration, List<String> parameterNames) {
+    this.name = name;
+    this.declaration = declaration;
+    this.parameterNames = parameterNames;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Object getDeclaration() {
+    return declaration;
+  }
+
+  // Bei Methoden und Konstruktoren ist der erste Parameter "this"
+  public List<String> getParameterNames() {
+    return parameterNames;
+  }
+
+  public List<Block> getBlocks() {
+    return Collections.unmodifiableList(blocks);
+  }
+
+  public Block getEntry() {
+    return blocks.get(0);
+  }
+
+  // Obergrenze der Anweisungsnummern, Größe des Registersatzes im IrInterpreter
+  public int getValueCount() {
+    return nextValueId;
+  }
+
+  Block newBlock() {
+    Block block = new Block(nextBlockId++);
+    blocks.add(block);
+    return block;
+  }
+
+  Instruction newInstruction(Op op, Object payload, Value... operands) {
+    Instruction instruction = new Instruction(op, payload, nextValueId++);
+    for (Value operand : operands) {
+      instruction.addOperand(operand);
+    }
+    return instruction;
+  }
+
+  static void addEdge(Block from, Block to) {
+    from.successors.add(to);
+    to.predecessors.add(from);
+  }
+
+  // Entfernt die Kante samt der zugehörigen Phi-Operanden im Ziel
+  static void removeEdge(Block from, Block to) {
+    int index = to.predecessors.indexOf(from);
+    to.predecessors.remove(index);
+    for (Instruction phi : to.getPhis()) {
+      phi.removeOperand(index);
+    }
+    from.successors.remove(to);
+  }
+
+  // Teilt den Block hinter der Anweisung: der Rest samt Blockende und Nachfolgern wandert in einen
+  // neuen Block, der alte bleibt ohne Blockende zurück. Die Phis der Nachfolger behalten ihre
+  // Operanden, die Kante kommt nur aus dem neuen Block.
+  Block splitAfter(Instruction instruction) {
+    Block block = instruction.getBlock();
+    Block rest = newBlock();
+    List<Instruction> instructions = block.getInstructions();
+    List<Instruction> moved =
+        new ArrayList<>(
+            instructions.subList(instructions.indexOf(instruction) + 1, instructions.size()));
+    for (Instruction next : moved) {
+      block.detach(next);
+      rest.append(next);
+    }
+    for (Block successor : block.successors) {
+      successor.predecessors.set(successor.predecessors.indexOf(block), rest);
+      rest.successors.add(successor);
+    }
+    block.successors.clear();
+    return rest;
+  }
+
+  // Entfernt einen Block, der nicht mehr erreicht wird, mit seinen ausgehenden Kanten
+  void removeBlock(Block block) {
+    for (Block successor : new ArrayList<>(block.successors)) {
+      removeEdge(block, successor);
+    }
+    for (Instruction instruction : new ArrayList<>(block.getInstructions())) {
+      block.remove(instruction);
+    }
+    blocks.remove(block);
+  }
+
+  // Entfernt unerreichbare Blöcke, hängt jeden Block mit genau einem Vorgänger, der nur zu ihm
+  // springt, an diesen an und ordnet die übrigen in umgekehrter Postordnung, neu nummeriert; in
+  // der Ausgabe steht so jede Definition vor ihren Verwendungen außer über Rückwärtskanten
+  void sortBlocks() {
+    List<Block> order = Dominators.reversePostorder(this);
+    Set<Block> reachable = new HashSet<>(order);
+    for (Block block : new ArrayList<>(blocks)) {
+      if (!reachable.contains(block)) {
+        removeBlock(block);
+      }
+    }
+    // Vorgänger stehen vor dem Block, sind also selbst schon angehängt
+    for (Block block : new ArrayList<>(order)) {
+      if (block.predecessors.size() == 1) {
+        Block pred = block.predecessors.get(0);
+        if (pred != block && pred.successors.size() == 1) {
+          mergeInto(pred, block);
+          order.remove(block);
+        }
+      }
+    }
+    blocks.clear();
+    blocks.addAll(order);
+    for (int i = 0; i < blocks.size(); i++) {
+      blocks.get(i).setId(i);
+    }
+    nextBlockId = blocks.size();
+  }
+
+  private static void mergeInto(Block pred, Block block) {
+    // Phis mit einem Vorgänger haben nur einen Wert
+    for (Instruction phi : new ArrayList<>(block.getPhis())) {
+      phi.replaceAllUsesWith(phi.getOperand(0));
+      block.remove(phi);
+    }
+    pred.remove(pred.getTerminator());
+    for (Instruction instruction : new ArrayList<>(block.getInstructions())) {
+      block.detach(instruction);
+      pred.append(instruction);
+    }
+    pred.successors.clear();
+    for (Block successor : block.successors) {
+      successor.predecessors.set(successor.predecessors.indexOf(block), pred);
+      pred.successors.add(successor);
+    }
+    block.successors.clear();
+    block.predecessors.clear();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,331 @@
+package ir;
+
+import ast.LocalVariable;
+import ast.Program;
+import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
+import ast.decl.FunctionDecl;
+import ast.decl.MethodDecl;
+import ast.expr.FunctionCallExpr;
+import ast.expr.MemberAccessExpr;
+import ast.expr.MethodCallExpr;
+import builtin.Builtin;
+import interpreter.Engine;
+import interpreter.RuntimeValue;
+import interpreter.Values;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import semantic.SemanticException;
+import semantic.Symbol;
+import semantic.SymbolTable;
+
+// Führt die SSA-Form aus: jede Funktion wird beim ersten Aufruf übersetzt und optimiert, jede
+// Anweisung schreibt ihr Ergebnis in das Register ihrer Nummer. Beim Übergang in einen Block
+// bekommen dessen Phis gleichzeitig die Werte der genommenen Kante.
+// Gedacht als Referenz für die IR und ihre Optimierungen, nicht als schnellste Ausführungsart.
+// MiniCpp-Aufrufe sind Java-Aufrufe; main läuft deshalb auf einem Thread mit großem Stack,
+// Endaufrufe (return f(...)) laufen ohne neuen Java-Aufruf.
+public class IrInterpreter implements Engine {
+  private static final long STACK_SIZE = 512L * 1024 * 1024;
+
+  private final SymbolTable symbolTable;
+  private final IrBuilder builder;
+  private final Map<Object, IrFunction> functions = new HashMap<>(); // Deklaration -> IR
+  private boolean optimize = true;
+  private boolean print;
+
+  public IrInterpreter(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+    this.builder = new IrBuilder(symbolTable);
+  }
+
+  // SSA-Form vor der Ausführung optimieren (ConstantPropagation, ValueNumbering, ...)
+  public void setOptimize(boolean optimize) {
+    this.optimize = optimize;
+  }
+
+  // SSA-Form aller Funktionen, Methoden und Konstruktoren vor der Ausführung ausgeben
+  public void setPrint(boolean print) {
+    this.print = print;
+  }
+
+  // SSA-Form einer Funktion, Methode oder eines Konstruktors, beim ersten Mal übersetzt
+  public IrFunction functionFor(Object declaration) {
+    IrFunction function = functions.get(declaration);
+    if (function == null) {
+      function = build(declaration);
+      if (optimize) {
+        new IrOptimizer(this::build).optimize(function);
+      } else {
+        IrVerifier.verify(function);
+      }
+      functions.put(declaration, function);
+    }
+    return function;
+  }
+
+  private IrFunction build(Object declaration) {
+    if (declaration instanceof FunctionDecl) {
+      return builder.build((FunctionDecl) declaration);
+    }
+    // Methoden und Konstruktoren: die Klasse nur für den Namen
+    for (ClassDecl cls : symbolTable.getAllClasses()) {
+      if (declaration instanceof MethodDecl && cls.getMethods().contains(declaration)) {
+        return builder.build(cls, (MethodDecl) declaration);
+      }
+      if (declaration instanceof ConstructorDecl && cls.getConstructors().contains(declaration)) {
+        return builder.build(cls, (ConstructorDecl) declaration);
+      }
+    }
+    throw new IllegalStateException("Keine Klasse zu " + declaration);
+  }
+
+  @Override
+  public Object execute(Program program) {
+    if (print) {
+      for (ClassDecl cls : program.getClasses()) {
+        for (ConstructorDecl ctor : cls.getConstructors()) {
+          System.out.print(IrPrinter.print(functionFor(ctor)));
+        }
+        for (MethodDecl method : cls.getMethods()) {
+          System.out.print(IrPrinter.print(functionFor(method)));
+        }
+      }
+      for (FunctionDecl func : program.getFunctions()) {
+        System.out.print(IrPrinter.print(functionFor(func)));
+      }
+    }
+    FunctionDecl mainFunc = program.getMainFunction();
+    if (mainFunc == null) {
+      return null;
+    }
+
+    Object[] result = new Object[1];
+    Throwable[] failure = new Throwable[1];
+    Thread thread =
+        new Thread(
+            null,
+            () -> {
+              try {
+                result[0] = call(functionFor(mainFunc), new Object[0]);
+              } catch (Throwable t) {
+                failure[0] = t;
+              }
+            },
+            "MiniCpp-IR",
+            STACK_SIZE);
+    thread.start();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Ausführung unterbrochen");
+    }
+    if (failure[0] instanceof RuntimeException) {
+      throw (RuntimeException) failure[0];
+    }
+    if (failure[0] instanceof Error) {
+      throw (Error) failure[0];
+    }
+    return result[0];
+  }
+
+  private Object call(IrFunction function, Object[] args) {
+    Object[] registers = new Object[function.getValueCount()];
+    Block block = function.getEntry();
+    Block from = null;
+    dispatch:
+    while (true) {
+      List<Instruction> instructions = block.getInstructions();
+      int start = enterBlock(block, from, registers);
+      for (int i = start; i < instructions.size(); i++) {
+        Instruction instruction = instructions.get(i);
+        switch (instruction.getOp()) {
+          case CALL:
+            if (isTailCall(instruction, instructions, i)) {
+              // Endaufruf: die gerufene Funktion läuft in dieser Schleife weiter, ohne Java-Aufruf
+              args = arguments(instruction.getOperands(), 0, registers);
+              function = functionFor(instruction.getPayload());
+              registers = new Object[function.getValueCount()];
+              from = null;
+              block = function.getEntry();
+              continue dispatch;
+            }
+            registers[instruction.getId()] = execute(instruction, registers, args);
+            break;
+          case JUMP:
+            from = block;
+            block = block.getSuccessors().get(0);
+            break;
+          case BRANCH:
+            boolean taken = Values.toBoolean(valueOf(instruction.getOperand(0), registers));
+            from = block;
+            block = block.getSuccessors().get(taken ? 0 : 1);
+            break;
+          case RETURN:
+            return instruction.getOperands().isEmpty()
+                ? null
+                : valueOf(instruction.getOperand(0), registers);
+          default:
+            registers[instruction.getId()] = execute(instruction, registers, args);
+            break;
+        }
+      }
+    }
+  }
+
+  // "return f(...)": das Ergebnis des Aufrufs ist direkt der Rückgabewert
+  private static boolean isTailCall(Instruction call, List<Instruction> instructions, int index) {
+    if (index + 1 >= instructions.size()) {
+      return false;
+    }
+    Instruction next = instructions.get(index + 1);
+    return next.getOp() == Op.RETURN
+        && next.getOperands().size() == 1
+        && next.getOperand(0) == call;
+  }
+
+  // Phis lesen alle ihre Werte, bevor eines schreibt; liefert den Index nach dem letzten Phi
+  private int enterBlock(Block block, Block from, Object[] registers) {
+    List<Instruction> phis = block.getPhis();
+    if (phis.isEmpty()) {
+      return 0;
+    }
+    int edge = block.getPredecessors().indexOf(from);
+    Object[] values = new Object[phis.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = valueOf(phis.get(i).getOperand(edge), registers);
+    }
+    for (int i = 0; i < values.length; i++) {
+      registers[phis.get(i).getId()] = values[i];
+    }
+    return phis.size();
+  }
+
+  private Object execute(Instruction instruction, Object[] registers, Object[] args) {
+    Op op = instruction.getOp();
+    List<Value> operands = instruction.getOperands();
+    Object payload = instruction.getPayload();
+    if (Operations.isBinary(op)) {
+      return Operations.binary(
+          op, valueOf(operands.get(0), registers), valueOf(operands.get(1), registers));
+    }
+    if (Operations.isUnary(op)) {
+      return Operations.unary(op, valueOf(operands.get(0), registers));
+    }
+    switch (op) {
+      case PARAM:
+        return args[(Integer) payload];
+      case COPY:
+        return valueOf(operands.get(0), registers);
+      case NEW_CELL:
+        {
+          LocalVariable variable = (LocalVariable) payload;
+          Symbol symbol = new Symbol(variable.getName(), variable.getType());
+          if (!operands.isEmpty()) {
+            symbol.setValue(valueOf(operands.get(0), registers));
+          }
+          return symbol;
+        }
+      case LOAD:
+        return ((Symbol) valueOf(operands.get(0), registers)).getValue();
+      case STORE:
+        ((Symbol) valueOf(operands.get(0), registers))
+            .setValue(valueOf(operands.get(1), registers));
+        return null;
+      case NEW_OBJECT:
+        return newObject((FunctionCallExpr) payload, arguments(operands, 0, registers));
+      case GET_FIELD:
+        {
+          Object object = valueOf(operands.get(0), registers);
+          if (object instanceof RuntimeValue) {
+            return ((RuntimeValue) object).getField((MemberAccessExpr) payload);
+          }
+          throw new RuntimeException("Feldzugriff auf Nicht-Objekt");
+        }
+      case SET_FIELD:
+        {
+          Object object = valueOf(operands.get(0), registers);
+          if (object instanceof RuntimeValue) {
+            ((RuntimeValue) object)
+                .setField((MemberAccessExpr) payload, valueOf(operands.get(1), registers));
+          }
+          return null;
+        }
+      case LOAD_SLOT:
+        return ((RuntimeValue) valueOf(operands.get(0), registers)).getSlot((Integer) payload);
+      case STORE_SLOT:
+        ((RuntimeValue) valueOf(operands.get(0), registers))
+            .setSlot((Integer) payload, valueOf(operands.get(1), registers));
+        return null;
+      case COPY_OBJECT:
+        return Values.copyObject(valueOf(operands.get(0), registers), (ClassDecl) payload);
+      case CALL:
+        return call(functionFor(payload), arguments(operands, 0, registers));
+      case CALL_BUILTIN:
+        return ((Builtin) payload).invoke(arguments(operands, 0, registers));
+      case RESOLVE:
+        return resolve((MethodCallExpr) payload, valueOf(operands.get(0), registers));
+      case CALL_METHOD:
+        // Argumente ab Operand 1: das Objekt ist Parameter 0 der Methode
+        return call(
+            functionFor(valueOf(operands.get(0), registers)), arguments(operands, 1, registers));
+      case FAIL:
+        RuntimeException error = (RuntimeException) payload;
+        if (error instanceof SemanticException) {
+          throw new SemanticException(error.getMessage());
+        }
+        throw new RuntimeException(error.getMessage());
+      default:
+        throw new IllegalStateException("Unerwartete Anweisung " + op);
+    }
+  }
+
+  private MethodDecl resolve(MethodCallExpr call, Object object) {
+    if (!(object instanceof RuntimeValue)) {
+      throw new RuntimeException("Methodenaufruf auf Nicht-Objekt");
+    }
+    ClassDecl cls = ((RuntimeValue) object).getClassDecl();
+    // Statisch gebunden oder über die vtable der Laufzeitklasse
+    MethodDecl method = call.dispatch(cls);
+    if (method == null) {
+      throw new RuntimeException(
+          "Methode '"
+              + call.getMethodName()
+              + "' nicht gefunden in Klasse '"
+              + cls.getName()
+              + "'");
+    }
+    return method;
+  }
+
+  private RuntimeValue newObject(FunctionCallExpr call, Object[] args) {
+    // Felder haben ihre Standardwerte aus dem Layout der Klasse
+    ClassDecl cls = call.getConstructedClass();
+    RuntimeValue object = new RuntimeValue(cls);
+    ConstructorDecl ctor = call.getConstructor();
+    if (ctor != null) {
+      Object[] withObject = new Object[args.length + 1];
+      withObject[0] = object;
+      System.arraycopy(args, 0, withObject, 1, args.length);
+      call(functionFor(ctor), withObject);
+    }
+    return object;
+  }
+
+  private static Object[] arguments(List<Value> operands, int from, Object[] registers) {
+    Object[] args = new Object[operands.size() - from];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = valueOf(operands.get(from + i), registers);
+    }
+    return args;
+  }
+
+  private static Object valueOf(Value value, Object[] registers) {
+    if (value instanceof Constant) {
+      return ((Constant) value).getValue();
+    }
+    return registers[((Instruction) value).getId()];
+  }
+}
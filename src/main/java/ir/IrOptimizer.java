@@ -0,0 +1,41 @@
+package ir;
+
+import ast.decl.ConstructorDecl;
+import java.util.function.Function;
+
+// Optimierungsschritte auf der SSA-Form, nach jedem prüft der IrVerifier die Struktur:
+// 1. ConstantPropagation faltet Konstanten auch über Verzweigungen und Schleifen hinweg und
+//    entfernt nie ausgeführte Zweige,
+// 2. CopyPropagation entfernt Kopien und dadurch trivial gewordene Phis,
+// 3. ScalarReplacement löst Objekte auf, die die Funktion nie verlassen; deren Felder werden
+//    wieder von 1. und 2. behandelt,
+// 4. ValueNumbering legt gleiche Berechnungen zusammen,
+// 5. CopyPropagation räumt die dabei gleich gewordenen Phis auf.
+public class IrOptimizer {
+  private final Function<ConstructorDecl, IrFunction> constructors;
+
+  // Liefert für die Skalarersetzung die SSA-Form eines Konstruktors, die eingesetzt werden darf
+  public IrOptimizer(Function<ConstructorDecl, IrFunction> constructors) {
+    this.constructors = constructors;
+  }
+
+  public void optimize(IrFunction function) {
+    IrVerifier.verify(function);
+    propagate(function);
+    if (new ScalarReplacement(constructors).replace(function) > 0) {
+      IrVerifier.verify(function);
+      propagate(function);
+    }
+    new ValueNumbering().number(function);
+    IrVerifier.verify(function);
+    new CopyPropagation().propagate(function);
+    IrVerifier.verify(function);
+  }
+
+  private static void propagate(IrFunction function) {
+    new ConstantPropagation().propagate(function);
+    IrVerifier.verify(function);
+    new CopyPropagation().propagate(function);
+    IrVerifier.verify(function);
+  }
+}
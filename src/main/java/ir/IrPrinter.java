@@ -0,0 +1,149 @@
+package ir;
+
+import ast.LocalVariable;
+import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
+import ast.decl.FunctionDecl;
+import ast.expr.FunctionCallExpr;
+import ast.expr.MemberAccessExpr;
+import ast.expr.MethodCallExpr;
+import builtin.Builtin;
+import java.util.List;
+
+// Gibt eine Funktion als lesbares Listing aus, z.B.
+//   b2: <- b0, b3
+//     %4 = phi [%1, b0], [%9, b3]  // i
+//     %5 = lt %4, %2
+//     branch %5, b3, b4
+public final class IrPrinter {
+  private IrPrinter() {}
+
+  public static String print(IrFunction function) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("function ")
+        .append(function.getName())
+        .append("(")
+        .append(String.join(", ", function.getParameterNames()))
+        .append(")\n");
+    for (Block block : function.getBlocks()) {
+      sb.append(block);
+      if (!block.getPredecessors().isEmpty()) {
+        sb.append(": <- ").append(join(block.getPredecessors()));
+      } else {
+        sb.append(":");
+      }
+      sb.append("\n");
+      for (Instruction instruction : block.getInstructions()) {
+        sb.append("  ").append(print(function, instruction)).append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  static String print(IrFunction function, Instruction instruction) {
+    StringBuilder sb = new StringBuilder();
+    if (instruction.getOp().hasResult()) {
+      sb.append(instruction).append(" = ");
+    }
+    sb.append(instruction.getOp().mnemonic());
+    List<Value> operands = instruction.getOperands();
+    Object payload = instruction.getPayload();
+    switch (instruction.getOp()) {
+      case PARAM:
+        sb.append(" ").append(function.getParameterNames().get((Integer) payload));
+        return sb.toString();
+      case PHI:
+        for (int i = 0; i < operands.size(); i++) {
+          sb.append(i == 0 ? " [" : ", [")
+              .append(operands.get(i))
+              .append(", ")
+              .append(instruction.getBlock().getPredecessors().get(i))
+              .append("]");
+        }
+        break;
+      case NEW_CELL:
+        sb.append(" ").append(((LocalVariable) payload).getName());
+        if (!operands.isEmpty()) {
+          sb.append(", ").append(join(operands));
+        }
+        break;
+      case NEW_OBJECT:
+        sb.append(" ")
+            .append(((FunctionCallExpr) payload).getConstructedClass().getName())
+            .append("(")
+            .append(join(operands))
+            .append(")");
+        break;
+      case GET_FIELD:
+      case SET_FIELD:
+        sb.append(" ").append(operands.get(0)).append(".");
+        sb.append(((MemberAccessExpr) payload).getMemberName());
+        if (operands.size() > 1) {
+          sb.append(", ").append(operands.get(1));
+        }
+        break;
+      case LOAD_SLOT:
+      case STORE_SLOT:
+        sb.append(" ").append(operands.get(0)).append("[").append(payload).append("]");
+        if (operands.size() > 1) {
+          sb.append(", ").append(operands.get(1));
+        }
+        break;
+      case COPY_OBJECT:
+        sb.append(" ").append(operands.get(0)).append(" as ");
+        sb.append(((ClassDecl) payload).getName());
+        break;
+      case CALL:
+        sb.append(" ")
+            .append(
+                payload instanceof ConstructorDecl
+                    ? ((ConstructorDecl) payload).getClassName()
+                    : ((FunctionDecl) payload).getName());
+        sb.append("(").append(join(operands)).append(")");
+        break;
+      case CALL_BUILTIN:
+        sb.append(" ").append(((Builtin) payload).getName());
+        sb.append("(").append(join(operands)).append(")");
+        break;
+      case RESOLVE:
+        MethodCallExpr call = (MethodCallExpr) payload;
+        sb.append(" ").append(operands.get(0)).append(".").append(call.getMethodName());
+        sb.append("/").append(call.getArguments().size());
+        break;
+      case CALL_METHOD:
+        sb.append(" ").append(operands.get(0));
+        sb.append("(").append(join(operands.subList(1, operands.size()))).append(")");
+        break;
+      case FAIL:
+        sb.append(" \"").append(((RuntimeException) payload).getMessage()).append("\"");
+        break;
+      case JUMP:
+        sb.append(" ").append(instruction.getBlock().getSuccessors().get(0));
+        break;
+      case BRANCH:
+        sb.append(" ").append(operands.get(0));
+        sb.append(", ").append(join(instruction.getBlock().getSuccessors()));
+        break;
+      default:
+        if (!operands.isEmpty()) {
+          sb.append(" ").append(join(operands));
+        }
+        break;
+    }
+    if (instruction.getName() != null) {
+      sb.append("  // ").append(instruction.getName());
+    }
+    return sb.toString();
+  }
+
+  private static String join(List<?> items) {
+    StringBuilder sb = new StringBuilder();
+    for (Object item : items) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(item);
+    }
+    return sb.toString();
+  }
+}
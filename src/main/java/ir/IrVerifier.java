@@ -0,0 +1,135 @@
+package ir;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Prüft die Struktur einer Funktion, nach dem Aufbau und nach jedem Optimierungsschritt:
+// - jeder Block endet mit genau einem Blockende, passend zur Zahl seiner Nachfolger,
+// - Vorgänger und Nachfolger stimmen überein, jeder Block ist vom Einstieg aus erreichbar,
+// - Phis stehen am Blockanfang und haben einen Operanden je Vorgänger,
+// - jeder Operand ist eine Konstante oder eine Anweisung der Funktion, deren Block die
+//   Verwendung dominiert (bei Phis: das Ende des zugehörigen Vorgängers),
+// - die Verwender-Listen stimmen mit den Operanden überein.
+public final class IrVerifier {
+  private IrVerifier() {}
+
+  public static void verify(IrFunction function) {
+    Dominators dominators = new Dominators(function);
+    Set<Instruction> defined = new HashSet<>();
+    Map<Instruction, Integer> position = new HashMap<>();
+    for (Block block : function.getBlocks()) {
+      List<Instruction> instructions = block.getInstructions();
+      for (int i = 0; i < instructions.size(); i++) {
+        Instruction instruction = instructions.get(i);
+        check(instruction.getBlock() == block, function, instruction + " gehört nicht zu " + block);
+        defined.add(instruction);
+        position.put(instruction, i);
+      }
+    }
+
+    check(function.getEntry().getPredecessors().isEmpty(), function, "Einstieg hat Vorgänger");
+    for (Block block : function.getBlocks()) {
+      check(dominators.isReachable(block), function, block + " ist nicht erreichbar");
+      verifyEdges(function, block);
+
+      List<Instruction> instructions = block.getInstructions();
+      Instruction terminator = block.getTerminator();
+      check(terminator != null, function, block + " endet nicht mit jump, branch oder return");
+      int expected = terminator.getOp() == Op.JUMP ? 1 : terminator.getOp() == Op.BRANCH ? 2 : 0;
+      check(
+          block.getSuccessors().size() == expected,
+          function,
+          block + " hat " + block.getSuccessors().size() + " Nachfolger für " + terminator.getOp());
+
+      boolean phisDone = false;
+      for (int i = 0; i < instructions.size(); i++) {
+        Instruction instruction = instructions.get(i);
+        Op op = instruction.getOp();
+        check(
+            !op.isTerminator() || i == instructions.size() - 1,
+            function,
+            "Blockende mitten in " + block);
+        check(
+            op != Op.PHI || !phisDone,
+            function,
+            "Phi " + instruction + " nach anderen Anweisungen");
+        phisDone |= op != Op.PHI;
+        check(
+            op != Op.PARAM || block == function.getEntry(),
+            function,
+            "Parameter " + instruction + " außerhalb des Einstiegs");
+        if (op == Op.PHI) {
+          check(
+              instruction.getOperands().size() == block.getPredecessors().size(),
+              function,
+              "Phi " + instruction + " hat nicht einen Operanden je Vorgänger");
+        }
+
+        for (int j = 0; j < instruction.getOperands().size(); j++) {
+          Value operand = instruction.getOperand(j);
+          check(
+              countOf(operand.getUsers(), instruction)
+                  == countOf(instruction.getOperands(), operand),
+              function,
+              "Verwender von " + operand + " stimmen nicht mit " + instruction + " überein");
+          if (operand instanceof Constant) {
+            continue;
+          }
+          Instruction def = (Instruction) operand;
+          check(
+              defined.contains(def),
+              function,
+              instruction + " verwendet " + def + ", das nicht in der Funktion steht");
+          boolean dominated;
+          if (op == Op.PHI) {
+            dominated = dominators.dominates(def.getBlock(), block.getPredecessors().get(j));
+          } else if (def.getBlock() == block) {
+            dominated = position.get(def) < i;
+          } else {
+            dominated = dominators.dominates(def.getBlock(), block);
+          }
+          check(
+              dominated, function, def + " dominiert die Verwendung in " + instruction + " nicht");
+        }
+      }
+    }
+  }
+
+  private static void verifyEdges(IrFunction function, Block block) {
+    for (Block successor : block.getSuccessors()) {
+      check(
+          function.getBlocks().contains(successor),
+          function,
+          "Nachfolger " + successor + " von " + block + " steht nicht in der Funktion");
+      check(
+          countOf(successor.getPredecessors(), block) == countOf(block.getSuccessors(), successor),
+          function,
+          block + " fehlt unter den Vorgängern von " + successor);
+    }
+    for (Block pred : block.getPredecessors()) {
+      check(
+          countOf(pred.getSuccessors(), block) == countOf(block.getPredecessors(), pred),
+          function,
+          block + " fehlt unter den Nachfolgern von " + pred);
+    }
+  }
+
+  private static int countOf(List<?> list, Object item) {
+    int count = 0;
+    for (Object element : list) {
+      if (element == item) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static void check(boolean condition, IrFunction function, String message) {
+    if (!condition) {
+      throw new IllegalStateException("IR von " + function.getName() + " ungültig: " + message);
+    }
+  }
+}
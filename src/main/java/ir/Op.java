@@ -0,0 +1,90 @@
+package ir;
+
+// Operationen der IR. Operanden stehen in Instruction.getOperands(), Zusatzangaben (Variable,
+// Funktion, Feldzugriff, ...) im Payload. Die Semantik entspricht dem Tree-Walker.
+public enum Op {
+  // Werte
+  PARAM, // Parameter Nr. payload der Funktion; bei Methoden und Konstruktoren ist 0 das Objekt
+  COPY, // Wert von Operand 0, Payload ist die Variable (nur für die Ausgabe)
+  PHI, // Operand i kommt über den i-ten Vorgänger des Blocks
+
+  // Arithmetik und Vergleiche wie Values: Operand 0 op Operand 1
+  ADD,
+  SUB,
+  MUL,
+  DIV,
+  MOD,
+  EQ,
+  NEQ,
+  LT,
+  LE,
+  GT,
+  GE,
+
+  // Unäre Operatoren
+  NEG,
+  POS,
+  NOT,
+  TO_BOOL,
+
+  // Symbole für Variablen, auf die eine Referenz zeigt
+  NEW_CELL, // neues Symbol für die Variable payload, Anfangswert Operand 0 (fehlt: null)
+  LOAD, // Wert des Symbols Operand 0
+  STORE, // Symbol Operand 0 bekommt Operand 1
+
+  // Objekte
+  NEW_OBJECT, // neues Objekt der Klasse payload, Konstruktor mit den Operanden als Argumenten
+  GET_FIELD, // Operand 0 . Feld, payload ist der MemberAccessExpr mit Inline-Cache
+  SET_FIELD, // Operand 0 . Feld = Operand 1
+  LOAD_SLOT, // Feld Nr. payload des eigenen Objekts (Operand 0)
+  STORE_SLOT, // Feld Nr. payload des eigenen Objekts (Operand 0) = Operand 1
+  COPY_OBJECT, // Wertkopie von Operand 0 (copy-on-write), gesehen als Klasse payload
+
+  // Aufrufe
+  CALL, // Funktion payload, Referenz-Parameter bekommen das Symbol (oder Basis-Konstruktor, Operand
+  // 0 this)
+  CALL_BUILTIN, // Built-in payload
+  RESOLVE, // Methode zum Objekt Operand 0, payload ist der gebundene MethodCallExpr
+  CALL_METHOD, // Methode Operand 0 auf Objekt Operand 1, ab Operand 2 die Argumente wie bei CALL
+  FAIL, // Fehler payload (RuntimeException oder SemanticException mit Meldung)
+
+  // Blockenden
+  JUMP, // zum einzigen Nachfolger
+  BRANCH, // Operand 0 wahr: erster Nachfolger, sonst zweiter
+  RETURN; // Operand 0 (fehlt: kein Wert)
+
+  public boolean isTerminator() {
+    return this == JUMP || this == BRANCH || this == RETURN;
+  }
+
+  // Ergebnis hängt nur von den Operanden ab, keine Seiteneffekte. Fehler (Division durch 0) sind
+  // erlaubt: eine gleiche Operation, die vorher ohne Fehler lief, scheitert auch jetzt nicht.
+  public boolean isPure() {
+    return this == COPY || (ordinal() >= ADD.ordinal() && ordinal() <= TO_BOOL.ordinal());
+  }
+
+  // Kann nicht scheitern, egal mit welchen Operanden
+  public boolean neverFails() {
+    return this == PARAM
+        || this == COPY
+        || this == PHI
+        || this == EQ
+        || this == NEQ
+        || this == NOT
+        || this == TO_BOOL;
+  }
+
+  // Liefert einen Wert; die übrigen Operationen erscheinen in der Ausgabe ohne "%n ="
+  public boolean hasResult() {
+    return this != STORE
+        && this != SET_FIELD
+        && this != STORE_SLOT
+        && this != FAIL
+        && !isTerminator();
+  }
+
+  // Name in der Ausgabe, z.B. "call_builtin"
+  public String mnemonic() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,74 @@
+package ir;
+
+import interpreter.Values;
+
+// Arithmetik, Vergleiche und unäre Operatoren auf Laufzeitwerten, genau wie im Tree-Walker.
+// Der IrInterpreter rechnet damit, die ConstantPropagation faltet damit: ein gefalteter Wert ist
+// also derselbe, den die Ausführung liefern würde, und was zur Laufzeit scheitert, wird nicht
+// gefaltet.
+final class Operations {
+  private Operations() {}
+
+  static Object binary(Op op, Object left, Object right) {
+    switch (op) {
+      case ADD:
+        if (Values.isString(left) || Values.isString(right)) {
+          return Values.concat(left, right);
+        }
+        return Values.toInt(left) + Values.toInt(right);
+      case SUB:
+        return Values.toInt(left) - Values.toInt(right);
+      case MUL:
+        return Values.toInt(left) * Values.toInt(right);
+      case DIV:
+        int divisor = Values.toInt(right);
+        if (divisor == 0) {
+          throw new RuntimeException("Division durch 0");
+        }
+        return Values.toInt(left) / divisor;
+      case MOD:
+        int mod = Values.toInt(right);
+        if (mod == 0) {
+          throw new RuntimeException("Modulo durch 0");
+        }
+        return Values.toInt(left) % mod;
+      case EQ:
+        return Values.equals(left, right);
+      case NEQ:
+        return !Values.equals(left, right);
+      case LT:
+        return Values.compare(left, right) < 0;
+      case LE:
+        return Values.compare(left, right) <= 0;
+      case GT:
+        return Values.compare(left, right) > 0;
+      case GE:
+        return Values.compare(left, right) >= 0;
+      default:
+        throw new IllegalArgumentException("Kein binärer Operator: " + op);
+    }
+  }
+
+  static Object unary(Op op, Object operand) {
+    switch (op) {
+      case NEG:
+        return -Values.toInt(operand);
+      case POS:
+        return Values.toInt(operand);
+      case NOT:
+        return !Values.toBoolean(operand);
+      case TO_BOOL:
+        return Values.toBoolean(operand);
+      default:
+        throw new IllegalArgumentException("Kein unärer Operator: " + op);
+    }
+  }
+
+  static boolean isBinary(Op op) {
+    return op.ordinal() >= Op.ADD.ordinal() && op.ordinal() <= Op.GE.ordinal();
+  }
+
+  static boolean isUnary(Op op) {
+    return op.ordinal() >= Op.NEG.ordinal() && op.ordinal() <= Op.TO_BOOL.ordinal();
+  }
+}
@@ -0,0 +1,263 @@
+package ir;
+
+import ast.FieldLayout;
+import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
+import ast.decl.Parameter;
+import ast.expr.FunctionCallExpr;
+import ast.expr.MemberAccessExpr;
+import interpreter.Values;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Escape-Analyse und Skalarersetzung: ein Objekt, das die Funktion nie verlässt, wird gar nicht
+// erst angelegt, seine Felder werden zu SSA-Werten.
+// Ein NEW_OBJECT entkommt nicht, wenn es nur Ziel von Feldzugriffen ist, deren Slot im Layout
+// seiner Klasse feststeht: nicht gespeichert, nicht übergeben, nicht zurückgegeben, kein
+// Methodenaufruf und kein Phi. Sein Konstruktor wird eingesetzt, wenn auch dort "this" nur für
+// Feldzugriffe dient; sonst bleibt das Objekt. Danach ist jedes Feld eine Variable, die
+// NEW_OBJECT mit dem Standardwert und jeder Schreibzugriff definiert; Lesezugriffe bekommen den
+// erreichenden Wert, an Zusammenflüssen über neue Phis.
+public class ScalarReplacement {
+  // Liefert die SSA-Form eines Konstruktors, jedes Mal neu, weil sie eingesetzt wird
+  private final Function<ConstructorDecl, IrFunction> constructors;
+
+  private IrFunction function;
+  private Instruction object;
+  private FieldLayout layout;
+  private final Map<Block, Map<Integer, Value>> atEntry = new HashMap<>();
+
+  public ScalarReplacement(Function<ConstructorDecl, IrFunction> constructors) {
+    this.constructors = constructors;
+  }
+
+  // Liefert die Zahl der ersetzten Objekte
+  public int replace(IrFunction function) {
+    this.function = function;
+    List<Instruction> allocations = new ArrayList<>();
+    for (Block block : function.getBlocks()) {
+      for (Instruction instruction : block.getInstructions()) {
+        if (instruction.getOp() == Op.NEW_OBJECT) {
+          allocations.add(instruction);
+        }
+      }
+    }
+
+    // Nur die Objekte von vorher: eingesetzte Konstruktoren könnten selbst Objekte anlegen
+    int replaced = 0;
+    for (Instruction allocation : allocations) {
+      if (allocation.getBlock() == null) {
+        continue;
+      }
+      FunctionCallExpr call = (FunctionCallExpr) allocation.getPayload();
+      ClassDecl cls = call.getConstructedClass();
+      if (escapes(allocation, cls.getLayout())) {
+        continue;
+      }
+      ConstructorDecl ctor = call.getConstructor();
+      if (ctor != null) {
+        if (hasReferenceParameter(ctor)) {
+          continue;
+        }
+        IrFunction body = constructors.apply(ctor);
+        if (!fieldsOnly(body)) {
+          continue;
+        }
+        inline(allocation, body);
+      }
+      replaceFields(allocation, cls.getLayout());
+      replaced++;
+    }
+    if (replaced > 0) {
+      function.sortBlocks();
+    }
+    return replaced;
+  }
+
+  // Referenz-Parameter verweisen auf Variablen des Aufrufers, die Felder allein reichen nicht
+  private static boolean hasReferenceParameter(ConstructorDecl ctor) {
+    for (Parameter param : ctor.getParameters()) {
+      if (param.getType().isReference()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean escapes(Instruction object, FieldLayout layout) {
+    for (Instruction user : object.getUsers()) {
+      if (slotOf(user, object, layout) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Slot eines Feldzugriffs auf das Objekt, -1 für jede andere Verwendung
+  private static int slotOf(Instruction user, Value object, FieldLayout layout) {
+    if (user.getOperand(0) != object) {
+      return -1;
+    }
+    switch (user.getOp()) {
+      case GET_FIELD:
+        return ((MemberAccessExpr) user.getPayload()).slotIn(layout);
+      case SET_FIELD:
+        return user.getOperand(1) == object
+            ? -1
+            : ((MemberAccessExpr) user.getPayload()).slotIn(layout);
+      case LOAD_SLOT:
+        return (Integer) user.getPayload();
+      case STORE_SLOT:
+        return user.getOperand(1) == object ? -1 : (Integer) user.getPayload();
+      default:
+        return -1;
+    }
+  }
+
+  // Im Konstruktor darf "this" nur Ziel von Feldzugriffen sein
+  private static boolean fieldsOnly(IrFunction ctor) {
+    for (Instruction instruction : ctor.getEntry().getInstructions()) {
+      if (instruction.getOp() == Op.PARAM && (Integer) instruction.getPayload() == 0) {
+        for (Instruction user : instruction.getUsers()) {
+          Op op = user.getOp();
+          if ((op != Op.LOAD_SLOT && op != Op.STORE_SLOT) || slotOf(user, instruction, null) < 0) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  // Setzt den Konstruktor hinter NEW_OBJECT ein: "this" ist das Objekt, die Parameter sind dessen
+  // Argumente, jedes return springt hinter die Anlage
+  private void inline(Instruction allocation, IrFunction ctor) {
+    Block rest = function.splitAfter(allocation);
+    Block block = allocation.getBlock();
+    List<Value> arguments = new ArrayList<>(allocation.getOperands());
+    allocation.dropOperands();
+
+    Map<Block, Block> blocks = new HashMap<>();
+    Map<Value, Value> values = new HashMap<>();
+    for (Block original : ctor.getBlocks()) {
+      blocks.put(original, function.newBlock());
+    }
+    for (Block original : ctor.getBlocks()) {
+      Block copy = blocks.get(original);
+      for (Instruction instruction : original.getInstructions()) {
+        if (instruction.getOp() == Op.PARAM) {
+          int index = (Integer) instruction.getPayload();
+          values.put(instruction, index == 0 ? allocation : arguments.get(index - 1));
+          continue;
+        }
+        Op op = instruction.getOp() == Op.RETURN ? Op.JUMP : instruction.getOp();
+        Instruction clone = function.newInstruction(op, instruction.getPayload());
+        clone.setName(instruction.getName());
+        copy.append(clone);
+        values.put(instruction, clone);
+      }
+      for (Block pred : original.getPredecessors()) {
+        copy.predecessors.add(blocks.get(pred));
+      }
+      for (Block successor : original.getSuccessors()) {
+        copy.successors.add(blocks.get(successor));
+      }
+      if (original.getTerminator().getOp() == Op.RETURN) {
+        IrFunction.addEdge(copy, rest);
+      }
+    }
+    // Operanden erst jetzt: Phis verwenden Werte aus späteren Blöcken
+    for (Block original : ctor.getBlocks()) {
+      for (Instruction instruction : original.getInstructions()) {
+        Value clone = values.get(instruction);
+        if (instruction.getOp() == Op.PARAM || instruction.getOp() == Op.RETURN) {
+          continue;
+        }
+        for (Value operand : instruction.getOperands()) {
+          ((Instruction) clone)
+              .addOperand(
+                  operand instanceof Constant
+                      ? new Constant(((Constant) operand).getValue())
+                      : values.get(operand));
+        }
+      }
+    }
+    block.append(function.newInstruction(Op.JUMP, null));
+    IrFunction.addEdge(block, blocks.get(ctor.getEntry()));
+  }
+
+  private void replaceFields(Instruction allocation, FieldLayout layout) {
+    object = allocation;
+    this.layout = layout;
+    atEntry.clear();
+
+    // Erst alle Werte bestimmen, dann ersetzen: ein gelesener Wert kann selbst ein Lesezugriff
+    // sein ("p.x = p.y"), dann zählt dessen Wert
+    List<Instruction> accesses = new ArrayList<>(allocation.getUsers());
+    Map<Instruction, Value> loaded = new HashMap<>();
+    for (Instruction access : accesses) {
+      if (access.getOp() == Op.GET_FIELD || access.getOp() == Op.LOAD_SLOT) {
+        Block block = access.getBlock();
+        int index = block.getInstructions().indexOf(access);
+        loaded.put(access, valueBefore(block, index, slotOf(access, allocation, layout)));
+      }
+    }
+    for (Instruction access : accesses) {
+      Value value = loaded.get(access);
+      if (value != null) {
+        while (loaded.containsKey(value)) {
+          value = loaded.get(value);
+        }
+        access.replaceAllUsesWith(value);
+      }
+    }
+    for (Instruction access : accesses) {
+      access.getBlock().remove(access);
+    }
+    allocation.getBlock().remove(allocation);
+  }
+
+  // Wert des Felds vor der Anweisung mit dem Index im Block
+  private Value valueBefore(Block block, int index, int slot) {
+    List<Instruction> instructions = block.getInstructions();
+    for (int i = index - 1; i >= 0; i--) {
+      Instruction instruction = instructions.get(i);
+      if (instruction == object) {
+        return new Constant(Values.getDefaultValue(layout.getType(slot).getTypeName()));
+      }
+      Op op = instruction.getOp();
+      if ((op == Op.SET_FIELD || op == Op.STORE_SLOT)
+          && slotOf(instruction, object, layout) == slot) {
+        return instruction.getOperand(1);
+      }
+    }
+    return valueAtEntry(block, slot);
+  }
+
+  private Value valueAtEntry(Block block, int slot) {
+    Map<Integer, Value> values = atEntry.computeIfAbsent(block, b -> new HashMap<>());
+    Value value = values.get(slot);
+    if (value != null) {
+      return value;
+    }
+    List<Block> preds = block.getPredecessors();
+    if (preds.size() == 1) {
+      value = valueBefore(preds.get(0), preds.get(0).getInstructions().size(), slot);
+      values.put(slot, value);
+      return value;
+    }
+    // Vor den Operanden eingetragen, damit Schleifen hier enden; triviale Phis entfernt danach
+    // die CopyPropagation
+    Instruction phi = function.newInstruction(Op.PHI, null);
+    phi.setName(layout.getName(slot));
+    block.insertPhi(phi);
+    values.put(slot, phi);
+    for (Block pred : preds) {
+      phi.addOperand(valueBefore(pred, pred.getInstructions().size(), slot));
+    }
+    return phi;
+  }
+}
@@ -0,0 +1,37 @@
+package ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// SSA-Wert: Ergebnis einer Instruction oder eine Constant. Jeder Wert kennt seine Verwender, ein
+// Verwender steht so oft in der Liste, wie er den Wert als Operand hat.
+public abstract class Value {
+  private final List<Instruction> users = new ArrayList<>();
+
+  public List<Instruction> getUsers() {
+    return Collections.unmodifiableList(users);
+  }
+
+  void addUser(Instruction user) {
+    users.add(user);
+  }
+
+  void removeUser(Instruction user) {
+    users.remove(user);
+  }
+
+  // Ersetzt den Wert in allen Operanden durch other
+  public void replaceAllUsesWith(Value other) {
+    if (other == this) {
+      return;
+    }
+    for (Instruction user : new ArrayList<>(users)) {
+      for (int i = 0; i < user.getOperands().size(); i++) {
+        if (user.getOperand(i) == this) {
+          user.setOperand(i, other);
+        }
+      }
+    }
+  }
+}
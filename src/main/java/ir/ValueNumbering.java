@@ -0,0 +1,110 @@
+package ir;
+
+import builtin.Builtin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Globale Wertnumerierung über den Dominatorbaum: eine reine Anweisung (Arithmetik, Vergleich,
+// reines Built-in) mit derselben Operation und denselben Operanden wie eine dominierende wird
+// durch diese ersetzt, ebenso ein Phi mit denselben Operanden im selben Block. Die dominierende
+// Anweisung lief vorher auf jedem Weg; ist sie nicht gescheitert, scheitert die gleiche auch
+// nicht. Bei *, == und != spielt die Reihenfolge der Operanden keine Rolle.
+public class ValueNumbering {
+  private final Map<Key, Instruction> available = new HashMap<>();
+  private int changes;
+
+  // Liefert die Zahl der ersetzten Anweisungen
+  public int number(IrFunction function) {
+    available.clear();
+    changes = 0;
+    Dominators dominators = new Dominators(function);
+    visit(dominators, function.getEntry());
+    return changes;
+  }
+
+  // Werte eines Blocks gelten in allen Blöcken, die er dominiert
+  private void visit(Dominators dominators, Block block) {
+    List<Key> added = new ArrayList<>();
+    for (Instruction instruction : new ArrayList<>(block.getInstructions())) {
+      if (!isNumbered(instruction)) {
+        continue;
+      }
+      Key key = new Key(instruction);
+      Instruction existing = available.get(key);
+      if (existing != null) {
+        instruction.replaceAllUsesWith(existing);
+        block.remove(instruction);
+        changes++;
+      } else {
+        available.put(key, instruction);
+        added.add(key);
+      }
+    }
+    for (Block child : dominators.getChildren(block)) {
+      visit(dominators, child);
+    }
+    for (Key key : added) {
+      available.remove(key);
+    }
+  }
+
+  private static boolean isNumbered(Instruction instruction) {
+    Op op = instruction.getOp();
+    return op.isPure()
+        || op == Op.PHI
+        || (op == Op.CALL_BUILTIN && ((Builtin) instruction.getPayload()).isPure());
+  }
+
+  // Operation, Payload (bei Phis der Block) und Operanden; Konstanten zählen nach ihrem Wert
+  private static final class Key {
+    private final Op op;
+    private final Object payload;
+    private final List<Object> operands = new ArrayList<>();
+
+    Key(Instruction instruction) {
+      op = instruction.getOp();
+      payload = op == Op.PHI ? instruction.getBlock() : instruction.getPayload();
+      for (Value operand : instruction.getOperands()) {
+        operands.add(
+            operand instanceof Constant
+                ? Collections.singletonList(((Constant) operand).getValue())
+                : operand);
+      }
+    }
+
+    private boolean isCommutative() {
+      return op == Op.MUL || op == Op.EQ || op == Op.NEQ;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      if (op != key.op || !Objects.equals(payload, key.payload)) {
+        return false;
+      }
+      if (operands.equals(key.operands)) {
+        return true;
+      }
+      return isCommutative()
+          && operands.get(0).equals(key.operands.get(1))
+          && operands.get(1).equals(key.operands.get(0));
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = op.hashCode() * 31 + Objects.hashCode(payload);
+      for (Object operand : operands) {
+        // Summe: bei vertauschbaren Operanden gleich
+        hash += operand.hashCode();
+      }
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package jit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+// Übersetzte Funktion, aufrufbar mit geboxten Argumenten aus dem Interpreter
+class CompiledFunction {
+  // Bis zu MAX_DIRECT Parametern werden die Argumente einzeln aus dem Argumentstapel des
+  // Interpreters übergeben, darüber über ein kopiertes Array
+  private static final int MAX_DIRECT = 4;
+
+  private final MethodHandle invoker; // (Object, ...) -> Object bzw. (Object[]) -> Object
+  private final FunctionEmitter.Kind[] parameterKinds;
+
+  CompiledFunction(MethodHandle target, FunctionEmitter.Kind[] parameterKinds) {
+    int arity = parameterKinds.length;
+    this.invoker =
+        arity <= MAX_DIRECT
+            ? target.asType(MethodType.genericMethodType(arity))
+            : target
+                .asSpreader(Object[].class, arity)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    this.parameterKinds = parameterKinds;
+  }
+
+  // Nur wenn die Laufzeit-Typen exakt passen, sonst entscheidet der Interpreter
+  boolean accepts(Object[] args, int base) {
+    for (int i = 0; i < parameterKinds.length; i++) {
+      Object arg = args[base + i];
+      boolean matches;
+      switch (parameterKinds[i]) {
+        case INT:
+          matches = arg instanceof Integer;
+          break;
+        case BOOL:
+          matches = arg instanceof Boolean;
+          break;
+        default:
+          matches = arg instanceof Character;
+          break;
+      }
+      if (!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Argumente ab base, wie sie der Interpreter übergibt
+  Object invoke(Object[] args, int base) {
+    try {
+      switch (parameterKinds.length) {
+        case 0:
+          return invoker.invokeExact();
+        case 1:
+          return invoker.invokeExact(args[base]);
+        case 2:
+          return invoker.invokeExact(args[base], args[base + 1]);
+        case 3:
+          return invoker.invokeExact(args[base], args[base + 1], args[base + 2]);
+        case 4:
+          return invoker.invokeExact(args[base], args[base + 1], args[base + 2], args[base + 3]);
+        default:
+          return invoker.invokeExact(Arrays.copyOfRange(args, base, base + parameterKinds.length));
+      }
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
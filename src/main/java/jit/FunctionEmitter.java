@@ -0,0 +1,545 @@
+package jit;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import builtin.Builtin;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import semantic.SemanticException;
+import semantic.SymbolTable;
+
+// Übersetzt eine FunctionDecl in eine statische JVM-Methode.
+// int, bool und char werden zu JVM-Primitiven (I, Z, C). Alles, was sich nicht exakt wie im
+// Tree-Walker abbilden lässt (Strings, Objekte, Referenzen, gemischte Typen), führt zu
+// NotCompilable - die Funktion läuft dann weiter im Interpreter.
+class FunctionEmitter {
+
+  // Statischer Typ eines Werts auf dem Operanden-Stack
+  enum Kind {
+    INT("I"),
+    BOOL("Z"),
+    CHAR("C"),
+    VOID("V");
+
+    final String descriptor;
+
+    Kind(String descriptor) {
+      this.descriptor = descriptor;
+    }
+
+    static Kind of(Type type) {
+      if (type.isReference()) {
+        return null;
+      }
+      switch (type.getTypeName()) {
+        case "int":
+          return INT;
+        case "bool":
+          return BOOL;
+        case "char":
+          return CHAR;
+        case "void":
+          return VOID;
+        default:
+          return null;
+      }
+    }
+  }
+
+  // Funktion kann nicht übersetzt werden
+  static class NotCompilable extends RuntimeException {
+    NotCompilable(String reason) {
+      super(reason);
+    }
+  }
+
+  // Aufgerufene Funktionen werden in dieselbe Klasse übersetzt
+  interface Callees {
+    String methodName(FunctionDecl func);
+  }
+
+  private static class Local {
+    final Kind kind;
+    final int slot;
+
+    Local(Kind kind, int slot) {
+      this.kind = kind;
+      this.slot = slot;
+    }
+  }
+
+  private final SymbolTable symbolTable;
+  private final String owner;
+  private final Callees callees;
+  private MethodVisitor mv;
+  private Kind returnKind;
+  private Label loopStart; // Ziel von continue in der innersten Schleife
+  private Label loopEnd; // Ziel von break
+
+  FunctionEmitter(SymbolTable symbolTable, String owner, Callees callees) {
+    this.symbolTable = symbolTable;
+    this.owner = owner;
+    this.callees = callees;
+  }
+
+  static String descriptor(FunctionDecl func) {
+    StringBuilder sb = new StringBuilder("(");
+    for (Parameter param : func.getParameters()) {
+      Kind kind = Kind.of(param.getType());
+      if (kind == null || kind == Kind.VOID) {
+        throw new NotCompilable("Parameter '" + param.getName() + "' hat Typ " + param.getType());
+      }
+      sb.append(kind.descriptor);
+    }
+    Kind result = Kind.of(func.getReturnType());
+    if (result == null) {
+      throw new NotCompilable("Rückgabetyp " + func.getReturnType());
+    }
+    return sb.append(")").append(result.descriptor).toString();
+  }
+
+  void emit(ClassWriter cw, FunctionDecl func) {
+    String desc = descriptor(func);
+    returnKind = Kind.of(func.getReturnType());
+    mv = cw.visitMethod(ACC_STATIC, callees.methodName(func), desc, null, null);
+    mv.visitCode();
+
+    // JVM-Slots entsprechen den Frame-Slots des Resolvers, Parameter liegen vorne
+    for (Parameter param : func.getParameters()) {
+      local(param.getVariable());
+    }
+    emitStatements(func.getBody().getStatements());
+
+    if (returnKind == Kind.VOID) {
+      mv.visitInsn(RETURN);
+    } else if (!alwaysReturns(func.getBody())) {
+      // Der Tree-Walker liefert hier null
+      throw new NotCompilable("Funktion kann ohne return enden");
+    }
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  // --- Statements ---
+
+  private void emitStatements(List<Statement> statements) {
+    for (Statement stmt : statements) {
+      emitStatement(stmt);
+    }
+  }
+
+  private void emitStatement(Statement stmt) {
+    if (stmt instanceof VarDeclStmt) {
+      emitVarDecl((VarDeclStmt) stmt);
+    } else if (stmt instanceof IfStmt) {
+      emitIf((IfStmt) stmt);
+    } else if (stmt instanceof WhileStmt) {
+      emitWhile((WhileStmt) stmt);
+    } else if (stmt instanceof ReturnStmt) {
+      emitReturn((ReturnStmt) stmt);
+    } else if (stmt instanceof BreakStmt) {
+      mv.visitJumpInsn(GOTO, loopEnd);
+    } else if (stmt instanceof ContinueStmt) {
+      mv.visitJumpInsn(GOTO, loopStart);
+    } else if (stmt instanceof ExprStmt) {
+      emitEffect(((ExprStmt) stmt).getExpression());
+    } else if (stmt instanceof BlockStmt) {
+      emitStatements(((BlockStmt) stmt).getStatements());
+    } else {
+      throw new NotCompilable("Anweisung " + stmt.getClass().getSimpleName());
+    }
+  }
+
+  private void emitVarDecl(VarDeclStmt stmt) {
+    Kind kind = Kind.of(stmt.getType());
+    if (kind == null || kind == Kind.VOID) {
+      throw new NotCompilable("Variable '" + stmt.getName() + "' hat Typ " + stmt.getType());
+    }
+    if (stmt.hasInitializer()) {
+      expect(kind, emitValue(stmt.getInitializer()));
+    } else {
+      mv.visitInsn(ICONST_0);
+    }
+    mv.visitVarInsn(ISTORE, local(stmt.getVariable()).slot);
+  }
+
+  private void emitIf(IfStmt stmt) {
+    Label elseLabel = new Label();
+    Label end = new Label();
+    emitCondition(stmt.getCondition());
+    mv.visitJumpInsn(IFEQ, elseLabel);
+    emitStatement(stmt.getThenBranch());
+    if (!alwaysJumps(stmt.getThenBranch(), true)) {
+      mv.visitJumpInsn(GOTO, end);
+    }
+    mv.visitLabel(elseLabel);
+    if (stmt.hasElseBranch()) {
+      emitStatement(stmt.getElseBranch());
+    }
+    mv.visitLabel(end);
+  }
+
+  private void emitWhile(WhileStmt stmt) {
+    Label loop = new Label();
+    Label end = new Label();
+    mv.visitLabel(loop);
+    emitCondition(stmt.getCondition());
+    mv.visitJumpInsn(IFEQ, end);
+    Label outerStart = loopStart;
+    Label outerEnd = loopEnd;
+    loopStart = loop;
+    loopEnd = end;
+    emitStatement(stmt.getBody());
+    loopStart = outerStart;
+    loopEnd = outerEnd;
+    mv.visitJumpInsn(GOTO, loop);
+    mv.visitLabel(end);
+  }
+
+  private void emitReturn(ReturnStmt stmt) {
+    if (returnKind == Kind.VOID) {
+      if (stmt.hasValue()) {
+        // Der Tree-Walker gibt den Wert trotzdem an den Aufrufer weiter
+        throw new NotCompilable("return mit Wert in void-Funktion");
+      }
+      mv.visitInsn(RETURN);
+    } else {
+      if (!stmt.hasValue()) {
+        throw new NotCompilable("return ohne Wert");
+      }
+      expect(returnKind, emitValue(stmt.getValue()));
+      mv.visitInsn(IRETURN);
+    }
+  }
+
+  private static boolean alwaysReturns(Statement stmt) {
+    return alwaysJumps(stmt, false);
+  }
+
+  // Endet stmt immer mit return, mit loopJumps auch mit break oder continue?
+  private static boolean alwaysJumps(Statement stmt, boolean loopJumps) {
+    if (stmt instanceof ReturnStmt) {
+      return true;
+    }
+    if (stmt instanceof BreakStmt || stmt instanceof ContinueStmt) {
+      return loopJumps;
+    }
+    if (stmt instanceof BlockStmt) {
+      for (Statement s : ((BlockStmt) stmt).getStatements()) {
+        if (alwaysJumps(s, loopJumps)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      return ifStmt.hasElseBranch()
+          && alwaysJumps(ifStmt.getThenBranch(), loopJumps)
+          && alwaysJumps(ifStmt.getElseBranch(), loopJumps);
+    }
+    return false;
+  }
+
+  // --- Expressions ---
+
+  // Ergebnis wird nicht gebraucht
+  private void emitEffect(Expression expr) {
+    if (expr instanceof AssignExpr) {
+      emitAssign((AssignExpr) expr, false);
+    } else if (emit(expr) != Kind.VOID) {
+      mv.visitInsn(POP);
+    }
+  }
+
+  // Ausdruck, dessen Wert gebraucht wird
+  private Kind emitValue(Expression expr) {
+    Kind kind = emit(expr);
+    if (kind == Kind.VOID) {
+      throw new NotCompilable("Wert einer void-Funktion wird verwendet");
+    }
+    return kind;
+  }
+
+  // Wie Values.toBoolean: 0 ist false, alles andere true
+  private void emitCondition(Expression expr) {
+    emitValue(expr);
+  }
+
+  private Kind emit(Expression expr) {
+    if (expr instanceof IntLiteral) {
+      pushInt(((IntLiteral) expr).getValue());
+      return Kind.INT;
+    } else if (expr instanceof BoolLiteral) {
+      pushInt(((BoolLiteral) expr).getValue() ? 1 : 0);
+      return Kind.BOOL;
+    } else if (expr instanceof CharLiteral) {
+      pushInt(((CharLiteral) expr).getValue());
+      return Kind.CHAR;
+    } else if (expr instanceof IdentifierExpr) {
+      Local local = local(((IdentifierExpr) expr).getVariable());
+      mv.visitVarInsn(ILOAD, local.slot);
+      return local.kind;
+    } else if (expr instanceof BinaryExpr) {
+      return emitBinary((BinaryExpr) expr);
+    } else if (expr instanceof UnaryExpr) {
+      return emitUnary((UnaryExpr) expr);
+    } else if (expr instanceof AssignExpr) {
+      return emitAssign((AssignExpr) expr, true);
+    } else if (expr instanceof FunctionCallExpr) {
+      return emitCall((FunctionCallExpr) expr);
+    }
+    throw new NotCompilable("Ausdruck " + expr.getClass().getSimpleName());
+  }
+
+  private Kind emitBinary(BinaryExpr expr) {
+    BinaryExpr.Operator op = expr.getOperator();
+    if (op == BinaryExpr.Operator.AND || op == BinaryExpr.Operator.OR) {
+      Label shortCircuit = new Label();
+      Label end = new Label();
+      int jump = op == BinaryExpr.Operator.AND ? IFEQ : IFNE;
+      emitCondition(expr.getLeft());
+      mv.visitJumpInsn(jump, shortCircuit);
+      emitCondition(expr.getRight());
+      mv.visitJumpInsn(jump, shortCircuit);
+      pushInt(op == BinaryExpr.Operator.AND ? 1 : 0);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(shortCircuit);
+      pushInt(op == BinaryExpr.Operator.AND ? 0 : 1);
+      mv.visitLabel(end);
+      return Kind.BOOL;
+    }
+
+    Kind left = emitValue(expr.getLeft());
+    Kind right = emitValue(expr.getRight());
+
+    switch (op) {
+      case ADD:
+        mv.visitInsn(IADD);
+        return Kind.INT;
+      case SUB:
+        mv.visitInsn(ISUB);
+        return Kind.INT;
+      case MUL:
+        mv.visitInsn(IMUL);
+        return Kind.INT;
+      case DIV:
+        checkDivisor("Division durch 0");
+        mv.visitInsn(IDIV);
+        return Kind.INT;
+      case MOD:
+        checkDivisor("Modulo durch 0");
+        mv.visitInsn(IREM);
+        return Kind.INT;
+      case EQ:
+      case NEQ:
+        if (left != right) {
+          // Values.equals: Integer und Character sind nie gleich
+          mv.visitInsn(POP2);
+          pushInt(op == BinaryExpr.Operator.NEQ ? 1 : 0);
+        } else {
+          emitCompare(op == BinaryExpr.Operator.EQ ? IF_ICMPEQ : IF_ICMPNE);
+        }
+        return Kind.BOOL;
+      case LT:
+      case LE:
+      case GT:
+      case GE:
+        if (left != right || left == Kind.BOOL) {
+          // Values.compare wirft hier zur Laufzeit
+          throw new NotCompilable("Vergleich von " + left + " und " + right);
+        }
+        emitCompare(compareOpcode(op));
+        return Kind.BOOL;
+      default:
+        throw new NotCompilable("Operator " + op);
+    }
+  }
+
+  private static int compareOpcode(BinaryExpr.Operator op) {
+    switch (op) {
+      case LT:
+        return IF_ICMPLT;
+      case LE:
+        return IF_ICMPLE;
+      case GT:
+        return IF_ICMPGT;
+      default:
+        return IF_ICMPGE;
+    }
+  }
+
+  // Zwei ints auf dem Stack -> 1 wenn der Vergleich zutrifft, sonst 0
+  private void emitCompare(int opcode) {
+    Label isTrue = new Label();
+    Label end = new Label();
+    mv.visitJumpInsn(opcode, isTrue);
+    pushInt(0);
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(isTrue);
+    pushInt(1);
+    mv.visitLabel(end);
+  }
+
+  // Divisor liegt oben auf dem Stack
+  private void checkDivisor(String message) {
+    Label ok = new Label();
+    mv.visitInsn(DUP);
+    mv.visitJumpInsn(IFNE, ok);
+    mv.visitTypeInsn(NEW, "java/lang/RuntimeException");
+    mv.visitInsn(DUP);
+    mv.visitLdcInsn(message);
+    mv.visitMethodInsn(
+        INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "(Ljava/lang/String;)V", false);
+    mv.visitInsn(ATHROW);
+    mv.visitLabel(ok);
+  }
+
+  private Kind emitUnary(UnaryExpr expr) {
+    emitValue(expr.getOperand());
+    switch (expr.getOperator()) {
+      case NEG:
+        mv.visitInsn(INEG);
+        return Kind.INT;
+      case POS:
+        return Kind.INT;
+      case NOT:
+        emitNot();
+        return Kind.BOOL;
+      default:
+        throw new NotCompilable("Operator " + expr.getOperator());
+    }
+  }
+
+  // 0 -> 1, alles andere -> 0
+  private void emitNot() {
+    Label isZero = new Label();
+    Label end = new Label();
+    mv.visitJumpInsn(IFEQ, isZero);
+    pushInt(0);
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(isZero);
+    pushInt(1);
+    mv.visitLabel(end);
+  }
+
+  private Kind emitAssign(AssignExpr expr, boolean needValue) {
+    if (!(expr.getTarget() instanceof IdentifierExpr)) {
+      throw new NotCompilable("Zuweisung an " + expr.getTarget().getClass().getSimpleName());
+    }
+    Local local = local(((IdentifierExpr) expr.getTarget()).getVariable());
+    expect(local.kind, emitValue(expr.getValue()));
+    if (needValue) {
+      mv.visitInsn(DUP);
+    }
+    mv.visitVarInsn(ISTORE, local.slot);
+    return needValue ? local.kind : Kind.VOID;
+  }
+
+  private Kind emitCall(FunctionCallExpr expr) {
+    String funcName = expr.getFunctionName();
+    List<Expression> arguments = expr.getArguments();
+
+    // Ziel steht seit der Analyse fest; in der REPL evtl. neu binden
+    try {
+      symbolTable.link(expr);
+    } catch (SemanticException e) {
+      throw new NotCompilable(e.getMessage());
+    }
+
+    // Built-in Funktionen: direkter Aufruf der implementierenden Java-Methode
+    if (expr.isBuiltin()) {
+      return emitBuiltinCall(expr.getBuiltin(), arguments);
+    }
+
+    if (expr.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR) {
+      throw new NotCompilable("Konstruktor-Aufruf " + funcName);
+    }
+
+    FunctionDecl func = expr.getFunction();
+    String desc = descriptor(func);
+    for (int i = 0; i < arguments.size(); i++) {
+      expect(Kind.of(func.getParameters().get(i).getType()), emitValue(arguments.get(i)));
+    }
+    mv.visitMethodInsn(INVOKESTATIC, owner, callees.methodName(func), desc, false);
+    return Kind.of(func.getReturnType());
+  }
+
+  // Nur Built-ins mit skalaren Parametern, die aus dieser Klasse heraus sichtbar sind
+  private Kind emitBuiltinCall(Builtin builtin, List<Expression> arguments) {
+    Method method = builtin.getMethod();
+    if (method.getDeclaringClass().getClassLoader() != FunctionEmitter.class.getClassLoader()) {
+      throw new NotCompilable(builtin + " aus fremdem ClassLoader");
+    }
+    Kind result = Kind.of(builtin.getReturnType());
+    if (result == null) {
+      throw new NotCompilable(builtin + " liefert " + builtin.getReturnType());
+    }
+    for (int i = 0; i < arguments.size(); i++) {
+      Kind param = Kind.of(builtin.getParameterTypes().get(i));
+      if (param == null) {
+        throw new NotCompilable(builtin + " erwartet " + builtin.getParameterTypes().get(i));
+      }
+      Kind arg = emitValue(arguments.get(i));
+      if (param == Kind.BOOL && arg != Kind.BOOL) {
+        // Values.toBoolean: alles außer 0 ist true
+        emitNot();
+        emitNot();
+      } else if (param == Kind.CHAR) {
+        // (char) auf einem Integer wirft im Tree-Walker ClassCastException
+        expect(Kind.CHAR, arg);
+      }
+    }
+    mv.visitMethodInsn(
+        INVOKESTATIC,
+        org.objectweb.asm.Type.getInternalName(method.getDeclaringClass()),
+        method.getName(),
+        org.objectweb.asm.Type.getMethodDescriptor(method),
+        false);
+    return result;
+  }
+
+  // --- Hilfsmethoden ---
+
+  private Local local(LocalVariable variable) {
+    if (variable == null) {
+      throw new NotCompilable("Variable nicht lokal aufgelöst");
+    }
+    if (variable.isCell()) {
+      // Referenzen und Variablen, auf die eine Referenz zeigt, liegen im Interpreter in Symbolen
+      throw new NotCompilable("Variable '" + variable.getName() + "' ist eine Referenz");
+    }
+    Kind kind = Kind.of(variable.getType());
+    if (kind == null || kind == Kind.VOID) {
+      throw new NotCompilable(
+          "Variable '" + variable.getName() + "' hat Typ " + variable.getType());
+    }
+    return new Local(kind, variable.getSlot());
+  }
+
+  // Werte werden nie konvertiert, deshalb müssen die Typen exakt passen
+  private static void expect(Kind expected, Kind actual) {
+    if (expected != actual) {
+      throw new NotCompilable(actual + "-Wert, erwartet " + expected);
+    }
+  }
+
+  private void pushInt(int value) {
+    if (value >= -1 && value <= 5) {
+      mv.visitInsn(ICONST_0 + value);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      mv.visitIntInsn(BIPUSH, value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      mv.visitIntInsn(SIPUSH, value);
+    } else {
+      mv.visitLdcInsn(value);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package jit;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import ast.decl.FunctionDecl;
+import ast.decl.Parameter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.objectweb.asm.ClassWriter;
+import semantic.SymbolTable;
+
+// Übersetzt Funktionen samt allen aufgerufenen Funktionen in eine Hidden Class
+public class JitCompiler {
+  private static final String CLASS_NAME = "jit/CompiledCode";
+
+  private final SymbolTable symbolTable;
+  private final Map<FunctionDecl, CompiledFunction> compiled = new HashMap<>();
+  private final Map<FunctionDecl, String> failed = new HashMap<>();
+  private boolean log = false;
+
+  public JitCompiler(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  // Übersetzungen und Abbrüche auf System.err ausgeben
+  public void setLog(boolean log) {
+    this.log = log;
+  }
+
+  // Liefert die übersetzte Funktion oder null, wenn sie im Interpreter laufen muss
+  CompiledFunction lookup(FunctionDecl func) {
+    CompiledFunction result = compiled.get(func);
+    if (result == null && !failed.containsKey(func)) {
+      compileGroup(func);
+      result = compiled.get(func);
+    }
+    return result;
+  }
+
+  private void compileGroup(FunctionDecl entry) {
+    ClassWriter cw =
+        new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+          @Override
+          protected String getCommonSuperClass(String type1, String type2) {
+            return "java/lang/Object";
+          }
+        };
+    cw.visit(V21, ACC_FINAL | ACC_SUPER, CLASS_NAME, null, "java/lang/Object", null);
+
+    // Jede erreichbare Funktion wird eine statische Methode derselben Klasse
+    Map<FunctionDecl, String> methodNames = new LinkedHashMap<>();
+    Deque<FunctionDecl> pending = new ArrayDeque<>();
+    FunctionEmitter.Callees callees =
+        func ->
+            methodNames.computeIfAbsent(
+                func,
+                f -> {
+                  pending.add(f);
+                  return "f" + methodNames.size() + "_" + f.getName();
+                });
+    callees.methodName(entry);
+
+    FunctionDecl current = entry;
+    try {
+      while (!pending.isEmpty()) {
+        current = pending.poll();
+        new FunctionEmitter(symbolTable, CLASS_NAME, callees).emit(cw, current);
+      }
+    } catch (FunctionEmitter.NotCompilable e) {
+      failed.put(current, e.getMessage());
+      String reason = e.getMessage();
+      if (current != entry) {
+        reason = "ruft " + current.getName() + " auf (" + reason + ")";
+        failed.put(entry, reason);
+      }
+      log(entry.getName() + " nicht kompiliert: " + reason);
+      return;
+    }
+    cw.visitEnd();
+
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.lookup().defineHiddenClass(cw.toByteArray(), true);
+      for (Map.Entry<FunctionDecl, String> method : methodNames.entrySet()) {
+        FunctionDecl func = method.getKey();
+        MethodType type =
+            MethodType.fromMethodDescriptorString(FunctionEmitter.descriptor(func), null);
+        MethodHandle handle = lookup.findStatic(lookup.lookupClass(), method.getValue(), type);
+        compiled.putIfAbsent(func, new CompiledFunction(handle, parameterKinds(func)));
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("JIT: Klasse konnte nicht geladen werden", e);
+    }
+    log(entry.getName() + " kompiliert (" + methodNames.size() + " Funktionen)");
+  }
+
+  private static FunctionEmitter.Kind[] parameterKinds(FunctionDecl func) {
+    FunctionEmitter.Kind[] kinds = new FunctionEmitter.Kind[func.getParameters().size()];
+    for (int i = 0; i < kinds.length; i++) {
+      Parameter param = func.getParameters().get(i);
+      kinds[i] = FunctionEmitter.Kind.of(param.getType());
+    }
+    return kinds;
+  }
+
+  private void log(String message) {
+    if (log) {
+      System.err.println("JIT: " + message);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package jit;
+
+import ast.decl.FunctionDecl;
+import interpreter.Interpreter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import semantic.SymbolTable;
+
+// Tree-Walker, der Funktionen in JVM-Bytecode übersetzt, sobald sie heiß sind (Aufrufzähler wie
+// im TieredInterpreter). Kalter Code und Funktionen, die der JIT nicht abdeckt, laufen unverändert
+// im Interpreter.
+public class JitInterpreter extends Interpreter {
+  private final JitCompiler compiler;
+
+  private int callThreshold = 100;
+  private final Map<FunctionDecl, Integer> invocations = new HashMap<>();
+  private final Set<FunctionDecl> hot = new HashSet<>();
+
+  public JitInterpreter(SymbolTable symbolTable) {
+    super(symbolTable);
+    this.compiler = new JitCompiler(symbolTable);
+  }
+
+  public void setLog(boolean log) {
+    compiler.setLog(log);
+  }
+
+  // Aufrufe, ab denen eine Funktion übersetzt wird
+  public void setCallThreshold(int callThreshold) {
+    this.callThreshold = callThreshold;
+  }
+
+  @Override
+  protected Object executeFunction(FunctionDecl func, Object[] args, int base) {
+    if (isHot(func)) {
+      CompiledFunction compiled = compiler.lookup(func);
+      if (compiled != null && compiled.accepts(args, base)) {
+        // Übersetzte Funktionen rufen sich direkt auf, ohne Segmente: ihre Rekursion muss in das
+        // laufende Segment passen. Übersetzter Code ändert den Interpreter nicht, ein Überlauf
+        // wird hier am Einstieg zum gewöhnlichen Laufzeitfehler.
+        try {
+          return compiled.invoke(args, base);
+        } catch (StackOverflowError e) {
+          throw new RuntimeException(
+              "Rekursion in übersetzter Funktion '" + func.getName() + "' zu tief");
+        }
+      }
+    }
+    return super.executeFunction(func, args, base);
+  }
+
+  // Zählt den Aufruf; true, sobald die Funktion die Schwelle erreicht hat
+  private boolean isHot(FunctionDecl func) {
+    if (hot.contains(func)) {
+      return true;
+    }
+    if (invocations.merge(func, 1, Integer::sum) < callThreshold) {
+      return false;
+    }
+    hot.add(func);
+    return true;
+  }
+}
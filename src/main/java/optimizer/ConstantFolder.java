@@ -0,0 +1,298 @@
+package optimizer;
+
+import static optimizer.Literals.*;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Läuft nach der semantischen Analyse und vor dem Resolver und vereinfacht den AST, nach dem
+// Einsetzen (Inliner) noch einmal für die Argumente, die dabei zu Literalen geworden sind:
+// - Operatoren mit int-, bool- und char-Literalen als Operanden werden ausgerechnet,
+// - neutrale Operationen fallen weg (x + 0, x - 0, x * 1, x / 1, !!b, true && b, ...),
+// - if mit konstanter Bedingung wird durch den gewählten Zweig ersetzt.
+// Gefaltet wird nur, was zur Laufzeit sicher dasselbe Ergebnis liefert: Division und Modulo
+// durch 0 sowie Vergleiche, die zur Laufzeit scheitern (true < false, 'a' < 1), bleiben stehen
+// und melden ihren Fehler weiter erst bei der Ausführung. Ein wegfallender Operand muss den
+// statischen Typ des Ergebnisses haben, sonst ändert sich der Wert (c * 1 ist int, c ist char).
+public class ConstantFolder {
+
+  public void fold(Program program) {
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        foldStatement(ctor.getBody());
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        foldStatement(method.getBody());
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      foldStatement(func.getBody());
+    }
+  }
+
+  // Liefert die Anweisung, die an die Stelle von stmt tritt (oft stmt selbst)
+  private Statement foldStatement(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      List<Statement> statements = ((BlockStmt) stmt).getStatements();
+      for (int i = 0; i < statements.size(); i++) {
+        statements.set(i, foldStatement(statements.get(i)));
+      }
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      if (decl.hasInitializer()) {
+        decl.setInitializer(foldValue(decl.getInitializer()));
+      }
+    } else if (stmt instanceof IfStmt) {
+      return foldIf((IfStmt) stmt);
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt whileStmt = (WhileStmt) stmt;
+      whileStmt.setCondition(foldExpression(whileStmt.getCondition()));
+      whileStmt.setBody(foldStatement(whileStmt.getBody()));
+    } else if (stmt instanceof ReturnStmt) {
+      ReturnStmt ret = (ReturnStmt) stmt;
+      if (ret.hasValue()) {
+        ret.setValue(foldExpression(ret.getValue()));
+      }
+    } else if (stmt instanceof ExprStmt) {
+      ExprStmt exprStmt = (ExprStmt) stmt;
+      exprStmt.setExpression(foldExpression(exprStmt.getExpression()));
+    }
+    return stmt;
+  }
+
+  private Statement foldIf(IfStmt stmt) {
+    stmt.setCondition(foldExpression(stmt.getCondition()));
+    stmt.setThenBranch(foldStatement(stmt.getThenBranch()));
+    if (stmt.hasElseBranch()) {
+      stmt.setElseBranch(foldStatement(stmt.getElseBranch()));
+    }
+    if (!isLiteral(stmt.getCondition())) {
+      return stmt;
+    }
+    Statement taken = toBoolean(stmt.getCondition()) ? stmt.getThenBranch() : stmt.getElseBranch();
+    if (taken == null) {
+      return new BlockStmt(new ArrayList<>());
+    }
+    // Ein Zweig ist ein eigener Scope; seine Deklarationen dürfen nicht in den umgebenden Block
+    if (taken instanceof BlockStmt) {
+      return taken;
+    }
+    List<Statement> statements = new ArrayList<>();
+    statements.add(taken);
+    return new BlockStmt(statements);
+  }
+
+  // Wie foldExpression, macht aber aus keinem Ausdruck einen LValue: Referenz-Parameter und
+  // Referenz-Variablen lehnen z.B. x + 0 zur Laufzeit ab, x aber nicht
+  private Expression foldValue(Expression expr) {
+    Expression folded = foldExpression(expr);
+    if (folded instanceof IdentifierExpr && !(expr instanceof IdentifierExpr)) {
+      return expr;
+    }
+    return folded;
+  }
+
+  // Faltet die Teilausdrücke an Ort und Stelle und liefert den Ausdruck, der expr ersetzt
+  private Expression foldExpression(Expression expr) {
+    if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      binary.setLeft(foldExpression(binary.getLeft()));
+      binary.setRight(foldExpression(binary.getRight()));
+      return foldBinary(binary);
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      unary.setOperand(foldExpression(unary.getOperand()));
+      return foldUnary(unary);
+    } else if (expr instanceof AssignExpr) {
+      AssignExpr assign = (AssignExpr) expr;
+      assign.setValue(foldExpression(assign.getValue()));
+    } else if (expr instanceof FunctionCallExpr) {
+      foldArguments(((FunctionCallExpr) expr).getArguments());
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      call.setObject(foldExpression(call.getObject()));
+      foldArguments(call.getArguments());
+    } else if (expr instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr;
+      access.setObject(foldExpression(access.getObject()));
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      copy.setOperand(foldExpression(copy.getOperand()));
+    }
+    return expr;
+  }
+
+  private void foldArguments(List<Expression> arguments) {
+    for (int i = 0; i < arguments.size(); i++) {
+      arguments.set(i, foldValue(arguments.get(i)));
+    }
+  }
+
+  private Expression foldBinary(BinaryExpr expr) {
+    Expression left = expr.getLeft();
+    Expression right = expr.getRight();
+    BinaryExpr.Operator op = expr.getOperator();
+    boolean constant = isLiteral(left) && isLiteral(right);
+
+    switch (op) {
+      case ADD:
+        // + mit String verkettet
+        if (!hasType(expr, "int")) {
+          return expr;
+        }
+        if (constant) {
+          return intLiteral(toInt(left) + toInt(right));
+        }
+        if (isInt(right, 0) && hasType(left, "int")) {
+          return left;
+        }
+        if (isInt(left, 0) && hasType(right, "int")) {
+          return right;
+        }
+        return expr;
+      case SUB:
+        if (constant) {
+          return intLiteral(toInt(left) - toInt(right));
+        }
+        if (isInt(right, 0) && hasType(left, "int")) {
+          return left;
+        }
+        return expr;
+      case MUL:
+        if (constant) {
+          return intLiteral(toInt(left) * toInt(right));
+        }
+        if (isInt(right, 1) && hasType(left, "int")) {
+          return left;
+        }
+        if (isInt(left, 1) && hasType(right, "int")) {
+          return right;
+        }
+        return expr;
+      case DIV:
+        // Division durch 0 bleibt ein Laufzeitfehler
+        if (constant && toInt(right) != 0) {
+          return intLiteral(toInt(left) / toInt(right));
+        }
+        if (isInt(right, 1) && hasType(left, "int")) {
+          return left;
+        }
+        return expr;
+      case MOD:
+        if (constant && toInt(right) != 0) {
+          return intLiteral(toInt(left) % toInt(right));
+        }
+        return expr;
+      case AND:
+        if (isLiteral(left)) {
+          // false && x wertet x nicht aus
+          if (!toBoolean(left)) {
+            return boolLiteral(false);
+          }
+          return isLiteral(right) ? boolLiteral(toBoolean(right)) : boolOperand(expr, right);
+        }
+        if (isLiteral(right) && toBoolean(right)) {
+          return boolOperand(expr, left);
+        }
+        return expr;
+      case OR:
+        if (isLiteral(left)) {
+          if (toBoolean(left)) {
+            return boolLiteral(true);
+          }
+          return isLiteral(right) ? boolLiteral(toBoolean(right)) : boolOperand(expr, right);
+        }
+        if (isLiteral(right) && !toBoolean(right)) {
+          return boolOperand(expr, left);
+        }
+        return expr;
+      default:
+        return constant ? foldComparison(expr) : expr;
+    }
+  }
+
+  // Vergleich zweier Literale; gefaltet wird nur, was zur Laufzeit keinen Fehler wirft
+  private Expression foldComparison(BinaryExpr expr) {
+    Expression left = expr.getLeft();
+    Expression right = expr.getRight();
+    BinaryExpr.Operator op = expr.getOperator();
+    if (left.getClass() != right.getClass()) {
+      return expr;
+    }
+    if (left instanceof BoolLiteral
+        && op != BinaryExpr.Operator.EQ
+        && op != BinaryExpr.Operator.NEQ) {
+      return expr;
+    }
+    int l = toInt(left);
+    int r = toInt(right);
+    switch (op) {
+      case EQ:
+        return boolLiteral(l == r);
+      case NEQ:
+        return boolLiteral(l != r);
+      case LT:
+        return boolLiteral(l < r);
+      case LE:
+        return boolLiteral(l <= r);
+      case GT:
+        return boolLiteral(l > r);
+      default:
+        return boolLiteral(l >= r);
+    }
+  }
+
+  private Expression foldUnary(UnaryExpr expr) {
+    Expression operand = expr.getOperand();
+    switch (expr.getOperator()) {
+      case NEG:
+        return isLiteral(operand) ? intLiteral(-toInt(operand)) : expr;
+      case POS:
+        if (isLiteral(operand)) {
+          return intLiteral(toInt(operand));
+        }
+        return hasType(operand, "int") ? operand : expr;
+      default:
+        if (isLiteral(operand)) {
+          return boolLiteral(!toBoolean(operand));
+        }
+        // !!b ist b, wenn b schon bool ist
+        if (operand instanceof UnaryExpr
+            && ((UnaryExpr) operand).getOperator() == UnaryExpr.Operator.NOT
+            && hasType(((UnaryExpr) operand).getOperand(), "bool")) {
+          return ((UnaryExpr) operand).getOperand();
+        }
+        return expr;
+    }
+  }
+
+  // Operand von && bzw. ||, der allein über das Ergebnis entscheidet
+  private static Expression boolOperand(BinaryExpr expr, Expression operand) {
+    return hasType(operand, "bool") ? operand : expr;
+  }
+
+  private static boolean isInt(Expression expr, int value) {
+    return expr instanceof IntLiteral && ((IntLiteral) expr).getValue() == value;
+  }
+
+  private static boolean hasType(Expression expr, String typeName) {
+    Type type = expr.getStaticType();
+    return type != null && type.getTypeName().equals(typeName);
+  }
+
+  private static Expression intLiteral(int value) {
+    IntLiteral literal = new IntLiteral(value);
+    literal.setStaticType(new Type("int"));
+    return literal;
+  }
+
+  private static Expression boolLiteral(boolean value) {
+    BoolLiteral literal = new BoolLiteral(value);
+    literal.setStaticType(new Type("bool"));
+    return literal;
+  }
+}
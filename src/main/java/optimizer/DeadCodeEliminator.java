@@ -0,0 +1,189 @@
+package optimizer;
+
+import static optimizer.Literals.*;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import semantic.SymbolTable;
+
+// Entfernt Code, der nie ausgeführt wird. Läuft nach der Konstantenfaltung und vor dem Resolver:
+// - Anweisungen nach einem return, break oder continue im selben Block,
+// - while-Schleifen mit konstant falscher Bedingung,
+// - Funktionen und Klassen, die von main aus nicht erreichbar sind.
+// Erreichbar ist, was ein gebundener Aufruf in erreichbarem Code nennt. Von einer Klasse bleiben
+// alle Konstruktoren und Methoden erhalten (virtuelle Aufrufe können jede davon treffen), dazu
+// ihre Basisklassen. Objekte entstehen nur über Konstruktoraufrufe, daher ist jede Klasse mit
+// Objekten zur Laufzeit darunter.
+// Ohne main (in der REPL) bleiben alle Deklarationen stehen, eine spätere Eingabe kann sie rufen.
+public class DeadCodeEliminator {
+  private final SymbolTable symbolTable;
+  private final Set<FunctionDecl> reachableFunctions = new HashSet<>();
+  private final Set<ClassDecl> reachableClasses = new HashSet<>();
+  private final Deque<BlockStmt> pending = new ArrayDeque<>();
+
+  public DeadCodeEliminator(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  public void eliminate(Program program) {
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        prune(ctor.getBody());
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        prune(method.getBody());
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      prune(func.getBody());
+    }
+
+    FunctionDecl main = program.getMainFunction();
+    if (main == null) {
+      return;
+    }
+    reachFunction(main);
+    while (!pending.isEmpty()) {
+      visitStatement(pending.pop());
+    }
+    program.getFunctions().removeIf(func -> !reachableFunctions.contains(func));
+    program.getClasses().removeIf(cls -> !reachableClasses.contains(cls));
+  }
+
+  // === Unerreichbare Anweisungen ===
+
+  // Liefert die Anweisung, die an die Stelle von stmt tritt, oder null, wenn sie wegfällt
+  private Statement prune(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      List<Statement> statements = ((BlockStmt) stmt).getStatements();
+      for (int i = 0; i < statements.size(); i++) {
+        Statement pruned = prune(statements.get(i));
+        if (pruned == null) {
+          statements.remove(i--);
+        } else if (pruned instanceof ReturnStmt
+            || pruned instanceof BreakStmt
+            || pruned instanceof ContinueStmt) {
+          statements.subList(i + 1, statements.size()).clear();
+        } else {
+          statements.set(i, pruned);
+        }
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      ifStmt.setThenBranch(pruneBranch(ifStmt.getThenBranch()));
+      if (ifStmt.hasElseBranch()) {
+        ifStmt.setElseBranch(pruneBranch(ifStmt.getElseBranch()));
+      }
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt whileStmt = (WhileStmt) stmt;
+      // Ein Literal als Bedingung hat keine Seiteneffekte
+      if (isLiteral(whileStmt.getCondition()) && !toBoolean(whileStmt.getCondition())) {
+        return null;
+      }
+      whileStmt.setBody(pruneBranch(whileStmt.getBody()));
+    }
+    return stmt;
+  }
+
+  private Statement pruneBranch(Statement stmt) {
+    Statement pruned = prune(stmt);
+    return pruned != null ? pruned : new BlockStmt(new ArrayList<>());
+  }
+
+  // === Erreichbarkeit ===
+
+  private void reachFunction(FunctionDecl func) {
+    if (reachableFunctions.add(func)) {
+      pending.push(func.getBody());
+    }
+  }
+
+  private void reachClass(ClassDecl cls) {
+    if (!reachableClasses.add(cls)) {
+      return;
+    }
+    for (ConstructorDecl ctor : cls.getConstructors()) {
+      pending.push(ctor.getBody());
+    }
+    for (MethodDecl method : cls.getMethods()) {
+      pending.push(method.getBody());
+    }
+    if (cls.hasBaseClass()) {
+      ClassDecl base = symbolTable.lookupClass(cls.getBaseClass());
+      if (base != null) {
+        reachClass(base);
+      }
+    }
+  }
+
+  private void visitStatement(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        visitStatement(inner);
+      }
+    } else if (stmt instanceof VarDeclStmt) {
+      if (((VarDeclStmt) stmt).hasInitializer()) {
+        visitExpression(((VarDeclStmt) stmt).getInitializer());
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      visitExpression(ifStmt.getCondition());
+      visitStatement(ifStmt.getThenBranch());
+      if (ifStmt.hasElseBranch()) {
+        visitStatement(ifStmt.getElseBranch());
+      }
+    } else if (stmt instanceof WhileStmt) {
+      visitExpression(((WhileStmt) stmt).getCondition());
+      visitStatement(((WhileStmt) stmt).getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      if (((ReturnStmt) stmt).hasValue()) {
+        visitExpression(((ReturnStmt) stmt).getValue());
+      }
+    } else if (stmt instanceof ExprStmt) {
+      visitExpression(((ExprStmt) stmt).getExpression());
+    }
+  }
+
+  private void visitExpression(Expression expr) {
+    if (expr instanceof BinaryExpr) {
+      visitExpression(((BinaryExpr) expr).getLeft());
+      visitExpression(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      visitExpression(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof AssignExpr) {
+      visitExpression(((AssignExpr) expr).getTarget());
+      visitExpression(((AssignExpr) expr).getValue());
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      if (call.getKind() == FunctionCallExpr.Kind.FUNCTION) {
+        reachFunction(call.getFunction());
+      } else if (call.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR) {
+        reachClass(call.getConstructedClass());
+      }
+      visitExpressions(call.getArguments());
+    } else if (expr instanceof MemberAccessExpr) {
+      visitExpression(((MemberAccessExpr) expr).getObject());
+    } else if (expr instanceof MethodCallExpr) {
+      visitExpression(((MethodCallExpr) expr).getObject());
+      visitExpressions(((MethodCallExpr) expr).getArguments());
+    } else if (expr instanceof CopyExpr) {
+      // Beim Slicing ist die Zielklasse die Klasse des Werts
+      reachClass(((CopyExpr) expr).getTargetClass());
+      visitExpression(((CopyExpr) expr).getOperand());
+    }
+  }
+
+  private void visitExpressions(List<Expression> exprs) {
+    for (Expression expr : exprs) {
+      visitExpression(expr);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package optimizer;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Entfernt Zuweisungen an lokale Variablen, deren Wert danach nie mehr gelesen wird. Läuft nach
+// dem Resolver, denn erst dann gehört jeder Name zu einer LocalVariable.
+// Grundlage ist eine Lebendigkeitsanalyse rückwärts über den strukturierten AST: lebendig ist eine
+// Variable, die auf einem Weg noch gelesen wird, bevor sie neu zugewiesen wird. Schleifen werden
+// bis zum Fixpunkt durchlaufen, nach return ist nichts mehr lebendig. Vor break ist lebendig, was
+// nach der Schleife gebraucht wird, vor continue, was vor ihrer Bedingung gebraucht wird.
+// Betrachtet werden nur Variablen, deren Slot den Wert selbst hält; über Referenzen und Symbole
+// (isCell) kann anderswo gelesen werden. Eine tote Zuweisung x = e wird zu e, wenn e Seiteneffekte
+// haben oder einen Fehler werfen kann, sonst fällt sie ganz weg. Bei einer Deklaration fällt nur
+// ein
+// solcher Initialisierer weg, die Variable selbst bleibt.
+public class DeadStoreEliminator {
+  // Lebendig nach der innersten Schleife bzw. vor ihrer Bedingung
+  private Set<LocalVariable> breakLive;
+  private Set<LocalVariable> continueLive;
+
+  public void eliminate(Program program) {
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        live(ctor.getBody(), new HashSet<>(), true);
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        live(method.getBody(), new HashSet<>(), true);
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      live(func.getBody(), new HashSet<>(), true);
+    }
+  }
+
+  // Lebendige Variablen vor stmt, wenn nach stmt liveOut lebendig ist. Mit eliminate werden tote
+  // Zuweisungen dabei entfernt; liveOut muss dann schon der Fixpunkt sein.
+  private Set<LocalVariable> live(Statement stmt, Set<LocalVariable> liveOut, boolean eliminate) {
+    if (stmt instanceof BlockStmt) {
+      List<Statement> statements = ((BlockStmt) stmt).getStatements();
+      Set<LocalVariable> live = liveOut;
+      for (int i = statements.size() - 1; i >= 0; i--) {
+        Statement inner = statements.get(i);
+        if (eliminate && isDeadStore(inner, live)) {
+          Expression value = ((AssignExpr) ((ExprStmt) inner).getExpression()).getValue();
+          if (isPure(value)) {
+            statements.remove(i);
+            continue;
+          }
+          ((ExprStmt) inner).setExpression(value);
+        }
+        live = live(inner, live, eliminate);
+      }
+      return live;
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      Set<LocalVariable> live = new HashSet<>(liveOut);
+      live.remove(decl.getVariable());
+      if (decl.hasInitializer()) {
+        if (eliminate
+            && isTracked(decl.getVariable())
+            && !liveOut.contains(decl.getVariable())
+            && isPure(decl.getInitializer())) {
+          decl.setInitializer(null);
+        } else {
+          addUses(decl.getInitializer(), live);
+        }
+      }
+      return live;
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      Set<LocalVariable> live = new HashSet<>(live(ifStmt.getThenBranch(), liveOut, eliminate));
+      if (ifStmt.hasElseBranch()) {
+        live.addAll(live(ifStmt.getElseBranch(), liveOut, eliminate));
+      } else {
+        live.addAll(liveOut);
+      }
+      addUses(ifStmt.getCondition(), live);
+      return live;
+    } else if (stmt instanceof WhileStmt) {
+      return liveLoop((WhileStmt) stmt, liveOut, eliminate);
+    } else if (stmt instanceof ReturnStmt) {
+      Set<LocalVariable> live = new HashSet<>();
+      if (((ReturnStmt) stmt).hasValue()) {
+        addUses(((ReturnStmt) stmt).getValue(), live);
+      }
+      return live;
+    } else if (stmt instanceof BreakStmt) {
+      return breakLive;
+    } else if (stmt instanceof ContinueStmt) {
+      return continueLive;
+    } else if (stmt instanceof ExprStmt) {
+      Expression expr = ((ExprStmt) stmt).getExpression();
+      Set<LocalVariable> live = new HashSet<>(liveOut);
+      LocalVariable target = assignedVariable(expr);
+      if (target != null) {
+        live.remove(target);
+        addUses(((AssignExpr) expr).getValue(), live);
+      } else {
+        addUses(expr, live);
+      }
+      return live;
+    }
+    return liveOut;
+  }
+
+  // Vor der Bedingung ist lebendig, was die Bedingung liest, was nach der Schleife gebraucht wird
+  // und was der Rumpf braucht, wenn danach wieder die Bedingung kommt
+  private Set<LocalVariable> liveLoop(
+      WhileStmt stmt, Set<LocalVariable> liveOut, boolean eliminate) {
+    Set<LocalVariable> outerBreak = breakLive;
+    Set<LocalVariable> outerContinue = continueLive;
+    breakLive = liveOut;
+    Set<LocalVariable> head = new HashSet<>(liveOut);
+    addUses(stmt.getCondition(), head);
+    while (true) {
+      continueLive = head;
+      Set<LocalVariable> next = new HashSet<>(head);
+      next.addAll(live(stmt.getBody(), head, false));
+      if (next.equals(head)) {
+        break;
+      }
+      head = next;
+    }
+    continueLive = head;
+    if (eliminate) {
+      live(stmt.getBody(), head, true);
+    }
+    breakLive = outerBreak;
+    continueLive = outerContinue;
+    return head;
+  }
+
+  private boolean isDeadStore(Statement stmt, Set<LocalVariable> liveOut) {
+    if (!(stmt instanceof ExprStmt)) {
+      return false;
+    }
+    LocalVariable target = assignedVariable(((ExprStmt) stmt).getExpression());
+    return target != null && !liveOut.contains(target);
+  }
+
+  // Variable, der expr direkt zuweist (x = ...), null sonst
+  private static LocalVariable assignedVariable(Expression expr) {
+    if (expr instanceof AssignExpr && ((AssignExpr) expr).getTarget() instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) ((AssignExpr) expr).getTarget()).getVariable();
+      return isTracked(variable) ? variable : null;
+    }
+    return null;
+  }
+
+  private static boolean isTracked(LocalVariable variable) {
+    return variable != null && !variable.isCell();
+  }
+
+  // Alle gelesenen Variablen; das Ziel einer Zuweisung an eine Variable wird nicht gelesen
+  private static void addUses(Expression expr, Set<LocalVariable> live) {
+    if (expr instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) expr).getVariable();
+      if (variable != null) {
+        live.add(variable);
+      }
+    } else if (expr instanceof BinaryExpr) {
+      addUses(((BinaryExpr) expr).getLeft(), live);
+      addUses(((BinaryExpr) expr).getRight(), live);
+    } else if (expr instanceof UnaryExpr) {
+      addUses(((UnaryExpr) expr).getOperand(), live);
+    } else if (expr instanceof AssignExpr) {
+      AssignExpr assign = (AssignExpr) expr;
+      if (!(assign.getTarget() instanceof IdentifierExpr)) {
+        addUses(assign.getTarget(), live);
+      }
+      addUses(assign.getValue(), live);
+    } else if (expr instanceof FunctionCallExpr) {
+      for (Expression arg : ((FunctionCallExpr) expr).getArguments()) {
+        addUses(arg, live);
+      }
+    } else if (expr instanceof MethodCallExpr) {
+      addUses(((MethodCallExpr) expr).getObject(), live);
+      for (Expression arg : ((MethodCallExpr) expr).getArguments()) {
+        addUses(arg, live);
+      }
+    } else if (expr instanceof MemberAccessExpr) {
+      addUses(((MemberAccessExpr) expr).getObject(), live);
+    } else if (expr instanceof CopyExpr) {
+      addUses(((CopyExpr) expr).getOperand(), live);
+    }
+  }
+
+  // Ohne Seiteneffekte und ohne möglichen Laufzeitfehler
+  private static boolean isPure(Expression expr) {
+    if (Literals.isLiteral(expr) || expr instanceof StringLiteral) {
+      return true;
+    }
+    if (expr instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) expr).getVariable();
+      return variable != null && !variable.isReference();
+    }
+    if (expr instanceof UnaryExpr) {
+      Expression operand = ((UnaryExpr) expr).getOperand();
+      return isScalar(operand) && isPure(operand);
+    }
+    if (expr instanceof CopyExpr) {
+      // Die Kopie teilt nur die Felder, bemerkbar ist sie erst beim Schreiben
+      return isPure(((CopyExpr) expr).getOperand());
+    }
+    if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      if (!isScalar(binary.getLeft())
+          || !isScalar(binary.getRight())
+          || !isPure(binary.getLeft())
+          || !isPure(binary.getRight())) {
+        return false;
+      }
+      switch (binary.getOperator()) {
+        case ADD:
+        case SUB:
+        case MUL:
+        case EQ:
+        case NEQ:
+        case AND:
+        case OR:
+          return true;
+        default:
+          // Division durch 0 und Vergleiche unterschiedlicher Typen werfen
+          return false;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isScalar(Expression expr) {
+    Type type = expr.getStaticType();
+    return type != null && type.isScalar();
+  }
+}
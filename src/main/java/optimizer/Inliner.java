@@ -0,0 +1,976 @@
+package optimizer;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Setzt die Rümpfe kleiner Funktionen und statisch gebundener Methoden an ihren Aufrufstellen ein.
+// Ein Aufruf kostet in jeder Ausführungsart einen neuen Frame, eine Argumentliste und für return
+// eine Ausnahme; bei Gettern, Settern und einzeiligen Hilfsfunktionen ist das ein Vielfaches des
+// Rumpfs.
+// Läuft nach dem Resolver: Parameter und lokale Variablen des Rumpfs bekommen neue Slots am Ende
+// des aufrufenden Frames. Ein Parameter, der im Rumpf nie zugewiesen wird, liest direkt das
+// Argument, wenn es ein Literal oder eine lokale Variable ohne Symbol ist; Referenz-Parameter lesen
+// immer die übergebene Variable. Felder des Objekts werden zu Zugriffen über die Variable, auf der
+// die Methode aufgerufen wurde; das geht nur, wenn sie sicher ein Objekt hält, sonst muss der
+// Aufruf selbst mit seinem Fehler scheitern.
+// Besteht der Rumpf nur aus "return e;", ersetzt e den Aufruf an Ort und Stelle. Sonst kommt der
+// Rumpf vor die Anweisung mit dem Aufruf und das Ergebnis in eine Hilfsvariable ($ret). Ein
+// return mitten im Rumpf wird aufgelöst, indem der folgende Code in den Zweig wandert, der nicht
+// zurückkehrt; müsste er dafür verdoppelt werden, bleibt der Aufruf.
+// Läuft so Code vor der Anweisung (Rumpf oder Hilfsvariablen für Argumente), darf vorher in der
+// Anweisung nur Stabiles ausgewertet werden (Literale und lokale Variablen ohne Symbol in sicheren
+// Operationen), und der Aufruf darf weder rechts von && und || noch in einer Schleifenbedingung
+// stehen.
+// Die Funktionen werden in der Reihenfolge des Aufrufgraphs bearbeitet, Aufgerufene zuerst; ein
+// eingesetzter Rumpf enthält damit schon die Rümpfe, die in ihn eingesetzt wurden, und wird nicht
+// noch einmal durchsucht.
+public class Inliner {
+  // Größte Zahl von AST-Knoten (Anweisungen und Ausdrücke) im Rumpf, die noch eingesetzt wird
+  public static final int DEFAULT_THRESHOLD = 24;
+
+  private final int threshold;
+  private final StringBuilder report = new StringBuilder();
+  private final Map<Object, String> rejections = new HashMap<>();
+  private final Map<Object, String> names = new HashMap<>();
+  private Names nameTable; // Namenstabelle des Programms, für die Hilfsvariablen
+
+  // Aktuell bearbeitete Funktion, Methode oder Konstruktor
+  private Object current;
+  private int frameSize;
+  private Set<LocalVariable> objects;
+
+  // Aktuelle Anweisung: Code, der vor ihr läuft, und ob alles bisher Ausgewertete stabil ist
+  private List<Statement> prefix;
+  private boolean ordered;
+
+  // Aktueller eingesetzter Rumpf: Ersatz für Parameter und lokale Variablen, Variable des Objekts
+  private Map<LocalVariable, Expression> substitutions;
+  private LocalVariable receiver;
+
+  public Inliner(int threshold) {
+    this.threshold = threshold;
+  }
+
+  public Inliner() {
+    this(DEFAULT_THRESHOLD);
+  }
+
+  public void inline(Program program) {
+    nameTable = program.getNames();
+    List<Object> declarations = new ArrayList<>();
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        declarations.add(ctor);
+        names.put(ctor, cls.getName() + "::" + cls.getName());
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        declarations.add(method);
+        names.put(method, cls.getName() + "::" + method.getName());
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      declarations.add(func);
+      names.put(func, func.getName());
+    }
+
+    List<Object> order = new ArrayList<>();
+    Set<Object> seen = new HashSet<>();
+    for (Object decl : declarations) {
+      postOrder(decl, new HashSet<>(declarations), seen, order);
+    }
+    for (Object decl : order) {
+      current = decl;
+      frameSize = frameSizeOf(decl);
+      objects = objectsIn(bodyOf(decl));
+      inlineInBlock(bodyOf(decl));
+      setFrameSize(decl, frameSize);
+      // Der Rumpf ist gewachsen, bei Zyklen im Aufrufgraph wird er später noch eingesetzt
+      rejections.remove(decl);
+    }
+  }
+
+  // Eine Zeile pro Aufrufstelle, z.B. "main: square/1 eingesetzt (4 Knoten)"
+  public String getReport() {
+    return report.toString();
+  }
+
+  // Aufgerufene vor den Aufrufern, nur Deklarationen dieses Programms
+  private void postOrder(Object decl, Set<Object> own, Set<Object> seen, List<Object> order) {
+    if (!seen.add(decl)) {
+      return;
+    }
+    for (ASTNode node : nodes(bodyOf(decl))) {
+      Object callee = node instanceof Expression ? calleeOf((Expression) node) : null;
+      if (callee != null && own.contains(callee)) {
+        postOrder(callee, own, seen, order);
+      }
+    }
+    order.add(decl);
+  }
+
+  // === Aufrufstellen ===
+
+  private void inlineInBlock(BlockStmt block) {
+    List<Statement> statements = new ArrayList<>();
+    for (Statement stmt : block.getStatements()) {
+      statements.addAll(inlineInStatement(stmt));
+    }
+    block.getStatements().clear();
+    block.getStatements().addAll(statements);
+  }
+
+  // Zweig von if oder while: mehrere Anweisungen brauchen einen Block
+  private Statement inlineInBranch(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      inlineInBlock((BlockStmt) stmt);
+      return stmt;
+    }
+    List<Statement> statements = inlineInStatement(stmt);
+    return statements.size() == 1 ? statements.get(0) : new BlockStmt(statements);
+  }
+
+  // Liefert die Anweisungen, die an die Stelle von stmt treten
+  private List<Statement> inlineInStatement(Statement stmt) {
+    List<Statement> statements = new ArrayList<>();
+    prefix = statements;
+    ordered = true;
+    if (stmt instanceof BlockStmt) {
+      inlineInBlock((BlockStmt) stmt);
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      // Eine Referenz braucht eine Variable, da gibt es nichts einzusetzen
+      if (decl.hasInitializer() && !decl.getType().isReference()) {
+        decl.setInitializer(inlineInExpression(decl.getInitializer(), true));
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      ifStmt.setCondition(inlineInExpression(ifStmt.getCondition(), true));
+      ifStmt.setThenBranch(inlineInBranch(ifStmt.getThenBranch()));
+      if (ifStmt.hasElseBranch()) {
+        ifStmt.setElseBranch(inlineInBranch(ifStmt.getElseBranch()));
+      }
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt loop = (WhileStmt) stmt;
+      // Die Bedingung läuft bei jedem Durchlauf, Hilfsvariablen davor gingen verloren
+      loop.setCondition(inlineInExpression(loop.getCondition(), false));
+      loop.setBody(inlineInBranch(loop.getBody()));
+    } else if (stmt instanceof ReturnStmt) {
+      ReturnStmt ret = (ReturnStmt) stmt;
+      if (ret.hasValue()) {
+        if (inlineStatementCall(ret.getValue(), true)) {
+          return statements;
+        }
+        ret.setValue(inlineInExpression(ret.getValue(), true));
+      }
+    } else if (stmt instanceof ExprStmt) {
+      ExprStmt exprStmt = (ExprStmt) stmt;
+      if (inlineStatementCall(exprStmt.getExpression(), false)) {
+        return statements;
+      }
+      exprStmt.setExpression(inlineInExpression(exprStmt.getExpression(), true));
+    }
+    statements.add(stmt);
+    return statements;
+  }
+
+  // "return f(...);" und "f(...);": jedes return des Rumpfs kehrt direkt zurück bzw. verwirft den
+  // Wert, eine Hilfsvariable für das Ergebnis ist nicht nötig
+  private boolean inlineStatementCall(Expression expr, boolean returns) {
+    Object callee = calleeOf(expr);
+    if (callee == null) {
+      return false;
+    }
+    Type returnType = returnTypeOf(callee);
+    if (returns
+        && (returnType.getTypeName().equals("void")
+            || !returnType.getTypeName().equals(returnTypeOf(current).getTypeName()))) {
+      return false;
+    }
+    inlineInArguments(expr, true);
+    String reason = rejection(expr, callee, true);
+    if (reason != null) {
+      report(expr, "nicht eingesetzt: " + reason);
+      prefix.add(returns ? new ReturnStmt(expr) : new ExprStmt(expr));
+      return true;
+    }
+    Function<ReturnStmt, Statement> ret;
+    if (returns) {
+      ret = stmt -> stmt;
+    } else {
+      ret =
+          stmt ->
+              stmt.hasValue() && !LoopInvariantHoister.isSafe(stmt.getValue())
+                  ? new ExprStmt(stmt.getValue())
+                  : null;
+    }
+    prefix.addAll(expand(expr, callee, ret));
+    return true;
+  }
+
+  // Ausdruck in Auswertungsreihenfolge; mayPrefix: hier dürfen Anweisungen vorher laufen
+  private Expression inlineInExpression(Expression expr, boolean mayPrefix) {
+    if (expr instanceof FunctionCallExpr || expr instanceof MethodCallExpr) {
+      boolean before = ordered;
+      inlineInArguments(expr, mayPrefix);
+      Object callee = calleeOf(expr);
+      if (callee != null) {
+        Expression result = inlineCall(expr, callee, mayPrefix, before);
+        if (result != expr) {
+          ordered = before && isStable(result);
+          return result;
+        }
+      }
+    } else if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      binary.setLeft(inlineInExpression(binary.getLeft(), mayPrefix));
+      // Rechts von && und || wird nur manchmal ausgewertet
+      boolean shortCircuit =
+          binary.getOperator() == BinaryExpr.Operator.AND
+              || binary.getOperator() == BinaryExpr.Operator.OR;
+      binary.setRight(inlineInExpression(binary.getRight(), mayPrefix && !shortCircuit));
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      unary.setOperand(inlineInExpression(unary.getOperand(), mayPrefix));
+    } else if (expr instanceof AssignExpr) {
+      // Der Wert wird vor dem Ziel ausgewertet
+      AssignExpr assign = (AssignExpr) expr;
+      assign.setValue(inlineInExpression(assign.getValue(), mayPrefix));
+    } else if (expr instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr;
+      access.setObject(inlineInExpression(access.getObject(), mayPrefix));
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      copy.setOperand(inlineInExpression(copy.getOperand(), mayPrefix));
+    }
+    if (!isStable(expr)) {
+      ordered = false;
+    }
+    return expr;
+  }
+
+  private void inlineInArguments(Expression call, boolean mayPrefix) {
+    List<Expression> arguments;
+    if (call instanceof MethodCallExpr) {
+      MethodCallExpr method = (MethodCallExpr) call;
+      method.setObject(inlineInExpression(method.getObject(), mayPrefix));
+      arguments = method.getArguments();
+    } else {
+      arguments = ((FunctionCallExpr) call).getArguments();
+    }
+    for (int i = 0; i < arguments.size(); i++) {
+      // Für eine Referenz wird nur die Variable übergeben, nichts ausgewertet
+      if (!isReferenceParameter(call, i)) {
+        arguments.set(i, inlineInExpression(arguments.get(i), mayPrefix));
+      }
+    }
+  }
+
+  // Ersatz für den Aufruf, call selbst, wenn er bleibt
+  // ordered: vor dem Aufruf wurde nur Stabiles ausgewertet
+  private Expression inlineCall(
+      Expression call, Object callee, boolean mayPrefix, boolean ordered) {
+    String reason = rejection(call, callee, false);
+    if (reason == null && needsPrefix(call, callee)) {
+      if (!mayPrefix) {
+        reason = "nur bedingt oder wiederholt ausgewertet";
+      } else if (!ordered) {
+        reason = "vorher Ausdruck mit möglichem Seiteneffekt";
+      }
+    }
+    if (reason != null) {
+      report(call, "nicht eingesetzt: " + reason);
+      return call;
+    }
+
+    // Der Ausdruck ersetzt den Aufruf, vorher laufen nur die Hilfsvariablen der Argumente
+    if (isSingleReturn(bodyOf(callee))) {
+      Expression[] result = new Expression[1];
+      prefix.addAll(
+          expand(
+              call,
+              callee,
+              stmt -> {
+                result[0] = stmt.getValue();
+                return null;
+              }));
+      return result[0];
+    }
+
+    LocalVariable variable = newVariable("$ret", returnTypeOf(callee), false);
+    VarDeclStmt decl =
+        new VarDeclStmt(variable.getType(), variable.getName(), nameId(variable), null);
+    decl.setVariable(variable);
+    prefix.add(decl);
+    prefix.addAll(
+        expand(
+            call,
+            callee,
+            stmt -> {
+              AssignExpr assign = new AssignExpr(read(variable), stmt.getValue());
+              assign.setStaticType(variable.getType());
+              return new ExprStmt(assign);
+            }));
+    return read(variable);
+  }
+
+  // Gründe, den Aufruf nicht einzusetzen; null, wenn er eingesetzt werden kann
+  private String rejection(Expression call, Object callee, boolean statement) {
+    if (callee == current) {
+      return "rekursiv";
+    }
+    String reason = rejections.computeIfAbsent(callee, this::rejection);
+    if (!reason.isEmpty()) {
+      return reason;
+    }
+    if (!statement && returnTypeOf(callee).getTypeName().equals("void")) {
+      return "kein Wert";
+    }
+    List<Parameter> parameters = parametersOf(callee);
+    List<Expression> arguments = argumentsOf(call);
+    for (int i = 0; i < arguments.size(); i++) {
+      Expression arg = arguments.get(i);
+      for (ASTNode node : nodes(arg)) {
+        if (node instanceof AssignExpr) {
+          return "Zuweisung im Argument";
+        }
+      }
+      if (isReferenceParameter(call, i)) {
+        if (!(arg instanceof IdentifierExpr) || ((IdentifierExpr) arg).getVariable() == null) {
+          return "Referenz auf " + describe(arg);
+        }
+      } else if (!sameType(arg.getStaticType(), parameters.get(i).getType())) {
+        return "Argument vom Typ " + arg.getStaticType();
+      }
+    }
+    if (call instanceof MethodCallExpr) {
+      Expression object = ((MethodCallExpr) call).getObject();
+      LocalVariable variable =
+          object instanceof IdentifierExpr ? ((IdentifierExpr) object).getVariable() : null;
+      if (variable == null) {
+        return "Objekt ist keine lokale Variable";
+      }
+      // Auf einem fehlenden Objekt muss der Aufruf selbst scheitern
+      if (!objects.contains(variable)) {
+        return "Objekt nicht sicher angelegt";
+      }
+    }
+    return null;
+  }
+
+  // Variablen, die in der ganzen Funktion ein Objekt halten: mit einem Konstruktoraufruf
+  // initialisiert und nur solche zugewiesen, oder Referenzen auf solche. Variablen in Symbolen
+  // nur, wenn keine Referenz zugewiesen und keine an eine Funktion übergeben wird.
+  private static Set<LocalVariable> objectsIn(BlockStmt body) {
+    Set<LocalVariable> objects = new HashSet<>();
+    Set<LocalVariable> reassigned = new HashSet<>();
+    boolean writesThroughReference = false;
+    for (ASTNode node : nodes(body)) {
+      if (node instanceof VarDeclStmt) {
+        VarDeclStmt decl = (VarDeclStmt) node;
+        Expression init = decl.getInitializer();
+        if (decl.getType().isReference()) {
+          LocalVariable target =
+              init instanceof IdentifierExpr ? ((IdentifierExpr) init).getVariable() : null;
+          if (objects.contains(target)) {
+            objects.add(decl.getVariable());
+          }
+        } else if (isConstruction(init)) {
+          objects.add(decl.getVariable());
+        }
+      } else if (node instanceof AssignExpr) {
+        AssignExpr assign = (AssignExpr) node;
+        LocalVariable variable =
+            assign.getTarget() instanceof IdentifierExpr
+                ? ((IdentifierExpr) assign.getTarget()).getVariable()
+                : null;
+        if (variable != null && !isConstruction(assign.getValue())) {
+          reassigned.add(variable);
+        }
+        writesThroughReference |= variable != null && variable.isReference();
+      } else if (node instanceof FunctionCallExpr || node instanceof MethodCallExpr) {
+        Expression call = (Expression) node;
+        for (int i = 0; i < argumentsOf(call).size(); i++) {
+          writesThroughReference |= isReferenceParameter(call, i);
+        }
+      }
+    }
+    objects.removeAll(reassigned);
+    if (writesThroughReference) {
+      objects.removeIf(LocalVariable::isCell);
+    }
+    return objects;
+  }
+
+  private static boolean isConstruction(Expression expr) {
+    return expr instanceof FunctionCallExpr
+        && ((FunctionCallExpr) expr).getKind() == FunctionCallExpr.Kind.CONSTRUCTOR;
+  }
+
+  // Vom Aufruf unabhängige Gründe, leer wenn die Funktion oder Methode eingesetzt werden kann
+  private String rejection(Object callee) {
+    BlockStmt body = bodyOf(callee);
+    int size = nodes(body).size() - 1;
+    if (size > threshold) {
+      return "zu groß (" + size + " Knoten)";
+    }
+    Type returnType = returnTypeOf(callee);
+    if (!returnType.getTypeName().equals("void") && !isValueType(returnType)) {
+      return "Rückgabetyp " + returnType;
+    }
+    boolean isMethod = callee instanceof MethodDecl;
+    for (Parameter param : parametersOf(callee)) {
+      if (!param.getType().isReference() && !isValueType(param.getType())) {
+        return "Parameter " + param.getName() + " vom Typ " + param.getType();
+      }
+    }
+    for (ASTNode node : nodes(body)) {
+      if (node instanceof WhileStmt && containsReturn((WhileStmt) node)) {
+        return "return in einer Schleife";
+      }
+      if (node instanceof ReturnStmt
+          && ((ReturnStmt) node).hasValue()
+          && !sameType(((ReturnStmt) node).getValue().getStaticType(), returnType)) {
+        return "Rückgabe vom Typ " + ((ReturnStmt) node).getValue().getStaticType();
+      }
+      if (isMethod && !fieldAsValue(node)) {
+        return "Feld als Referenz";
+      }
+    }
+    if (!returnType.getTypeName().equals("void") && completesNormally(body)) {
+      return "nicht jeder Pfad endet mit return";
+    }
+    // Probelauf auf einer Kopie mit den ursprünglichen Variablen
+    substitutions = null;
+    receiver = null;
+    if (lower(((BlockStmt) copy(body)).getStatements(), stmt -> stmt) == null) {
+      return "return mitten im Rumpf";
+    }
+    return "";
+  }
+
+  // Ein Feld des Objekts lässt sich nur lesen und zuweisen, nicht als Referenz weitergeben
+  private static boolean fieldAsValue(ASTNode node) {
+    if (node instanceof IdentifierExpr) {
+      IdentifierExpr id = (IdentifierExpr) node;
+      return id.getVariable() != null || id.getFieldSlot() >= 0;
+    } else if (node instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) node;
+      return !decl.getType().isReference() || !isField(decl.getInitializer());
+    } else if (node instanceof FunctionCallExpr || node instanceof MethodCallExpr) {
+      Expression call = (Expression) node;
+      for (int i = 0; i < argumentsOf(call).size(); i++) {
+        if (isReferenceParameter(call, i) && isField(argumentsOf(call).get(i))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isField(Expression expr) {
+    return expr instanceof IdentifierExpr && ((IdentifierExpr) expr).getVariable() == null;
+  }
+
+  // Ohne Hilfsvariablen geht es nur, wenn jeder Parameter das Argument direkt lesen kann
+  private boolean needsPrefix(Expression call, Object callee) {
+    if (!isSingleReturn(bodyOf(callee))) {
+      return true;
+    }
+    List<Parameter> parameters = parametersOf(callee);
+    for (int i = 0; i < parameters.size(); i++) {
+      if (!isReferenceParameter(call, i)
+          && !isDirect(argumentsOf(call).get(i), parameters.get(i).getVariable(), callee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Parameter liest das Argument selbst: es ändert sich nicht, solange der Rumpf läuft
+  private boolean isDirect(Expression arg, LocalVariable param, Object callee) {
+    if (param.isCell()) {
+      return false;
+    }
+    for (ASTNode node : nodes(bodyOf(callee))) {
+      if (node instanceof AssignExpr
+          && ((AssignExpr) node).getTarget() instanceof IdentifierExpr
+          && ((IdentifierExpr) ((AssignExpr) node).getTarget()).getVariable() == param) {
+        return false;
+      }
+    }
+    if (Literals.isLiteral(arg) || arg instanceof StringLiteral) {
+      return true;
+    }
+    return arg instanceof IdentifierExpr && isStable(arg);
+  }
+
+  // === Einsetzen ===
+
+  // Argumente binden und den Rumpf kopieren; ret ersetzt jedes return (null: entfällt)
+  private List<Statement> expand(
+      Expression call, Object callee, Function<ReturnStmt, Statement> ret) {
+    List<Statement> statements = new ArrayList<>();
+    substitutions = new HashMap<>();
+    receiver = null;
+    if (call instanceof MethodCallExpr) {
+      receiver = ((IdentifierExpr) ((MethodCallExpr) call).getObject()).getVariable();
+    }
+    List<Parameter> parameters = parametersOf(callee);
+    List<Expression> arguments = argumentsOf(call);
+    for (int i = 0; i < parameters.size(); i++) {
+      LocalVariable param = parameters.get(i).getVariable();
+      Expression arg = arguments.get(i);
+      if (isReferenceParameter(call, i) || isDirect(arg, param, callee)) {
+        substitutions.put(param, arg);
+      } else {
+        LocalVariable variable = newVariable(temporaryName(param), param.getType(), false);
+        variable.setAddressTaken(param.isAddressTaken());
+        VarDeclStmt decl =
+            new VarDeclStmt(variable.getType(), variable.getName(), nameId(variable), arg);
+        decl.setVariable(variable);
+        statements.add(decl);
+        substitutions.put(param, read(variable));
+      }
+    }
+    statements.addAll(lower(((BlockStmt) copy(bodyOf(callee))).getStatements(), ret));
+    report(call, "eingesetzt (" + (nodes(bodyOf(callee)).size() - 1) + " Knoten)");
+    return statements;
+  }
+
+  // Baut stmts so um, dass jedes return am Ende seines Pfads steht, und ersetzt es durch ret.
+  // Code nach einem if, das in einem Zweig zurückkehrt, wandert in den anderen Zweig. null, wenn
+  // beide Zweige weiterlaufen können und danach noch etwas kommt.
+  private static List<Statement> lower(List<Statement> stmts, Function<ReturnStmt, Statement> ret) {
+    List<Statement> lowered = new ArrayList<>();
+    for (int i = 0; i < stmts.size(); i++) {
+      Statement stmt = stmts.get(i);
+      if (!containsReturn(stmt)) {
+        lowered.add(stmt);
+        continue;
+      }
+      List<Statement> rest = stmts.subList(i + 1, stmts.size());
+      if (stmt instanceof ReturnStmt) {
+        Statement replacement = ret.apply((ReturnStmt) stmt);
+        if (replacement != null) {
+          lowered.add(replacement);
+        }
+      } else if (stmt instanceof BlockStmt) {
+        List<Statement> inner = lower(concat(((BlockStmt) stmt).getStatements(), rest), ret);
+        if (inner == null) {
+          return null;
+        }
+        lowered.addAll(inner);
+      } else if (stmt instanceof IfStmt) {
+        IfStmt ifStmt = (IfStmt) stmt;
+        boolean thenContinues = completesNormally(ifStmt.getThenBranch());
+        boolean elseContinues =
+            !ifStmt.hasElseBranch() || completesNormally(ifStmt.getElseBranch());
+        if (thenContinues && elseContinues && !rest.isEmpty()) {
+          return null;
+        }
+        List<Statement> thenBranch =
+            lower(
+                concat(statementsOf(ifStmt.getThenBranch()), thenContinues ? rest : List.of()),
+                ret);
+        List<Statement> elseBranch =
+            lower(
+                concat(statementsOf(ifStmt.getElseBranch()), elseContinues ? rest : List.of()),
+                ret);
+        if (thenBranch == null || elseBranch == null) {
+          return null;
+        }
+        ifStmt.setThenBranch(new BlockStmt(thenBranch));
+        ifStmt.setElseBranch(elseBranch.isEmpty() ? null : new BlockStmt(elseBranch));
+        lowered.add(ifStmt);
+      } else {
+        return null;
+      }
+      return lowered;
+    }
+    return lowered;
+  }
+
+  private static boolean completesNormally(Statement stmt) {
+    if (stmt instanceof ReturnStmt) {
+      return false;
+    } else if (stmt instanceof BlockStmt) {
+      return ((BlockStmt) stmt).getStatements().stream().allMatch(Inliner::completesNormally);
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      return completesNormally(ifStmt.getThenBranch())
+          || !ifStmt.hasElseBranch()
+          || completesNormally(ifStmt.getElseBranch());
+    }
+    return true;
+  }
+
+  private static List<Statement> statementsOf(Statement stmt) {
+    if (stmt == null) {
+      return List.of();
+    }
+    return stmt instanceof BlockStmt ? ((BlockStmt) stmt).getStatements() : List.of(stmt);
+  }
+
+  private static List<Statement> concat(List<Statement> first, List<Statement> second) {
+    List<Statement> result = new ArrayList<>(first);
+    result.addAll(second);
+    return result;
+  }
+
+  private static boolean isSingleReturn(BlockStmt body) {
+    return body.getStatements().size() == 1
+        && body.getStatements().get(0) instanceof ReturnStmt
+        && ((ReturnStmt) body.getStatements().get(0)).hasValue();
+  }
+
+  // === Kopieren ===
+
+  // Tiefe Kopie; substitutions == null behält die Variablen des Originals
+  private Statement copy(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      List<Statement> statements = new ArrayList<>();
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        statements.add(copy(inner));
+      }
+      return new BlockStmt(statements);
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      Expression initializer = decl.hasInitializer() ? copy(decl.getInitializer()) : null;
+      LocalVariable variable = decl.getVariable();
+      if (substitutions != null) {
+        LocalVariable renamed =
+            newVariable(temporaryName(variable), variable.getType(), variable.isReference());
+        renamed.setAddressTaken(variable.isAddressTaken());
+        substitutions.put(variable, read(renamed));
+        variable = renamed;
+      }
+      VarDeclStmt result =
+          new VarDeclStmt(decl.getType(), variable.getName(), nameId(variable), initializer);
+      result.setVariable(variable);
+      return result;
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      return new IfStmt(
+          copy(ifStmt.getCondition()),
+          copy(ifStmt.getThenBranch()),
+          ifStmt.hasElseBranch() ? copy(ifStmt.getElseBranch()) : null);
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt loop = (WhileStmt) stmt;
+      return new WhileStmt(copy(loop.getCondition()), copy(loop.getBody()));
+    } else if (stmt instanceof ReturnStmt) {
+      ReturnStmt ret = (ReturnStmt) stmt;
+      return new ReturnStmt(ret.hasValue() ? copy(ret.getValue()) : null);
+    } else if (stmt instanceof ExprStmt) {
+      return new ExprStmt(copy(((ExprStmt) stmt).getExpression()));
+    }
+    return stmt;
+  }
+
+  private Expression copy(Expression expr) {
+    Expression result;
+    if (expr instanceof IntLiteral) {
+      result = new IntLiteral(((IntLiteral) expr).getValue());
+    } else if (expr instanceof BoolLiteral) {
+      result = new BoolLiteral(((BoolLiteral) expr).getValue());
+    } else if (expr instanceof CharLiteral) {
+      result = new CharLiteral(((CharLiteral) expr).getValue());
+    } else if (expr instanceof StringLiteral) {
+      result = new StringLiteral(((StringLiteral) expr).getValue());
+    } else if (expr instanceof IdentifierExpr) {
+      IdentifierExpr id = (IdentifierExpr) expr;
+      LocalVariable variable = id.getVariable();
+      if (substitutions != null && variable != null) {
+        // Ersatz stammt aus dem Aufrufer, seine Variablen bleiben
+        Map<LocalVariable, Expression> inner = substitutions;
+        substitutions = null;
+        result = copy(inner.get(variable));
+        substitutions = inner;
+        return result;
+      }
+      if (receiver != null && variable == null) {
+        result = new MemberAccessExpr(read(receiver), id.getName(), id.getNameId());
+      } else {
+        IdentifierExpr copy = new IdentifierExpr(id.getName(), id.getNameId());
+        copy.setVariable(variable);
+        copy.setFieldSlot(id.getFieldSlot());
+        result = copy;
+      }
+    } else if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      result =
+          new BinaryExpr(copy(binary.getLeft()), binary.getOperator(), copy(binary.getRight()));
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      result = new UnaryExpr(unary.getOperator(), copy(unary.getOperand()));
+    } else if (expr instanceof AssignExpr) {
+      AssignExpr assign = (AssignExpr) expr;
+      result = new AssignExpr(copy(assign.getTarget()), copy(assign.getValue()));
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      FunctionCallExpr copy =
+          new FunctionCallExpr(
+              call.getFunctionName(), call.getFunctionId(), copy(call.getArguments()));
+      copy.link(
+          call.getKind(),
+          call.getBuiltin(),
+          call.getConstructedClass(),
+          call.getConstructor(),
+          call.getFunction(),
+          call.getLinkVersion());
+      result = copy;
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      MethodCallExpr copy =
+          new MethodCallExpr(
+              copy(call.getObject()),
+              call.getMethodName(),
+              call.getMethodId(),
+              copy(call.getArguments()));
+      copy.setMethod(call.getMethod());
+      copy.setTarget(call.getTarget());
+      copy.setVTableSlot(call.getVTableSlot());
+      result = copy;
+    } else if (expr instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr;
+      result =
+          new MemberAccessExpr(
+              copy(access.getObject()), access.getMemberName(), access.getMemberId());
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      result = new CopyExpr(copy(copy.getOperand()), copy.getTargetClass());
+    } else {
+      return expr;
+    }
+    result.setStaticType(expr.getStaticType());
+    return result;
+  }
+
+  private List<Expression> copy(List<Expression> exprs) {
+    List<Expression> result = new ArrayList<>();
+    for (Expression expr : exprs) {
+      result.add(copy(expr));
+    }
+    return result;
+  }
+
+  private LocalVariable newVariable(String name, Type type, boolean reference) {
+    return new LocalVariable(name, new Type(type.getTypeName()), frameSize++, reference);
+  }
+
+  // Ein Name pro Variable des Rumpfs, "$x"; schon eingesetzte behalten ihren Namen
+  private static String temporaryName(LocalVariable variable) {
+    return variable.getName().startsWith("$") ? variable.getName() : "$" + variable.getName();
+  }
+
+  private int nameId(LocalVariable variable) {
+    return nameTable.id(variable.getName());
+  }
+
+  private IdentifierExpr read(LocalVariable variable) {
+    IdentifierExpr read = new IdentifierExpr(variable.getName(), nameId(variable));
+    read.setVariable(variable);
+    read.setStaticType(variable.getType());
+    return read;
+  }
+
+  // === Hilfen ===
+
+  // Ohne Seiteneffekte und Fehler, und kein eingesetzter Rumpf kann den Wert ändern
+  private static boolean isStable(Expression expr) {
+    if (!LoopInvariantHoister.isSafe(expr)) {
+      return false;
+    }
+    for (ASTNode node : nodes(expr)) {
+      if (node instanceof IdentifierExpr) {
+        LocalVariable variable = ((IdentifierExpr) node).getVariable();
+        if (variable == null || variable.isCell()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean containsReturn(Statement stmt) {
+    return nodes(stmt).stream().anyMatch(node -> node instanceof ReturnStmt);
+  }
+
+  private static boolean isValueType(Type type) {
+    return type.isScalar() || type.getTypeName().equals("string");
+  }
+
+  // Gleicher Typ ohne Umwandlung: die Ausführungsarten wandeln bei Übergabe und Zuweisung
+  // unterschiedlich früh um
+  private static boolean sameType(Type actual, Type declared) {
+    return actual != null && actual.getTypeName().equals(declared.getTypeName());
+  }
+
+  private static boolean isReferenceParameter(Expression call, int index) {
+    List<Parameter> parameters = null;
+    if (call instanceof MethodCallExpr) {
+      MethodDecl method = ((MethodCallExpr) call).getMethod();
+      parameters = method != null ? method.getParameters() : null;
+    } else if (((FunctionCallExpr) call).getKind() == FunctionCallExpr.Kind.FUNCTION) {
+      parameters = ((FunctionCallExpr) call).getFunction().getParameters();
+    } else if (((FunctionCallExpr) call).getConstructor() != null) {
+      parameters = ((FunctionCallExpr) call).getConstructor().getParameters();
+    }
+    return parameters != null && parameters.get(index).getType().isReference();
+  }
+
+  // Statisch gebundene Funktion oder Methode, sonst null
+  private static Object calleeOf(ASTNode node) {
+    if (node instanceof FunctionCallExpr
+        && ((FunctionCallExpr) node).getKind() == FunctionCallExpr.Kind.FUNCTION) {
+      return ((FunctionCallExpr) node).getFunction();
+    } else if (node instanceof MethodCallExpr) {
+      return ((MethodCallExpr) node).getTarget();
+    }
+    return null;
+  }
+
+  private static List<Expression> argumentsOf(Expression call) {
+    return call instanceof MethodCallExpr
+        ? ((MethodCallExpr) call).getArguments()
+        : ((FunctionCallExpr) call).getArguments();
+  }
+
+  private void report(Expression call, String result) {
+    report
+        .append(names.getOrDefault(current, "?"))
+        .append(": ")
+        .append(describe(call))
+        .append(' ')
+        .append(result)
+        .append('\n');
+  }
+
+  private static String describe(Expression expr) {
+    if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      return call.getFunctionName() + "/" + call.getArguments().size();
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      return describe(call.getObject())
+          + "."
+          + call.getMethodName()
+          + "/"
+          + call.getArguments().size();
+    } else if (expr instanceof IdentifierExpr) {
+      return ((IdentifierExpr) expr).getName();
+    }
+    return "(...)";
+  }
+
+  // Alle Knoten unter node einschließlich node, Anweisungen und Ausdrücke
+  private static List<ASTNode> nodes(ASTNode node) {
+    List<ASTNode> nodes = new ArrayList<>();
+    collect(node, nodes);
+    return nodes;
+  }
+
+  private static void collect(ASTNode node, List<ASTNode> nodes) {
+    if (node == null) {
+      return;
+    }
+    nodes.add(node);
+    if (node instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) node).getStatements()) {
+        collect(inner, nodes);
+      }
+    } else if (node instanceof VarDeclStmt) {
+      collect(((VarDeclStmt) node).getInitializer(), nodes);
+    } else if (node instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) node;
+      collect(ifStmt.getCondition(), nodes);
+      collect(ifStmt.getThenBranch(), nodes);
+      collect(ifStmt.getElseBranch(), nodes);
+    } else if (node instanceof WhileStmt) {
+      collect(((WhileStmt) node).getCondition(), nodes);
+      collect(((WhileStmt) node).getBody(), nodes);
+    } else if (node instanceof ReturnStmt) {
+      collect(((ReturnStmt) node).getValue(), nodes);
+    } else if (node instanceof ExprStmt) {
+      collect(((ExprStmt) node).getExpression(), nodes);
+    } else if (node instanceof BinaryExpr) {
+      collect(((BinaryExpr) node).getLeft(), nodes);
+      collect(((BinaryExpr) node).getRight(), nodes);
+    } else if (node instanceof UnaryExpr) {
+      collect(((UnaryExpr) node).getOperand(), nodes);
+    } else if (node instanceof AssignExpr) {
+      collect(((AssignExpr) node).getTarget(), nodes);
+      collect(((AssignExpr) node).getValue(), nodes);
+    } else if (node instanceof FunctionCallExpr) {
+      for (Expression arg : ((FunctionCallExpr) node).getArguments()) {
+        collect(arg, nodes);
+      }
+    } else if (node instanceof MethodCallExpr) {
+      collect(((MethodCallExpr) node).getObject(), nodes);
+      for (Expression arg : ((MethodCallExpr) node).getArguments()) {
+        collect(arg, nodes);
+      }
+    } else if (node instanceof MemberAccessExpr) {
+      collect(((MemberAccessExpr) node).getObject(), nodes);
+    } else if (node instanceof CopyExpr) {
+      collect(((CopyExpr) node).getOperand(), nodes);
+    }
+  }
+
+  // === Deklarationen ===
+
+  private static BlockStmt bodyOf(Object decl) {
+    if (decl instanceof FunctionDecl) {
+      return ((FunctionDecl) decl).getBody();
+    } else if (decl instanceof MethodDecl) {
+      return ((MethodDecl) decl).getBody();
+    }
+    return ((ConstructorDecl) decl).getBody();
+  }
+
+  private static List<Parameter> parametersOf(Object decl) {
+    if (decl instanceof FunctionDecl) {
+      return ((FunctionDecl) decl).getParameters();
+    } else if (decl instanceof MethodDecl) {
+      return ((MethodDecl) decl).getParameters();
+    }
+    return ((ConstructorDecl) decl).getParameters();
+  }
+
+  // Konstruktoren geben nichts zurück
+  private static Type returnTypeOf(Object decl) {
+    if (decl instanceof FunctionDecl) {
+      return ((FunctionDecl) decl).getReturnType();
+    } else if (decl instanceof MethodDecl) {
+      return ((MethodDecl) decl).getReturnType();
+    }
+    return new Type("void");
+  }
+
+  private static int frameSizeOf(Object decl) {
+    if (decl instanceof FunctionDecl) {
+      return ((FunctionDecl) decl).getFrameSize();
+    } else if (decl instanceof MethodDecl) {
+      return ((MethodDecl) decl).getFrameSize();
+    }
+    return ((ConstructorDecl) decl).getFrameSize();
+  }
+
+  private static void setFrameSize(Object decl, int frameSize) {
+    if (decl instanceof FunctionDecl) {
+      ((FunctionDecl) decl).setFrameSize(frameSize);
+    } else if (decl instanceof MethodDecl) {
+      ((MethodDecl) decl).setFrameSize(frameSize);
+    } else {
+      ((ConstructorDecl) decl).setFrameSize(frameSize);
+    }
+  }
+}
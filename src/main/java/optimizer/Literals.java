@@ -0,0 +1,31 @@
+package optimizer;
+
+import ast.Expression;
+import ast.expr.BoolLiteral;
+import ast.expr.CharLiteral;
+import ast.expr.IntLiteral;
+
+// Werte von int-, bool- und char-Literalen, umgerechnet wie Values.toInt und Values.toBoolean
+final class Literals {
+  private Literals() {}
+
+  static boolean isLiteral(Expression expr) {
+    return expr instanceof IntLiteral || expr instanceof BoolLiteral || expr instanceof CharLiteral;
+  }
+
+  static int toInt(Expression literal) {
+    if (literal instanceof IntLiteral) {
+      return ((IntLiteral) literal).getValue();
+    } else if (literal instanceof CharLiteral) {
+      return ((CharLiteral) literal).getValue();
+    }
+    return ((BoolLiteral) literal).getValue() ? 1 : 0;
+  }
+
+  static boolean toBoolean(Expression literal) {
+    if (literal instanceof BoolLiteral) {
+      return ((BoolLiteral) literal).getValue();
+    }
+    return toInt(literal) != 0;
+  }
+}
@@ -0,0 +1,489 @@
+package optimizer;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Zieht schleifeninvariante Ausdrücke aus while-Schleifen in Hilfsvariablen vor der Schleife.
+// Läuft nach dem Resolver: die Hilfsvariablen bekommen neue Slots am Ende des Frames, und alle
+// Ausführungsarten übersetzen danach den umgebauten AST.
+// Invariant ist ein Ausdruck, wenn er keine lokale Variable liest, die die Schleife zuweist oder
+// deklariert, und keine Felder, Methoden oder Variablen in Symbolen (Referenzen, isCell), solange
+// die Schleife Objekte oder Symbole verändern kann. Aufrufe kommen nur in
+// Frage, wenn sie statisch gebunden sind und nur lesen (readOnly): Built-ins mit isPure sowie
+// Funktionen und Methoden ohne Zuweisungen an Felder oder Referenzen, ohne Konstruktoren und nur
+// mit solchen Aufrufen.
+// Weil die Hilfsvariable vor der Schleife berechnet wird, auch wenn der Rumpf nie läuft, gilt:
+// - im Rumpf nur Ausdrücke, die weder Seiteneffekte haben noch einen Fehler werfen können (safe),
+// - in der Bedingung zusätzlich Aufrufe, Feldzugriffe und Divisionen, wenn sie bei jeder
+//   Auswertung der Bedingung laufen und vor ihnen nur sichere Ausdrücke stehen. Die erste
+//   Auswertung der Bedingung hätte sie ohnehin mit denselben Werten ausgeführt.
+// Innere Schleifen werden zuerst behandelt; ihre Hilfsvariablen kann die äußere Schleife weiter
+// nach außen ziehen.
+public class LoopInvariantHoister {
+  private final Map<Object, Boolean> readOnly = new HashMap<>();
+  private int frameSize;
+  private int temps;
+  private Names names; // Namenstabelle des Programms, für die Hilfsvariablen
+
+  // Von der aktuellen Schleife zugewiesene Variablen und ob sie Objekte verändern kann
+  private Set<LocalVariable> assigned;
+  private boolean writesHeap;
+  private List<Statement> hoisted;
+  private boolean clean; // alles bisher in der Bedingung Ausgewertete ist sicher
+
+  public void hoist(Program program) {
+    names = program.getNames();
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        frameSize = ctor.getFrameSize();
+        transform(ctor.getBody());
+        ctor.setFrameSize(frameSize);
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        frameSize = method.getFrameSize();
+        transform(method.getBody());
+        method.setFrameSize(frameSize);
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      frameSize = func.getFrameSize();
+      transform(func.getBody());
+      func.setFrameSize(frameSize);
+    }
+  }
+
+  // Liefert die Anweisung, die an die Stelle von stmt tritt
+  private Statement transform(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      List<Statement> statements = ((BlockStmt) stmt).getStatements();
+      for (int i = 0; i < statements.size(); i++) {
+        statements.set(i, transform(statements.get(i)));
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      ifStmt.setThenBranch(transform(ifStmt.getThenBranch()));
+      if (ifStmt.hasElseBranch()) {
+        ifStmt.setElseBranch(transform(ifStmt.getElseBranch()));
+      }
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt loop = (WhileStmt) stmt;
+      loop.setBody(transform(loop.getBody()));
+      return hoistLoop(loop);
+    }
+    return stmt;
+  }
+
+  private Statement hoistLoop(WhileStmt loop) {
+    assigned = new HashSet<>();
+    writesHeap = false;
+    collectEffects(loop.getCondition());
+    collectEffects(loop.getBody());
+
+    hoisted = new ArrayList<>();
+    clean = true;
+    loop.setCondition(hoistInCondition(loop.getCondition(), true));
+    hoistInStatement(loop.getBody());
+    if (hoisted.isEmpty()) {
+      return loop;
+    }
+    List<Statement> statements = hoisted;
+    statements.add(loop);
+    return new BlockStmt(statements);
+  }
+
+  // === Hoisting ===
+
+  // Bedingung in Auswertungsreihenfolge; unconditional: läuft bei jeder Auswertung
+  private Expression hoistInCondition(Expression expr, boolean unconditional) {
+    if (isCandidate(expr) && (isSafe(expr) || (unconditional && clean))) {
+      return hoistExpression(expr);
+    }
+    if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      binary.setLeft(hoistInCondition(binary.getLeft(), unconditional));
+      // Rechts von && und || wird nur manchmal ausgewertet
+      boolean shortCircuit =
+          binary.getOperator() == BinaryExpr.Operator.AND
+              || binary.getOperator() == BinaryExpr.Operator.OR;
+      binary.setRight(hoistInCondition(binary.getRight(), unconditional && !shortCircuit));
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      unary.setOperand(hoistInCondition(unary.getOperand(), unconditional));
+    } else {
+      expr = hoistInExpression(expr);
+    }
+    if (!isSafe(expr)) {
+      clean = false;
+    }
+    return expr;
+  }
+
+  private void hoistInStatement(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        hoistInStatement(inner);
+      }
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      // Eine Referenz braucht eine Variable als Ziel, keine Hilfsvariable
+      if (decl.hasInitializer() && !decl.getType().isReference()) {
+        decl.setInitializer(hoistInExpression(decl.getInitializer()));
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      ifStmt.setCondition(hoistInExpression(ifStmt.getCondition()));
+      hoistInStatement(ifStmt.getThenBranch());
+      if (ifStmt.hasElseBranch()) {
+        hoistInStatement(ifStmt.getElseBranch());
+      }
+    } else if (stmt instanceof WhileStmt) {
+      WhileStmt loop = (WhileStmt) stmt;
+      loop.setCondition(hoistInExpression(loop.getCondition()));
+      hoistInStatement(loop.getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      ReturnStmt ret = (ReturnStmt) stmt;
+      if (ret.hasValue()) {
+        ret.setValue(hoistInExpression(ret.getValue()));
+      }
+    } else if (stmt instanceof ExprStmt) {
+      ExprStmt exprStmt = (ExprStmt) stmt;
+      exprStmt.setExpression(hoistInExpression(exprStmt.getExpression()));
+    }
+  }
+
+  // Nur sichere Ausdrücke; Ziele von Zuweisungen bleiben unberührt
+  private Expression hoistInExpression(Expression expr) {
+    if (isCandidate(expr) && isSafe(expr)) {
+      return hoistExpression(expr);
+    }
+    if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      binary.setLeft(hoistInExpression(binary.getLeft()));
+      binary.setRight(hoistInExpression(binary.getRight()));
+    } else if (expr instanceof UnaryExpr) {
+      UnaryExpr unary = (UnaryExpr) expr;
+      unary.setOperand(hoistInExpression(unary.getOperand()));
+    } else if (expr instanceof AssignExpr) {
+      AssignExpr assign = (AssignExpr) expr;
+      assign.setValue(hoistInExpression(assign.getValue()));
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      hoistInArguments(parametersOf(call), call.getArguments());
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      call.setObject(hoistInExpression(call.getObject()));
+      hoistInArguments(
+          call.getMethod() != null ? call.getMethod().getParameters() : null, call.getArguments());
+    } else if (expr instanceof MemberAccessExpr) {
+      MemberAccessExpr access = (MemberAccessExpr) expr;
+      access.setObject(hoistInExpression(access.getObject()));
+    } else if (expr instanceof CopyExpr) {
+      CopyExpr copy = (CopyExpr) expr;
+      copy.setOperand(hoistInExpression(copy.getOperand()));
+    }
+    return expr;
+  }
+
+  // Argumente für Referenz-Parameter bleiben LValues
+  private void hoistInArguments(List<Parameter> parameters, List<Expression> arguments) {
+    for (int i = 0; i < arguments.size(); i++) {
+      if (parameters == null || !parameters.get(i).getType().isReference()) {
+        arguments.set(i, hoistInExpression(arguments.get(i)));
+      }
+    }
+  }
+
+  private static List<Parameter> parametersOf(FunctionCallExpr call) {
+    if (call.getKind() == FunctionCallExpr.Kind.FUNCTION) {
+      return call.getFunction().getParameters();
+    }
+    if (call.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR && call.getConstructor() != null) {
+      return call.getConstructor().getParameters();
+    }
+    return null;
+  }
+
+  // Hilfsvariable vor der Schleife anlegen, der Ausdruck liest nur noch sie
+  private Expression hoistExpression(Expression expr) {
+    Type type = new Type(expr.getStaticType().getTypeName());
+    String name = "$inv" + temps++;
+    LocalVariable variable = new LocalVariable(name, type, frameSize++, false);
+    int nameId = names.id(name);
+    VarDeclStmt decl = new VarDeclStmt(type, name, nameId, expr);
+    decl.setVariable(variable);
+    hoisted.add(decl);
+
+    IdentifierExpr read = new IdentifierExpr(name, nameId);
+    read.setVariable(variable);
+    read.setStaticType(type);
+    return read;
+  }
+
+  // Lohnt sich und ist invariant: kein Literal, keine einzelne Variable
+  private boolean isCandidate(Expression expr) {
+    if (Literals.isLiteral(expr)
+        || expr instanceof StringLiteral
+        || expr instanceof IdentifierExpr
+        || expr.getStaticType() == null) {
+      return false;
+    }
+    Type type = expr.getStaticType();
+    if (!type.isScalar() && !type.getTypeName().equals("string")) {
+      return false;
+    }
+    return isInvariant(expr);
+  }
+
+  private boolean isInvariant(Expression expr) {
+    if (Literals.isLiteral(expr) || expr instanceof StringLiteral) {
+      return true;
+    } else if (expr instanceof IdentifierExpr) {
+      IdentifierExpr id = (IdentifierExpr) expr;
+      LocalVariable variable = id.getVariable();
+      if (variable != null) {
+        // Über ein Symbol kann auch eine andere Variable den Wert ändern
+        return !assigned.contains(variable) && (!variable.isCell() || !writesHeap);
+      }
+      return id.getFieldSlot() >= 0 && !writesHeap;
+    } else if (expr instanceof BinaryExpr) {
+      return isInvariant(((BinaryExpr) expr).getLeft())
+          && isInvariant(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      return isInvariant(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      boolean pure;
+      if (call.getKind() == FunctionCallExpr.Kind.BUILTIN) {
+        pure = call.getBuiltin().isPure();
+      } else if (call.getKind() == FunctionCallExpr.Kind.FUNCTION) {
+        pure = !writesHeap && isReadOnly(call.getFunction(), call.getFunction().getBody());
+      } else {
+        pure = false;
+      }
+      return pure && call.getArguments().stream().allMatch(this::isInvariant);
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      return !writesHeap
+          && call.getTarget() != null
+          && isReadOnly(call.getTarget(), call.getTarget().getBody())
+          && isInvariant(call.getObject())
+          && call.getArguments().stream().allMatch(this::isInvariant);
+    } else if (expr instanceof MemberAccessExpr) {
+      return !writesHeap && isInvariant(((MemberAccessExpr) expr).getObject());
+    }
+    return false;
+  }
+
+  // Ohne Seiteneffekte und ohne möglichen Laufzeitfehler
+  static boolean isSafe(Expression expr) {
+    if (Literals.isLiteral(expr) || expr instanceof StringLiteral) {
+      return true;
+    } else if (expr instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) expr).getVariable();
+      return variable != null
+          ? !variable.isReference()
+          : ((IdentifierExpr) expr).getFieldSlot() >= 0;
+    } else if (expr instanceof UnaryExpr) {
+      Expression operand = ((UnaryExpr) expr).getOperand();
+      return isScalar(operand) && isSafe(operand);
+    } else if (expr instanceof BinaryExpr) {
+      BinaryExpr binary = (BinaryExpr) expr;
+      Expression left = binary.getLeft();
+      Expression right = binary.getRight();
+      if (!isSafe(left) || !isSafe(right)) {
+        return false;
+      }
+      switch (binary.getOperator()) {
+        case ADD:
+          // int-Addition oder Verkettung mit einem String
+          return (isScalar(left) && isScalar(right)) || hasType(expr, "string");
+        case SUB:
+        case MUL:
+        case AND:
+        case OR:
+          return isScalar(left) && isScalar(right);
+        case DIV:
+        case MOD:
+          return isScalar(left) && Literals.isLiteral(right) && Literals.toInt(right) != 0;
+        case EQ:
+        case NEQ:
+          return true;
+        default:
+          // < usw. werfen bei bool und bei unterschiedlichen Typen
+          return (hasType(left, "int") && hasType(right, "int"))
+              || (hasType(left, "char") && hasType(right, "char"));
+      }
+    }
+    return false;
+  }
+
+  private static boolean isScalar(Expression expr) {
+    Type type = expr.getStaticType();
+    return type != null && type.isScalar();
+  }
+
+  private static boolean hasType(Expression expr, String typeName) {
+    Type type = expr.getStaticType();
+    return type != null && type.getTypeName().equals(typeName);
+  }
+
+  // === Wirkungen ===
+
+  private void collectEffects(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        collectEffects(inner);
+      }
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      assigned.add(decl.getVariable());
+      if (decl.hasInitializer()) {
+        collectEffects(decl.getInitializer());
+      }
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      collectEffects(ifStmt.getCondition());
+      collectEffects(ifStmt.getThenBranch());
+      if (ifStmt.hasElseBranch()) {
+        collectEffects(ifStmt.getElseBranch());
+      }
+    } else if (stmt instanceof WhileStmt) {
+      collectEffects(((WhileStmt) stmt).getCondition());
+      collectEffects(((WhileStmt) stmt).getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      if (((ReturnStmt) stmt).hasValue()) {
+        collectEffects(((ReturnStmt) stmt).getValue());
+      }
+    } else if (stmt instanceof ExprStmt) {
+      collectEffects(((ExprStmt) stmt).getExpression());
+    }
+  }
+
+  private void collectEffects(Expression expr) {
+    if (expr instanceof BinaryExpr) {
+      collectEffects(((BinaryExpr) expr).getLeft());
+      collectEffects(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      collectEffects(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof AssignExpr) {
+      AssignExpr assign = (AssignExpr) expr;
+      Expression target = assign.getTarget();
+      LocalVariable variable =
+          target instanceof IdentifierExpr ? ((IdentifierExpr) target).getVariable() : null;
+      if (variable != null) {
+        assigned.add(variable);
+        // Zuweisung an ein Symbol ändert evtl. auch Referenzen darauf
+        writesHeap |= variable.isCell();
+      } else {
+        writesHeap = true;
+        if (target instanceof MemberAccessExpr) {
+          collectEffects(((MemberAccessExpr) target).getObject());
+        }
+      }
+      collectEffects(assign.getValue());
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      if (call.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR
+          || (call.getKind() == FunctionCallExpr.Kind.FUNCTION
+              && !isReadOnly(call.getFunction(), call.getFunction().getBody()))) {
+        writesHeap = true;
+      }
+      for (Expression arg : call.getArguments()) {
+        collectEffects(arg);
+      }
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      if (call.getTarget() == null || !isReadOnly(call.getTarget(), call.getTarget().getBody())) {
+        writesHeap = true;
+      }
+      collectEffects(call.getObject());
+      for (Expression arg : call.getArguments()) {
+        collectEffects(arg);
+      }
+    } else if (expr instanceof MemberAccessExpr) {
+      collectEffects(((MemberAccessExpr) expr).getObject());
+    } else if (expr instanceof CopyExpr) {
+      collectEffects(((CopyExpr) expr).getOperand());
+    }
+  }
+
+  // === Nur lesende Funktionen und Methoden ===
+
+  // Rekursive Aufrufe gelten während der Prüfung als nicht nur lesend
+  private boolean isReadOnly(Object decl, BlockStmt body) {
+    Boolean known = readOnly.get(decl);
+    if (known != null) {
+      return known;
+    }
+    readOnly.put(decl, false);
+    boolean result = readsOnly(body);
+    readOnly.put(decl, result);
+    return result;
+  }
+
+  private boolean readsOnly(Statement stmt) {
+    if (stmt instanceof BlockStmt) {
+      return ((BlockStmt) stmt).getStatements().stream().allMatch(this::readsOnly);
+    } else if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      return !decl.hasInitializer() || readsOnly(decl.getInitializer());
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      return readsOnly(ifStmt.getCondition())
+          && readsOnly(ifStmt.getThenBranch())
+          && (!ifStmt.hasElseBranch() || readsOnly(ifStmt.getElseBranch()));
+    } else if (stmt instanceof WhileStmt) {
+      return readsOnly(((WhileStmt) stmt).getCondition())
+          && readsOnly(((WhileStmt) stmt).getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      return !((ReturnStmt) stmt).hasValue() || readsOnly(((ReturnStmt) stmt).getValue());
+    } else if (stmt instanceof ExprStmt) {
+      return readsOnly(((ExprStmt) stmt).getExpression());
+    }
+    return true;
+  }
+
+  private boolean readsOnly(Expression expr) {
+    if (expr instanceof BinaryExpr) {
+      return readsOnly(((BinaryExpr) expr).getLeft()) && readsOnly(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      return readsOnly(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof AssignExpr) {
+      // Nur eigene lokale Variablen; Felder und Referenzen gehören dem Aufrufer
+      Expression target = ((AssignExpr) expr).getTarget();
+      LocalVariable variable =
+          target instanceof IdentifierExpr ? ((IdentifierExpr) target).getVariable() : null;
+      return variable != null && !variable.isCell() && readsOnly(((AssignExpr) expr).getValue());
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      boolean callee;
+      if (call.getKind() == FunctionCallExpr.Kind.BUILTIN) {
+        callee = call.getBuiltin().isPure();
+      } else if (call.getKind() == FunctionCallExpr.Kind.FUNCTION) {
+        callee = isReadOnly(call.getFunction(), call.getFunction().getBody());
+      } else {
+        callee = false;
+      }
+      return callee && call.getArguments().stream().allMatch(this::readsOnly);
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      return call.getTarget() != null
+          && isReadOnly(call.getTarget(), call.getTarget().getBody())
+          && readsOnly(call.getObject())
+          && call.getArguments().stream().allMatch(this::readsOnly);
+    } else if (expr instanceof MemberAccessExpr) {
+      return readsOnly(((MemberAccessExpr) expr).getObject());
+    } else if (expr instanceof CopyExpr) {
+      return readsOnly(((CopyExpr) expr).getOperand());
+    }
+    return true;
+  }
+}
@@ -0,0 +1,243 @@
+package semantic;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Läuft nach der semantischen Analyse und vergibt jeder lokalen Variable einen festen Slot im
+// Frame ihrer Funktion. Jede Deklaration bekommt einen eigenen Slot, auch wenn sie eine äußere
+// Variable gleichen Namens überdeckt. Zur Laufzeit ist ein Variablenzugriff damit ein
+// Array-Zugriff, und das Betreten eines Blocks kostet nichts.
+// Die Scopes entsprechen denen der Analyse: Parameter und oberste Ebene des Rumpfs teilen sich
+// einen Scope, if- und while-Zweige sowie Blöcke öffnen einen neuen.
+// Funktionen sind in MiniCpp nicht verschachtelt, deshalb liegt jede aufgelöste Variable im Frame
+// der laufenden Funktion; ein Abstand zu umgebenden Frames ist nicht nötig.
+// Außerdem bekommt jede Klasse ihre Feldanordnung (FieldLayout) und Methodentabelle (VTable),
+// Feldnamen in Methoden und Konstruktoren werden zu Slots im Objekt aufgelöst, und jeder
+// Methodenaufruf wird gebunden: virtuelle Methoden über eine Referenz per Slot der vtable, alle
+// anderen fest an die Methode des statischen Typs (wie in C++).
+public class Resolver {
+  private SymbolTable symbolTable;
+  private List<IntMap<LocalVariable>> scopes = new ArrayList<>(); // nach Namensnummer
+  private int frameSize;
+  private ClassDecl currentClass; // null in freien Funktionen
+
+  public Resolver(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  public void resolve(Program program) {
+    for (ClassDecl cls : program.getClasses()) {
+      layout(cls);
+      vtable(cls);
+      currentClass = cls;
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        ctor.setFrameSize(resolveBody(ctor.getParameters(), ctor.getBody(), true));
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        method.setFrameSize(resolveBody(method.getParameters(), method.getBody(), true));
+      }
+    }
+    currentClass = null;
+    for (FunctionDecl func : program.getFunctions()) {
+      func.setFrameSize(resolveBody(func.getParameters(), func.getBody(), false));
+    }
+  }
+
+  // Feldanordnung einer Klasse; die Basisklasse kann aus einer früheren Eingabe stammen
+  private FieldLayout layout(ClassDecl cls) {
+    if (cls.getLayout() == null) {
+      FieldLayout base = null;
+      if (cls.hasBaseClass()) {
+        ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
+        if (baseClass != null) {
+          base = layout(baseClass);
+        }
+      }
+      cls.setLayout(new FieldLayout(base, cls.getFields()));
+    }
+    return cls.getLayout();
+  }
+
+  // Methodentabelle einer Klasse, ebenso auf der der Basisklasse aufbauend
+  private VTable vtable(ClassDecl cls) {
+    if (cls.getVTable() == null) {
+      VTable base = null;
+      if (cls.hasBaseClass()) {
+        ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
+        if (baseClass != null) {
+          base = vtable(baseClass);
+        }
+      }
+      cls.setVTable(new VTable(base, cls.getMethods()));
+    }
+    return cls.getVTable();
+  }
+
+  private int resolveBody(List<Parameter> parameters, BlockStmt body, boolean isMethod) {
+    // Slot 0 hält bei Methoden und Konstruktoren das Objekt
+    frameSize = isMethod ? 1 : 0;
+    scopes.add(new IntMap<>());
+    for (Parameter param : parameters) {
+      Type type = param.getType();
+      param.setVariable(declare(param.getName(), param.getNameId(), type, type.isReference()));
+    }
+    for (Statement stmt : body.getStatements()) {
+      resolveStatement(stmt);
+    }
+    scopes.remove(scopes.size() - 1);
+    return frameSize;
+  }
+
+  private LocalVariable declare(String name, int nameId, Type type, boolean reference) {
+    LocalVariable variable = new LocalVariable(name, type, frameSize++, reference);
+    scopes.get(scopes.size() - 1).put(nameId, variable);
+    return variable;
+  }
+
+  private LocalVariable lookup(int nameId) {
+    for (int i = scopes.size() - 1; i >= 0; i--) {
+      LocalVariable variable = scopes.get(i).get(nameId);
+      if (variable != null) {
+        return variable;
+      }
+    }
+    return null;
+  }
+
+  private void resolveStatement(Statement stmt) {
+    if (stmt instanceof VarDeclStmt) {
+      VarDeclStmt decl = (VarDeclStmt) stmt;
+      // Initialisierer sieht die neue Variable noch nicht
+      if (decl.hasInitializer()) {
+        resolveExpression(decl.getInitializer());
+        if (decl.getType().isReference()) {
+          markAddressTaken(decl.getInitializer());
+        }
+      }
+      decl.setVariable(
+          declare(decl.getName(), decl.getNameId(), decl.getType(), decl.getType().isReference()));
+    } else if (stmt instanceof IfStmt) {
+      IfStmt ifStmt = (IfStmt) stmt;
+      resolveExpression(ifStmt.getCondition());
+      resolveNested(ifStmt.getThenBranch());
+      if (ifStmt.hasElseBranch()) {
+        resolveNested(ifStmt.getElseBranch());
+      }
+    } else if (stmt instanceof WhileStmt) {
+      resolveExpression(((WhileStmt) stmt).getCondition());
+      resolveNested(((WhileStmt) stmt).getBody());
+    } else if (stmt instanceof ReturnStmt) {
+      if (((ReturnStmt) stmt).hasValue()) {
+        resolveExpression(((ReturnStmt) stmt).getValue());
+      }
+    } else if (stmt instanceof ExprStmt) {
+      resolveExpression(((ExprStmt) stmt).getExpression());
+    } else if (stmt instanceof BlockStmt) {
+      resolveNested(stmt);
+    }
+  }
+
+  private void resolveNested(Statement stmt) {
+    scopes.add(new IntMap<>());
+    if (stmt instanceof BlockStmt) {
+      for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+        resolveStatement(inner);
+      }
+    } else {
+      resolveStatement(stmt);
+    }
+    scopes.remove(scopes.size() - 1);
+  }
+
+  private void resolveExpression(Expression expr) {
+    if (expr instanceof IdentifierExpr) {
+      IdentifierExpr id = (IdentifierExpr) expr;
+      id.setVariable(lookup(id.getNameId()));
+      if (id.getVariable() == null && currentClass != null) {
+        // Kein lokaler Name: Feld des Objekts, in abgeleiteten Klassen im selben Slot
+        id.setFieldSlot(currentClass.getLayout().slotOf(id.getNameId()));
+      }
+    } else if (expr instanceof BinaryExpr) {
+      resolveExpression(((BinaryExpr) expr).getLeft());
+      resolveExpression(((BinaryExpr) expr).getRight());
+    } else if (expr instanceof UnaryExpr) {
+      resolveExpression(((UnaryExpr) expr).getOperand());
+    } else if (expr instanceof AssignExpr) {
+      resolveExpression(((AssignExpr) expr).getValue());
+      resolveExpression(((AssignExpr) expr).getTarget());
+    } else if (expr instanceof FunctionCallExpr) {
+      FunctionCallExpr call = (FunctionCallExpr) expr;
+      for (Expression arg : call.getArguments()) {
+        resolveExpression(arg);
+      }
+      if (call.getKind() == FunctionCallExpr.Kind.FUNCTION) {
+        markReferenceArguments(call.getFunction().getParameters(), call.getArguments());
+      } else if (call.getConstructor() != null) {
+        markReferenceArguments(call.getConstructor().getParameters(), call.getArguments());
+      }
+    } else if (expr instanceof MethodCallExpr) {
+      MethodCallExpr call = (MethodCallExpr) expr;
+      resolveExpression(call.getObject());
+      for (Expression arg : call.getArguments()) {
+        resolveExpression(arg);
+      }
+      if (call.getMethod() != null) {
+        markReferenceArguments(call.getMethod().getParameters(), call.getArguments());
+      }
+      bindMethodCall(call);
+    } else if (expr instanceof MemberAccessExpr) {
+      resolveExpression(((MemberAccessExpr) expr).getObject());
+    } else if (expr instanceof CopyExpr) {
+      resolveExpression(((CopyExpr) expr).getOperand());
+    }
+  }
+
+  private void bindMethodCall(MethodCallExpr call) {
+    Type type = call.getObject().getStaticType();
+    ClassDecl cls = type != null ? symbolTable.lookupClass(type.getTypeName()) : null;
+    if (cls == null) {
+      return;
+    }
+    VTable table = vtable(cls);
+    int slot = call.getMethod() != null ? table.slotOf(call.getMethod()) : -1;
+    if (slot < 0) {
+      return;
+    }
+    // Nur hinter einer Referenz kann ein Objekt einer abgeleiteten Klasse stehen
+    if (table.isVirtual(slot) && isReference(call.getObject())) {
+      call.setVTableSlot(slot);
+    } else {
+      call.setTarget(table.get(slot));
+    }
+  }
+
+  private boolean isReference(Expression expr) {
+    if (expr instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) expr).getVariable();
+      return variable != null && variable.getType().isReference();
+    }
+    return false;
+  }
+
+  private void markReferenceArguments(List<Parameter> parameters, List<Expression> arguments) {
+    for (int i = 0; i < arguments.size(); i++) {
+      if (parameters.get(i).getType().isReference()) {
+        markAddressTaken(arguments.get(i));
+      }
+    }
+  }
+
+  // Variable, auf die eine Referenz zeigt, muss in einem Symbol liegen
+  private void markAddressTaken(Expression expr) {
+    if (expr instanceof IdentifierExpr) {
+      LocalVariable variable = ((IdentifierExpr) expr).getVariable();
+      if (variable != null && !variable.isReference()) {
+        variable.setAddressTaken(true);
+      }
+    }
+  }
+}
@@ -4,17 +4,26 @@ import ast.*;
 import ast.decl.*;
 import ast.expr.*;
 import ast.stmt.*;
+import builtin.Builtin;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SemanticAnalyzer {
   private SymbolTable symbolTable;
   private Type currentFunctionReturnType;
   private ClassDecl currentClass;
+  private int loopDepth; // umschließende while-Schleifen in der laufenden Funktion
 
   public SemanticAnalyzer(SymbolTable symbolTable) {
     this.symbolTable = symbolTable;
   }
 
   public void analyze(Program program) {
+    if (program.getNames() != symbolTable.getNames()) {
+      throw new IllegalArgumentException(
+          "Programm wurde nicht mit der Namenstabelle dieser Symboltabelle gebaut");
+    }
+
     // Pass 1: Neue Klassen registrieren (ohne Fehler bei bereits existierenden)
     for (ClassDecl cls : program.getClasses()) {
       if (!symbolTable.tryDeclareClass(cls)) {
@@ -51,6 +60,13 @@ public class SemanticAnalyzer {
       }
     }
 
+    checkNoDuplicateMethods(cls);
+
+    // Felder mit Klassentyp
+    checkNotContained(cls, cls);
+    constructObjectFields(cls, baseConstructor(cls));
+    declareCopyConstructor(cls);
+
     // Analysiere Konstruktoren
     for (ConstructorDecl ctor : cls.getConstructors()) {
       analyzeConstructor(ctor);
@@ -64,13 +80,163 @@ public class SemanticAnalyzer {
     currentClass = null;
   }
 
+  // Objekte sind Werte: Felder mit Klassentyp legt jeder Konstruktor vor seinem Rumpf über den
+  // Standardkonstruktor an, wie eine lokale Variable ohne Initialisierer. Wie in C++ läuft davor
+  // der Standardkonstruktor der Basisklasse, der die geerbten Felder anlegt; ohne ihn legt die
+  // Klasse auch die geerbten an. Eine Klasse ohne Konstruktor bekommt dafür einen
+  // Standardkonstruktor.
+  private void constructObjectFields(ClassDecl cls, ConstructorDecl baseConstructor) {
+    IntMap<FieldDecl> visible = new IntMap<>();
+    collectFields(cls, visible);
+    List<FieldDecl> fields = new ArrayList<>();
+    if (baseConstructor != null) {
+      fields.addAll(cls.getFields());
+    } else {
+      collectFieldsInOrder(cls, fields);
+    }
+
+    List<Statement> initializers = new ArrayList<>();
+    for (FieldDecl field : fields) {
+      if (visible.get(field.getNameId()) == field && isObjectType(field.getType())) {
+        initializers.add(
+            new ExprStmt(
+                new AssignExpr(
+                    new IdentifierExpr(field.getName(), field.getNameId()),
+                    defaultConstruction(field.getType()))));
+      }
+    }
+    if (initializers.isEmpty() && baseConstructor == null) {
+      return;
+    }
+
+    if (cls.getConstructors().isEmpty()) {
+      cls.getConstructors()
+          .add(
+              new ConstructorDecl(
+                  cls.getName(), new ArrayList<>(), new BlockStmt(new ArrayList<>())));
+    }
+    for (ConstructorDecl ctor : cls.getConstructors()) {
+      ctor.getBody().getStatements().addAll(0, initializers);
+      ctor.setBaseConstructor(baseConstructor);
+    }
+  }
+
+  // Standardkonstruktor der Basisklasse, null ohne Basisklasse oder ohne Konstruktor ohne
+  // Parameter (die geerbten Felder behalten dann ihre Standardwerte, wie bei A a;)
+  private ConstructorDecl baseConstructor(ClassDecl cls) {
+    ClassDecl baseClass = cls.hasBaseClass() ? symbolTable.lookupClass(cls.getBaseClass()) : null;
+    if (baseClass == null) {
+      return null;
+    }
+    for (ConstructorDecl ctor : baseClass.getConstructors()) {
+      if (ctor.getParameters().isEmpty()) {
+        return ctor;
+      }
+    }
+    return null;
+  }
+
+  // Ohne eigenen Konstruktor T(T) bzw. T(T&) kopiert T(x) wie der implizite Kopierkonstruktor in
+  // C++ alle Felder von x, auch die geerbten. Er ruft weder den Konstruktor der Basis noch legt er
+  // Felder neu an. Verdeckte Felder der Basis kann sein Rumpf nicht benennen, dann gibt es ihn
+  // nicht.
+  private void declareCopyConstructor(ClassDecl cls) {
+    for (ConstructorDecl ctor : cls.getConstructors()) {
+      List<Parameter> params = ctor.getParameters();
+      if (params.size() == 1 && params.get(0).getType().getTypeName().equals(cls.getName())) {
+        return;
+      }
+    }
+    IntMap<FieldDecl> visible = new IntMap<>();
+    collectFields(cls, visible);
+    List<FieldDecl> fields = new ArrayList<>();
+    collectFieldsInOrder(cls, fields);
+
+    Names names = symbolTable.getNames();
+    String other = "$other";
+    int otherId = names.id(other);
+    List<Statement> copies = new ArrayList<>();
+    for (FieldDecl field : fields) {
+      if (visible.get(field.getNameId()) != field) {
+        return;
+      }
+      copies.add(
+          new ExprStmt(
+              new AssignExpr(
+                  new IdentifierExpr(field.getName(), field.getNameId()),
+                  new MemberAccessExpr(
+                      new IdentifierExpr(other, otherId), field.getName(), field.getNameId()))));
+    }
+    List<Parameter> params = new ArrayList<>();
+    params.add(new Parameter(new Type(cls.getName()), other, otherId));
+    cls.getConstructors().add(new ConstructorDecl(cls.getName(), params, new BlockStmt(copies)));
+  }
+
+  // Zwei Methoden einer Klasse mit gleichem Namen brauchen verschiedene Parametertypen, sonst
+  // belegten sie denselben Slot der vtable
+  private void checkNoDuplicateMethods(ClassDecl cls) {
+    List<MethodDecl> methods = cls.getMethods();
+    for (int i = 0; i < methods.size(); i++) {
+      for (int j = 0; j < i; j++) {
+        if (methods.get(j).getNameId() == methods.get(i).getNameId()
+            && VTable.sameParameters(methods.get(j), methods.get(i))) {
+          throw new SemanticException(
+              "Methode '" + methods.get(i).getName() + "' bereits definiert");
+        }
+      }
+    }
+  }
+
+  // Aufruf des Standardkonstruktors der Klasse type
+  private FunctionCallExpr defaultConstruction(Type type) {
+    String className = type.getTypeName();
+    return new FunctionCallExpr(className, symbolTable.getNames().id(className), new ArrayList<>());
+  }
+
+  // Ein Objekt kann sich nicht selbst als Feld enthalten, auch nicht über andere Klassen
+  private void checkNotContained(ClassDecl outer, ClassDecl cls) {
+    List<FieldDecl> fields = new ArrayList<>();
+    collectFieldsInOrder(cls, fields);
+    for (FieldDecl field : fields) {
+      if (!isObjectType(field.getType())) {
+        continue;
+      }
+      ClassDecl fieldClass = symbolTable.lookupClass(field.getType().getTypeName());
+      if (fieldClass == outer) {
+        throw new SemanticException(
+            "Klasse '"
+                + outer.getName()
+                + "' enthält sich selbst (Feld '"
+                + field.getName()
+                + "')");
+      }
+      checkNotContained(outer, fieldClass);
+    }
+  }
+
+  private boolean isObjectType(Type type) {
+    return !type.isReference() && symbolTable.lookupClass(type.getTypeName()) != null;
+  }
+
+  // Alle Felder, die der Basisklasse zuerst
+  private void collectFieldsInOrder(ClassDecl cls, List<FieldDecl> fields) {
+    if (cls.hasBaseClass()) {
+      ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
+      if (baseClass != null) {
+        collectFieldsInOrder(baseClass, fields);
+      }
+    }
+    fields.addAll(cls.getFields());
+  }
+
   private void analyzeConstructor(ConstructorDecl ctor) {
     symbolTable.enterScope();
+    declareFields(currentClass);
 
     // Parameter registrieren
     for (Parameter param : ctor.getParameters()) {
       Symbol symbol = new Symbol(param.getName(), param.getType());
-      symbolTable.declareVariable(symbol);
+      symbolTable.declareVariable(param.getNameId(), symbol);
     }
 
     // Body analysieren
@@ -82,11 +248,12 @@ public class SemanticAnalyzer {
 
   private void analyzeMethod(MethodDecl method) {
     symbolTable.enterScope();
+    declareFields(currentClass);
 
     // Parameter registrieren
     for (Parameter param : method.getParameters()) {
       Symbol symbol = new Symbol(param.getName(), param.getType());
-      symbolTable.declareVariable(symbol);
+      symbolTable.declareVariable(param.getNameId(), symbol);
     }
 
     // Body analysieren
@@ -96,13 +263,37 @@ public class SemanticAnalyzer {
     symbolTable.exitScope();
   }
 
+  // Felder (geerbte zuerst) liegen im selben Scope wie Parameter und oberste Variablen des Rumpfs,
+  // ein gleichnamiger Parameter oder eine gleichnamige Variable dort ist eine Neudefinition
+  private void declareFields(ClassDecl cls) {
+    IntMap<FieldDecl> fields = new IntMap<>();
+    collectFields(cls, fields);
+    fields.forEachValue(
+        field ->
+            symbolTable.declareVariable(
+                field.getNameId(), new Symbol(field.getName(), field.getType())));
+  }
+
+  // Ein gleichnamiges Feld der abgeleiteten Klasse verdeckt das der Basis
+  private void collectFields(ClassDecl cls, IntMap<FieldDecl> fields) {
+    if (cls.hasBaseClass()) {
+      ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
+      if (baseClass != null) {
+        collectFields(baseClass, fields);
+      }
+    }
+    for (FieldDecl field : cls.getFields()) {
+      fields.put(field.getNameId(), field);
+    }
+  }
+
   private void analyzeFunction(FunctionDecl func) {
     symbolTable.enterScope();
 
     // Parameter registrieren
     for (Parameter param : func.getParameters()) {
       Symbol symbol = new Symbol(param.getName(), param.getType());
-      symbolTable.declareVariable(symbol);
+      symbolTable.declareVariable(param.getNameId(), symbol);
     }
 
     // Body analysieren
@@ -127,6 +318,11 @@ public class SemanticAnalyzer {
       analyzeWhile((WhileStmt) stmt);
     } else if (stmt instanceof ReturnStmt) {
       analyzeReturn((ReturnStmt) stmt);
+    } else if (stmt instanceof BreakStmt || stmt instanceof ContinueStmt) {
+      if (loopDepth == 0) {
+        throw new SemanticException(
+            (stmt instanceof BreakStmt ? "break" : "continue") + " außerhalb einer Schleife");
+      }
     } else if (stmt instanceof ExprStmt) {
       analyzeExprStmt((ExprStmt) stmt);
     } else if (stmt instanceof BlockStmt) {
@@ -138,7 +334,7 @@ public class SemanticAnalyzer {
 
   private void analyzeVarDecl(VarDeclStmt stmt) {
     // Prüfe ob Variable bereits existiert
-    if (symbolTable.isVariableDeclaredInCurrentScope(stmt.getName())) {
+    if (symbolTable.isVariableDeclaredInCurrentScope(stmt.getNameId())) {
       throw new SemanticException("Variable '" + stmt.getName() + "' bereits definiert");
     }
 
@@ -154,14 +350,19 @@ public class SemanticAnalyzer {
       }
     }
 
+    // Objekte sind Werte: ohne Initialisierer über den Standardkonstruktor angelegt
+    if (!stmt.hasInitializer() && symbolTable.lookupClass(stmt.getType().getTypeName()) != null) {
+      stmt.setInitializer(defaultConstruction(stmt.getType()));
+    }
+
     // Initialisierer analysieren
     if (stmt.hasInitializer()) {
-      analyzeExpression(stmt.getInitializer());
+      stmt.setInitializer(transfer(stmt.getType(), stmt.getInitializer()));
     }
 
     // Variable registrieren
     Symbol symbol = new Symbol(stmt.getName(), stmt.getType());
-    symbolTable.declareVariable(symbol);
+    symbolTable.declareVariable(stmt.getNameId(), symbol);
   }
 
   private void analyzeIf(IfStmt stmt) {
@@ -182,7 +383,12 @@ public class SemanticAnalyzer {
     analyzeExpression(stmt.getCondition());
 
     symbolTable.enterScope();
-    analyzeStatement(stmt.getBody());
+    loopDepth++;
+    try {
+      analyzeStatement(stmt.getBody());
+    } finally {
+      loopDepth--;
+    }
     symbolTable.exitScope();
   }
 
@@ -191,7 +397,7 @@ public class SemanticAnalyzer {
       if (currentFunctionReturnType.getTypeName().equals("void")) {
         throw new SemanticException("void-Funktion darf keinen Wert zurückgeben");
       }
-      analyzeExpression(stmt.getValue());
+      stmt.setValue(transfer(currentFunctionReturnType, stmt.getValue()));
     }
   }
 
@@ -199,7 +405,14 @@ public class SemanticAnalyzer {
     analyzeExpression(stmt.getExpression());
   }
 
+  // Jeder Ausdruck bekommt seinen statischen Typ, die Ausführung wählt danach ungeboxte Pfade
   private Type analyzeExpression(Expression expr) {
+    Type type = computeType(expr);
+    expr.setStaticType(type);
+    return type;
+  }
+
+  private Type computeType(Expression expr) {
     if (expr instanceof IntLiteral) {
       return new Type("int");
     } else if (expr instanceof BoolLiteral) {
@@ -227,70 +440,87 @@ public class SemanticAnalyzer {
   }
 
   private Type analyzeIdentifier(IdentifierExpr expr) {
-    Symbol symbol = symbolTable.lookupVariable(expr.getName());
+    Symbol symbol = symbolTable.lookupVariable(expr.getNameId());
     if (symbol == null) {
       throw new SemanticException("Variable '" + expr.getName() + "' nicht definiert");
     }
-    return symbol.getType();
+    // Der Wert einer Referenz ist der des Originals
+    return new Type(symbol.getType().getTypeName());
   }
 
   private Type analyzeBinary(BinaryExpr expr) {
     Type left = analyzeExpression(expr.getLeft());
     Type right = analyzeExpression(expr.getRight());
 
-    // Typ-Kompatibilität prüfen (vereinfacht)
-    return left;
+    switch (expr.getOperator()) {
+      case ADD:
+        // Ist ein Operand ein String, wird verkettet
+        if (left.getTypeName().equals("string") || right.getTypeName().equals("string")) {
+          return new Type("string");
+        }
+        return new Type("int");
+      case SUB:
+      case MUL:
+      case DIV:
+      case MOD:
+        return new Type("int");
+      default:
+        // Vergleiche und Logik
+        return new Type("bool");
+    }
   }
 
   private Type analyzeUnary(UnaryExpr expr) {
-    return analyzeExpression(expr.getOperand());
+    analyzeExpression(expr.getOperand());
+    if (expr.getOperator() == UnaryExpr.Operator.NOT) {
+      return new Type("bool");
+    }
+    return new Type("int");
   }
 
   private Type analyzeAssign(AssignExpr expr) {
     if (!isLValue(expr.getTarget())) {
       throw new SemanticException("Linke Seite der Zuweisung muss ein LValue sein");
     }
-    analyzeExpression(expr.getTarget());
-    analyzeExpression(expr.getValue());
-    return analyzeExpression(expr.getValue());
+    Type target = analyzeExpression(expr.getTarget());
+    expr.setValue(transfer(target, expr.getValue()));
+    // Die Zuweisung liefert den zugewiesenen Wert unverändert
+    return expr.getValue().getStaticType();
   }
 
   private Type analyzeFunctionCall(FunctionCallExpr expr) {
-    String funcName = expr.getFunctionName();
-    int argCount = expr.getArguments().size();
-
-    // Built-in Funktionen
-    if (isBuiltinFunction(funcName)) {
-      for (Expression arg : expr.getArguments()) {
-        analyzeExpression(arg);
-      }
-      return new Type("void");
+    // Argumente zuerst: Überladungen werden nach ihren Typen gewählt
+    List<Expression> args = expr.getArguments();
+    for (Expression arg : args) {
+      analyzeExpression(arg);
     }
 
-    // Konstruktor prüfen
-    ClassDecl cls = symbolTable.lookupClass(funcName);
-    if (cls != null) {
-      for (Expression arg : expr.getArguments()) {
-        analyzeExpression(arg);
+    // Ziel binden: Built-in, Konstruktor oder eindeutige Funktion (sonst Fehler)
+    symbolTable.link(expr);
+
+    // Built-in Funktionen haben eine feste Signatur aus der BuiltinRegistry
+    if (expr.isBuiltin()) {
+      Builtin builtin = expr.getBuiltin();
+      for (int i = 0; i < args.size(); i++) {
+        Type param = builtin.getParameterTypes().get(i);
+        Type type = args.get(i).getStaticType();
+        checkAssignable(param, type);
+        args.set(i, convert(param, type, args.get(i)));
       }
-      return new Type(cls.getName());
+      return builtin.getReturnType();
     }
 
-    // Prüfe auf mehrdeutige Überladung
-    java.util.List<FunctionDecl> matches = symbolTable.findMatchingFunctions(funcName, argCount);
-    if (matches.size() > 1) {
-      throw new SemanticException("Mehrdeutiger Funktionsaufruf: '" + funcName + "'");
-    }
-    if (matches.isEmpty()) {
-      throw new SemanticException("Funktion '" + funcName + "' nicht gefunden");
+    // Konstruktor: ohne passenden Konstruktor nur die Standardwerte (keine Argumente)
+    if (expr.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR) {
+      if (expr.getConstructor() != null) {
+        passArguments(expr.getConstructor().getParameters(), args);
+      }
+      return new Type(expr.getConstructedClass().getName());
     }
 
-    // Argumente analysieren
-    for (Expression arg : expr.getArguments()) {
-      analyzeExpression(arg);
-    }
+    passArguments(expr.getFunction().getParameters(), args);
 
-    return matches.get(0).getReturnType();
+    return expr.getFunction().getReturnType();
   }
 
   private Type analyzeMethodCall(MethodCallExpr expr) {
@@ -302,9 +532,16 @@ public class SemanticAnalyzer {
       throw new SemanticException("Typ '" + objType.getTypeName() + "' ist keine Klasse");
     }
 
-    // Methode suchen (inkl. Basisklasse)
-    MethodDecl method = findMethod(cls, expr.getMethodName(), expr.getArguments().size());
-    if (method == null) {
+    // Methode suchen (inkl. Basisklasse), Überladungen nach den Typen der Argumente
+    for (Expression arg : expr.getArguments()) {
+      analyzeExpression(arg);
+    }
+    List<MethodDecl> best =
+        symbolTable.selectOverloads(
+            findMethods(cls, expr.getMethodId(), expr.getArguments().size()),
+            MethodDecl::getParameters,
+            expr.getArguments());
+    if (best.isEmpty()) {
       throw new SemanticException(
           "Methode '"
               + expr.getMethodName()
@@ -312,28 +549,45 @@ public class SemanticAnalyzer {
               + cls.getName()
               + "'");
     }
-
-    // Argumente analysieren
-    for (Expression arg : expr.getArguments()) {
-      analyzeExpression(arg);
+    if (best.size() > 1) {
+      throw new SemanticException("Mehrdeutiger Methodenaufruf: '" + expr.getMethodName() + "'");
     }
+    MethodDecl method = best.get(0);
+    expr.setMethod(method);
+
+    passArguments(method.getParameters(), expr.getArguments());
 
     return method.getReturnType();
   }
 
-  private MethodDecl findMethod(ClassDecl cls, String name, int argCount) {
+  // Übergibt bereits analysierte Argumente an die Parameter
+  private void passArguments(List<Parameter> params, List<Expression> args) {
+    for (int i = 0; i < args.size(); i++) {
+      Expression arg = args.get(i);
+      args.set(i, transfer(params.get(i).getType(), arg.getStaticType(), arg));
+    }
+  }
+
+  // Methoden mit dem Namen und der Parameterzahl aus der nächsten Klasse (von cls zur Basis hin),
+  // die den Namen deklariert: wie in C++ verdeckt sie alle gleichnamigen Methoden der Basis
+  private List<MethodDecl> findMethods(ClassDecl cls, int nameId, int argCount) {
+    List<MethodDecl> matches = new ArrayList<>();
+    boolean declared = false;
     for (MethodDecl method : cls.getMethods()) {
-      if (method.getName().equals(name) && method.getParameters().size() == argCount) {
-        return method;
+      if (method.getNameId() == nameId) {
+        declared = true;
+        if (method.getParameters().size() == argCount) {
+          matches.add(method);
+        }
       }
     }
-    if (cls.hasBaseClass()) {
+    if (!declared && cls.hasBaseClass()) {
       ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
       if (baseClass != null) {
-        return findMethod(baseClass, name, argCount);
+        return findMethods(baseClass, nameId, argCount);
       }
     }
-    return null;
+    return matches;
   }
 
   private Type analyzeMemberAccess(MemberAccessExpr expr) {
@@ -346,38 +600,89 @@ public class SemanticAnalyzer {
     }
 
     // Feld suchen (inkl. Basisklasse)
-    FieldDecl field = findField(cls, expr.getMemberName());
+    FieldDecl field = findField(cls, expr.getMemberId());
     if (field == null) {
       throw new SemanticException(
           "Feld '" + expr.getMemberName() + "' nicht gefunden in Klasse '" + cls.getName() + "'");
     }
 
-    return field.getType();
+    return new Type(field.getType().getTypeName());
   }
 
-  private FieldDecl findField(ClassDecl cls, String name) {
+  private FieldDecl findField(ClassDecl cls, int nameId) {
     for (FieldDecl field : cls.getFields()) {
-      if (field.getName().equals(name)) {
+      if (field.getNameId() == nameId) {
         return field;
       }
     }
     if (cls.hasBaseClass()) {
       ClassDecl baseClass = symbolTable.lookupClass(cls.getBaseClass());
       if (baseClass != null) {
-        return findField(baseClass, name);
+        return findField(baseClass, nameId);
       }
     }
     return null;
   }
 
-  private boolean isLValue(Expression expr) {
-    return expr instanceof IdentifierExpr || expr instanceof MemberAccessExpr;
+  // Analysiert einen Wert, der gespeichert, übergeben oder zurückgegeben wird, prüft ihn gegen
+  // den Zieltyp und liefert den Ausdruck, der an seine Stelle tritt. Objekte werden dabei als
+  // Werte kopiert (CopyExpr), außer in Referenzen und wenn der Wert ohnehin ein frisches Objekt
+  // derselben Klasse ist (Konstruktor, Rückgabe per Wert).
+  private Expression transfer(Type target, Expression value) {
+    return transfer(target, analyzeExpression(value), value);
+  }
+
+  // Wie oben für einen schon analysierten Wert vom Typ type
+  private Expression transfer(Type target, Type type, Expression value) {
+    checkAssignable(target, type);
+    if (target.isScalar()) {
+      return convert(target, type, value);
+    }
+    ClassDecl cls = symbolTable.lookupClass(target.getTypeName());
+    if (cls == null || target.isReference() || value instanceof CopyExpr) {
+      return value;
+    }
+    boolean fresh =
+        (value instanceof FunctionCallExpr || value instanceof MethodCallExpr)
+            && !type.isReference();
+    if (fresh && type.getTypeName().equals(cls.getName())) {
+      return value;
+    }
+    CopyExpr copy = new CopyExpr(value, cls);
+    copy.setStaticType(new Type(cls.getName()));
+    return copy;
+  }
+
+  // Ein skalarer Wert eines anderen skalaren Typs wird wie in C++ umgewandelt, damit eine
+  // Variable immer einen Wert ihres Typs hält ('b' == 98 in einer char-Variable, true statt 5 in
+  // einer bool-Variable). Die Umwandlung ist ein Aufruf des reinen Built-ins, das wie der Zieltyp
+  // heißt; diese Namen sind Schlüsselwörter, kein Programm kann sie rufen oder verdecken.
+  // Referenzen bleiben unverändert, sie brauchen die Variable selbst.
+  private Expression convert(Type target, Type type, Expression value) {
+    String name = target.getTypeName();
+    if (target.isReference() || name.equals(type.getTypeName())) {
+      return value;
+    }
+    List<Expression> args = new ArrayList<>();
+    args.add(value);
+    FunctionCallExpr call = new FunctionCallExpr(name, symbolTable.getNames().id(name), args);
+    symbolTable.link(call);
+    call.setStaticType(new Type(name));
+    return call;
   }
 
-  private boolean isBuiltinFunction(String name) {
-    return name.equals("print_int")
-        || name.equals("print_bool")
-        || name.equals("print_char")
-        || name.equals("print_string");
+  // int, bool und char sind untereinander verträglich (umgewandelt wird in convert), Strings nur
+  // mit Strings, Objekte nur mit Objekten derselben oder einer abgeleiteten Klasse. So liegt ein
+  // String nie in einer Variable anderen Typs, ein Objekt hat immer die Methoden seines
+  // statischen Typs, und die Ausführung kann sich darauf verlassen.
+  private void checkAssignable(Type target, Type value) {
+    if (!symbolTable.isAssignable(target, value)) {
+      throw new SemanticException(
+          "Typ '" + value.getTypeName() + "' passt nicht zu '" + target.getTypeName() + "'");
+    }
+  }
+
+  private boolean isLValue(Expression expr) {
+    return expr instanceof IdentifierExpr || expr instanceof MemberAccessExpr;
   }
 }
@@ -1,28 +1,59 @@
 package semantic;
 
+import ast.Expression;
+import ast.IntMap;
+import ast.Names;
 import ast.Type;
 import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
 import ast.decl.FunctionDecl;
+import ast.decl.Parameter;
+import ast.expr.FunctionCallExpr;
+import ast.expr.IdentifierExpr;
+import ast.expr.MemberAccessExpr;
+import builtin.Builtin;
+import builtin.BuiltinRegistry;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.function.Function;
 
 public class SymbolTable {
-  private Stack<Map<String, Symbol>> scopes;
-  private Map<String, FunctionDecl> functions;
-  private Map<String, ClassDecl> classes;
+  // Variablen, Klassen und Überladungen nach der Nummer ihres Namens (Names)
+  private Stack<IntMap<Symbol>> scopes;
+  private Map<String, FunctionDecl> functions; // nach Signatur, nur gegen doppelte Definitionen
+  private IntMap<ClassDecl> classes;
+  private List<ClassDecl> classList = new ArrayList<>(); // in Reihenfolge der Deklaration
+  // Funktionen nach Name, für das Binden von Aufrufen
+  private IntMap<List<FunctionDecl>> overloads = new IntMap<>();
+  // Zählt neue Funktionen und Klassen; gebundene Aufrufe mit älterem Stand werden neu gebunden
+  private int version;
+  private final BuiltinRegistry builtins;
+  private final Names names = new Names(); // Namenstabelle der Sitzung
 
   public SymbolTable() {
+    this(BuiltinRegistry.getDefault());
+  }
+
+  public SymbolTable(BuiltinRegistry builtins) {
+    this.builtins = builtins;
     scopes = new Stack<>();
     functions = new HashMap<>();
-    classes = new HashMap<>();
+    classes = new IntMap<>();
     enterScope(); // Globaler Scope
   }
 
+  // Programme für diese Symboltabelle baut der ASTBuilder mit dieser Tabelle
+  public Names getNames() {
+    return names;
+  }
+
   // === Scope Management ===
 
   public void enterScope() {
-    scopes.push(new HashMap<>());
+    scopes.push(new IntMap<>());
   }
 
   public void exitScope() {
@@ -33,27 +64,27 @@ public class SymbolTable {
 
   // === Variablen ===
 
-  public void declareVariable(Symbol symbol) {
-    Map<String, Symbol> currentScope = scopes.peek();
-    if (currentScope.containsKey(symbol.getName())) {
+  public void declareVariable(int nameId, Symbol symbol) {
+    IntMap<Symbol> currentScope = scopes.peek();
+    if (currentScope.containsKey(nameId)) {
       throw new SemanticException("Variable '" + symbol.getName() + "' bereits definiert");
     }
-    currentScope.put(symbol.getName(), symbol);
+    currentScope.put(nameId, symbol);
   }
 
-  public Symbol lookupVariable(String name) {
+  public Symbol lookupVariable(int nameId) {
     // Suche von innen nach außen
     for (int i = scopes.size() - 1; i >= 0; i--) {
-      Map<String, Symbol> scope = scopes.get(i);
-      if (scope.containsKey(name)) {
-        return scope.get(name);
+      Symbol symbol = scopes.get(i).get(nameId);
+      if (symbol != null) {
+        return symbol;
       }
     }
     return null;
   }
 
-  public boolean isVariableDeclaredInCurrentScope(String name) {
-    return scopes.peek().containsKey(name);
+  public boolean isVariableDeclaredInCurrentScope(int nameId) {
+    return scopes.peek().containsKey(nameId);
   }
 
   // === Funktionen ===
@@ -63,18 +94,187 @@ public class SymbolTable {
     if (functions.containsKey(signature)) {
       throw new SemanticException("Funktion '" + func.getName() + "' bereits definiert");
     }
+    addFunction(signature, func);
+  }
+
+  private void addFunction(String signature, FunctionDecl func) {
     functions.put(signature, func);
+    List<FunctionDecl> sameName = overloads.get(func.getNameId());
+    if (sameName == null) {
+      sameName = new ArrayList<>();
+      overloads.put(func.getNameId(), sameName);
+    }
+    sameName.add(func);
+    version++;
   }
 
   public FunctionDecl lookupFunction(String name, int argCount) {
-    // Suche nach passender Funktion (einfache Überladung nach Arität)
-    for (Map.Entry<String, FunctionDecl> entry : functions.entrySet()) {
-      FunctionDecl func = entry.getValue();
-      if (func.getName().equals(name) && func.getParameters().size() == argCount) {
-        return func;
+    // Einfache Überladung nach Arität
+    List<FunctionDecl> matches = findMatchingFunctions(names.find(name), argCount);
+    return matches.isEmpty() ? null : matches.get(0);
+  }
+
+  // Bindet einen Aufruf an sein Ziel: Konstruktor, die Funktion mit diesem Namen und den am besten
+  // passenden Parametertypen (selectOverloads) oder ein Built-in. Eigene Funktionen verdecken
+  // Built-ins gleicher Signatur. Ist der Aufruf schon auf dem aktuellen Stand gebunden, kostet das
+  // nur einen Vergleich. Kamen seitdem (in der REPL) Funktionen oder Klassen hinzu, wird neu
+  // gebunden; eine bisher gebundene Funktion bleibt das Ziel, solange sie noch zu den besten
+  // gehört.
+  public void link(FunctionCallExpr call) {
+    if (call.getLinkVersion() == version) {
+      return;
+    }
+    String name = call.getFunctionName();
+    int argCount = call.getArguments().size();
+    ClassDecl cls = classes.get(call.getFunctionId());
+    if (cls != null) {
+      call.link(
+          FunctionCallExpr.Kind.CONSTRUCTOR,
+          null,
+          cls,
+          findConstructor(cls, call.getArguments()),
+          null,
+          version);
+      return;
+    }
+    List<FunctionDecl> matches = findMatchingFunctions(call.getFunctionId(), argCount);
+    if (matches.isEmpty()) {
+      Builtin builtin = builtins.lookup(name, argCount);
+      if (builtin == null) {
+        throw new SemanticException("Funktion '" + name + "' nicht gefunden");
       }
+      call.link(FunctionCallExpr.Kind.BUILTIN, builtin, null, null, null, version);
+      return;
     }
-    return null;
+    List<FunctionDecl> best =
+        selectOverloads(matches, FunctionDecl::getParameters, call.getArguments());
+    FunctionDecl func;
+    if (call.getFunction() != null && best.contains(call.getFunction())) {
+      func = call.getFunction();
+    } else if (best.isEmpty()) {
+      throw new SemanticException("Keine passende Überladung für '" + name + "'");
+    } else if (best.size() > 1) {
+      throw new SemanticException("Mehrdeutiger Funktionsaufruf: '" + name + "'");
+    } else {
+      func = best.get(0);
+    }
+    call.link(FunctionCallExpr.Kind.FUNCTION, null, null, null, func, version);
+  }
+
+  // Konstruktor für die Argumente, null bei einer Klasse ohne Konstruktor ohne Parameter (die
+  // Felder behalten ihre Standardwerte)
+  private ConstructorDecl findConstructor(ClassDecl cls, List<Expression> args) {
+    List<ConstructorDecl> matches = new ArrayList<>();
+    for (ConstructorDecl ctor : cls.getConstructors()) {
+      if (ctor.getParameters().size() == args.size()) {
+        matches.add(ctor);
+      }
+    }
+    if (matches.isEmpty() && args.isEmpty()) {
+      return null;
+    }
+    List<ConstructorDecl> best = selectOverloads(matches, ConstructorDecl::getParameters, args);
+    if (best.isEmpty()) {
+      throw new SemanticException("Kein passender Konstruktor für '" + cls.getName() + "'");
+    }
+    if (best.size() > 1) {
+      throw new SemanticException("Mehrdeutiger Konstruktoraufruf: '" + cls.getName() + "'");
+    }
+    return best.get(0);
+  }
+
+  // Überladungsauflösung wie in C++ über die statischen Typen der Argumente: Jeder Parameter
+  // nimmt sein Argument genau (gleicher Typ), mit Umwandlung oder gar nicht. Übrig bleiben die
+  // Kandidaten, die kein anderer in jedem Argument mindestens so gut und in einem besser nimmt;
+  // mehr als einer heißt mehrdeutig. Ein einzelner Kandidat wird nicht geprüft, unpassende
+  // Argumente meldet dann die Analyse beim Übergeben.
+  public <T> List<T> selectOverloads(
+      List<T> candidates, Function<T, List<Parameter>> parameters, List<Expression> args) {
+    if (candidates.size() <= 1) {
+      return candidates;
+    }
+    List<T> viable = new ArrayList<>();
+    List<int[]> ranks = new ArrayList<>();
+    for (T candidate : candidates) {
+      List<Parameter> params = parameters.apply(candidate);
+      int[] rank = new int[args.size()];
+      boolean fits = true;
+      for (int i = 0; i < rank.length && fits; i++) {
+        rank[i] = rank(params.get(i).getType(), args.get(i));
+        fits = rank[i] > 0;
+      }
+      if (fits) {
+        viable.add(candidate);
+        ranks.add(rank);
+      }
+    }
+    List<T> best = new ArrayList<>();
+    for (int i = 0; i < viable.size(); i++) {
+      boolean beaten = false;
+      for (int j = 0; j < viable.size() && !beaten; j++) {
+        beaten = j != i && isBetter(ranks.get(j), ranks.get(i));
+      }
+      if (!beaten) {
+        best.add(viable.get(i));
+      }
+    }
+    return best;
+  }
+
+  // 2: genau passend, 1: mit Umwandlung, 0: unpassend. Eine Referenz braucht eine Variable oder
+  // ein Feld desselben Typs (oder einer abgeleiteten Klasse).
+  private int rank(Type param, Expression arg) {
+    Type type = arg.getStaticType();
+    if (type == null) {
+      return 1; // noch nicht analysiert
+    }
+    boolean exact = param.getTypeName().equals(type.getTypeName());
+    if (param.isReference()) {
+      boolean lvalue = arg instanceof IdentifierExpr || arg instanceof MemberAccessExpr;
+      if (!lvalue || !(exact || isSameOrDerived(type.getTypeName(), param.getTypeName()))) {
+        return 0;
+      }
+    } else if (!isAssignable(param, type)) {
+      return 0;
+    }
+    return exact ? 2 : 1;
+  }
+
+  private static boolean isBetter(int[] rank, int[] other) {
+    boolean better = false;
+    for (int i = 0; i < rank.length; i++) {
+      if (rank[i] < other[i]) {
+        return false;
+      }
+      better |= rank[i] > other[i];
+    }
+    return better;
+  }
+
+  // int, bool und char sind untereinander verträglich, Strings nur mit Strings, Objekte nur mit
+  // Objekten derselben oder einer abgeleiteten Klasse
+  public boolean isAssignable(Type target, Type value) {
+    String to = target.getTypeName();
+    String from = value.getTypeName();
+    if (from.equals("void") || to.equals("void")) {
+      return false;
+    } else if (target.isScalar() || value.isScalar()) {
+      return target.isScalar() && value.isScalar();
+    } else if (to.equals("string") || from.equals("string")) {
+      return to.equals(from);
+    }
+    return isSameOrDerived(from, to);
+  }
+
+  public boolean isSameOrDerived(String className, String baseName) {
+    ClassDecl cls = lookupClass(className);
+    while (cls != null) {
+      if (cls.getName().equals(baseName)) {
+        return true;
+      }
+      cls = cls.hasBaseClass() ? lookupClass(cls.getBaseClass()) : null;
+    }
+    return false;
   }
 
   private String getFunctionSignature(FunctionDecl func) {
@@ -94,18 +294,19 @@ public class SymbolTable {
   // === Klassen ===
 
   public void declareClass(ClassDecl cls) {
-    if (classes.containsKey(cls.getName())) {
+    if (!tryDeclareClass(cls)) {
       throw new SemanticException("Klasse '" + cls.getName() + "' bereits definiert");
     }
-    classes.put(cls.getName(), cls);
   }
 
+  // Typnamen liegen als String vor; ein Name, der nie vorkam, ist keine Klasse
   public ClassDecl lookupClass(String name) {
-    return classes.get(name);
+    int nameId = names.find(name);
+    return nameId >= 0 ? classes.get(nameId) : null;
   }
 
   public boolean isClassType(String typeName) {
-    return classes.containsKey(typeName);
+    return lookupClass(typeName) != null;
   }
 
   // === Hilfsmethoden ===
@@ -114,16 +315,18 @@ public class SymbolTable {
     return functions;
   }
 
-  public Map<String, ClassDecl> getAllClasses() {
-    return classes;
+  public List<ClassDecl> getAllClasses() {
+    return classList;
   }
 
   // Nur registrieren wenn noch nicht vorhanden
   public boolean tryDeclareClass(ClassDecl cls) {
-    if (classes.containsKey(cls.getName())) {
+    if (classes.containsKey(cls.getNameId())) {
       return false;
     }
-    classes.put(cls.getName(), cls);
+    classes.put(cls.getNameId(), cls);
+    classList.add(cls);
+    version++;
     return true;
   }
 
@@ -132,15 +335,18 @@ public class SymbolTable {
     if (functions.containsKey(signature)) {
       return false;
     }
-    functions.put(signature, func);
+    addFunction(signature, func);
     return true;
   }
 
-  public java.util.List<FunctionDecl> findMatchingFunctions(String name, int argCount) {
-    java.util.List<FunctionDecl> matches = new java.util.ArrayList<>();
-    for (FunctionDecl func : functions.values()) {
-      if (func.getName().equals(name) && func.getParameters().size() == argCount) {
-        matches.add(func);
+  public List<FunctionDecl> findMatchingFunctions(int nameId, int argCount) {
+    List<FunctionDecl> matches = new ArrayList<>();
+    List<FunctionDecl> sameName = nameId >= 0 ? overloads.get(nameId) : null;
+    if (sameName != null) {
+      for (FunctionDecl func : sameName) {
+        if (func.getParameters().size() == argCount) {
+          matches.add(func);
+        }
       }
     }
     return matches;
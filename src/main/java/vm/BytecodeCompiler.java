@@ -0,0 +1,638 @@
+package vm;
+
+import ast.*;
+import ast.decl.*;
+import ast.expr.*;
+import ast.stmt.*;
+import interpreter.Values;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import semantic.SemanticException;
+import semantic.SymbolTable;
+
+// Übersetzt Funktionen, Methoden und Konstruktoren in Register-Bytecode (siehe Opcode).
+// Lokale Variablen belegen feste Register am Anfang des Frames, Zwischenergebnisse liegen in
+// temporären Registern dahinter. Übersetzt wird bei Bedarf, jede Deklaration genau einmal.
+public class BytecodeCompiler {
+  private SymbolTable symbolTable;
+  private Map<ASTNode, Chunk> chunks = new IdentityHashMap<>();
+
+  public BytecodeCompiler(SymbolTable symbolTable) {
+    this.symbolTable = symbolTable;
+  }
+
+  public Chunk compileFunction(FunctionDecl func) {
+    return compile(
+        func,
+        func.getName(),
+        func.getParameters(),
+        func.getBody(),
+        func.getFrameSize(),
+        false,
+        null);
+  }
+
+  public Chunk compileMethod(MethodDecl method) {
+    return compile(
+        method,
+        method.getName(),
+        method.getParameters(),
+        method.getBody(),
+        method.getFrameSize(),
+        true,
+        null);
+  }
+
+  public Chunk compileConstructor(ConstructorDecl ctor) {
+    Chunk base =
+        ctor.getBaseConstructor() != null ? compileConstructor(ctor.getBaseConstructor()) : null;
+    return compile(
+        ctor,
+        ctor.getClassName(),
+        ctor.getParameters(),
+        ctor.getBody(),
+        ctor.getFrameSize(),
+        true,
+        base);
+  }
+
+  private Chunk compile(
+      ASTNode decl,
+      String name,
+      List<Parameter> params,
+      BlockStmt body,
+      int numLocals,
+      boolean isMethod,
+      Chunk baseConstructor) {
+    Chunk chunk = chunks.get(decl);
+    if (chunk == null) {
+      // Vor dem Übersetzen eintragen, damit Rekursion auf denselben Chunk zeigt
+      chunk = new Chunk(name);
+      chunks.put(decl, chunk);
+      new FunctionCompiler(chunk, numLocals, isMethod, baseConstructor).compile(params, body);
+    }
+    return chunk;
+  }
+
+  // === Übersetzung einer Funktion ===
+
+  private class FunctionCompiler {
+    private Chunk chunk;
+    private boolean isMethod;
+    private Chunk baseConstructor; // nur bei Konstruktoren, läuft vor dem Rumpf
+
+    private int numLocals;
+
+    private int[] code = new int[64];
+    private int pc;
+    private List<Object> constants = new ArrayList<>();
+    private Map<Object, Integer> constantIndex = new HashMap<>();
+    private int nextReg;
+    private int maxReg;
+
+    // Innerste Schleife: Ziel von continue und offene Sprünge von break
+    private int loopStart = -1;
+    private List<Integer> loopExits;
+
+    // Lokale Variablen belegen die Register, die ihnen der Resolver als Slot gegeben hat
+    FunctionCompiler(Chunk chunk, int numLocals, boolean isMethod, Chunk baseConstructor) {
+      this.chunk = chunk;
+      this.numLocals = numLocals;
+      this.isMethod = isMethod;
+      this.baseConstructor = baseConstructor;
+    }
+
+    void compile(List<Parameter> parameters, BlockStmt body) {
+      // r[0] hält bei Methoden und Konstruktoren das Objekt
+      int firstParam = isMethod ? 1 : 0;
+      LocalVariable[] params = new LocalVariable[parameters.size()];
+      for (int i = 0; i < params.length; i++) {
+        params[i] = parameters.get(i).getVariable();
+      }
+
+      nextReg = numLocals;
+      maxReg = numLocals;
+      if (baseConstructor != null) {
+        // Standardkonstruktor der Basisklasse auf demselben Objekt, ohne Argumente
+        int target = newTemp();
+        emit(Opcode.CONST, target, constant(baseConstructor));
+        emit(Opcode.CALL_METHOD, target, 0, target, target, 0);
+      }
+      for (LocalVariable param : params) {
+        if (param.isAddressTaken()) {
+          emit(Opcode.NEW_CELL, param.getSlot(), param.getSlot(), cellConstant(param));
+        }
+      }
+      for (Statement stmt : body.getStatements()) {
+        compileStatement(stmt);
+      }
+      emit(Opcode.RET_VOID);
+
+      chunk.code = Arrays.copyOf(code, pc);
+      chunk.constants = constants.toArray();
+      chunk.numRegisters = maxReg;
+      chunk.firstParam = firstParam;
+      chunk.isMethod = isMethod;
+      chunk.paramNames = new String[params.length];
+      for (int i = 0; i < params.length; i++) {
+        chunk.paramNames[i] = params[i].getName();
+      }
+    }
+
+    // --- Statements ---
+
+    private void compileStatement(Statement stmt) {
+      int mark = nextReg;
+      if (stmt instanceof VarDeclStmt) {
+        compileVarDecl((VarDeclStmt) stmt);
+      } else if (stmt instanceof IfStmt) {
+        compileIf((IfStmt) stmt);
+      } else if (stmt instanceof WhileStmt) {
+        compileWhile((WhileStmt) stmt);
+      } else if (stmt instanceof ReturnStmt) {
+        ReturnStmt ret = (ReturnStmt) stmt;
+        if (ret.hasValue()) {
+          emit(Opcode.RET, compileExpr(ret.getValue()));
+        } else {
+          emit(Opcode.RET_VOID);
+        }
+      } else if (stmt instanceof BreakStmt) {
+        loopExits.add(emitJump(Opcode.JMP, -1));
+      } else if (stmt instanceof ContinueStmt) {
+        emit(Opcode.JMP, loopStart);
+      } else if (stmt instanceof ExprStmt) {
+        compileEffect(((ExprStmt) stmt).getExpression());
+      } else if (stmt instanceof BlockStmt) {
+        for (Statement inner : ((BlockStmt) stmt).getStatements()) {
+          compileStatement(inner);
+        }
+      }
+      nextReg = mark;
+    }
+
+    private void compileVarDecl(VarDeclStmt stmt) {
+      LocalVariable local = stmt.getVariable();
+
+      // Referenz: Register übernimmt das Symbol des Ziels
+      if (local.isReference()) {
+        compileExpr(stmt.getInitializer());
+        LocalVariable target = null;
+        if (stmt.getInitializer() instanceof IdentifierExpr) {
+          target = ((IdentifierExpr) stmt.getInitializer()).getVariable();
+        }
+        if (target != null) {
+          emit(Opcode.MOVE, local.getSlot(), target.getSlot());
+        } else {
+          emit(Opcode.NEW_REF, local.getSlot(), cellConstant(local));
+        }
+        return;
+      }
+
+      int value;
+      if (local.isAddressTaken()) {
+        value = newTemp();
+      } else {
+        value = local.getSlot();
+      }
+      if (stmt.hasInitializer()) {
+        compileInto(stmt.getInitializer(), value);
+      } else {
+        emit(Opcode.CONST, value, constant(Values.getDefaultValue(stmt.getType().getTypeName())));
+      }
+      if (local.isAddressTaken()) {
+        emit(Opcode.NEW_CELL, local.getSlot(), value, cellConstant(local));
+      }
+    }
+
+    private void compileIf(IfStmt stmt) {
+      int condition = compileExpr(stmt.getCondition());
+      int toElse = emitJump(Opcode.JMP_FALSE, condition);
+      compileStatement(stmt.getThenBranch());
+      if (stmt.hasElseBranch()) {
+        int toEnd = emitJump(Opcode.JMP, -1);
+        patch(toElse);
+        compileStatement(stmt.getElseBranch());
+        patch(toEnd);
+      } else {
+        patch(toElse);
+      }
+    }
+
+    private void compileWhile(WhileStmt stmt) {
+      int start = pc;
+      int mark = nextReg;
+      int condition = compileExpr(stmt.getCondition());
+      int toEnd = emitJump(Opcode.JMP_FALSE, condition);
+      nextReg = mark;
+      int outerStart = loopStart;
+      List<Integer> outerExits = loopExits;
+      loopStart = start;
+      loopExits = new ArrayList<>();
+      compileStatement(stmt.getBody());
+      emit(Opcode.JMP, start);
+      patch(toEnd);
+      for (int exit : loopExits) {
+        patch(exit);
+      }
+      loopStart = outerStart;
+      loopExits = outerExits;
+    }
+
+    // --- Expressions ---
+
+    // Ausdruck auswerten, Ergebnis wird nicht gebraucht
+    private void compileEffect(Expression expr) {
+      if (expr instanceof AssignExpr) {
+        compileAssign((AssignExpr) expr, -1);
+      } else if (expr instanceof FunctionCallExpr && ((FunctionCallExpr) expr).isBuiltin()) {
+        compileFunctionCall((FunctionCallExpr) expr, -1);
+      } else {
+        compileExpr(expr);
+      }
+    }
+
+    // Liefert das Register mit dem Ergebnis; einfache Variablen ohne Kopie
+    private int compileExpr(Expression expr) {
+      if (expr instanceof IdentifierExpr) {
+        LocalVariable local = ((IdentifierExpr) expr).getVariable();
+        if (local != null && !local.isCell()) {
+          return local.getSlot();
+        }
+      }
+      int dst = newTemp();
+      compileInto(expr, dst);
+      return dst;
+    }
+
+    // Ergebnis nach r[dst]; dst wird erst nach dem Lesen aller Operanden geschrieben
+    private void compileInto(Expression expr, int dst) {
+      if (expr instanceof IntLiteral) {
+        emit(Opcode.CONST, dst, constant(((IntLiteral) expr).getValue()));
+      } else if (expr instanceof BoolLiteral) {
+        emit(Opcode.CONST, dst, constant(((BoolLiteral) expr).getValue()));
+      } else if (expr instanceof CharLiteral) {
+        emit(Opcode.CONST, dst, constant(((CharLiteral) expr).getValue()));
+      } else if (expr instanceof StringLiteral) {
+        emit(Opcode.CONST, dst, constant(((StringLiteral) expr).getValue()));
+      } else if (expr instanceof IdentifierExpr) {
+        compileIdentifier((IdentifierExpr) expr, dst);
+      } else if (expr instanceof BinaryExpr) {
+        compileBinary((BinaryExpr) expr, dst);
+      } else if (expr instanceof UnaryExpr) {
+        compileUnary((UnaryExpr) expr, dst);
+      } else if (expr instanceof AssignExpr) {
+        compileAssign((AssignExpr) expr, dst);
+      } else if (expr instanceof FunctionCallExpr) {
+        compileFunctionCall((FunctionCallExpr) expr, dst);
+      } else if (expr instanceof MethodCallExpr) {
+        compileMethodCall((MethodCallExpr) expr, dst);
+      } else if (expr instanceof MemberAccessExpr) {
+        MemberAccessExpr access = (MemberAccessExpr) expr;
+        int object = compileExpr(access.getObject());
+        emit(Opcode.GET_FIELD, dst, object, constant(new Chunk.FieldSite(access)));
+      } else if (expr instanceof CopyExpr) {
+        CopyExpr copy = (CopyExpr) expr;
+        int object = compileExpr(copy.getOperand());
+        emit(Opcode.COPY_OBJECT, dst, object, constant(new Chunk.ClassInfo(copy.getTargetClass())));
+      } else {
+        emit(Opcode.CONST, dst, constant(null));
+      }
+    }
+
+    private void compileIdentifier(IdentifierExpr expr, int dst) {
+      LocalVariable local = expr.getVariable();
+      if (local == null && expr.getFieldSlot() >= 0) {
+        emit(Opcode.LOAD_SELF, dst, expr.getFieldSlot());
+      } else if (local == null) {
+        emitThrow(Opcode.ERROR_RUNTIME, "Variable '" + expr.getName() + "' nicht definiert");
+      } else if (local.isCell()) {
+        emit(Opcode.LOAD_CELL, dst, local.getSlot());
+      } else if (local.getSlot() != dst) {
+        emit(Opcode.MOVE, dst, local.getSlot());
+      }
+    }
+
+    private void compileBinary(BinaryExpr expr, int dst) {
+      BinaryExpr.Operator op = expr.getOperator();
+      if (op == BinaryExpr.Operator.AND || op == BinaryExpr.Operator.OR) {
+        compileLogical(expr, dst);
+        return;
+      }
+
+      int left = compileExpr(expr.getLeft());
+      if (left < numLocals && containsAssignment(expr.getRight())) {
+        // Rechte Seite ändert evtl. die Variable links -> alten Wert sichern
+        int copy = newTemp();
+        emit(Opcode.MOVE, copy, left);
+        left = copy;
+      }
+      int right = compileExpr(expr.getRight());
+      emit(binaryOpcode(op), dst, left, right);
+    }
+
+    private void compileLogical(BinaryExpr expr, int dst) {
+      // Zwischenergebnis nie direkt in eine Variable schreiben, die rechts noch gelesen wird
+      int result = dst >= numLocals ? dst : newTemp();
+      boolean isAnd = expr.getOperator() == BinaryExpr.Operator.AND;
+      compileInto(expr.getLeft(), result);
+      int shortCircuit = emitJump(isAnd ? Opcode.JMP_FALSE : Opcode.JMP_TRUE, result);
+      compileInto(expr.getRight(), result);
+      emit(Opcode.TO_BOOL, result, result);
+      int toEnd = emitJump(Opcode.JMP, -1);
+      patch(shortCircuit);
+      emit(Opcode.CONST, result, constant(!isAnd));
+      patch(toEnd);
+      if (result != dst) {
+        emit(Opcode.MOVE, dst, result);
+      }
+    }
+
+    private int binaryOpcode(BinaryExpr.Operator op) {
+      switch (op) {
+        case ADD:
+          return Opcode.ADD;
+        case SUB:
+          return Opcode.SUB;
+        case MUL:
+          return Opcode.MUL;
+        case DIV:
+          return Opcode.DIV;
+        case MOD:
+          return Opcode.MOD;
+        case EQ:
+          return Opcode.EQ;
+        case NEQ:
+          return Opcode.NEQ;
+        case LT:
+          return Opcode.LT;
+        case LE:
+          return Opcode.LE;
+        case GT:
+          return Opcode.GT;
+        case GE:
+          return Opcode.GE;
+        default:
+          throw new RuntimeException("Unbekannter Operator: " + op);
+      }
+    }
+
+    private void compileUnary(UnaryExpr expr, int dst) {
+      int operand = compileExpr(expr.getOperand());
+      switch (expr.getOperator()) {
+        case NEG:
+          emit(Opcode.NEG, dst, operand);
+          break;
+        case POS:
+          emit(Opcode.POS, dst, operand);
+          break;
+        case NOT:
+          emit(Opcode.NOT, dst, operand);
+          break;
+        default:
+          throw new RuntimeException("Unbekannter Operator: " + expr.getOperator());
+      }
+    }
+
+    // dst < 0: Ergebnis wird nicht gebraucht
+    private void compileAssign(AssignExpr expr, int dst) {
+      if (expr.getTarget() instanceof IdentifierExpr) {
+        LocalVariable local = ((IdentifierExpr) expr.getTarget()).getVariable();
+        int field = ((IdentifierExpr) expr.getTarget()).getFieldSlot();
+        if (local == null && field >= 0) {
+          int value = compileExpr(expr.getValue());
+          emit(Opcode.STORE_SELF, field, value);
+          if (dst >= 0 && dst != value) {
+            emit(Opcode.MOVE, dst, value);
+          }
+        } else if (local == null) {
+          compileExpr(expr.getValue());
+          String name = ((IdentifierExpr) expr.getTarget()).getName();
+          emitThrow(Opcode.ERROR_RUNTIME, "Variable '" + name + "' nicht definiert");
+        } else if (local.isCell()) {
+          int value = compileExpr(expr.getValue());
+          emit(Opcode.STORE_CELL, local.getSlot(), value);
+          if (dst >= 0 && dst != value) {
+            emit(Opcode.MOVE, dst, value);
+          }
+        } else {
+          compileInto(expr.getValue(), local.getSlot());
+          if (dst >= 0 && dst != local.getSlot()) {
+            emit(Opcode.MOVE, dst, local.getSlot());
+          }
+        }
+      } else if (expr.getTarget() instanceof MemberAccessExpr) {
+        MemberAccessExpr access = (MemberAccessExpr) expr.getTarget();
+        int value = compileExpr(expr.getValue());
+        if (value < numLocals && containsAssignment(access.getObject())) {
+          int copy = newTemp();
+          emit(Opcode.MOVE, copy, value);
+          value = copy;
+        }
+        int object = compileExpr(access.getObject());
+        emit(Opcode.SET_FIELD, object, constant(new Chunk.FieldSite(access)), value);
+        if (dst >= 0 && dst != value) {
+          emit(Opcode.MOVE, dst, value);
+        }
+      } else if (dst >= 0) {
+        compileInto(expr.getValue(), dst);
+      } else {
+        compileExpr(expr.getValue());
+      }
+    }
+
+    private void compileFunctionCall(FunctionCallExpr expr, int dst) {
+      List<Expression> arguments = expr.getArguments();
+
+      // Ziel steht seit der Analyse fest; in der REPL evtl. neu binden
+      try {
+        symbolTable.link(expr);
+      } catch (SemanticException e) {
+        emitThrow(Opcode.ERROR_SEMANTIC, e.getMessage());
+        return;
+      }
+
+      // Built-in Funktionen: Argumente in aufeinanderfolgende Register
+      if (expr.isBuiltin()) {
+        int argStart = reserve(arguments.size());
+        for (int i = 0; i < arguments.size(); i++) {
+          compileInto(arguments.get(i), argStart + i);
+        }
+        emit(Opcode.CALL_BUILTIN, dst, constant(expr.getBuiltin()), argStart, arguments.size());
+        return;
+      }
+      // -1 kommt nur für Built-ins; nach neuem Binden in der REPL kann es eine Funktion sein
+      if (dst < 0) {
+        dst = newTemp();
+      }
+
+      // Konstruktor-Aufruf
+      if (expr.getKind() == FunctionCallExpr.Kind.CONSTRUCTOR) {
+        compileCreateObject(expr, dst);
+        return;
+      }
+
+      // Normale Funktion
+      FunctionDecl func = expr.getFunction();
+      Chunk target = compileFunction(func);
+
+      int argStart = reserve(arguments.size());
+      if (!compileArguments(func.getParameters(), arguments, argStart)) {
+        return;
+      }
+      emit(Opcode.CALL, dst, constant(target), argStart, arguments.size());
+    }
+
+    // Argumente in aufeinanderfolgende Register ab argStart; Referenzen bekommen das Symbol.
+    // false, wenn statt des Aufrufs ein Fehler ausgelöst wird.
+    private boolean compileArguments(
+        List<Parameter> parameters, List<Expression> arguments, int argStart) {
+      for (int i = 0; i < arguments.size(); i++) {
+        Expression argExpr = arguments.get(i);
+        if (parameters.get(i).getType().isReference()) {
+          LocalVariable local =
+              argExpr instanceof IdentifierExpr ? ((IdentifierExpr) argExpr).getVariable() : null;
+          if (local == null) {
+            emitThrow(Opcode.ERROR_RUNTIME, "Referenz-Parameter braucht LValue");
+            return false;
+          }
+          emit(Opcode.MOVE, argStart + i, local.getSlot());
+        } else {
+          compileInto(argExpr, argStart + i);
+        }
+      }
+      return true;
+    }
+
+    private void compileMethodCall(MethodCallExpr expr, int dst) {
+      List<Expression> arguments = expr.getArguments();
+      int object = compileExpr(expr.getObject());
+      if (object < numLocals && arguments.stream().anyMatch(this::containsAssignment)) {
+        int copy = newTemp();
+        emit(Opcode.MOVE, copy, object);
+        object = copy;
+      }
+      int method = newTemp();
+      Chunk.MethodSite site = new Chunk.MethodSite(expr);
+      emit(Opcode.RESOLVE_METHOD, method, object, constant(site));
+
+      // Überschreibende Methoden haben dieselben Parametertypen wie die gewählte Überladung
+      int argStart = reserve(arguments.size());
+      if (!compileArguments(expr.getMethod().getParameters(), arguments, argStart)) {
+        return;
+      }
+      emit(Opcode.CALL_METHOD, dst, object, method, argStart, arguments.size());
+    }
+
+    private void compileCreateObject(FunctionCallExpr expr, int dst) {
+      List<Expression> arguments = expr.getArguments();
+      int classInfo = constant(new Chunk.ClassInfo(expr.getConstructedClass()));
+
+      ConstructorDecl ctor = expr.getConstructor();
+      if (ctor == null) {
+        emit(Opcode.NEW_OBJECT, dst, classInfo, -1, 0, 0);
+        return;
+      }
+      int argStart = reserve(arguments.size());
+      if (!compileArguments(ctor.getParameters(), arguments, argStart)) {
+        return;
+      }
+      Chunk target = compileConstructor(ctor);
+      emit(Opcode.NEW_OBJECT, dst, classInfo, constant(target), argStart, arguments.size());
+    }
+
+    private boolean containsAssignment(Expression expr) {
+      if (expr instanceof AssignExpr) {
+        return true;
+      } else if (expr instanceof BinaryExpr) {
+        return containsAssignment(((BinaryExpr) expr).getLeft())
+            || containsAssignment(((BinaryExpr) expr).getRight());
+      } else if (expr instanceof UnaryExpr) {
+        return containsAssignment(((UnaryExpr) expr).getOperand());
+      } else if (expr instanceof FunctionCallExpr) {
+        return ((FunctionCallExpr) expr).getArguments().stream().anyMatch(this::containsAssignment);
+      } else if (expr instanceof MethodCallExpr) {
+        MethodCallExpr call = (MethodCallExpr) expr;
+        return containsAssignment(call.getObject())
+            || call.getArguments().stream().anyMatch(this::containsAssignment);
+      } else if (expr instanceof MemberAccessExpr) {
+        return containsAssignment(((MemberAccessExpr) expr).getObject());
+      } else if (expr instanceof CopyExpr) {
+        return containsAssignment(((CopyExpr) expr).getOperand());
+      }
+      return false;
+    }
+
+    // --- Register, Konstanten, Code ---
+
+    private int newTemp() {
+      return reserve(1);
+    }
+
+    private int reserve(int count) {
+      int first = nextReg;
+      nextReg += count;
+      maxReg = Math.max(maxReg, nextReg);
+      return first;
+    }
+
+    private int constant(Object value) {
+      // Werte werden zusammengefasst, Chunks und Aufrufstellen nicht
+      boolean shared =
+          value == null
+              || value instanceof Integer
+              || value instanceof Boolean
+              || value instanceof Character
+              || value instanceof String
+              || value instanceof Chunk;
+      if (shared) {
+        // Typ gehört zum Schlüssel, sonst wären z.B. 1 und true austauschbar
+        List<Object> key = Arrays.asList(value == null ? null : value.getClass(), value);
+        Integer index = constantIndex.get(key);
+        if (index == null) {
+          index = constants.size();
+          constants.add(value);
+          constantIndex.put(key, index);
+        }
+        return index;
+      }
+      constants.add(value);
+      return constants.size() - 1;
+    }
+
+    private int cellConstant(LocalVariable local) {
+      return constant(new Chunk.CellInfo(local.getName(), local.getType()));
+    }
+
+    private void emit(int opcode, int... operands) {
+      if (pc + operands.length + 1 > code.length) {
+        code = Arrays.copyOf(code, Math.max(code.length * 2, pc + operands.length + 1));
+      }
+      code[pc++] = opcode;
+      for (int operand : operands) {
+        code[pc++] = operand;
+      }
+    }
+
+    private void emitThrow(int kind, String message) {
+      emit(Opcode.THROW, kind, constant(message));
+    }
+
+    // Sprung mit offenem Ziel; liefert die Stelle des Ziel-Operanden
+    private int emitJump(int opcode, int register) {
+      if (opcode == Opcode.JMP) {
+        emit(opcode, -1);
+      } else {
+        emit(opcode, register, -1);
+      }
+      return pc - 1;
+    }
+
+    private void patch(int operand) {
+      code[operand] = pc;
+    }
+  }
+}
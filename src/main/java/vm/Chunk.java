@@ -0,0 +1,92 @@
+package vm;
+
+import ast.Type;
+import ast.decl.ClassDecl;
+import ast.decl.MethodDecl;
+import ast.expr.MemberAccessExpr;
+import ast.expr.MethodCallExpr;
+
+// Übersetzte Funktion, Methode oder Konstruktor: Bytecode, Konstantenpool und Frame-Größe
+public class Chunk {
+  String name;
+  int[] code;
+  Object[] constants;
+  int numRegisters;
+  int firstParam; // bei Methoden liegt das Objekt in r[0]
+  String[] paramNames;
+  boolean isMethod;
+
+  Chunk(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  // Konstante für NEW_CELL/NEW_REF: Name und Typ des neuen Symbols
+  static class CellInfo {
+    final String name;
+    final Type type;
+
+    CellInfo(String name, Type type) {
+      this.name = name;
+      this.type = type;
+    }
+
+    @Override
+    public String toString() {
+      return type + " " + name;
+    }
+  }
+
+  // Konstante für NEW_OBJECT: die Klasse, Felder und Standardwerte stehen in ihrem Layout
+  static class ClassInfo {
+    final ClassDecl cls;
+
+    ClassInfo(ClassDecl cls) {
+      this.cls = cls;
+    }
+
+    @Override
+    public String toString() {
+      return "class " + cls.getName();
+    }
+  }
+
+  // Konstante für GET_FIELD/SET_FIELD: der Feldzugriff im AST mit seinem Inline-Cache
+  static class FieldSite {
+    final MemberAccessExpr access;
+
+    FieldSite(MemberAccessExpr access) {
+      this.access = access;
+    }
+
+    @Override
+    public String toString() {
+      return "field " + access.getMemberName();
+    }
+  }
+
+  // Konstante für RESOLVE_METHOD: der vom Resolver gebundene Aufruf im AST, dazu der Chunk der
+  // zuletzt aufgerufenen Methode
+  static class MethodSite {
+    final MethodCallExpr call;
+    MethodDecl lastMethod;
+    Chunk lastChunk;
+
+    MethodSite(MethodCallExpr call) {
+      this.call = call;
+    }
+
+    @Override
+    public String toString() {
+      return "method " + call.getMethodName() + "/" + call.getArguments().size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<" + name + ">";
+  }
+}
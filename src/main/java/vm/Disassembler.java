@@ -0,0 +1,56 @@
+package vm;
+
+// Gibt einen Chunk als lesbares Listing aus, z.B. "0004  ADD         r3, r1, r2"
+public final class Disassembler {
+  private Disassembler() {}
+
+  public static String disassemble(Chunk chunk) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("== ")
+        .append(chunk.name)
+        .append(" (")
+        .append(chunk.paramNames.length)
+        .append(" params, ")
+        .append(chunk.numRegisters)
+        .append(" registers) ==\n");
+
+    int pc = 0;
+    while (pc < chunk.code.length) {
+      int opcode = chunk.code[pc];
+      sb.append(String.format("%04d  %-15s", pc, Opcode.NAMES[opcode]));
+      String operands = Opcode.OPERANDS[opcode];
+      for (int i = 0; i < operands.length(); i++) {
+        int operand = chunk.code[pc + 1 + i];
+        sb.append(i == 0 ? " " : ", ");
+        switch (operands.charAt(i)) {
+          case 'r':
+            sb.append("r").append(operand);
+            break;
+          case 'k':
+            sb.append(operand < 0 ? "-" : "k" + operand + "(" + describe(chunk, operand) + ")");
+            break;
+          case 'j':
+            sb.append(String.format("@%04d", operand));
+            break;
+          default:
+            sb.append(operand);
+            break;
+        }
+      }
+      sb.append("\n");
+      pc += Opcode.length(opcode);
+    }
+    return sb.toString();
+  }
+
+  private static String describe(Chunk chunk, int index) {
+    Object value = chunk.constants[index];
+    if (value instanceof String) {
+      return "\"" + value + "\"";
+    }
+    if (value instanceof Character) {
+      return "'" + value + "'";
+    }
+    return String.valueOf(value);
+  }
+}
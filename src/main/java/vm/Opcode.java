@@ -0,0 +1,118 @@
+package vm;
+
+// Befehlssatz der Register-VM.
+// Jeder Befehl belegt 1 + Anzahl Operanden Einträge im int[]-Code. Die Operanden-Formate
+// (r = Register, k = Konstante, j = Sprungziel, n = Zahl) nutzt der Disassembler.
+final class Opcode {
+  private Opcode() {}
+
+  // Laden und Speichern
+  static final int CONST = 0; // r[a] = k[b]
+  static final int MOVE = 1; // r[a] = r[b]
+  static final int LOAD_CELL = 2; // r[a] = ((Symbol) r[b]).getValue()
+  static final int STORE_CELL = 3; // ((Symbol) r[a]).setValue(r[b])
+  static final int NEW_CELL = 4; // r[a] = neues Symbol k[c] mit Wert r[b]
+  static final int NEW_REF = 5; // r[a] = neue, ungebundene Referenz k[b]
+
+  // Arithmetik und Vergleiche: r[a] = r[b] op r[c]
+  static final int ADD = 6;
+  static final int SUB = 7;
+  static final int MUL = 8;
+  static final int DIV = 9;
+  static final int MOD = 10;
+  static final int EQ = 11;
+  static final int NEQ = 12;
+  static final int LT = 13;
+  static final int LE = 14;
+  static final int GT = 15;
+  static final int GE = 16;
+
+  // Unäre Operatoren: r[a] = op r[b]
+  static final int NEG = 17;
+  static final int POS = 18;
+  static final int NOT = 19;
+  static final int TO_BOOL = 20;
+
+  // Sprünge
+  static final int JMP = 21; // pc = a
+  static final int JMP_FALSE = 22; // if (!r[a]) pc = b
+  static final int JMP_TRUE = 23; // if (r[a]) pc = b
+
+  // Aufrufe
+  static final int CALL = 24; // r[a] = k[b](r[c] .. r[c+d-1])
+  static final int RESOLVE_METHOD = 25; // r[a] = Methode k[c] zum Objekt r[b]
+  static final int CALL_METHOD = 26; // r[a] = r[b].r[c](r[d] .. r[d+e-1])
+  static final int NEW_OBJECT = 27; // r[a] = neues Objekt k[b], Konstruktor k[c](r[d] ..)
+  static final int RET = 28; // return r[a]
+  static final int RET_VOID = 29; // return
+
+  // Objekte
+  static final int GET_FIELD = 30; // r[a] = r[b].k[c]
+  static final int SET_FIELD = 31; // r[a].k[b] = r[c]
+
+  // Built-ins: r[a] = k[b](r[c] .. r[c+d-1]), Ergebnis verworfen bei a = -1
+  static final int CALL_BUILTIN = 32;
+
+  // Fehler und Prüfungen
+  static final int THROW = 33; // Fehler der Art a mit Meldung k[b]
+  // Felder des eigenen Objekts (r[0]) in Methoden und Konstruktoren
+  static final int LOAD_SELF = 34; // r[a] = r[0].slot[n]
+  static final int STORE_SELF = 35; // r[0].slot[n] = r[b]
+  // Wertkopie eines Objekts (copy-on-write), als Klasse k[c] gesehen
+  static final int COPY_OBJECT = 36; // r[a] = Kopie von r[b]
+
+  static final String[] NAMES = {
+    "CONST",
+    "MOVE",
+    "LOAD_CELL",
+    "STORE_CELL",
+    "NEW_CELL",
+    "NEW_REF",
+    "ADD",
+    "SUB",
+    "MUL",
+    "DIV",
+    "MOD",
+    "EQ",
+    "NEQ",
+    "LT",
+    "LE",
+    "GT",
+    "GE",
+    "NEG",
+    "POS",
+    "NOT",
+    "TO_BOOL",
+    "JMP",
+    "JMP_FALSE",
+    "JMP_TRUE",
+    "CALL",
+    "RESOLVE_METHOD",
+    "CALL_METHOD",
+    "NEW_OBJECT",
+    "RET",
+    "RET_VOID",
+    "GET_FIELD",
+    "SET_FIELD",
+    "CALL_BUILTIN",
+    "THROW",
+    "LOAD_SELF",
+    "STORE_SELF",
+    "COPY_OBJECT"
+  };
+
+  static final String[] OPERANDS = {
+    "rk", "rr", "rr", "rr", "rrk", "rk", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr",
+    "rrr", "rrr", "rrr", "rr", "rr", "rr", "rr", "j", "rj", "rj", "rkrn", "rrk", "rrrrn", "rkkrn",
+    "r", "", "rrk", "rkr", "rkrn", "nk", "rn", "nr", "rrk"
+  };
+
+  // Fehlerarten für THROW
+  static final int ERROR_RUNTIME = 0;
+  static final int ERROR_SEMANTIC = 1;
+  static final int ERROR_INDEX = 2;
+
+  static int length(int opcode) {
+    return 1 + OPERANDS[opcode].length();
+  }
+}
@@ -0,0 +1,373 @@
+package vm;
+
+import ast.Program;
+import ast.decl.ClassDecl;
+import ast.decl.ConstructorDecl;
+import ast.decl.FunctionDecl;
+import ast.decl.MethodDecl;
+import builtin.Builtin;
+import interpreter.Engine;
+import interpreter.RuntimeValue;
+import interpreter.Values;
+import semantic.SemanticException;
+import semantic.Symbol;
+import semantic.SymbolTable;
+
+// Register-VM: führt den Bytecode des BytecodeCompiler in einer einzigen Dispatch-Schleife aus.
+// MiniCpp-Aufrufe legen einen neuen Frame auf einen eigenen Stack (verkettete Frames im Heap),
+// die JVM-Aufruftiefe bleibt dabei konstant. Die Semantik entspricht dem Interpreter.
+public class VM implements Engine {
+  private BytecodeCompiler compiler;
+  private boolean disassemble;
+
+  public VM(SymbolTable symbolTable) {
+    this.compiler = new BytecodeCompiler(symbolTable);
+  }
+
+  // Bytecode aller Funktionen und Methoden vor der Ausführung ausgeben
+  public void setDisassemble(boolean disassemble) {
+    this.disassemble = disassemble;
+  }
+
+  @Override
+  public Object execute(Program program) {
+    if (disassemble) {
+      printBytecode(program);
+    }
+    FunctionDecl mainFunc = program.getMainFunction();
+    if (mainFunc != null) {
+      return run(compiler.compileFunction(mainFunc));
+    }
+    return null;
+  }
+
+  private void printBytecode(Program program) {
+    for (ClassDecl cls : program.getClasses()) {
+      for (ConstructorDecl ctor : cls.getConstructors()) {
+        System.out.print(Disassembler.disassemble(compiler.compileConstructor(ctor)));
+      }
+      for (MethodDecl method : cls.getMethods()) {
+        System.out.print(Disassembler.disassemble(compiler.compileMethod(method)));
+      }
+    }
+    for (FunctionDecl func : program.getFunctions()) {
+      System.out.print(Disassembler.disassemble(compiler.compileFunction(func)));
+    }
+  }
+
+  // Aktivierung einer Funktion, Methode oder eines Konstruktors
+  private static final class Frame {
+    private final Chunk chunk;
+    private final Object[] regs;
+    private final Frame caller;
+    private int pc; // Rücksprungadresse, solange ein Aufruf läuft
+    private int returnReg;
+    private RuntimeValue object; // nur bei Konstruktoren: Ergebnis des Aufrufs
+
+    Frame(Chunk chunk, Object[] regs, Frame caller) {
+      this.chunk = chunk;
+      this.regs = regs;
+      this.caller = caller;
+    }
+  }
+
+  private Object run(Chunk entry) {
+    Frame frame = new Frame(entry, new Object[entry.numRegisters], null);
+    int[] code = entry.code;
+    Object[] k = entry.constants;
+    Object[] r = frame.regs;
+    int pc = 0;
+
+    while (true) {
+      switch (code[pc]) {
+        case Opcode.CONST:
+          r[code[pc + 1]] = k[code[pc + 2]];
+          pc += 3;
+          break;
+        case Opcode.MOVE:
+          r[code[pc + 1]] = r[code[pc + 2]];
+          pc += 3;
+          break;
+        case Opcode.LOAD_CELL:
+          r[code[pc + 1]] = ((Symbol) r[code[pc + 2]]).getValue();
+          pc += 3;
+          break;
+        case Opcode.STORE_CELL:
+          ((Symbol) r[code[pc + 1]]).setValue(r[code[pc + 2]]);
+          pc += 3;
+          break;
+        case Opcode.NEW_CELL:
+          {
+            Chunk.CellInfo info = (Chunk.CellInfo) k[code[pc + 3]];
+            Symbol cell = new Symbol(info.name, info.type);
+            cell.setValue(r[code[pc + 2]]);
+            r[code[pc + 1]] = cell;
+            pc += 4;
+            break;
+          }
+        case Opcode.NEW_REF:
+          {
+            Chunk.CellInfo info = (Chunk.CellInfo) k[code[pc + 2]];
+            r[code[pc + 1]] = new Symbol(info.name, info.type);
+            pc += 3;
+            break;
+          }
+
+        case Opcode.ADD:
+          {
+            Object left = r[code[pc + 2]];
+            Object right = r[code[pc + 3]];
+            if (Values.isString(left) || Values.isString(right)) {
+              r[code[pc + 1]] = Values.concat(left, right);
+            } else {
+              r[code[pc + 1]] = Values.toInt(left) + Values.toInt(right);
+            }
+            pc += 4;
+            break;
+          }
+        case Opcode.SUB:
+          r[code[pc + 1]] = Values.toInt(r[code[pc + 2]]) - Values.toInt(r[code[pc + 3]]);
+          pc += 4;
+          break;
+        case Opcode.MUL:
+          r[code[pc + 1]] = Values.toInt(r[code[pc + 2]]) * Values.toInt(r[code[pc + 3]]);
+          pc += 4;
+          break;
+        case Opcode.DIV:
+          {
+            int divisor = Values.toInt(r[code[pc + 3]]);
+            if (divisor == 0) {
+              throw new RuntimeException("Division durch 0");
+            }
+            r[code[pc + 1]] = Values.toInt(r[code[pc + 2]]) / divisor;
+            pc += 4;
+            break;
+          }
+        case Opcode.MOD:
+          {
+            int mod = Values.toInt(r[code[pc + 3]]);
+            if (mod == 0) {
+              throw new RuntimeException("Modulo durch 0");
+            }
+            r[code[pc + 1]] = Values.toInt(r[code[pc + 2]]) % mod;
+            pc += 4;
+            break;
+          }
+        case Opcode.EQ:
+          r[code[pc + 1]] = Values.equals(r[code[pc + 2]], r[code[pc + 3]]);
+          pc += 4;
+          break;
+        case Opcode.NEQ:
+          r[code[pc + 1]] = !Values.equals(r[code[pc + 2]], r[code[pc + 3]]);
+          pc += 4;
+          break;
+        case Opcode.LT:
+          r[code[pc + 1]] = Values.compare(r[code[pc + 2]], r[code[pc + 3]]) < 0;
+          pc += 4;
+          break;
+        case Opcode.LE:
+          r[code[pc + 1]] = Values.compare(r[code[pc + 2]], r[code[pc + 3]]) <= 0;
+          pc += 4;
+          break;
+        case Opcode.GT:
+          r[code[pc + 1]] = Values.compare(r[code[pc + 2]], r[code[pc + 3]]) > 0;
+          pc += 4;
+          break;
+        case Opcode.GE:
+          r[code[pc + 1]] = Values.compare(r[code[pc + 2]], r[code[pc + 3]]) >= 0;
+          pc += 4;
+          break;
+
+        case Opcode.NEG:
+          r[code[pc + 1]] = -Values.toInt(r[code[pc + 2]]);
+          pc += 3;
+          break;
+        case Opcode.POS:
+          r[code[pc + 1]] = Values.toInt(r[code[pc + 2]]);
+          pc += 3;
+          break;
+        case Opcode.NOT:
+          r[code[pc + 1]] = !Values.toBoolean(r[code[pc + 2]]);
+          pc += 3;
+          break;
+        case Opcode.TO_BOOL:
+          r[code[pc + 1]] = Values.toBoolean(r[code[pc + 2]]);
+          pc += 3;
+          break;
+
+        case Opcode.JMP:
+          pc = code[pc + 1];
+          break;
+        case Opcode.JMP_FALSE:
+          pc = Values.toBoolean(r[code[pc + 1]]) ? pc + 3 : code[pc + 2];
+          break;
+        case Opcode.JMP_TRUE:
+          pc = Values.toBoolean(r[code[pc + 1]]) ? code[pc + 2] : pc + 3;
+          break;
+
+        case Opcode.CALL:
+          {
+            Chunk callee = (Chunk) k[code[pc + 2]];
+            Object[] regs = new Object[callee.numRegisters];
+            System.arraycopy(r, code[pc + 3], regs, callee.firstParam, code[pc + 4]);
+            frame.pc = pc + 5;
+            frame.returnReg = code[pc + 1];
+            frame = new Frame(callee, regs, frame);
+            code = callee.code;
+            k = callee.constants;
+            r = regs;
+            pc = 0;
+            break;
+          }
+        case Opcode.RESOLVE_METHOD:
+          {
+            Object obj = r[code[pc + 2]];
+            if (!(obj instanceof RuntimeValue)) {
+              throw new RuntimeException("Methodenaufruf auf Nicht-Objekt");
+            }
+            r[code[pc + 1]] = resolveMethod((Chunk.MethodSite) k[code[pc + 3]], (RuntimeValue) obj);
+            pc += 4;
+            break;
+          }
+        case Opcode.CALL_METHOD:
+          {
+            RuntimeValue obj = (RuntimeValue) r[code[pc + 2]];
+            Chunk callee = (Chunk) r[code[pc + 3]];
+            Object[] regs = new Object[callee.numRegisters];
+            regs[0] = obj;
+            System.arraycopy(r, code[pc + 4], regs, callee.firstParam, code[pc + 5]);
+            frame.pc = pc + 6;
+            frame.returnReg = code[pc + 1];
+            frame = new Frame(callee, regs, frame);
+            code = callee.code;
+            k = callee.constants;
+            r = regs;
+            pc = 0;
+            break;
+          }
+        case Opcode.NEW_OBJECT:
+          {
+            Chunk.ClassInfo info = (Chunk.ClassInfo) k[code[pc + 2]];
+            RuntimeValue obj = new RuntimeValue(info.cls);
+            if (code[pc + 3] < 0) {
+              r[code[pc + 1]] = obj;
+              pc += 6;
+              break;
+            }
+            Chunk callee = (Chunk) k[code[pc + 3]];
+            Object[] regs = new Object[callee.numRegisters];
+            regs[0] = obj;
+            System.arraycopy(r, code[pc + 4], regs, callee.firstParam, code[pc + 5]);
+            frame.pc = pc + 6;
+            frame.returnReg = code[pc + 1];
+            frame = new Frame(callee, regs, frame);
+            frame.object = obj;
+            code = callee.code;
+            k = callee.constants;
+            r = regs;
+            pc = 0;
+            break;
+          }
+        case Opcode.RET:
+        case Opcode.RET_VOID:
+          {
+            Object value = code[pc] == Opcode.RET ? r[code[pc + 1]] : null;
+            if (frame.object != null) {
+              value = frame.object;
+            }
+            frame = frame.caller;
+            if (frame == null) {
+              return value;
+            }
+            code = frame.chunk.code;
+            k = frame.chunk.constants;
+            r = frame.regs;
+            pc = frame.pc;
+            r[frame.returnReg] = value;
+            break;
+          }
+
+        case Opcode.GET_FIELD:
+          {
+            Object obj = r[code[pc + 2]];
+            if (!(obj instanceof RuntimeValue)) {
+              throw new RuntimeException("Feldzugriff auf Nicht-Objekt");
+            }
+            r[code[pc + 1]] =
+                ((RuntimeValue) obj).getField(((Chunk.FieldSite) k[code[pc + 3]]).access);
+            pc += 4;
+            break;
+          }
+        case Opcode.SET_FIELD:
+          {
+            Object obj = r[code[pc + 1]];
+            if (obj instanceof RuntimeValue) {
+              ((RuntimeValue) obj)
+                  .setField(((Chunk.FieldSite) k[code[pc + 2]]).access, r[code[pc + 3]]);
+            }
+            pc += 4;
+            break;
+          }
+
+        case Opcode.CALL_BUILTIN:
+          {
+            Object[] args = new Object[code[pc + 4]];
+            System.arraycopy(r, code[pc + 3], args, 0, args.length);
+            Object result = ((Builtin) k[code[pc + 2]]).invoke(args);
+            if (code[pc + 1] >= 0) {
+              r[code[pc + 1]] = result;
+            }
+            pc += 5;
+            break;
+          }
+
+        case Opcode.THROW:
+          {
+            String message = (String) k[code[pc + 2]];
+            switch (code[pc + 1]) {
+              case Opcode.ERROR_SEMANTIC:
+                throw new SemanticException(message);
+              case Opcode.ERROR_INDEX:
+                throw new IndexOutOfBoundsException(message);
+              default:
+                throw new RuntimeException(message);
+            }
+          }
+        case Opcode.LOAD_SELF:
+          r[code[pc + 1]] = ((RuntimeValue) r[0]).getSlot(code[pc + 2]);
+          pc += 3;
+          break;
+        case Opcode.STORE_SELF:
+          ((RuntimeValue) r[0]).setSlot(code[pc + 1], r[code[pc + 2]]);
+          pc += 3;
+          break;
+        case Opcode.COPY_OBJECT:
+          r[code[pc + 1]] =
+              Values.copyObject(r[code[pc + 2]], ((Chunk.ClassInfo) k[code[pc + 3]]).cls);
+          pc += 4;
+          break;
+
+        default:
+          throw new IllegalStateException("Unbekannter Opcode " + code[pc] + " bei " + pc);
+      }
+    }
+  }
+
+  private Chunk resolveMethod(Chunk.MethodSite site, RuntimeValue obj) {
+    ClassDecl cls = obj.getClassDecl();
+    MethodDecl method = site.call.dispatch(cls);
+    if (method == null) {
+      throw new RuntimeException(
+          "Methode '"
+              + site.call.getMethodName()
+              + "' nicht gefunden in Klasse '"
+              + cls.getName()
+              + "'");
+    }
+    if (site.lastMethod != method) {
+      site.lastMethod = method;
+      site.lastChunk = compiler.compileMethod(method);
+    }
+    return site.lastChunk;
+  }
+}
@@ -1,6 +1,9 @@
 #ifndef HSBI_RUNTIME_H
 #define HSBI_RUNTIME_H
 
+#include <algorithm>
+#include <chrono>
+#include <cstdlib>
 #include <iostream>
 #include <string>
 
@@ -11,4 +14,12 @@ inline void print_bool(bool v)     { cout << (v ? 1 : 0) << endl; }
 inline void print_char(char v)     { cout << v << endl; }
 inline void print_string(string v) { cout << v << endl; }
 
+// abs, min und max kommen aus <cstdlib> und <algorithm>
+inline int str_length(string s)    { return (int) s.length(); }
+inline char str_at(string s, int i) { return s.at(i); }
+inline int time_ms() {
+    static const auto start = chrono::steady_clock::now();
+    return (int) chrono::duration_cast<chrono::milliseconds>(chrono::steady_clock::now() - start).count();
+}
+
 #endif // HSBI_RUNTIME_H
@@ -0,0 +1,8 @@
+int main() {
+    int x = 1;
+    if (x > 0) {
+        break; // Fehler: break außerhalb einer Schleife
+    }
+
+    return 0;
+}
@@ -0,0 +1,15 @@
+class A {
+public:
+    int x;
+    B b;   // enthält über B wieder ein A
+};
+
+class B {
+public:
+    A a; // Fehler: A enthält sich selbst
+};
+
+int main() {
+    A a;
+    return 0;
+}
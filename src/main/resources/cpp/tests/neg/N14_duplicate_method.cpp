@@ -0,0 +1,11 @@
+class A {
+public:
+    int f(int x) { return 1; }
+    int f(int y) { return 2; }   // Fehler: f(int) gibt es schon
+};
+
+int main() {
+    A a;
+    a.f(1);
+    return 0;
+}
@@ -0,0 +1,49 @@
+#include "hsbi_runtime.h"
+
+// Built-ins aus der BuiltinRegistry: Ganzzahl-Hilfen und Strings
+
+int spread(int a, int b, int c) {
+    return max(a, max(b, c)) - min(a, min(b, c));
+}
+
+int count(string s, char c) {
+    int n = 0;
+    int i = 0;
+    while (i < str_length(s)) {
+        if (str_at(s, i) == c) {
+            n = n + 1;
+        }
+        i = i + 1;
+    }
+    return n;
+}
+
+int main() {
+    print_int(abs(-7));             // 7
+    print_int(spread(3, -4, 10));   // 14
+
+    int sum = 0;
+    int i = 0;
+    while (i < 5) {
+        sum = sum + abs(i - 2);
+        i = i + 1;
+    }
+    print_int(sum);                 // 6
+
+    string s = "banana";
+    print_int(str_length(s));       // 6
+    print_char(str_at(s, 0));       // b
+    print_int(count(s, 'a'));       // 3
+    print_bool(min(1, 2) == 1);     // 1
+
+    return 0;
+}
+/* EXPECT:
+7
+14
+6
+6
+b
+3
+1
+*/
@@ -0,0 +1,123 @@
+#include "hsbi_runtime.h"
+
+// return mitten in der Schleife
+int firstDivisor(int n) {
+    int d = 2;
+    while (d * d <= n) {
+        if (n % d == 0) {
+            return d;
+        }
+        d = d + 1;
+    }
+    return n;
+}
+
+// Endlosschleife, die nur break verlässt
+int sumOdd(int n) {
+    int i = 0;
+    int s = 0;
+    while (true) {
+        i = i + 1;
+        if (i > n) {
+            break;
+        }
+        if (i % 2 == 0) {
+            continue;
+        }
+        s = s + i;
+    }
+    return s;
+}
+
+// break und continue gelten nur für die innerste Schleife
+int nested(int n) {
+    int count = 0;
+    int i = 0;
+    while (i < n) {
+        i = i + 1;
+        int j = 0;
+        while (true) {
+            j = j + 1;
+            if (j > i) {
+                break;
+            }
+            if (j % 3 == 0) {
+                continue;
+            }
+            count = count + 1;
+        }
+        if (i > 40) {
+            break;
+        }
+    }
+    return count;
+}
+
+// nach break gilt die letzte Zuweisung im Rumpf
+int lastWritten(int n) {
+    int x = 0;
+    int i = 0;
+    while (i < n) {
+        i = i + 1;
+        x = i * 2;
+        if (i == 5) {
+            break;
+        }
+        x = 0;
+    }
+    return x;
+}
+
+class Counter {
+public:
+    int n;
+    Counter() { n = 0; }
+    int countTo(int limit) {
+        int i = 0;
+        while (true) {
+            if (i == limit) {
+                break;
+            }
+            i = i + 1;
+            if (i % 2 == 1) {
+                continue;
+            }
+            n = n + 1;
+        }
+        return n;
+    }
+};
+
+int main() {
+    print_int(firstDivisor(91));    // 7
+    print_int(sumOdd(5000));        // 6250000
+    print_int(nested(100));         // 588
+    print_int(lastWritten(100));    // 10
+
+    Counter c;
+    print_int(c.countTo(3001));     // 1500
+
+    int k = 0;
+    int total = 0;
+    while (k < 100000) {
+        k = k + 1;
+        if (k % 7 == 0) {
+            continue;
+        }
+        total = total + 1;
+        if (total == 50000) {
+            break;
+        }
+    }
+    print_int(k);                   // 58333
+
+    return 0;
+}
+/* EXPECT (Zeile für Zeile):
+7
+6250000
+588
+10
+1500
+58333
+*/
@@ -0,0 +1,60 @@
+#include "hsbi_runtime.h"
+
+class Counter {
+public:
+  int v;
+  Counter() { v = 10; print_int(1); }
+  void inc() { v = v + 1; }
+};
+
+class Pair {
+public:
+  Counter a;
+  int n;
+  Pair() { n = 3; print_int(2); }   // a ist vor dem Rumpf angelegt
+};
+
+// Ohne Konstruktor: Felder werden trotzdem über ihre Standardkonstruktoren angelegt
+class Holder {
+public:
+  Pair q;
+  Counter p;
+};
+
+class Derived : public Holder {
+public:
+  Counter g;
+  Derived() { print_int(3); }       // auch die geerbten Felder q und p
+};
+
+int main() {
+  Holder h;                  // 1 2 1
+  h.p.inc();                 // Methodenaufruf auf dem Feld, nicht auf null
+  print_int(h.p.v);          // 11
+  print_int(h.q.a.v + h.q.n); // 13
+
+  Holder k = h;              // Kopie samt enthaltener Objekte
+  k.p.inc();
+  print_int(h.p.v);          // 11
+  print_int(k.p.v);          // 12
+
+  Derived d;                 // 1 2 1 1 3
+  d.q.a.inc();
+  print_int(d.q.a.v + d.g.v + d.p.v); // 31
+  return 0;
+}
+/* EXPECT (Zeile für Zeile):
+1
+2
+1
+11
+13
+11
+12
+1
+2
+1
+1
+3
+31
+*/
@@ -0,0 +1,755 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import ast.Expression;
+import ast.Program;
+import ast.Statement;
+import ast.decl.ClassDecl;
+import ast.decl.FunctionDecl;
+import ast.expr.AssignExpr;
+import ast.expr.IdentifierExpr;
+import ast.expr.MemberAccessExpr;
+import ast.stmt.ExprStmt;
+import ast.stmt.VarDeclStmt;
+import builtin.BuiltinRegistry;
+import interpreter.CallSiteStats;
+import interpreter.ClosureCompiler;
+import interpreter.Engine;
+import interpreter.Interpreter;
+import interpreter.TieredInterpreter;
+import ir.IrFunction;
+import ir.IrInterpreter;
+import ir.IrPrinter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jit.JitInterpreter;
+import optimizer.ConstantFolder;
+import optimizer.DeadCodeEliminator;
+import optimizer.DeadStoreEliminator;
+import optimizer.Inliner;
+import optimizer.LoopInvariantHoister;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import semantic.Resolver;
+import semantic.SemanticAnalyzer;
+import semantic.SemanticException;
+import semantic.SymbolTable;
+import vm.VM;
+
+// Alle Ausführungsarten müssen auf den Positivtests dieselbe Ausgabe liefern wie der Tree-Walker
+class EngineTest {
+  private static final Path POS_TESTS = Path.of("src/main/resources/cpp/tests/pos");
+  private static final Path NEG_TESTS = Path.of("src/main/resources/cpp/tests/neg");
+
+  static Stream<Path> positiveTests() throws IOException {
+    return Files.list(POS_TESTS).filter(p -> p.toString().endsWith(".cpp")).sorted();
+  }
+
+  static Stream<Path> negativeTests() throws IOException {
+    return Files.list(NEG_TESTS).filter(p -> p.toString().endsWith(".cpp")).sorted();
+  }
+
+  // Negativtests scheitern an der Analyse, bevor etwas ausgeführt wird
+  @ParameterizedTest
+  @MethodSource("negativeTests")
+  void negativeTestsAreRejected(Path file) throws IOException {
+    SymbolTable symbolTable = new SymbolTable();
+    Program program = parse(Files.readString(file), symbolTable);
+    assertThrows(SemanticException.class, () -> new SemanticAnalyzer(symbolTable).analyze(program));
+  }
+
+  // Der Tree-Walker gibt aus, was der EXPECT-Block am Ende der Datei verlangt (die Ausgabe von
+  // g++ mit hsbi_runtime.h); die übrigen Ausführungsarten vergleichen gegen ihn
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void treeWalkerPrintsExpectedOutput(Path file) throws IOException {
+    String code = Files.readString(file);
+    for (boolean optimize : new boolean[] {false, true}) {
+      String output = programOutput(run(code, Interpreter::new, optimize));
+      assertFalse(output.contains("Fehler:"), output);
+      assertEquals(expectedOutput(code), output, "optimiert: " + optimize);
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void closureMatchesTreeWalker(Path file) throws IOException {
+    String code = Files.readString(file);
+    assertEquals(run(code, Interpreter::new), run(code, ClosureCompiler::new));
+  }
+
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void vmMatchesTreeWalker(Path file) throws IOException {
+    String code = Files.readString(file);
+    assertEquals(run(code, Interpreter::new), run(code, VM::new));
+  }
+
+  // Schwelle 1: alles, was der JIT abdeckt, läuft übersetzt
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void jitMatchesTreeWalker(Path file) throws IOException {
+    String code = Files.readString(file);
+    Function<SymbolTable, Engine> jit =
+        symbolTable -> {
+          JitInterpreter interpreter = new JitInterpreter(symbolTable);
+          interpreter.setCallThreshold(1);
+          return interpreter;
+        };
+    assertEquals(run(code, Interpreter::new), run(code, jit));
+  }
+
+  // Der JIT übersetzt erst ab der Schwelle; main und einmal gerufene Funktionen bleiben kalt
+  @Test
+  void jitCompilesOnlyHotFunctions() {
+    String code =
+        "int sq(int x) { return x * x; }\n"
+            + "int once(int x) { return x + 1; }\n"
+            + "int main() { int s = 0; int i = 0; while (i < 10) { s = s + sq(i); i = i + 1; }"
+            + " print_int(once(s)); return 0; }";
+    Function<SymbolTable, Engine> jit =
+        symbolTable -> {
+          JitInterpreter interpreter = new JitInterpreter(symbolTable);
+          interpreter.setCallThreshold(5);
+          interpreter.setLog(true);
+          return interpreter;
+        };
+    PrintStream original = System.err;
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    System.setErr(new PrintStream(log, true));
+    try {
+      assertTrue(run(code, jit).endsWith("286"));
+    } finally {
+      System.setErr(original);
+    }
+    assertEquals("JIT: sq kompiliert (1 Funktionen)", log.toString().strip());
+  }
+
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void irMatchesTreeWalker(Path file) throws IOException {
+    String code = Files.readString(file);
+    assertEquals(run(code, Interpreter::new), run(code, IrInterpreter::new));
+  }
+
+  // Niedrige Schwellen, damit Stufenwechsel und OSR auch in kleinen Programmen vorkommen
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void tieredMatchesTreeWalker(Path file) throws IOException {
+    String code = Files.readString(file);
+    Function<SymbolTable, Engine> tiered =
+        symbolTable -> {
+          TieredInterpreter interpreter = new TieredInterpreter(symbolTable);
+          interpreter.setCallThreshold(2);
+          interpreter.setLoopThreshold(2);
+          return interpreter;
+        };
+    assertEquals(run(code, Interpreter::new), run(code, tiered));
+  }
+
+  // OSR mitten in verschachtelten Schleifen: break und continue der inneren und äußeren Schleife,
+  // return aus der inneren, jeweils nach unterschiedlich vielen Durchläufen im Tree-Walker
+  @Test
+  void breakAndContinueSurviveOsr() {
+    String code =
+        "int scan(int n) { int found = -1; int i = 0; while (i < n) { i = i + 1; if (i % 3 == 0)"
+            + " { continue; } int j = 0; while (true) { j = j + 1; if (j > i) { break; } if (j =="
+            + " 7) { continue; } found = found + j; } if (found > 500) { break; } } return found *"
+            + " 1000 + i; }\n"
+            + "int firstSquare(int limit) { int i = 0; while (i < limit) { int j = 0; while (j <"
+            + " i) { if (j * j == i && j > 5) { return i; } j = j + 1; } i = i + 1; } return -1;"
+            + " }\n"
+            + "int main() { print_int(scan(100)); print_int(firstSquare(1000)); int k = 0; int s ="
+            + " 0; while (k < 50) { k = k + 1; if (k % 2 == 0) { continue; } if (k > 40) { break;"
+            + " } s = s + k; } print_int(s); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("64201736400"), expected);
+    for (int threshold : new int[] {1, 2, 3, 5, 8}) {
+      Function<SymbolTable, Engine> osr =
+          symbolTable -> {
+            TieredInterpreter interpreter = new TieredInterpreter(symbolTable);
+            interpreter.setCallThreshold(1000);
+            interpreter.setLoopThreshold(threshold);
+            return interpreter;
+          };
+      assertEquals(expected, run(code, osr), "Schwelle " + threshold);
+    }
+  }
+
+  // Die Optimierungen dürfen an der Ausgabe nichts ändern
+  @ParameterizedTest
+  @MethodSource("positiveTests")
+  void optimizedMatchesUnoptimized(Path file) throws IOException {
+    String code = Files.readString(file);
+    assertEquals(run(code, Interpreter::new, false), run(code, Interpreter::new, true));
+  }
+
+  // Skalare Werte werden beim Speichern, Übergeben und Zurückgeben in den Zieltyp umgewandelt;
+  // int rechnet mit Überlauf wie Java, / und % runden zur Null
+  @Test
+  void scalarValuesConvertToTheirStaticType() {
+    String code =
+        "char next(int v) { bool b = v; char c = v + 1; if (b) { return c; } return 'z'; }\n"
+            + "int code(char c) { int r = c; return r * 2; }\n"
+            + "int main() { int i = 98; char d = i; bool b = i; int x = 'a'; print_int(d + 1);"
+            + " print_bool(d == 'b'); print_bool(b == true); print_int(x); print_char(d);"
+            + " print_char(next(96)); print_int(code(next(0))); print_char(i); d = 99;"
+            + " print_char(d); int big = 2147483647; print_int(big + 1); print_int(-7 / 2);"
+            + " print_int(-7 % 2); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("991197ba244bc-2147483648-3-1"), expected);
+    Function<SymbolTable, Engine> jit =
+        symbolTable -> {
+          JitInterpreter interpreter = new JitInterpreter(symbolTable);
+          interpreter.setCallThreshold(1);
+          return interpreter;
+        };
+    assertEquals(expected, run(code, jit));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Konstante Division durch 0 wird nicht gefaltet, der Fehler kommt erst bei der Ausführung
+  @Test
+  void foldingKeepsDivisionByZero() {
+    String code =
+        "int main() { print_int(1 + 2 * 3); if (1 < 2) { print_int(7 / (2 - 2)); } return 0; }";
+    assertTrue(run(code, Interpreter::new, true).endsWith("7Fehler: Division durch 0"));
+  }
+
+  // Tote Zuweisungen behalten Aufrufe und Divisionen; von main aus unerreichbare Funktionen und
+  // Klassen fallen weg, Basisklassen und Ziele des Slicings bleiben
+  @Test
+  void deadCodeRemovalKeepsEffectsAndBases() {
+    String code =
+        "class Unused { public: int u; Unused() { u = 1; } };\n"
+            + "class Base { public: int x; Base() { x = 1; } virtual int who() { return 1; } };\n"
+            + "class Mid : public Base { public: Mid() { x = 2; } virtual int who() { return 2; }"
+            + " };\n"
+            + "class Leaf : public Mid { public: Leaf() { x = 3; } virtual int who() { return"
+            + " helper(); } };\n"
+            + "int helper() { return 3; }\n"
+            + "int unusedHelper() { Unused u; return u.u; }\n"
+            + "int unused() { return unusedHelper(); }\n"
+            + "int noisy(int v) { print_int(v); return v; }\n"
+            + "int main() { Leaf l; Mid m = l; Base& r = l; int d = 0; int a = noisy(1); a ="
+            + " noisy(2); int k = 5 * 3; k = 4; print_int(m.who()); print_int(r.who());"
+            + " print_int(m.x); int z = 7 / d; print_int(9); return 0; }";
+    Program[] optimized = new Program[1];
+    Function<SymbolTable, Engine> engine =
+        symbolTable ->
+            program -> {
+              optimized[0] = program;
+              return new Interpreter(symbolTable).execute(program);
+            };
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("12233Fehler: Division durch 0"), expected);
+    assertEquals(expected, run(code, engine, true));
+
+    Program program = optimized[0];
+    List<String> functions = new ArrayList<>();
+    for (FunctionDecl func : program.getFunctions()) {
+      functions.add(func.getName());
+    }
+    assertEquals(List.of("helper", "noisy", "main"), functions);
+    List<String> classes = new ArrayList<>();
+    for (ClassDecl cls : program.getClasses()) {
+      classes.add(cls.getName());
+    }
+    assertEquals(List.of("Base", "Mid", "Leaf"), classes);
+    // k wird nie gelesen, 5 * 3 und k = 4 fallen ganz weg
+    for (Statement stmt : program.getMainFunction().getBody().getStatements()) {
+      if (stmt instanceof VarDeclStmt && ((VarDeclStmt) stmt).getName().equals("k")) {
+        assertNull(((VarDeclStmt) stmt).getInitializer());
+      }
+      if (stmt instanceof ExprStmt && ((ExprStmt) stmt).getExpression() instanceof AssignExpr) {
+        Expression target = ((AssignExpr) ((ExprStmt) stmt).getExpression()).getTarget();
+        assertFalse(
+            target instanceof IdentifierExpr && ((IdentifierExpr) target).getName().equals("k"));
+      }
+    }
+  }
+
+  // Nicht invariant: Werte, die die Schleife über eine Referenz, einen Alias oder eine Methode
+  // ändert. Was werfen kann, bleibt in Rümpfen, die nie oder nur bedingt laufen, und in einer
+  // Bedingung hinter &&.
+  @Test
+  void loopHoistingRespectsAliasesAndErrors() {
+    String code =
+        "class C { public: int n; C() { n = 1; } int get() { return n; } void inc() { n = n +"
+            + " 1; } };\n"
+            + "void bump(int& v) { v = v + 1; }\n"
+            + "int main() { int x = 1; int& rx = x; int y = 1; C c; C& r = c; C e; string t ="
+            + " \"abc\"; int d = 0; int s = 0; int i = 0;\n"
+            + "while (i < 3) { s = s + x * 10 + c.n * 100 + y * 1000 + e.get() * 10000; rx = rx +"
+            + " 1; r.n = r.n + 1; bump(y); e.inc(); i = i + 1; } print_int(s);\n"
+            + "while (i < 0) { s = s + 7 / d + str_length(t) + str_at(t, 10); }\n"
+            + "while (i < 6) { if (i > 7) { s = s + 7 / d + str_at(t, 10); } s = s + 1; i = i +"
+            + " 1; }\n"
+            + "while (i < 0 && str_at(t, 10) == 'x') { s = s + 1; } print_int(s); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("6666066663"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Eingesetzte Rümpfe: return mitten im Rumpf, Referenz-Parameter, Felder über das Objekt
+  @Test
+  void inliningKeepsReturnsReferencesAndFields() {
+    String code =
+        "class C { public: int n; C() { n = 1; } int get() { return n; } void add(int d) { if (d"
+            + " < 0) { return; } n = n + d; } };\n"
+            + "int sign(int x) { if (x < 0) return -1; if (x == 0) return 0; return 1; }\n"
+            + "void inc(int& r) { r = r + 1; }\n"
+            + "int main() { C c = C(); c.add(-5); c.add(4); int k = c.get(); inc(k); inc(k);"
+            + " print_int(k); print_int(sign(-k) + 10 * sign(0) + 100 * sign(k)); return 0; }";
+    assertEquals("799", run(code, Interpreter::new, true).replaceAll("(?s).*\n", ""));
+    assertEquals(run(code, Interpreter::new, false), run(code, Interpreter::new, true));
+  }
+
+  // SCCP sieht, dass der Zweig nie genommen wird: x bleibt über Verzweigung und Schleife 1
+  @Test
+  void constantPropagationFoldsAcrossJoins() {
+    String code =
+        "int f(int n) { int x = 1; int i = 0; while (i < n) { if (x != 1) { x = 2; } i = i + 1;"
+            + " } return x * 10; }\n"
+            + "int main() { print_int(f(3)); return 0; }";
+    IrFunction[] ir = new IrFunction[1];
+    Function<SymbolTable, Engine> engine =
+        symbolTable ->
+            program -> {
+              IrInterpreter interpreter = new IrInterpreter(symbolTable);
+              ir[0] = interpreter.functionFor(program.getFunctions().get(0));
+              return interpreter.execute(program);
+            };
+    assertTrue(run(code, engine).endsWith("10"));
+    String listing = IrPrinter.print(ir[0]);
+    assertTrue(listing.contains("return 10"), listing);
+    assertFalse(listing.contains("neq"), listing);
+    // Nur i braucht noch ein Phi
+    assertEquals(2, listing.split(" = phi ", -1).length, listing);
+  }
+
+  // Objekte, die main nie verlassen, werden nicht angelegt; der Konstruktor ist eingesetzt
+  @Test
+  void nonEscapingObjectsAreScalarReplaced() {
+    String code =
+        "class P { public: int x; int y; P(int a, int b) { x = a; if (b > 2) { y = b; } } };\n"
+            + "int main() { int s = 0; int i = 0; while (i < 5) { P p = P(i, 2 * i); p.x = p.x +"
+            + " p.y; s = s + p.x; i = i + 1; } P q = P(1, 1); print_int(s + q.y); return 0; }";
+    IrFunction[] ir = new IrFunction[1];
+    Function<SymbolTable, Engine> engine =
+        symbolTable ->
+            program -> {
+              IrInterpreter interpreter = new IrInterpreter(symbolTable);
+              ir[0] = interpreter.functionFor(program.getMainFunction());
+              return interpreter.execute(program);
+            };
+    assertEquals(run(code, Interpreter::new), run(code, engine));
+    String listing = IrPrinter.print(ir[0]);
+    assertFalse(listing.contains("new_object"), listing);
+    assertFalse(listing.contains("field"), listing);
+  }
+
+  // Kopien teilen Felder nur bis zum ersten Schreiben, auch enthaltene Objekte; Slicing sieht die
+  // Basisklasse
+  @Test
+  void objectsAreCopiedAsValues() {
+    String code =
+        "class I { public: int v; I() { v = 1; } };\n"
+            + "class O { public: I in; int n; O() { n = 5; in = I(); } };\n"
+            + "class B { public: int x; B() { x = 1; } virtual int who() { return 1; } };\n"
+            + "class D : public B { public: D() { x = 2; } virtual int who() { return 2; } };\n"
+            + "void bump(O o) { o.n = 100; o.in.v = 42; }\n"
+            + "int main() { O a; O b = a; b.in.v = 8; bump(a); print_int(a.n); print_int(a.in.v);"
+            + " print_int(b.in.v); I i = b.in; b.in.v = 9; print_int(i.v); D d; B s = d; d.x = 7;"
+            + " print_int(s.who()); print_int(s.x); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("518812"), expected);
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Wie in C++ (Ausgabe von g++): der Standardkonstruktor der Basis läuft vor dem Rumpf, auch
+  // ohne eigenen Konstruktor; T(x) kopiert ohne eigenen Kopierkonstruktor alle Felder
+  @Test
+  void constructorsRunTheBaseAndCopyImplicitly() {
+    String code =
+        "class M { public: int m; M() { m = 5; print_char('m'); } };\n"
+            + "class A { public: int a; M inner; A() { a = 1; print_char('A'); }"
+            + " A(int x) { a = x; print_char('a'); } virtual int get() { return a; } };\n"
+            + "class B : public A { public: int b; B() { b = a + 10; print_char('B'); }"
+            + " B(int v) { b = v; print_char('b'); } };\n"
+            + "class C : public B { public: int c; };\n"
+            + "class D { public: int d; D(int x) { d = x; } D(D& other) { d = other.d + 100; } };\n"
+            + "int main() { B x = B(7); print_int(x.a); print_int(x.b); print_int(x.inner.m);"
+            + " C y; print_int(y.a); print_int(y.b); B z = B(x); print_int(z.a); print_int(z.b);"
+            + " x.a = 3; C w = C(y); print_int(w.b); A s = A(x); print_int(s.a);"
+            + " print_int(s.get()); D d1 = D(1); D d2 = D(d1); print_int(d2.d); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("mAb175mAB111171133101"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Methoden arbeiten direkt auf den Feldern des Objekts: ein Alias des Empfängers als Argument
+  // sieht jede Änderung sofort, und was er schreibt, überschreibt die Methode nicht beim Verlassen
+  @Test
+  void methodsWriteThroughToTheReceiver() {
+    String code =
+        "class K { public: int n; K() { n = 5; } void addTo(K& other) { other.n = other.n + n;"
+            + " n = n + 1; } int bumpAndRead(K& self) { n = n + 10; return peek(self); } };\n"
+            + "int peek(K& k) { return k.n; }\n"
+            + "int main() { K k; k.addTo(k); print_int(k.n); print_int(k.bumpAndRead(k)); K other;"
+            + " other.addTo(k); print_int(k.n); print_int(other.n); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("1121266"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // int&-Parameter von Methoden und Konstruktoren binden die Variable des Aufrufers
+  @Test
+  void methodReferenceParametersBindTheCallersVariable() {
+    String code =
+        "class Counter { public: int n; Counter(int& start) { n = start; start = start + 10; }"
+            + " void add(int& delta) { n = n + delta; delta = delta * 2; }"
+            + " int take(int& x, int y) { x = x + y; return x; } };\n"
+            + "int main() { int s = 5; Counter c = Counter(s); print_int(s); int d = 3; c.add(d);"
+            + " c.add(d); print_int(d); print_int(c.n); int i = 0; int t = 0;"
+            + " while (i < 3) { t = c.take(d, i); i = i + 1; } print_int(d); print_int(t);"
+            + " return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("1512141515"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Verkettungen hängen an einen gemeinsamen Puffer an; ältere Werte sehen weiter nur ihren Anfang
+  @Test
+  void concatenationKeepsEarlierValues() {
+    String code =
+        "int main() { string s = \"\"; int i = 0; while (i < 1000) { s = s + i % 10; i = i + 1; }"
+            + " string a = s + \"x\"; string b = s + \"y\"; string c = a + a;"
+            + " print_int(str_length(c)); print_char(str_at(b, 1000)); print_bool(a == b);"
+            + " print_bool(a + \"x\" == s + \"xx\"); print_bool(\"\" + a == \"\"); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("2002y010"), expected);
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Built-ins aus einem BuiltinProvider der Testressourcen (TestBuiltins) sind in jeder
+  // Ausführungsart aufrufbar; Reinheit und Signatur kommen aus der Registrierung
+  @Test
+  void builtinsFromProvidersAreFound() {
+    assertTrue(BuiltinRegistry.getDefault().lookup("test_twice", 1).isPure());
+    assertFalse(BuiltinRegistry.getDefault().lookup("test_print_pair", 2).isPure());
+    String code =
+        "int main() { int i = 0; while (i < 3) { test_print_pair(test_twice(i + 20), 'x'); i = i"
+            + " + 1; } print_int(test_twice(test_twice(5))); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("40x42x44x20"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Namen werden über ihre Nummern gebunden: Verdecken, Überladung nach Arität, vtable-Slots
+  @Test
+  void namesBindByInternedIds() {
+    String code =
+        "class A { public: int v; A() { v = 1; } virtual int f() { return v; } virtual int f(int x)"
+            + " { return v + x; } };\n"
+            + "class B : public A { public: int w; B() { v = 2; w = 5; } virtual int f() { return v"
+            + " * 10 + w; } };\n"
+            + "int g(int x) { return x; }\n"
+            + "int g(int x, int y) { return x * y; }\n"
+            + "int main() { int x = 1; { int x = 2; print_int(x); } print_int(x); B b; A& r = b;"
+            + " print_int(r.f()); print_int(r.f(3)); print_int(g(4)); print_int(g(4, 5)); return 0;"
+            + " }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("21255420"), expected);
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Feld-Cache einer Zugriffsstelle: das fünfte und sechste Layout passen nicht mehr hinein und
+  // werden jedes Mal gesucht, mit demselben Ergebnis wie aus dem Cache
+  @Test
+  void fieldCacheOverflowFindsSlots() {
+    StringBuilder code = new StringBuilder("class Other { public: int w; };\n");
+    for (int i = 0; i < 6; i++) {
+      code.append("class K").append(i).append(" { public: ");
+      for (int j = 0; j < i; j++) {
+        code.append("int f").append(j).append("; ");
+      }
+      code.append("int v; };\n");
+    }
+    code.append("int main() { return 0; }");
+    SymbolTable symbolTable = new SymbolTable();
+    Program program = parse(code.toString(), symbolTable);
+    new SemanticAnalyzer(symbolTable).analyze(program);
+    new Resolver(symbolTable).resolve(program);
+
+    MemberAccessExpr access = new MemberAccessExpr(null, "v", program.getNames().id("v"));
+    for (int round = 0; round < 2; round++) {
+      for (ClassDecl cls : program.getClasses()) {
+        int expected = cls.getName().equals("Other") ? -1 : cls.getFields().size() - 1;
+        assertEquals(expected, access.slotIn(cls.getLayout()), cls.getName());
+      }
+    }
+  }
+
+  // Nur virtuelle Methoden gehen über die vtable: eine nicht virtuelle Methode, die eine
+  // abgeleitete Klasse neu definiert (oder erst dort virtual macht), bleibt an den statischen Typ
+  // gebunden, ebenso jeder Aufruf auf einem Wert
+  @Test
+  void nonVirtualOverridesBindStatically() {
+    String code =
+        "class A { public: int f() { return 1; } virtual int g() { return 10; } };\n"
+            + "class B : public A { public: int f() { return 2; } virtual int g() { return 20; }"
+            + " };\n"
+            + "class C : public B { public: virtual int f() { return 3; } };\n"
+            + "int viaA(A& a) { return a.f() * 10 + a.g() / 10; }\n"
+            + "int main() { C c; B b; A& ra = b; B& rb = c; A sliced = b; print_int(ra.f());"
+            + " print_int(ra.g()); print_int(b.f()); print_int(viaA(c)); print_int(rb.f());"
+            + " print_int(rb.g()); print_int(sliced.g()); print_int(c.f()); return 0; }";
+    String[] report = new String[1];
+    Function<SymbolTable, Engine> engine =
+        symbolTable ->
+            program -> {
+              Object result = new Interpreter(symbolTable).execute(program);
+              report[0] = CallSiteStats.report(program);
+              return result;
+            };
+    String expected = run(code, engine);
+    assertTrue(expected.endsWith("120212220103"), expected);
+    for (String call : new String[] {"a.f", "ra.f", "b.f", "rb.f", "sliced.g", "c.f"}) {
+      assertTrue(report[0].contains(": " + call + "/0 statisch"), report[0]);
+    }
+    for (String call : new String[] {"a.g", "ra.g", "rb.g"}) {
+      assertTrue(report[0].contains(": " + call + "/0 virtuell"), report[0]);
+    }
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Überladungen mit gleicher Parameterzahl unterscheiden sich in den Parametertypen: jede hat
+  // ihren
+  // eigenen Slot, ein Aufruf wählt nach den Typen der Argumente (Werte wie von g++)
+  @Test
+  void overloadsWithSameArityResolveByType() {
+    String code =
+        "class A { public: int f(int x) { return 1; } int f(bool x) { return 2; } virtual int"
+            + " g(int x) { return 10; } virtual int g(char x) { return 20; } };\n"
+            + "class B : public A { public: virtual int g(char x) { return 30; } };\n"
+            + "int h(int x) { return 4; }\n"
+            + "int h(char x) { return 5; }\n"
+            + "int k(int& x) { return 6; }\n"
+            + "int k(int x) { return 7; }\n"
+            + "int main() { A a; B b; A& r = b; print_int(a.f(1)); print_int(a.f(true));"
+            + " print_int(r.g(1)); print_int(r.g('c')); print_int(b.g('c')); print_int(b.g(1));"
+            + " print_int(h('a')); print_int(h(1)); print_int(k(3)); return 0; }";
+    String expected = run(code, Interpreter::new);
+    assertTrue(expected.endsWith("1210303030547"), expected);
+    assertEquals(expected, run(code, Interpreter::new, true));
+    assertEquals(expected, run(code, ClosureCompiler::new, true));
+    assertEquals(expected, run(code, VM::new, true));
+    assertEquals(expected, run(code, IrInterpreter::new, true));
+  }
+
+  // Inline-Caches virtueller Aufrufe: eine, drei und fünf Laufzeitklassen an je einer Stelle
+  @Test
+  void inlineCacheTracksReceiverClasses() {
+    String code =
+        "class S { public: virtual int id() { return 0; } };\n"
+            + "class A : public S { public: virtual int id() { return 1; } };\n"
+            + "class B : public S { public: virtual int id() { return 2; } };\n"
+            + "class C : public S { public: virtual int id() { return 3; } };\n"
+            + "class D : public S { public: virtual int id() { return 4; } };\n"
+            + "int mono(S& s) { return s.id(); }\n"
+            + "int poly(S& s) { return s.id(); }\n"
+            + "int mega(S& s) { return s.id(); }\n"
+            + "int main() { S s; A a; B b; C c; D d; int r = 0; int i = 0; while (i < 10) { r = r"
+            + " + mono(a) + poly(a) + poly(b) + poly(c) + mega(s) + mega(a) + mega(b) + mega(c) +"
+            + " mega(d); i = i + 1; } print_int(r); return 0; }";
+    String[] report = new String[1];
+    Function<SymbolTable, Engine> engine =
+        symbolTable ->
+            program -> {
+              Object result = new Interpreter(symbolTable).execute(program);
+              report[0] = CallSiteStats.report(program);
+              return result;
+            };
+    assertTrue(run(code, engine).endsWith("170"));
+    assertTrue(
+        report[0].contains("mono: s.id/0 virtuell (Slot 0), 10 Aufrufe, monomorph (9 Treffer, 1"),
+        report[0]);
+    assertTrue(
+        report[0].contains("poly: s.id/0 virtuell (Slot 0), 30 Aufrufe, polymorph (27 Treffer, 3"),
+        report[0]);
+    // Die fünfte Klasse passt nicht mehr in den Cache und fehlt bei jedem Aufruf
+    assertTrue(
+        report[0].contains("mega: s.id/0 virtuell (Slot 0), 50 Aufrufe, megamorph (36 Treffer, 14"),
+        report[0]);
+  }
+
+  // Aufrufe früherer Eingaben der REPL werden neu gebunden, sobald eine spätere Eingabe eine
+  // Funktion definiert, die ihr Built-in verdeckt; eine neue Überladung ändert ihr Ziel nicht
+  @Test
+  void replRelinksCallsAfterRedefinition() {
+    String[] inputs = {
+      "int twice(int x) { return abs(x) * 2; }",
+      "int abs(int x) { return 100; }",
+      "int twice(int x, int y) { return x + y; }",
+      "int main() { print_int(twice(-3)); print_int(twice(1, 2)); return 0; }"
+    };
+    for (boolean optimize : new boolean[] {false, true}) {
+      assertTrue(repl(Interpreter::new, optimize, inputs).endsWith("\n2003"));
+      assertTrue(repl(ClosureCompiler::new, optimize, inputs).endsWith("\n2003"));
+      assertTrue(repl(VM::new, optimize, inputs).endsWith("\n2003"));
+      assertTrue(repl(IrInterpreter::new, optimize, inputs).endsWith("\n2003"));
+    }
+  }
+
+  // Rekursion ist nur durch das Speicherbudget begrenzt, Endaufrufe brauchen gar keinen Stack
+  @Test
+  void treeWalkerRecursesBeyondJvmStack() {
+    String code =
+        "int down(int n) { if (n == 0) { return 0; } return 1 + down(n - 1); }\n"
+            + "int count(int n, int acc) { if (n == 0) { return acc; } return count(n - 1, acc +"
+            + " 1); }\n"
+            + "int main() { print_int(down(100000)); print_int(count(1000000, 0)); return 0; }";
+    // Die Analyse gibt vorher Signaturen aus
+    assertTrue(run(code, Interpreter::new).endsWith("1000001000000"));
+
+    Function<SymbolTable, Engine> small =
+        symbolTable -> {
+          Interpreter interpreter = new Interpreter(symbolTable);
+          interpreter.setStackBudget(64L * 1024 * 1024);
+          return interpreter;
+        };
+    assertTrue(run(code, small).contains("Fehler: Speicherbudget"));
+  }
+
+  // Stufe 1 und der ClosureCompiler laufen auf denselben Segmenten wie der Tree-Walker
+  @Test
+  void closureAndTieredRecurseBeyondJvmStack() {
+    String code =
+        "int down(int n) { if (n == 0) { return 0; } return 1 + down(n - 1); }\n"
+            + "class C { public: int down(int n) { if (n == 0) { return 0; } return 1 + down(n -"
+            + " 1); } };\n"
+            + "int main() { C c; print_int(down(300000)); print_int(c.down(300000)); return 0;"
+            + " }";
+    Function<SymbolTable, Engine> tiered =
+        symbolTable -> {
+          TieredInterpreter interpreter = new TieredInterpreter(symbolTable);
+          interpreter.setCallThreshold(1);
+          return interpreter;
+        };
+    assertTrue(run(code, ClosureCompiler::new).endsWith("300000300000"));
+    assertTrue(run(code, tiered).endsWith("300000300000"));
+
+    Function<SymbolTable, Engine> small =
+        symbolTable -> {
+          ClosureCompiler closure = new ClosureCompiler(symbolTable);
+          closure.setStackBudget(64L * 1024 * 1024);
+          return closure;
+        };
+    assertTrue(run(code, small).contains("Fehler: Speicherbudget"));
+    Function<SymbolTable, Engine> smallTiered =
+        symbolTable -> {
+          TieredInterpreter interpreter = new TieredInterpreter(symbolTable);
+          interpreter.setCallThreshold(1);
+          interpreter.setStackBudget(64L * 1024 * 1024);
+          return interpreter;
+        };
+    assertTrue(run(code, smallTiered).contains("Fehler: Speicherbudget"));
+  }
+
+  private static String run(String code, Function<SymbolTable, Engine> engine) {
+    return run(code, engine, false);
+  }
+
+  private static String run(String code, Function<SymbolTable, Engine> engine, boolean optimize) {
+    return repl(engine, optimize, code);
+  }
+
+  // Eingaben nacheinander mit derselben Symboltabelle und je einer neuen Engine, wie in der REPL
+  private static String repl(
+      Function<SymbolTable, Engine> engine, boolean optimize, String... inputs) {
+    PrintStream original = System.out;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(out, true));
+    try {
+      SymbolTable symbolTable = new SymbolTable();
+      for (String code : inputs) {
+        Program program = parse(code, symbolTable);
+        new SemanticAnalyzer(symbolTable).analyze(program);
+        if (optimize) {
+          new ConstantFolder().fold(program);
+          new DeadCodeEliminator(symbolTable).eliminate(program);
+        }
+        new Resolver(symbolTable).resolve(program);
+        if (optimize) {
+          new Inliner().inline(program);
+          new ConstantFolder().fold(program);
+          new LoopInvariantHoister().hoist(program);
+          new DeadStoreEliminator().eliminate(program);
+        }
+        engine.apply(symbolTable).execute(program);
+      }
+    } catch (RuntimeException e) {
+      System.out.print("Fehler: " + e.getMessage());
+    } finally {
+      System.setOut(original);
+    }
+    return out.toString();
+  }
+
+  // Zeilen des Kommentars /* EXPECT ...: ... */ aneinandergehängt, die print_*-Funktionen
+  // schreiben anders als in hsbi_runtime.h kein Zeilenende
+  private static String expectedOutput(String code) {
+    int start = code.indexOf("/* EXPECT");
+    assertTrue(start >= 0, "Kein EXPECT-Block");
+    int end = code.indexOf("*/", start);
+    return code.substring(code.indexOf('\n', start), end)
+        .lines()
+        .map(String::strip)
+        .collect(Collectors.joining());
+  }
+
+  // Ausgabe ohne die Meldungen der Analyse
+  private static String programOutput(String output) {
+    return output.lines().filter(line -> !line.startsWith("DEBUG ")).collect(Collectors.joining());
+  }
+
+  private static Program parse(String code, SymbolTable symbolTable) {
+    MiniCppParser parser =
+        new MiniCppParser(new CommonTokenStream(new MiniCppLexer(CharStreams.fromString(code))));
+    return (Program) new ASTBuilder(symbolTable.getNames()).visit(parser.program());
+  }
+}
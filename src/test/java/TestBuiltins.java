@@ -0,0 +1,21 @@
+import builtin.BuiltinProvider;
+import builtin.BuiltinRegistry;
+
+// Erweiterung nur für die Tests, eingetragen in META-INF/services/builtin.BuiltinProvider der
+// Testressourcen; BuiltinRegistry.getDefault() findet sie per ServiceLoader
+public final class TestBuiltins implements BuiltinProvider {
+  @Override
+  public void register(BuiltinRegistry registry) {
+    registry.registerPure("test_twice", TestBuiltins.class, "twice");
+    registry.register("test_print_pair", TestBuiltins.class, "printPair");
+  }
+
+  public static int twice(int value) {
+    return 2 * value;
+  }
+
+  public static void printPair(int number, char suffix) {
+    System.out.print(number);
+    System.out.print(suffix);
+  }
+}